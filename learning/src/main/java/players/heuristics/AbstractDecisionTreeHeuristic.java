@@ -1,22 +1,10 @@
 package players.heuristics;
 
-import com.globalmentor.apache.hadoop.fs.BareLocalFileSystem;
-import org.apache.hadoop.fs.FileSystem;
 import org.apache.spark.ml.regression.DecisionTreeRegressionModel;
-import org.apache.spark.sql.SparkSession;
+import players.learners.LocalSpark;
 
 public abstract class AbstractDecisionTreeHeuristic {
 
-    static SparkSession spark = SparkSession
-            .builder()
-            .appName("Java Spark SQL basic example")
-            //     .config("spark.driver.memory", "1g")
-            .master("local").getOrCreate();
-    static {
-        // And the hack to get this to work on Windows (without the Winutils.exe and hadoop.dll nightmare)
-        spark.sparkContext().hadoopConfiguration().setClass("fs.file.impl", BareLocalFileSystem.class, FileSystem.class);
-    }
-
     protected DecisionTreeRegressionModel drModel;
 
     public AbstractDecisionTreeHeuristic(DecisionTreeRegressionModel drModel) {
@@ -29,6 +17,7 @@ public abstract class AbstractDecisionTreeHeuristic {
             System.out.println("No directory specified for Decision Tree model");
             return;
         }
+        LocalSpark.session();  // loading a model needs an active session
         drModel = DecisionTreeRegressionModel.load(directory);
     }
 
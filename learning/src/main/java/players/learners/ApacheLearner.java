@@ -0,0 +1,72 @@
+package players.learners;
+
+import core.interfaces.IActionFeatureVector;
+import core.interfaces.IStateFeatureVector;
+import org.apache.spark.ml.linalg.SQLDataTypes;
+import org.apache.spark.ml.linalg.Vectors;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.Metadata;
+import org.apache.spark.sql.types.StructField;
+import org.apache.spark.sql.types.StructType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public abstract class ApacheLearner extends AbstractLearner {
+
+    public static int CHUNK_ROWS = 1 << 16;
+
+    Dataset<Row> apacheData;  // with columns "features" (a vector in the order of descriptions) and "target"
+    boolean debug = false;
+
+    public ApacheLearner() {
+        super();
+    }
+    public ApacheLearner(double gamma, Target target, IStateFeatureVector stateFeatureVector) {
+        super(gamma, target, stateFeatureVector);
+    }
+    public ApacheLearner(double gamma, Target target, IStateFeatureVector stateFeatureVector, IActionFeatureVector actionFeatureVector) {
+        super(gamma, target, stateFeatureVector, actionFeatureVector);
+    }
+
+
+    @Override
+    public Object learnFrom(String... files) {
+        loadData(files);
+        try {
+            StructType schema = new StructType(new StructField[]{
+                    new StructField("features", SQLDataTypes.VectorType(), false, Metadata.empty()),
+                    new StructField("target", DataTypes.DoubleType, false, Metadata.empty())
+            });
+            // Each row becomes a dense feature vector read from the columns of the data (the bias is added
+            // separately), plus the target; so no feature value is boxed. The rows are passed to Spark CHUNK_ROWS
+            // at a time, so that only one chunk of them is held as Row objects.
+            int rows = rows();
+            Dataset<Row> dataset = null;
+            for (int start = 0; start < rows || dataset == null; start += CHUNK_ROWS) {
+                int end = Math.min(rows, start + CHUNK_ROWS);
+                List<Row> chunk = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++)
+                    chunk.add(RowFactory.create(Vectors.dense(features(i)), target(i)));
+                Dataset<Row> part = LocalSpark.session().createDataFrame(chunk, schema);
+                dataset = dataset == null ? part : dataset.union(part);
+            }
+            apacheData = dataset;
+
+            if (debug)
+                apacheData.show(10);
+
+            return learnFromApacheData();
+        } finally {
+            // the data is needed until the model has been fitted
+            closeData();
+            apacheData = null;
+        }
+    }
+
+    abstract Object learnFromApacheData();
+
+}
@@ -2,7 +2,6 @@ package players.learners;
 
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.IStateFeatureVector;
-import org.apache.spark.ml.feature.RFormula;
 import org.apache.spark.ml.regression.DecisionTreeRegressionModel;
 import org.apache.spark.ml.regression.DecisionTreeRegressor;
 import org.apache.spark.sql.Dataset;
@@ -53,12 +52,7 @@ public class DecisionTreeLearner extends ApacheLearner {
     @Override
     public Object learnFromApacheData() {
 
-        RFormula formula = new RFormula()
-                .setFormula("target ~ " + String.join(" + ", descriptions))
-                .setFeaturesCol("features")
-                .setLabelCol("target");
-
-        Dataset<Row> training = formula.fit(apacheData).transform(apacheData).select("features", "target");
+        Dataset<Row> training = apacheData;
 
         if (debug)
             training.show(10);
@@ -0,0 +1,34 @@
+package players.learners;
+
+import com.globalmentor.apache.hadoop.fs.BareLocalFileSystem;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.spark.sql.SparkSession;
+
+/**
+ * The local SparkSession used to train models, and to load them from disk.
+ * <p>
+ * Starting Spark takes several seconds and a few hundred MB of heap, so this is only done the first time session()
+ * is called, and not when the classes that use it are loaded (which can happen just from reading an agent's JSON).
+ */
+public class LocalSpark {
+
+    private LocalSpark() {
+    }
+
+    // initialised by the JVM on first use of Holder, which is thread-safe without any locking
+    private static class Holder {
+        static final SparkSession SESSION = SparkSession
+                .builder()
+                .appName("TAG")
+                .master("local").getOrCreate();
+
+        static {
+            // And the hack to get this to work on Windows (without the Winutils.exe and hadoop.dll nightmare)
+            SESSION.sparkContext().hadoopConfiguration().setClass("fs.file.impl", BareLocalFileSystem.class, FileSystem.class);
+        }
+    }
+
+    public static SparkSession session() {
+        return Holder.SESSION;
+    }
+}
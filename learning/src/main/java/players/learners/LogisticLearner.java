@@ -2,7 +2,6 @@ package players.learners;
 
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.IStateFeatureVector;
-import org.apache.spark.ml.feature.RFormula;
 import org.apache.spark.ml.regression.GeneralizedLinearRegression;
 import org.apache.spark.ml.regression.GeneralizedLinearRegressionModel;
 import org.apache.spark.sql.AnalysisException;
@@ -52,12 +51,7 @@ public class LogisticLearner extends ApacheLearner {
     @Override
     public Object learnFromApacheData() {
 
-        RFormula formula = new RFormula()
-                .setFormula("target ~ " + String.join(" + ", descriptions))
-                .setFeaturesCol("features")
-                .setLabelCol("target");
-
-        Dataset<Row> training = formula.fit(apacheData).transform(apacheData).select("features", "target");
+        Dataset<Row> training = apacheData;
 
         if (debug)
             training.show(10);
@@ -78,15 +72,25 @@ public class LogisticLearner extends ApacheLearner {
 
         if (this.actionFeatureVector == null) {
             LogisticStateHeuristic retValue = new LogisticStateHeuristic(stateFeatureVector, coefficients, new WinOnlyHeuristic());
-            retValue.setModel(lrModel);
+            retValue.setCoefficients(lrModel.intercept(), lrModel.coefficients().toArray());
             return retValue;
         } else {
             LogisticActionHeuristic retValue = new LogisticActionHeuristic(actionFeatureVector, stateFeatureVector, coefficients);
-            retValue.setModel(lrModel);
+            retValue.setCoefficients(lrModel.intercept(), lrModel.coefficients().toArray());
             return retValue;
         }
     }
 
+    @Override
+    protected boolean isLogistic() {
+        return true;
+    }
+
+    @Override
+    protected double regularisation() {
+        return regParam;
+    }
+
     @Override
     public String name() {
         return "Logistic";
@@ -3,7 +3,6 @@ package players.learners;
 
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.IStateFeatureVector;
-import org.apache.spark.ml.feature.RFormula;
 import org.apache.spark.ml.regression.GeneralizedLinearRegression;
 import org.apache.spark.ml.regression.GeneralizedLinearRegressionModel;
 import org.apache.spark.sql.Dataset;
@@ -45,12 +44,7 @@ public class OLSLearner extends ApacheLearner {
     @Override
     Object learnFromApacheData() {
 
-        RFormula formula = new RFormula()
-                .setFormula("target ~ " + String.join(" + ", descriptions))
-                .setFeaturesCol("features")
-                .setLabelCol("target");
-
-        Dataset<Row> training = formula.fit(apacheData).transform(apacheData).select("features", "target");
+        Dataset<Row> training = apacheData;
 
         if (debug)
             training.show(10);
@@ -87,16 +81,21 @@ public class OLSLearner extends ApacheLearner {
                         case SCORE_DELTA -> new LeaderHeuristic();
                         default -> new WinOnlyHeuristic();
                     });
-            retValue.setModel(lrModel);
+            retValue.setCoefficients(lrModel.intercept(), lrModel.coefficients().toArray());
             return retValue;
         } else {
             // return the learned OLS heuristic
             LinearActionHeuristic retValue = new LinearActionHeuristic(actionFeatureVector, stateFeatureVector, coefficients);
-            retValue.setModel(lrModel);
+            retValue.setCoefficients(lrModel.intercept(), lrModel.coefficients().toArray());
             return retValue;
         }
     }
 
+    @Override
+    protected double regularisation() {
+        return regParam;
+    }
+
     @Override
     public String name() {
         return "OLS";
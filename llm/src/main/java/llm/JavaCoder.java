@@ -2,6 +2,7 @@ package llm;
 
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.interfaces.IHasStateHeuristic;
 import evaluation.RunArg;
 import evaluation.tournaments.RoundRobinTournament;
 import games.GameType;
@@ -0,0 +1,16 @@
+package llm;
+
+import core.interfaces.IRuleSummariser;
+
+/**
+ * Provides GameType.loadRulebook() with summaries from a DocumentSummariser. This is registered as a service in
+ * META-INF/services.
+ */
+public class RulebookSummariser implements IRuleSummariser {
+
+    @Override
+    public String summarise(String rulebookPath) {
+        DocumentSummariser summariser = new DocumentSummariser(rulebookPath);
+        return summariser.processText("game rules and strategy", 500);
+    }
+}
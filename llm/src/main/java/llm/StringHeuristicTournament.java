@@ -1,6 +1,7 @@
 package llm;
 
 import core.AbstractPlayer;
+import core.interfaces.IHasStateHeuristic;
 import evaluation.RunArg;
 import evaluation.listeners.IGameListener;
 import evaluation.tournaments.RoundRobinTournament;
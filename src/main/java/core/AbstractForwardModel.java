@@ -8,6 +8,7 @@ import utilities.ActionTreeNode;
 import utilities.ElapsedCpuChessTimer;
 
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.IntStream;
 
 import static core.CoreConstants.GameResult.*;
@@ -23,6 +24,12 @@ public abstract class AbstractForwardModel {
     // in the main game loop.
     protected List<IPlayerDecorator> decorators;
     protected int decisionPlayerID;
+    // for profiling the cache of available actions (see computeAvailableActions())
+    private final LongAdder actionCacheHits = new LongAdder();
+    private final LongAdder actionCacheMisses = new LongAdder();
+    // for profiling sampleRandomAction()
+    private final LongAdder directSamples = new LongAdder();
+    private final LongAdder enumeratedSamples = new LongAdder();
 
     /* Limited access/Final methods */
 
@@ -54,6 +61,8 @@ public abstract class AbstractForwardModel {
 
         _setup(firstState);
         firstState.addAllComponents();
+        if (firstState.coreGameParameters.copyOnWrite)
+            firstState.setCopyOnWrite(true);
     }
 
     /* Methods to be implemented by subclasses, unavailable to AI players */
@@ -93,6 +102,20 @@ public abstract class AbstractForwardModel {
         return _computeAvailableActions(gameState);
     }
 
+    /**
+     * Optionally picks one of the available actions uniformly at random, without enumerating them all (for example
+     * by rejection sampling over a superset of the actions).
+     * The action must be drawn from the same distribution as a uniform choice from the list that
+     * _computeAvailableActions() would return for the action space, and be equal to the corresponding member of it.
+     * This is never called while an action is in progress (see IExtendedSequence).
+     *
+     * @return - the action, or null if the game does not support sampling in this state or action space (or gives up),
+     * in which case all the actions are computed and one picked from them.
+     */
+    protected AbstractAction _sampleRandomAction(AbstractGameState gameState, ActionSpace actionSpace, Random rnd) {
+        return null;
+    }
+
     protected abstract void endPlayerTurn(AbstractGameState state);
 
     /**
@@ -134,6 +157,7 @@ public abstract class AbstractForwardModel {
     public final void setup(AbstractGameState gameState) {
         gameState.reset();
         abstractSetup(gameState);
+        gameState.clearAvailableActions();
     }
 
     /**
@@ -143,19 +167,80 @@ public abstract class AbstractForwardModel {
      * @param action       - action requested to be played by a player.
      */
     public final void next(AbstractGameState currentState, AbstractAction action) {
-        if (action != null) {
-            int player = currentState.getCurrentPlayer();
-            currentState.recordAction(action, player);
-            _next(currentState, action);
-        } else {
-            if (currentState.coreGameParameters.verbose) {
-                System.out.println("Invalid action.");
+        currentState.clearAvailableActions();
+        currentState.nextDepth++;
+        try {
+            if (action != null) {
+                int player = currentState.getCurrentPlayer();
+                currentState.recordAction(action, player);
+                _next(currentState, action);
+            } else {
+                if (currentState.coreGameParameters.verbose) {
+                    System.out.println("Invalid action.");
+                }
+                illegalActionPlayed(currentState, action);
             }
-            illegalActionPlayed(currentState, action);
+        } finally {
+            currentState.nextDepth--;
         }
         currentState.advanceGameTick();
     }
 
+    /**
+     * Applies the given action exactly as next() does, but first records in the state's UndoJournal how to reverse
+     * it, so that undo() can restore the state afterwards. This lets depth-first search (e.g. MaxNSearchPlayer) make
+     * and unmake moves on a single state instead of copying it before every next().
+     * Only available where supportsUndo() is true for the state.
+     *
+     * @param currentState - current game state, to be modified by the action.
+     * @param action       - action requested to be played by a player.
+     */
+    public final void nextWithUndo(AbstractGameState currentState, AbstractAction action) {
+        if (action == null || !supportsUndo(currentState))
+            throw new AssertionError("nextWithUndo() is not supported by " + getClass().getSimpleName()
+                    + (action == null ? " for a null action" : " in this state"));
+        if (currentState.undoJournal == null)
+            currentState.undoJournal = new UndoJournal();
+        currentState.undoJournal.begin(currentState);
+        _recordUndo(currentState, action, currentState.undoJournal);
+        next(currentState, action);
+    }
+
+    /**
+     * Reverses the most recent nextWithUndo() on the state (that has not already been undone).
+     *
+     * @param currentState - the game state to restore
+     */
+    public final void undo(AbstractGameState currentState) {
+        if (currentState.undoJournal == null)
+            throw new AssertionError("There is no next() to undo");
+        currentState.undoJournal.rollback(currentState);
+        currentState.clearAvailableActions();
+    }
+
+    /**
+     * Games that can record the changes made by an action (see _recordUndo()) override this to return true.
+     *
+     * @param gameState - the state that nextWithUndo() would be called on
+     * @return true if nextWithUndo() and undo() can be used on this state
+     */
+    public boolean supportsUndo(AbstractGameState gameState) {
+        return false;
+    }
+
+    /**
+     * Called by nextWithUndo() just before the action is applied. This must record in the journal how to reverse
+     * every game-specific change that next() is about to make to the state; changes to the core state in
+     * AbstractGameState (counters, game phase, results, history) are undone automatically.
+     *
+     * @param gameState - the state the action is about to be applied to
+     * @param action    - the action about to be applied
+     * @param journal   - to record the reverse operations in
+     */
+    protected void _recordUndo(AbstractGameState gameState, AbstractAction action, UndoJournal journal) {
+        throw new AssertionError("_recordUndo() needs to be implemented by " + getClass().getSimpleName());
+    }
+
     /**
      * Computes the available actions and updates the game state accordingly.
      *
@@ -166,15 +251,34 @@ public abstract class AbstractForwardModel {
         return computeAvailableActions(gameState, gameState.coreGameParameters.actionSpace);
     }
 
+    /**
+     * As computeAvailableActions(gameState), but for a specific action space.
+     * <p>
+     * If CoreParameters.cacheAvailableActions is true, then the result (before any decorators are applied) is kept on
+     * the state, and returned again (as a new list) if this is called again for the same action space before the state
+     * is changed by next(). This also applies to any copy() of the state (see AbstractGameState.copyIsExact()).
+     * The same action instances are returned each time, so callers must copy() an action before applying it
+     * (as Game and the search agents do). The cache is not used while next() is in progress.
+     */
     public final List<AbstractAction> computeAvailableActions(AbstractGameState gameState, ActionSpace actionSpace) {
-        // If there is an action in progress (see IExtendedSequence), then delegate to that
         List<AbstractAction> retValue;
-        if (gameState.isActionInProgress()) {
-            retValue = gameState.actionsInProgress.peek()._computeAvailableActions(gameState, actionSpace);
-        } else if (actionSpace != null && !actionSpace.isDefault()) {
-            retValue = _computeAvailableActions(gameState, actionSpace);
+        boolean useCache = gameState.coreGameParameters.cacheAvailableActions && gameState.nextDepth == 0;
+        if (useCache && hasCachedActions(gameState, actionSpace)) {
+            actionCacheHits.increment();
+            retValue = new ArrayList<>(gameState.availableActions);
         } else {
-            retValue = _computeAvailableActions(gameState);
+            // If there is an action in progress (see IExtendedSequence), then delegate to that
+            if (gameState.isActionInProgress()) {
+                retValue = gameState.actionsInProgress.peek()._computeAvailableActions(gameState, actionSpace);
+            } else if (actionSpace != null && !actionSpace.isDefault()) {
+                retValue = _computeAvailableActions(gameState, actionSpace);
+            } else {
+                retValue = _computeAvailableActions(gameState);
+            }
+            if (useCache) {
+                actionCacheMisses.increment();
+                storeAvailableActions(gameState, actionSpace, gameState.getGameTick(), retValue);
+            }
         }
 
         // Then apply Decorators regardless of source of actions
@@ -186,6 +290,45 @@ public abstract class AbstractForwardModel {
         return retValue;
     }
 
+    private boolean hasCachedActions(AbstractGameState gameState, ActionSpace actionSpace) {
+        return gameState.availableActions != null && gameState.availableActionsTick == gameState.getGameTick()
+                && Objects.equals(gameState.availableActionsSpace, actionSpace);
+    }
+
+    /**
+     * Picks one of the actions available in the state uniformly at random. This is the same as picking a random member
+     * of computeAvailableActions(gameState, actionSpace), but games can avoid enumerating all the actions by
+     * implementing _sampleRandomAction(). The game's sampler is only used when there are no decorators, no action is
+     * in progress, and the actions are not already cached on the state; otherwise (or if the game does not sample in
+     * this state) this falls back to computeAvailableActions().
+     * <p>
+     * As with a single call to rnd.nextInt(), the action is not copied, and must be copied before it is applied to a
+     * state other than this one.
+     *
+     * @return - the action, or null if there are no actions available
+     */
+    public final AbstractAction sampleRandomAction(AbstractGameState gameState, ActionSpace actionSpace, Random rnd) {
+        boolean useCache = gameState.coreGameParameters.cacheAvailableActions && gameState.nextDepth == 0;
+        if (decorators.isEmpty() && !gameState.isActionInProgress() && !(useCache && hasCachedActions(gameState, actionSpace))) {
+            AbstractAction retValue = _sampleRandomAction(gameState, actionSpace, rnd);
+            if (retValue != null) {
+                directSamples.increment();
+                return retValue;
+            }
+        }
+        enumeratedSamples.increment();
+        List<AbstractAction> actions = computeAvailableActions(gameState, actionSpace);
+        return switch (actions.size()) {
+            case 0 -> null;
+            case 1 -> actions.get(0);
+            default -> actions.get(rnd.nextInt(actions.size()));
+        };
+    }
+
+    public final AbstractAction sampleRandomAction(AbstractGameState gameState, Random rnd) {
+        return sampleRandomAction(gameState, gameState.coreGameParameters.actionSpace, rnd);
+    }
+
     /**
      * Performs any end of game computations, as needed.
      * This should not normally need to be overriden - but can be. For example if a game is purely co-operative
@@ -210,6 +353,57 @@ public abstract class AbstractForwardModel {
         }
     }
 
+    /**
+     * For games that compute the actions available in the new state as part of _next() (for example, to check
+     * if the game has ended). If this is called as the very last step of _next(), then the actions are kept (if
+     * CoreParameters.cacheAvailableActions is true) so that they do not need to be computed again afterwards.
+     *
+     * @param gameState - the state at the end of _next()
+     * @param actions   - the result of computeAvailableActions(gameState)
+     */
+    protected final void keepAvailableActions(AbstractGameState gameState, List<AbstractAction> actions) {
+        // we can only keep the list if it has not been changed by any decorators
+        if (!gameState.coreGameParameters.cacheAvailableActions || !decorators.isEmpty() || gameState.nextDepth != 1)
+            return;
+        // next() advances the tick after _next() has finished
+        storeAvailableActions(gameState, gameState.coreGameParameters.actionSpace, gameState.getGameTick() + 1, actions);
+    }
+
+    private void storeAvailableActions(AbstractGameState gameState, ActionSpace actionSpace, int tick, List<AbstractAction> actions) {
+        gameState.availableActions = List.copyOf(actions);
+        gameState.availableActionsSpace = actionSpace;
+        gameState.availableActionsTick = tick;
+    }
+
+    /**
+     * The number of calls to computeAvailableActions() that returned the actions cached on the state
+     * (only counted when CoreParameters.cacheAvailableActions is true)
+     */
+    public long getActionCacheHits() {
+        return actionCacheHits.sum();
+    }
+
+    /**
+     * The number of calls to computeAvailableActions() that had to compute the actions, and then cached them
+     */
+    public long getActionCacheMisses() {
+        return actionCacheMisses.sum();
+    }
+
+    /**
+     * The number of calls to sampleRandomAction() that were answered by the game's _sampleRandomAction()
+     */
+    public long getDirectSamples() {
+        return directSamples.sum();
+    }
+
+    /**
+     * The number of calls to sampleRandomAction() that had to compute all the available actions
+     */
+    public long getEnumeratedSamples() {
+        return enumeratedSamples.sum();
+    }
+
     public void addPlayerDecorator(IPlayerDecorator decorator) {
         decorators.add(decorator);
     }
@@ -1,19 +1,23 @@
 package core;
 
 import core.actions.AbstractAction;
+import core.actions.ActionSpace;
 import core.actions.LogEvent;
 import core.components.Area;
 import core.components.Component;
 import core.components.PartialObservableDeck;
 import core.interfaces.IComponentContainer;
+import core.interfaces.ICopyOnWrite;
 import core.interfaces.IExtendedSequence;
 import core.interfaces.IGameEvent;
 import core.interfaces.IGamePhase;
+import core.interfaces.IZobristHash;
 import evaluation.listeners.IGameListener;
 import evaluation.metrics.Event;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
 import utilities.Pair;
+import utilities.Zobrist;
 
 import java.util.*;
 import java.util.function.BiFunction;
@@ -39,6 +43,12 @@ public abstract class AbstractGameState {
     // Game being played
     protected final GameType gameType = _getGameType();
     private Area allComponents;
+    // With copy-on-write, the container each component in allComponents was found in, if that supports copy-on-write
+    // (keyed on componentID); this is created when first needed
+    private Map<Integer, ComponentSource> componentSources;
+
+    private record ComponentSource(int containerID, ICopyOnWrite container, int storageVersion) {
+    }
 
     // Game tick, number of iterations of game loop
     private int tick = 0;
@@ -72,6 +82,14 @@ public abstract class AbstractGameState {
     // redeterminisationRnd is used for redeterminisation only - this is to ensure that the main game is not affected
     // this is not initialised from any seed, as redeterminisation is used to hide data from players and cannot affect the game itself
     protected Random redeterminisationRnd = new Random();
+    // Changes made by AbstractForwardModel.nextWithUndo(), which can be reversed with undo(); this is never copied
+    UndoJournal undoJournal;
+    // The last (undecorated) result of AbstractForwardModel.computeAvailableActions(), if
+    // coreGameParameters.cacheAvailableActions is true. This is valid only for the tick and action space recorded.
+    List<AbstractAction> availableActions;
+    ActionSpace availableActionsSpace;
+    int availableActionsTick = -1;
+    int nextDepth;  // > 0 while the forward model is in next(); the cache is not used during this
 
     /**
      * @param gameParameters - game parameters.
@@ -104,6 +122,7 @@ public abstract class AbstractGameState {
         firstPlayer = 0;
         actionsInProgress.clear();
         rnd = new Random(gameParameters.randomSeed);
+        clearAvailableActions();
     }
 
     /**
@@ -249,9 +268,43 @@ public abstract class AbstractGameState {
             } catch (Exception ignored) {
             }  // Can crash from concurrent modifications if running with GUI TODO: this is an ugly fix
         }
+        if (c != null && componentSources != null && !componentSources.isEmpty())
+            c = currentComponent(id, c);
         return c;
     }
 
+    /**
+     * With copy-on-write, a component found in allComponents may belong to a container that still shares it with
+     * another game state, or that has changed since (replacing it with a private copy, or moving it elsewhere).
+     * In either case the container is unshared (after doing the same for the container itself), and its contents are
+     * looked up again; or all components are if it is no longer there. This repeats for the container the component
+     * is then found in, until that is one it can be changed in.
+     */
+    private Component currentComponent(int id, Component c) {
+        ComponentSource source = componentSources.get(id);
+        while (c != null && source != null && !isCurrent(source)) {
+            Component container = currentComponent(source.containerID, allComponents.getComponent(source.containerID));
+            if (container instanceof ICopyOnWrite cow)
+                cow.unshare();
+            addComponent(container);
+            if (componentSources.get(id) == source) {
+                // no longer in that container, so it has moved since allComponents was last filled
+                addAllComponents();
+            }
+            c = allComponents.getComponent(id);
+            source = componentSources.get(id);
+        }
+        return c;
+    }
+
+    private boolean isCurrent(ComponentSource source) {
+        if (source.container.isShared() || source.container.getStorageVersion() != source.storageVersion
+                || allComponents.getComponent(source.containerID) != source.container)
+            return false;
+        ComponentSource containerSource = componentSources.get(source.containerID);
+        return containerSource == null || isCurrent(containerSource);
+    }
+
     public final Area getAllComponents() {
         addAllComponents(); // otherwise the list of allComponents is only ever updated when we copy the state!
         return allComponents;
@@ -268,12 +321,55 @@ public abstract class AbstractGameState {
         return _getAllComponents();
     }
 
+    /**
+     * Switches copy-on-write on (or off) for every component container in the state that supports it (Deck,
+     * PartialObservableDeck, GridBoard, Counter and Area - see ICopyOnWrite). Copies of the state then share the storage
+     * of these containers until they are changed, and inherit the setting.
+     * Only containers reachable from _getAllComponents() are affected.
+     *
+     * @param copyOnWrite - true to switch copy-on-write on
+     */
+    public final void setCopyOnWrite(boolean copyOnWrite) {
+        for (Component c : getAllComponents().getComponents()) {
+            if (c instanceof ICopyOnWrite container)
+                container.setCopyOnWrite(copyOnWrite);
+        }
+        addAllComponents();  // to record which components are in copy-on-write containers
+    }
+
     /**
      * Adds all components given by the game to the allComponents map in the correct way, first clearing the map.
      */
     protected final void addAllComponents() {
         allComponents.clear();
-        allComponents.putComponents(_getAllComponents());
+        if (componentSources != null)
+            componentSources.clear();
+        for (Component c : _getAllComponents())
+            addComponent(c);
+    }
+
+    /**
+     * Adds a component to allComponents, along with everything nested inside it. This reads containers with
+     * forEachComponent(), so that it does not unshare any copy-on-write storage, but instead records where the
+     * components were found for getComponentById().
+     */
+    private void addComponent(Component c) {
+        if (c == null) return;
+        allComponents.putComponent(c.getComponentID(), c);
+        if (c instanceof IComponentContainer<?> container) {
+            ICopyOnWrite source = c instanceof ICopyOnWrite cow && cow.isCopyOnWrite() ? cow : null;
+            if (source != null && componentSources == null)
+                componentSources = new HashMap<>();
+            container.forEachComponent(nested -> {
+                if (nested == null) return;
+                if (source != null)
+                    componentSources.put(nested.getComponentID(),
+                            new ComponentSource(c.getComponentID(), source, source.getStorageVersion()));
+                else if (componentSources != null)
+                    componentSources.remove(nested.getComponentID());
+                addComponent(nested);
+            });
+        }
     }
 
     /**
@@ -334,11 +430,41 @@ public abstract class AbstractGameState {
             s.playerTimer[i] = playerTimer[i].copy();
         }
 
-        // Update the list of components for ID matching in actions.
-        s.addAllComponents();
+        // the cached actions are still valid if nothing has been hidden or redeterminised (the list is immutable)
+        if (availableActions != null && copyIsExact(playerId)) {
+            s.availableActions = availableActions;
+            s.availableActionsSpace = availableActionsSpace;
+            s.availableActionsTick = availableActionsTick;
+        }
+
+        // The list of components for ID matching in actions is built lazily, on the first call to getComponentById()
+        // (many copies made during search never need it)
         return s;
     }
 
+    /**
+     * Whether copy(playerId) gives a state that is identical to this one, with nothing hidden or redeterminised.
+     * This is always the case for copy() (playerId of -1). Games with no hidden information can override this to
+     * return true for all players, so that any cached available actions (see CoreParameters.cacheAvailableActions)
+     * are kept by the copies used as player observations.
+     *
+     * @param playerId - player observing the state (or -1 for a full copy)
+     * @return - true if the copy is exact
+     */
+    protected boolean copyIsExact(int playerId) {
+        return playerId == -1;
+    }
+
+    /**
+     * Removes any cached result of computeAvailableActions(). This is done automatically by the forward model's
+     * setup() and next(), but must also be called by anything else that changes the state.
+     */
+    public final void clearAvailableActions() {
+        availableActions = null;
+        availableActionsSpace = null;
+        availableActionsTick = -1;
+    }
+
     /**
      * Used by ForwardModel.next() to log history (very useful for debugging)
      *
@@ -349,6 +475,25 @@ public abstract class AbstractGameState {
         historyText.add("Player " + player + " : " + action.getString(this));
     }
 
+    final int getHistorySize() {
+        return history.size();
+    }
+
+    final int getHistoryTextSize() {
+        return historyText.size();
+    }
+
+    /**
+     * Used by UndoJournal to put back the game tick, and remove the history recorded since
+     */
+    final void rewind(int tick, int historySize, int historyTextSize) {
+        this.tick = tick;
+        if (history.size() > historySize)
+            history.subList(historySize, history.size()).clear();
+        if (historyText.size() > historyTextSize)
+            historyText.subList(historyTextSize, historyText.size()).clear();
+    }
+
 
     // helper function to avoid time-consuming string manipulations if the message is not actually
     // going to be logged anywhere
@@ -676,12 +821,81 @@ public abstract class AbstractGameState {
      */
     @Override
     public int hashCode() {
+        return 31 * corePositionHash() + tick;
+    }
+
+    /**
+     * The hash of the state held in this class, as used by hashCode(), but without the game tick.
+     * Games that override _positionHash() start from this, where their hashCode() starts from super.hashCode().
+     */
+    protected final int corePositionHash() {
         int result = Objects.hash(gameParameters, gameStatus, gamePhase, actionsInProgress);
-        result = 31 * result + Objects.hash(tick, nPlayers, roundCounter, turnCounter, turnOwner, firstPlayer);
+        result = 31 * result + Objects.hash(nPlayers, roundCounter, turnCounter, turnOwner, firstPlayer);
         result = 31 * result + Arrays.hashCode(playerResults);
         return result;
     }
 
+    /**
+     * A hash of the state without the game tick, so that (as for getZobristHash()) the same position reached by
+     * different routes has the same value. This is used to check for collisions between transposition keys, and as
+     * part of the default _getZobristHash(). See _positionHash().
+     */
+    public final int positionHashCode() {
+        return _positionHash();
+    }
+
+    /**
+     * The hash returned by positionHashCode(). Games override this to hash the same state as their hashCode(), but
+     * starting from corePositionHash() rather than super.hashCode(), so that the tick is left out.
+     * The default is hashCode(), which includes the tick. For games that do not override this, positions reached
+     * in a different number of ticks therefore have different position hashes.
+     */
+    protected int _positionHash() {
+        return hashCode();
+    }
+
+    /**
+     * A 64-bit Zobrist-style hash of the state, for use as a transposition key in search (see ZobristStateKey).
+     * Unlike hashCode() this excludes the game tick, so that the same position reached by different routes has
+     * the same hash.
+     * <p>
+     * The core state (turn and round counters, turn owner, phase, results and the action in progress) is hashed
+     * here, which is O(nPlayers). The rest comes from _getZobristHash().
+     *
+     * @return the hash of the current state
+     */
+    public final long getZobristHash() {
+        long hash = Zobrist.key(-2, turnOwner) ^ Zobrist.key(-3, turnCounter) ^ Zobrist.key(-4, roundCounter)
+                ^ Zobrist.key(-5, firstPlayer) ^ Zobrist.key(-6, gameStatus == null ? -1 : gameStatus.ordinal())
+                ^ Zobrist.key(-7, gamePhase instanceof Enum<?> e ? e.ordinal() : Objects.hashCode(gamePhase))
+                ^ Zobrist.key(-8, actionsInProgress.size());
+        if (!actionsInProgress.isEmpty())
+            hash ^= Zobrist.key(-9, actionsInProgress.peek().hashCode());
+        for (int p = 0; p < playerResults.length; p++)
+            hash ^= Zobrist.key(-10 - p, playerResults[p] == null ? -1 : playerResults[p].ordinal());
+        return hash ^ _getZobristHash();
+    }
+
+    /**
+     * The game-specific part of getZobristHash(). By default this combines the hashes of the top-level components
+     * (from _getAllComponents()) that implement IZobristHash, such as GridBoard and Deck, with positionHashCode().
+     * This is not incremental: positionHashCode() hashes the whole state on every call, so this costs as much as
+     * hashCode(). Unless the game also overrides _positionHash(), it includes the tick as well.
+     * Games override this to return a hash they maintain themselves, which makes getZobristHash() O(1). This must
+     * then cover all the state that distinguishes one position from another. At present only TicTacToe, Connect4
+     * and DotsAndBoxes do so; every other game uses this default.
+     *
+     * @return the hash of the game-specific state
+     */
+    protected long _getZobristHash() {
+        long hash = Zobrist.key(Long.MIN_VALUE, positionHashCode());
+        for (Component c : _getAllComponents()) {
+            if (c instanceof IZobristHash z)
+                hash ^= Zobrist.key(c.getComponentID(), z.getZobristHash());
+        }
+        return hash;
+    }
+
     /**
      * HashCodeArray compiles all necessary hash codes for each individual game state.
      * Override as necessary for each game state.
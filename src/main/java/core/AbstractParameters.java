@@ -1,5 +1,6 @@
 package core;
 
+import core.actions.ActionCache;
 import core.interfaces.IStateHeuristic;
 import core.interfaces.ITunableParameters;
 import evaluation.optimisation.TunableParameters;
@@ -26,6 +27,9 @@ public abstract class AbstractParameters {
     // Increment in seconds, added after a custom milestone (to be added manually in game implementation). Default 0.
     long incrementMilestoneS = 0;
 
+    // Canonical action instances for games that opt in to this (shared with all copies of these parameters)
+    private transient volatile ActionCache actionCache;
+
 
     public AbstractParameters() {
         this.setRandomSeed(System.currentTimeMillis());
@@ -64,6 +68,25 @@ public abstract class AbstractParameters {
         this.randomSeed = randomSeed;
     }
 
+    /**
+     * The cache of immutable actions for this game type. This is shared with any copy() of the parameters,
+     * as game states copy their parameters. (Equal immutable actions are interchangeable, so this is safe even if
+     * the copy is then changed.)
+     *
+     * @return - the action cache, created the first time this is called
+     */
+    public ActionCache getActionCache() {
+        ActionCache retValue = actionCache;
+        if (retValue == null) {
+            synchronized (this) {
+                if (actionCache == null)
+                    actionCache = new ActionCache();
+                retValue = actionCache;
+            }
+        }
+        return retValue;
+    }
+
     public void setThinkingTimeMins(long thinkingTimeMins) {
         this.thinkingTimeMins = thinkingTimeMins;
     }
@@ -148,6 +171,7 @@ public abstract class AbstractParameters {
     public AbstractParameters copy() {
         AbstractParameters copy = _copy();
         copy.randomSeed = System.currentTimeMillis();
+        copy.actionCache = getActionCache();
         return copy;
     }
 
@@ -1,6 +1,7 @@
 package core;
 
 import core.actions.AbstractAction;
+import core.actions.ActionSpace;
 import core.interfaces.IPlayerDecorator;
 import evaluation.metrics.Event;
 import players.PlayerParameters;
@@ -70,6 +71,30 @@ public abstract class AbstractPlayer {
 
     }
 
+    /**
+     * As getAction(gameState, forwardModel.computeAvailableActions(gameState, actionSpace)), for use in rollouts.
+     * If this player picks uniformly at random (see choosesUniformly()) and has no decorators, then the action is
+     * instead sampled with AbstractForwardModel.sampleRandomAction(), which games can implement without computing
+     * all the available actions.
+     */
+    public final AbstractAction getAction(AbstractGameState gameState, AbstractForwardModel forwardModel, ActionSpace actionSpace) {
+        if (!choosesUniformly() || !decorators.isEmpty())
+            return getAction(gameState, forwardModel.computeAvailableActions(gameState, actionSpace));
+        gameState.rnd = this.rnd;
+        AbstractAction action = forwardModel.sampleRandomAction(gameState, actionSpace, rnd);
+        if (action == null)
+            throw new AssertionError("No actions available for player " + this);
+        return action;
+    }
+
+    /**
+     * @return true if _getAction() just picks one of the actions uniformly at random using rnd, so that
+     * getAction(gameState, forwardModel, actionSpace) can sample the action directly.
+     */
+    public boolean choosesUniformly() {
+        return false;
+    }
+
     /**
      * Sets the forward model for the current environment.
      * This is used by Game, and also when an AbstractPlayer is a component of another agent
@@ -246,11 +246,17 @@ public class Game {
                 // Allow player to initialize
                 player.initializePlayer(observation);
             }
-        int gameID = idFountain.incrementAndGet();
-        gameState.setGameID(gameID);
+        gameState.setGameID(nextGameID());
         resetStats();
     }
 
+    /**
+     * @return a new game ID, unique in this process
+     */
+    public static int nextGameID() {
+        return idFountain.incrementAndGet();
+    }
+
     /**
      * All timers and game tick set to 0.
      */
@@ -516,10 +522,39 @@ public class Game {
             System.out.println("Game Over");
         }
 
-        // Allow players to terminate
-        for (AbstractPlayer player : players) {
-            player.finalizePlayer(gameState.copy(player.getPlayerID()));
+        // Allow players to terminate (there are none when replaying a recorded game)
+        if (players != null)
+            for (AbstractPlayer player : players) {
+                player.finalizePlayer(gameState.copy(player.getPlayerID()));
+            }
+    }
+
+    /**
+     * Replays a recorded game from the current (freshly reset) state, without asking any players for decisions.
+     * Each entry in actionIndices is the index of the action taken in forwardModel.computeAvailableActions(), as
+     * written by ReplayRecorder. Listeners receive the same ABOUT_TO_START, ACTION_CHOSEN, ACTION_TAKEN and GAME_OVER
+     * events that run() publishes, so metrics and feature vectors can be computed for archived games.
+     *
+     * @param actionIndices - index of the action taken at each decision, in order
+     */
+    public final void replay(int[] actionIndices) {
+        listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ABOUT_TO_START, gameState)));
+        for (int i = 0; i < actionIndices.length; i++) {
+            if (!gameState.isNotTerminal())
+                throw new AssertionError("Game is over after " + i + " of " + actionIndices.length + " recorded decisions");
+            int activePlayer = gameState.getCurrentPlayer();
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(gameState);
+            if (actionIndices[i] >= actions.size())
+                throw new AssertionError("Recorded action " + actionIndices[i] + " at decision " + i + " is not valid; only "
+                        + actions.size() + " actions are available");
+            AbstractAction action = actions.get(actionIndices[i]);
+            listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_CHOSEN, gameState, action, activePlayer)));
+            forwardModel.next(gameState, action.copy());
+            listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_TAKEN, gameState, action.copy(), activePlayer)));
         }
+        if (gameState.isNotTerminal())
+            throw new AssertionError("Game is not over after all " + actionIndices.length + " recorded decisions");
+        terminate();
     }
 
     /**
@@ -0,0 +1,80 @@
+package core;
+
+import core.interfaces.IExtendedSequence;
+import core.interfaces.IGamePhase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A journal of the changes made to a game state by AbstractForwardModel.nextWithUndo(), so that
+ * AbstractForwardModel.undo() can reverse them again in last-in-first-out order. This lets a depth-first search
+ * walk down and back up the game tree on a single state, instead of copying the state before every next().
+ * <p>
+ * For each nextWithUndo() the journal holds one frame: the core state (tick, turn and round counters, turn owner,
+ * game phase, game and player results, actions in progress and the length of the history), plus a list of 'reverse'
+ * operations recorded by the forward model for the game-specific changes the action is about to make (see
+ * AbstractForwardModel._recordUndo()).
+ * <p>
+ * The random number generator of the state is not rewound, so an undo followed by the same action can lead to a
+ * different state if next() is stochastic. Objects on the actionsInProgress stack are restored, but not any changes
+ * made inside them, so games that use IExtendedSequence must record those changes themselves.
+ * The journal is not copied with the state.
+ */
+public final class UndoJournal {
+
+    private record Frame(int firstChange, int tick, int roundCounter, int turnCounter, int turnOwner, int firstPlayer,
+                         IGamePhase gamePhase, CoreConstants.GameResult gameStatus,
+                         CoreConstants.GameResult[] playerResults, IExtendedSequence[] actionsInProgress,
+                         int historySize, int historyTextSize) {
+    }
+
+    private static final IExtendedSequence[] NO_ACTIONS = new IExtendedSequence[0];
+
+    private final ArrayList<Runnable> changes = new ArrayList<>();
+    private final ArrayList<Frame> frames = new ArrayList<>();
+
+    /**
+     * Records how to reverse one change that is about to be made to the state. The reverse operations for a
+     * single next() are run in the opposite order to that in which they were recorded.
+     *
+     * @param reverse - puts back the value that is about to be changed
+     */
+    public void record(Runnable reverse) {
+        if (frames.isEmpty())
+            throw new AssertionError("Changes can only be recorded from within nextWithUndo()");
+        changes.add(reverse);
+    }
+
+    /**
+     * @return the number of next() calls that can currently be undone
+     */
+    public int depth() {
+        return frames.size();
+    }
+
+    void begin(AbstractGameState state) {
+        frames.add(new Frame(changes.size(), state.getGameTick(), state.roundCounter, state.turnCounter,
+                state.turnOwner, state.firstPlayer, state.gamePhase, state.gameStatus, state.playerResults.clone(),
+                state.actionsInProgress.isEmpty() ? NO_ACTIONS : state.actionsInProgress.toArray(NO_ACTIONS),
+                state.getHistorySize(), state.getHistoryTextSize()));
+    }
+
+    void rollback(AbstractGameState state) {
+        if (frames.isEmpty())
+            throw new AssertionError("There is no next() to undo");
+        Frame frame = frames.remove(frames.size() - 1);
+        for (int i = changes.size() - 1; i >= frame.firstChange; i--)
+            changes.remove(i).run();
+        state.roundCounter = frame.roundCounter;
+        state.turnCounter = frame.turnCounter;
+        state.turnOwner = frame.turnOwner;
+        state.firstPlayer = frame.firstPlayer;
+        state.gamePhase = frame.gamePhase;
+        state.gameStatus = frame.gameStatus;
+        System.arraycopy(frame.playerResults, 0, state.playerResults, 0, frame.playerResults.length);
+        state.actionsInProgress.clear();
+        state.actionsInProgress.addAll(Arrays.asList(frame.actionsInProgress));
+        state.rewind(frame.tick, frame.historySize, frame.historyTextSize);
+    }
+}
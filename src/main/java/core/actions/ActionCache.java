@@ -0,0 +1,121 @@
+package core.actions;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * A cache of canonical action instances, so that a game can return the same (immutable) action object each time
+ * it is available, rather than allocating a new one on every call to computeAvailableActions().
+ * There is one of these for each AbstractParameters object (see AbstractParameters.getActionCache()), and hence
+ * for each game type and configuration; it is shared by all copies of a game state.
+ * <p>
+ * Only actions whose copy() returns this (i.e. which are immutable) can be cached. Such actions should also
+ * compute their hashCode() once, in the constructor, as the cached instances are used as keys in search trees.
+ * <p>
+ * There are two ways to use the cache:
+ * - intern(action) returns the cached action equal to the one provided (which is cached if there is none yet).
+ * This saves on the retained instances and hash computations, but the argument still needs to be allocated.
+ * - get(type, index, factory) looks up the action using an index that the game computes from the action's
+ * fields (for example cardType.ordinal() * nPlayers + player). Nothing is allocated when the action is
+ * already cached. The factory should not capture any local variables, so that it is not allocated either;
+ * it should re-create the action from the index.
+ * <p>
+ * This is safe to use from several threads (for example a game and a pondering agent).
+ */
+public class ActionCache {
+
+    private final Map<AbstractAction, AbstractAction> interned = new ConcurrentHashMap<>();
+    // indexed tables are never modified once visible; a new one is created whenever an action is added
+    private final Map<Class<?>, AbstractAction[]> tables = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile boolean enabled = true;
+
+    /**
+     * @return the canonical instance of the action (the argument itself if it is the first of its kind)
+     */
+    public <T extends AbstractAction> T intern(T action) {
+        if (!enabled)
+            return action;
+        AbstractAction existing = interned.get(action);
+        if (existing == null) {
+            if (action.copy() != action)
+                throw new IllegalArgumentException("Only immutable actions (where copy() returns this) can be cached: " + action.getClass());
+            misses.increment();
+            existing = interned.putIfAbsent(action, action);
+            if (existing == null)
+                return action;
+        } else {
+            hits.increment();
+        }
+        // some actions are equal to instances of their sub-classes, which we must not substitute
+        if (existing.getClass() != action.getClass())
+            return action;
+        @SuppressWarnings("unchecked") T retValue = (T) existing;
+        return retValue;
+    }
+
+    /**
+     * @param type    - the class of the action (each has its own index space)
+     * @param index   - a non-negative index that uniquely identifies the action within its type
+     * @param factory - creates the action from the index if it is not already cached
+     * @return the cached action
+     */
+    public <T extends AbstractAction> T get(Class<T> type, int index, IntFunction<? extends T> factory) {
+        if (!enabled)
+            return factory.apply(index);
+        AbstractAction[] table = tables.get(type);
+        if (table != null && index >= 0 && index < table.length && table[index] != null) {
+            hits.increment();
+            return type.cast(table[index]);
+        }
+        return add(type, index, factory);
+    }
+
+    private synchronized <T extends AbstractAction> T add(Class<T> type, int index, IntFunction<? extends T> factory) {
+        if (index < 0)
+            throw new IllegalArgumentException("Index must be non-negative, not " + index);
+        AbstractAction[] table = tables.get(type);
+        if (table != null && index < table.length && table[index] != null)
+            return type.cast(table[index]);  // another thread got there first
+        T action = intern(factory.apply(index));
+        AbstractAction[] newTable = new AbstractAction[Math.max(index + 1, table == null ? 0 : table.length)];
+        if (table != null)
+            System.arraycopy(table, 0, newTable, 0, table.length);
+        newTable[index] = action;
+        tables.put(type, newTable);
+        return action;
+    }
+
+    /**
+     * If disabled, then intern() and get() create new actions every time (as if there were no cache)
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return interned.size();
+    }
+
+    public void clear() {
+        interned.clear();
+        tables.clear();
+        hits.reset();
+        misses.reset();
+    }
+}
@@ -2,17 +2,24 @@ package core.components;
 
 import core.CoreConstants;
 import core.interfaces.IComponentContainer;
+import core.interfaces.ICopyOnWrite;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * An Area is a collection of components such as Decks, Token, Dices, Cards and Boards, mapping to their IDs.
  */
-public class Area extends Component implements IComponentContainer<Component> {
+public class Area extends Component implements IComponentContainer<Component>, ICopyOnWrite {
 
     // Collection of components stored in this area, mapping to their IDs
     protected HashMap<Integer, Component> components;
 
+    // With copyOnWrite, copy() shares the map (and the components in it) with the original until either is changed
+    protected boolean copyOnWrite;
+    protected boolean shared;
+    protected int storageVersion;
+
     public Area(int owner, String name) {
         super(CoreConstants.ComponentType.AREA, "");
         this.components = new HashMap<>();
@@ -27,14 +34,72 @@ public class Area extends Component implements IComponentContainer<Component> {
 
     public Area copy() {
         Area new_area = new Area(ownerId, componentName, componentID);
-        new_area.components = new HashMap<>();
-        for (Map.Entry<Integer, Component> c: this.components.entrySet()){
-            new_area.components.put(c.getKey(), c.getValue().copy());
+        if (copyOnWrite) {
+            new_area.components = components;
+            new_area.shared = true;
+            shared = true;
+        } else {
+            new_area.components = deepCopy(components);
         }
+        new_area.copyOnWrite = copyOnWrite;
         copyComponentTo(new_area);
         return new_area;
     }
 
+    private static HashMap<Integer, Component> deepCopy(HashMap<Integer, Component> original) {
+        HashMap<Integer, Component> retValue = new HashMap<>();
+        for (Map.Entry<Integer, Component> c : original.entrySet()) {
+            retValue.put(c.getKey(), c.getValue().copy());
+        }
+        return retValue;
+    }
+
+    /**
+     * Called before any change to the map; if it is shared with another Area after a copy-on-write copy,
+     * then this takes its own deep copy first. This also changes the storage version.
+     */
+    private void beforeWrite() {
+        storageVersion++;
+        if (shared) {
+            components = deepCopy(components);
+            shared = false;
+        }
+    }
+
+    /**
+     * Called before handing out components, which the caller may change in place; if the map is shared, this takes
+     * its own deep copy first (as in beforeWrite()).
+     */
+    private void beforeAccess() {
+        if (shared)
+            beforeWrite();
+    }
+
+    @Override
+    public boolean isShared() {
+        return shared;
+    }
+
+    @Override
+    public void unshare() {
+        beforeWrite();
+    }
+
+    @Override
+    public int getStorageVersion() {
+        return storageVersion;
+    }
+
+    @Override
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    @Override
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
     /**
      * This is used to avoid a full recursive copy of all the contents of an area
      * This can be useful when we need for other reasons to copy those locally, and it
@@ -52,7 +117,13 @@ public class Area extends Component implements IComponentContainer<Component> {
      * Clears the collection of components.
      */
     public void clear() {
-        components.clear();
+        if (shared) {
+            components = new HashMap<>();
+            shared = false;
+        } else {
+            components.clear();
+        }
+        storageVersion++;
     }
 
     /**
@@ -60,6 +131,7 @@ public class Area extends Component implements IComponentContainer<Component> {
      * @return - HashMap, components mapped to their IDs
      */
     public HashMap<Integer, Component> getComponentsMap() {
+        beforeWrite();
         return this.components;
     }
 
@@ -68,17 +140,28 @@ public class Area extends Component implements IComponentContainer<Component> {
         return CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
     }
 
+    /**
+     * The components returned may be changed by the caller, so with copy-on-write the area first takes its own copy
+     * of them if they are shared; use forEachComponent() to just read them.
+     */
     @Override
     public List<Component> getComponents() {
+        beforeAccess();
         return new ArrayList<>(components.values());
     }
 
+    @Override
+    public void forEachComponent(Consumer<? super Component> action) {
+        components.values().forEach(action);
+    }
+
     /**
      * Retrieve a component by its id key.
      * @param key - key to look for in the map.
      * @return - component corresponding to the given key.
      */
     public Component getComponent(Integer key) {
+        beforeAccess();
         return this.components.get(key);
     }
 
@@ -88,6 +171,7 @@ public class Area extends Component implements IComponentContainer<Component> {
      * @param component - component to add to the collection.
      */
     public void putComponent(Integer key, Component component) {
+        beforeWrite();
         this.components.put(key, component);
     }
 
@@ -98,13 +182,11 @@ public class Area extends Component implements IComponentContainer<Component> {
     public void putComponent(Component component) {
         if (component == null) return;
 
+        beforeWrite();
         this.components.put(component.getComponentID(), component);
-        if (component instanceof IComponentContainer) {
-            for (Component nestedC : ((IComponentContainer<?>) component).getComponents()) {
-                if (nestedC != null) {
-                    putComponent(nestedC);
-                }
-            }
+        if (component instanceof IComponentContainer<?> container) {
+            // forEachComponent() reads the contents without copying any copy-on-write storage
+            container.forEachComponent(this::putComponent);
         }
     }
 
@@ -112,6 +194,7 @@ public class Area extends Component implements IComponentContainer<Component> {
         if (component instanceof Deck || component instanceof Area)
             throw new IllegalArgumentException("Not yet implemented for Decks or Areas");
         if (components.containsKey(component.componentID)) {
+            beforeWrite();
             this.components.remove(component.componentID);
         } else {
             throw new IllegalArgumentException("Cannot remove Component as it is not here : " + component.componentID);
@@ -10,10 +10,24 @@ import java.util.*;
 
 public abstract class Component {
     private static int ID = 0;  // All components receive a unique and final ID from this always increasing counter
+    private static final long[] NO_BITS = new long[0];
+    private static final int[] NO_INTS = new int[0];
+    private static final long[] NO_LONGS = new long[0];
+    private static final double[] NO_DOUBLES = new double[0];
+    private static final Property[] NO_OBJECTS = new Property[0];
 
     protected transient final int componentID;  // Unique ID of this component
     protected final ComponentType type;  // Type of this component
-    protected HashMap<Integer, Property> properties;  // Maps between integer key for the property and the property object
+    // Properties are held in slots laid out by the schema for this type of component (see PropertySchema): a bitset
+    // of which slots are set, and one array per kind of value. Each copy of a component has its own arrays, so a
+    // copy never changes (or even writes to) the original.
+    private final PropertySchema schema;
+    private long[] present = NO_BITS;
+    private int[] ints = NO_INTS;
+    private long[] longs = NO_LONGS;
+    private double[] doubles = NO_DOUBLES;
+    private Property[] objects = NO_OBJECTS;
+    private long[] constantSlots = NO_BITS;  // see setPropertyConstant(); shared by copies, so never changed in place
     protected transient int ownerId = -1;  // By default belongs to the game
     protected String componentName;  // Name of this component
 
@@ -21,28 +35,28 @@ public abstract class Component {
         this.componentID = ID++;
         this.type = type;
         this.componentName = name;
-        this.properties = new HashMap<>();
+        this.schema = PropertySchema.of(type);
     }
 
     public Component(ComponentType type) {
         this.componentID = ID++;
         this.type = type;
         this.componentName = type.toString();
-        this.properties = new HashMap<>();
+        this.schema = PropertySchema.of(type);
     }
 
     protected Component(ComponentType type, String name, int componentID) {
         this.componentID = componentID;
         this.type = type;
         this.componentName = name;
-        this.properties = new HashMap<>();
+        this.schema = PropertySchema.of(type);
     }
 
     protected Component(ComponentType type, int componentID) {
         this.componentID = componentID;
         this.type = type;
         this.componentName = type.toString();
-        this.properties = new HashMap<>();
+        this.schema = PropertySchema.of(type);
     }
 
     /**
@@ -65,7 +79,9 @@ public abstract class Component {
      */
     public int getNumProperties()
     {
-        return properties.size();
+        int n = 0;
+        for (long word : present) n += Long.bitCount(word);
+        return n;
     }
 
     /**
@@ -104,24 +120,54 @@ public abstract class Component {
 
     /**
      * Get the full map of properties.
-     * @return - mapping from property integer key to property objects.
+     * @return - mapping from property integer key to property objects. This is a new map; changing it does not change
+     * the component (but changing the property objects in it may, as for getProperty()).
      */
     public Map<Integer, Property> getProperties() {
-        return properties;
+        Map<Integer, Property> retValue = new LinkedHashMap<>();
+        for (int w = 0; w < present.length; w++) {
+            for (long bits = present[w]; bits != 0; bits &= bits - 1) {
+                PropertySchema.Slot slot = schema.get((w << 6) + Long.numberOfTrailingZeros(bits));
+                retValue.put(slot.hashKey, property(slot));
+            }
+        }
+        return retValue;
     }
 
     /**
      * Gets a property from the properties.
+     * Int, boolean, long and double properties are returned as a new Property object each time, so changing its
+     * value has no effect on the component; use setProperty(), or the typed setters, for that. Other properties are
+     * returned as the component's own object, which may be changed in place.
      * @param propId id of the property to look for
      * @return the property value. Null if it doesn't exist.
      */
     public Property getProperty(int propId)
     {
-        return properties.get(propId);
+        for (int slotId : schema.slotsFor(propId)) {
+            if (isSet(slotId))
+                return property(schema.get(slotId));
+        }
+        return null;
     }
 
     public Property getProperty(String hashString) {
-        return properties.get(Hash.GetInstance().hash(hashString));
+        return getProperty(Hash.GetInstance().hash(hashString));
+    }
+
+    private Property property(PropertySchema.Slot slot) {
+        switch (slot.kind) {
+            case INT:
+                return new PropertyInt(slot.name, slot.hashKey, ints[slot.index]);
+            case BOOLEAN:
+                return new PropertyBoolean(slot.name, slot.hashKey, ints[slot.index] != 0);
+            case LONG:
+                return new PropertyLong(slot.name, slot.hashKey, longs[slot.index]);
+            case DOUBLE:
+                return new PropertyDouble(slot.name, slot.hashKey, doubles[slot.index]);
+            default:
+                return objects[slot.index];
+        }
     }
 
     /**
@@ -130,7 +176,146 @@ public abstract class Component {
      */
     public void setProperty(Property prop)
     {
-        properties.put(prop.getHashKey(), prop);
+        PropertySchema.Kind kind = PropertySchema.kindOf(prop);
+        PropertySchema.Slot slot = schema.get(schema.slot(prop.getHashString(), prop.getHashKey(), kind));
+        switch (kind) {
+            case INT -> prepareSlot(slot).ints[slot.index] = ((PropertyInt) prop).value;
+            case BOOLEAN -> prepareSlot(slot).ints[slot.index] = ((PropertyBoolean) prop).value ? 1 : 0;
+            case LONG -> prepareSlot(slot).longs[slot.index] = ((PropertyLong) prop).value;
+            case DOUBLE -> prepareSlot(slot).doubles[slot.index] = ((PropertyDouble) prop).value;
+            default -> prepareSlot(slot).objects[slot.index] = prop;
+        }
+    }
+
+    /**
+     * Declares that the property with this key is never changed in place on this component or its copies (it may
+     * still be replaced with setProperty()), so that copies share the same Property object rather than each having
+     * their own. Games do this in their setup, once the property is set, for things like the positions of board nodes.
+     * This only matters for properties stored as objects; PropertyString and PropertyColor are always shared.
+     * @param propId id of the property
+     */
+    public void setPropertyConstant(int propId) {
+        long[] bits = constantSlots.clone();
+        for (int slotId : schema.slotsFor(propId))
+            bits = set(bits, slotId);
+        constantSlots = bits;
+    }
+
+    /* Typed access by slot id (see PropertySchema.slot()), without the map lookup or Property object */
+
+    /**
+     * @param slotId - a slot in the schema for this type of component
+     * @return true if this component has the property in that slot
+     */
+    public boolean hasProperty(int slotId) {
+        return isSet(slotId);
+    }
+
+    /**
+     * @return the value of the int property in this slot, or 0 if the component does not have it
+     */
+    public int getIntProperty(int slotId) {
+        PropertySchema.Slot slot = slot(slotId, PropertySchema.Kind.INT);
+        return isSet(slotId) ? ints[slot.index] : 0;
+    }
+
+    public void setIntProperty(int slotId, int value) {
+        PropertySchema.Slot slot = slot(slotId, PropertySchema.Kind.INT);
+        prepareSlot(slot).ints[slot.index] = value;
+    }
+
+    /**
+     * @return the value of the boolean property in this slot, or false if the component does not have it
+     */
+    public boolean getBooleanProperty(int slotId) {
+        PropertySchema.Slot slot = slot(slotId, PropertySchema.Kind.BOOLEAN);
+        return isSet(slotId) && ints[slot.index] != 0;
+    }
+
+    public void setBooleanProperty(int slotId, boolean value) {
+        PropertySchema.Slot slot = slot(slotId, PropertySchema.Kind.BOOLEAN);
+        prepareSlot(slot).ints[slot.index] = value ? 1 : 0;
+    }
+
+    /**
+     * @return the value of the long property in this slot, or 0 if the component does not have it
+     */
+    public long getLongProperty(int slotId) {
+        PropertySchema.Slot slot = slot(slotId, PropertySchema.Kind.LONG);
+        return isSet(slotId) ? longs[slot.index] : 0;
+    }
+
+    public void setLongProperty(int slotId, long value) {
+        PropertySchema.Slot slot = slot(slotId, PropertySchema.Kind.LONG);
+        prepareSlot(slot).longs[slot.index] = value;
+    }
+
+    /**
+     * @return the value of the double property in this slot, or 0 if the component does not have it
+     */
+    public double getDoubleProperty(int slotId) {
+        PropertySchema.Slot slot = slot(slotId, PropertySchema.Kind.DOUBLE);
+        return isSet(slotId) ? doubles[slot.index] : 0;
+    }
+
+    public void setDoubleProperty(int slotId, double value) {
+        PropertySchema.Slot slot = slot(slotId, PropertySchema.Kind.DOUBLE);
+        prepareSlot(slot).doubles[slot.index] = value;
+    }
+
+    private PropertySchema.Slot slot(int slotId, PropertySchema.Kind kind) {
+        PropertySchema.Slot slot = schema.get(slotId);
+        if (slot.kind != kind)
+            throw new IllegalArgumentException("Slot " + slotId + " of " + type + " holds " + slot.kind + " property " + slot.name + ", not " + kind);
+        return slot;
+    }
+
+    private boolean isSet(int slotId) {
+        return isSet(present, slotId);
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        int word = index >> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    private static long[] set(long[] bits, int index) {
+        int word = index >> 6;
+        if (word >= bits.length) bits = Arrays.copyOf(bits, word + 1);
+        bits[word] |= 1L << index;
+        return bits;
+    }
+
+    /**
+     * Makes this component's slot arrays large enough for the given slot, and marks the slot as set (and any slot
+     * with the same key but a different kind of value as not set).
+     * @return this, for the caller to write the value
+     */
+    private Component prepareSlot(PropertySchema.Slot slot) {
+        for (int other : schema.slotsFor(slot.hashKey)) {
+            if (other != slot.id && isSet(other))
+                present[other >> 6] &= ~(1L << other);
+        }
+        present = set(present, slot.id);
+        switch (slot.kind) {
+            case INT, BOOLEAN -> {
+                if (slot.index >= ints.length) ints = Arrays.copyOf(ints, capacity(slot.index));
+            }
+            case LONG -> {
+                if (slot.index >= longs.length) longs = Arrays.copyOf(longs, capacity(slot.index));
+            }
+            case DOUBLE -> {
+                if (slot.index >= doubles.length) doubles = Arrays.copyOf(doubles, capacity(slot.index));
+            }
+            default -> {
+                if (slot.index >= objects.length) objects = Arrays.copyOf(objects, capacity(slot.index));
+            }
+        }
+        return this;
+    }
+
+    private static int capacity(int index) {
+        return Math.max(4, index + 1 + (index >> 1));
     }
 
     public void setProperties(Map<Integer, Property> props) {
@@ -210,10 +395,28 @@ public abstract class Component {
      */
     public void copyComponentTo(Component copyTo)
     {
-        copyTo.properties.clear();
-        for (int prop_key : this.properties.keySet()) {
-            Property newProp = this.properties.get(prop_key).copy();
-            copyTo.setProperty(newProp);
+        if (copyTo.schema == schema) {
+            // This is only read, so that components can be copied by more than one thread at once. Property objects
+            // that are never changed in place are shared; the others may be changed by the caller of getProperty(),
+            // so the copy has its own.
+            copyTo.present = present.length == 0 ? NO_BITS : present.clone();
+            copyTo.ints = ints.length == 0 ? NO_INTS : ints.clone();
+            copyTo.longs = longs.length == 0 ? NO_LONGS : longs.clone();
+            copyTo.doubles = doubles.length == 0 ? NO_DOUBLES : doubles.clone();
+            copyTo.objects = objects.length == 0 ? NO_OBJECTS : objects.clone();
+            for (int w = 0; w < present.length; w++) {
+                for (long bits = present[w]; bits != 0; bits &= bits - 1) {
+                    PropertySchema.Slot slot = schema.get((w << 6) + Long.numberOfTrailingZeros(bits));
+                    if (slot.kind == PropertySchema.Kind.OBJECT && !isSet(constantSlots, slot.id) && !objects[slot.index].isImmutable())
+                        copyTo.objects[slot.index] = objects[slot.index].copy();
+                }
+            }
+            copyTo.constantSlots = constantSlots;
+        } else {
+            copyTo.present = NO_BITS;
+            for (Property prop : getProperties().values()) {
+                copyTo.setProperty(prop.copy());
+            }
         }
         copyTo.ownerId = ownerId;
         copyTo.componentName = componentName;
@@ -226,7 +429,7 @@ public abstract class Component {
                 ", type=" + type +
                 ", ownerId=" + ownerId +
                 ", componentName='" + componentName + '\'' +
-                ", properties=" + properties +
+                ", properties=" + getProperties() +
                 '}';
     }
 
@@ -1,10 +1,13 @@
 package core.components;
 
 import core.CoreConstants;
+import core.interfaces.ICopyOnWrite;
+import core.interfaces.IZobristHash;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -13,9 +16,13 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-public class Counter extends Component {
+public class Counter extends Component implements ICopyOnWrite, IZobristHash {
     protected int[] values;
 
+    // The counter never changes values itself, so with copyOnWrite a copy shares the array until getValues() is called
+    protected boolean copyOnWrite;
+    protected boolean shared;
+
     protected int valueIdx;  // Current value of this counter
     protected int minimum;  // Minimum value (inclusive)
     protected int maximum;  // Maximum value (inclusive)
@@ -51,11 +58,58 @@ public class Counter extends Component {
     }
 
     public Counter copy() {
-        Counter copy = new Counter(values != null? values.clone() : null, valueIdx, minimum, maximum, componentName, componentID);
+        Counter copy = new Counter(copyValues(), valueIdx, minimum, maximum, componentName, componentID);
         copyComponentTo(copy);
         return copy;
     }
 
+    /**
+     * @return the values array for a copy of this counter; with copy-on-write this is shared rather than cloned
+     */
+    protected int[] copyValues() {
+        if (values == null)
+            return null;
+        if (copyOnWrite) {
+            shared = true;
+            return values;
+        }
+        return values.clone();
+    }
+
+    @Override
+    public void copyComponentTo(Component copyTo) {
+        super.copyComponentTo(copyTo);
+        if (copyTo instanceof Counter c) {
+            c.copyOnWrite = copyOnWrite;
+            c.shared = shared;
+        }
+    }
+
+    @Override
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    @Override
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    @Override
+    public boolean isShared() {
+        return shared;
+    }
+
+    @Override
+    public void unshare() {
+        getValues();
+    }
+
+    @Override
+    public int getStorageVersion() {
+        return 0;  // a Counter holds no components
+    }
+
     /**
      * Increment the value of this counter by the specified value.
      * @param amount - how much to add to this counter.
@@ -139,10 +193,23 @@ public class Counter extends Component {
         return valueIdx;
     }
 
+    /**
+     * The hash of a counter depends only on its current value, so this is always O(1).
+     */
+    @Override
+    public long getZobristHash() {
+        return Zobrist.key(0, getValue());
+    }
+
     /**
      * @return the value array of this counter.
      */
     public int[] getValues() {
+        if (shared) {
+            // the caller may change the array
+            values = values.clone();
+            shared = false;
+        }
         return values;
     }
 
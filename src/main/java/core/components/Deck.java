@@ -2,15 +2,21 @@ package core.components;
 
 import core.CoreConstants;
 import core.interfaces.IComponentContainer;
+import core.interfaces.ICopyOnWrite;
+import core.interfaces.IZobristHash;
 import org.jetbrains.annotations.NotNull;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static core.CoreConstants.VisibilityMode;
 
@@ -22,12 +28,23 @@ import static core.CoreConstants.VisibilityMode;
  * * Components played on the player's area
  * * Discard pile
  */
-public class Deck<T extends Component> extends Component implements IComponentContainer<T>, Iterable<T> {
+public class Deck<T extends Component> extends Component implements IComponentContainer<T>, Iterable<T>, ICopyOnWrite, IZobristHash {
 
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected List<T> components;  // List of components in this deck
     protected VisibilityMode visibility;
 
+    // With copyOnWrite, copy() shares the list of components (and the components in it) with the original, and
+    // shared is set on both. Whichever is modified first then takes its own deep copy in beforeWrite()
+    protected boolean copyOnWrite;
+    protected boolean shared;
+    protected int storageVersion;
+
+    // Zobrist hash of the contents (see getZobristHash()). Drawing from and adding to the top update this in O(1);
+    // any other change (via beforeWrite()) marks it as out of date, and it is recomputed when next needed
+    private long zobristHash;
+    private boolean zobristValid;
+
     public Deck(String name, VisibilityMode visibility) {
         this(name, -1, visibility);
     }
@@ -51,6 +68,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     @NotNull
     @Override
     public Iterator<T> iterator() {
+        beforeAccess();
         return new DeckIterator();
     }
 
@@ -142,8 +160,12 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public T pick(int idx) {
         if (!components.isEmpty() && idx < components.size() && idx >= 0) {
+            boolean updateHash = zobristValid && idx == 0;
+            beforeWrite();
             T c = components.get(idx);
             components.remove(idx);
+            if (updateHash)
+                updateZobristHash(c, components.size());
             return c;
         }
         return null;
@@ -192,6 +214,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public T peek(int idx) {
         if (!components.isEmpty() && idx < components.size()) {
+            beforeAccess();
             return components.get(idx);
         }
         return null;
@@ -220,8 +243,12 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     public boolean add(T c, int index) {
         if (c == null)
             throw new IllegalArgumentException("null cannot be added to a Deck");
+        boolean updateHash = zobristValid && index == 0;
+        beforeWrite();
         c.setOwnerId(ownerId);
         components.add(index, c);
+        if (updateHash)
+            updateZobristHash(c, components.size() - 1);
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -255,6 +282,8 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(Deck<T> d, int index) {
+        beforeWrite();
+        d.beforeWrite();  // the components move to this deck, so they must not be shared with a copy of d
         components.addAll(index, d.components);
         for (T comp : d.components) {
             comp.setOwnerId(ownerId);
@@ -267,6 +296,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     public boolean add(Collection<T> d, int index) {
+        beforeWrite();
         components.addAll(index, d);
         for (T comp : d) {
             comp.setOwnerId(ownerId);
@@ -284,11 +314,14 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         // because for PartialObservableDecks we need to remove the element visibility at the correct index
         // hence we *always* only remove from a deck by index
         int index = components.indexOf(component);
-        component.setOwnerId(-1);
         if (index != -1) {
             remove(index);
+            // with copy-on-write the argument may still be in a list shared with another Deck, so we leave it alone
+            if (!copyOnWrite)
+                component.setOwnerId(-1);
             return;
         }
+        component.setOwnerId(-1);
         throw new IllegalArgumentException(component + " not found in " + this);
     }
 
@@ -300,8 +333,12 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void remove(int idx) {
         if (idx >= 0 && idx < components.size()) {
+            boolean updateHash = zobristValid && idx == 0;
+            beforeWrite();
             components.get(idx).setOwnerId(-1);
-            components.remove(idx);
+            T c = components.remove(idx);
+            if (updateHash)
+                updateZobristHash(c, components.size());
         } else {
             throw new IndexOutOfBoundsException("Index " + idx + " is out of bounds for deck of size " + components.size());
         }
@@ -320,10 +357,19 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Removes all the components from the deck.
      */
     public void clear() {
-        for (T comp : components) {
-            comp.setOwnerId(-1);
+        if (shared) {
+            // nothing to copy, as we are about to discard the contents
+            components = new LinkedList<>();
+            shared = false;
+        } else {
+            for (T comp : components) {
+                comp.setOwnerId(-1);
+            }
+            components.clear();
         }
-        components.clear();
+        storageVersion++;
+        zobristHash = 0;
+        zobristValid = true;
     }
 
     // Getters, Setters
@@ -332,6 +378,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Shuffles the deck with a specific random object.
      */
     public void shuffle(Random rnd) {
+        beforeWrite();
         Collections.shuffle(components, rnd);
     }
 
@@ -343,6 +390,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param rnd       - random number generator used for shuffling
      */
     public void shuffle(int fromIndex, int toIndex, Random rnd) {
+        beforeWrite();
         List<T> subList = components.subList(fromIndex, toIndex);
         Collections.shuffle(subList, rnd);
         int i = 0;
@@ -353,13 +401,51 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     /**
-     * @return all the components in this deck.
+     * @return all the components in this deck. The list can be modified, so with copy-on-write this takes a private
+     * copy if the list is currently shared. With copy-on-write, get(), peek(), iterator() and stream() also take a
+     * private copy of a shared list, as the caller may change the components they return; forEachComponent() does
+     * not, and is only for reading the deck.
      */
     @Override
     public List<T> getComponents() {
+        beforeWrite();
         return components;
     }
 
+    @Override
+    public int getSize() {
+        return components.size();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        beforeAccess();
+        return components.stream();
+    }
+
+    @Override
+    public void forEachComponent(Consumer<? super T> action) {
+        components.forEach(action);
+    }
+
+    @Override
+    public double sumDouble(Function<T, Double> lambda) {
+        double retValue = 0.0;
+        for (T c : components) {
+            retValue += lambda.apply(c);
+        }
+        return retValue;
+    }
+
+    @Override
+    public int sumInt(Function<T, Integer> lambda) {
+        int retValue = 0;
+        for (T c : components) {
+            retValue += lambda.apply(c);
+        }
+        return retValue;
+    }
+
     /**
      * Set the components in this deck.
      *
@@ -367,6 +453,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void setComponents(List<T> components) {
         this.components = components;
+        shared = false;
+        storageVersion++;
+        zobristValid = false;
         for (T comp : components) {
             comp.setOwnerId(ownerId);
         }
@@ -402,6 +491,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param component - new component.
      */
     public void setComponent(int idx, T component) {
+        beforeWrite();
         component.setOwnerId(ownerId);
         components.set(idx, component);
     }
@@ -413,6 +503,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return - component at given index.
      */
     public T get(int idx) {
+        beforeAccess();
         return components.get(idx);
     }
 
@@ -436,14 +527,18 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         return dp;
     }
 
-    @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck) {
-        List<T> newComponents = new LinkedList<>();
-        for (T c : components) {
-            newComponents.add((T) c.copy());
+        if (copyOnWrite) {
+            deck.components = components;
+            deck.shared = true;
+            shared = true;
+        } else {
+            deck.components = deepCopy(components);
         }
-        deck.components = newComponents;
+        deck.copyOnWrite = copyOnWrite;
         deck.capacity = capacity;
+        deck.zobristHash = zobristHash;
+        deck.zobristValid = zobristValid;
 
         //copy type and component.
         copyComponentTo(deck);
@@ -457,12 +552,101 @@ public class Deck<T extends Component> extends Component implements IComponentCo
             newComponents.add((T) c.copy(playerId));
         }
         deck.components = newComponents;
+        deck.copyOnWrite = copyOnWrite;
         deck.capacity = capacity;
 
         //copy type and component.
         copyComponentTo(deck);
     }
 
+    @SuppressWarnings("unchecked")
+    private List<T> deepCopy(List<T> original) {
+        List<T> newComponents = new LinkedList<>();
+        for (T c : original) {
+            newComponents.add((T) c.copy());
+        }
+        return newComponents;
+    }
+
+    /**
+     * The hash of the deck is the XOR of a key for each component, from its name (see Zobrist.value()) and its
+     * distance from the bottom of the deck, so that it depends on the order of the deck. Counting from the bottom
+     * means that drawing from or adding to the top (index 0) leaves the keys of the other components unchanged,
+     * so the hash is updated in O(1) for these; other changes mean that it is recomputed when next asked for.
+     * Changes made to the components in place are not included.
+     */
+    @Override
+    public long getZobristHash() {
+        if (!zobristValid) {
+            long hash = 0;
+            int fromBottom = components.size() - 1;
+            for (T c : components)
+                hash ^= Zobrist.key(fromBottom--, Zobrist.value(c));
+            zobristHash = hash;
+            zobristValid = true;
+        }
+        return zobristHash;
+    }
+
+    private void updateZobristHash(T component, int fromBottom) {
+        zobristHash ^= Zobrist.key(fromBottom, Zobrist.value(component));
+        zobristValid = true;
+    }
+
+    /**
+     * Called before any change to the components list. If the list is shared with another Deck after a
+     * copy-on-write copy, then this Deck takes its own deep copy first.
+     * As a result the component objects in the Deck can change on any write; code should look components up by
+     * their componentID (as actions do) rather than hold on to references across changes to the Deck.
+     * This also marks the Zobrist hash as out of date, and changes the storage version.
+     */
+    protected void beforeWrite() {
+        zobristValid = false;
+        storageVersion++;
+        if (shared) {
+            components = deepCopy(components);
+            shared = false;
+        }
+    }
+
+    /**
+     * Called before handing out components, which the caller may change in place. If the list is shared after a
+     * copy-on-write copy, this Deck takes its own deep copy first (as in beforeWrite()), so that such changes do not
+     * show up in the other Deck.
+     */
+    protected void beforeAccess() {
+        if (shared)
+            beforeWrite();
+    }
+
+    @Override
+    public void unshare() {
+        beforeWrite();
+    }
+
+    @Override
+    public int getStorageVersion() {
+        return storageVersion;
+    }
+
+    @Override
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    @Override
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * @return true if this Deck currently shares its components with another, and has not yet been modified
+     */
+    @Override
+    public boolean isShared() {
+        return shared;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -2,6 +2,8 @@ package core.components;
 
 import core.CoreConstants;
 import core.interfaces.IComponentContainer;
+import core.interfaces.ICopyOnWrite;
+import core.interfaces.IZobristHash;
 import core.properties.PropertyString;
 import core.properties.PropertyVector2D;
 import org.json.simple.JSONArray;
@@ -10,10 +12,12 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import utilities.Pair;
 import utilities.Vector2D;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.Objects;
 
@@ -24,13 +28,23 @@ import static utilities.Utils.getNeighbourhood;
  * GridBoard is a 2D grid of Components. It can be used to represent a board in a game, a map, or any other 2D grid.
  * Each cell on the grid can contain a Component of any type.
  */
-public class GridBoard extends Component implements IComponentContainer<BoardNode> {
+public class GridBoard extends Component implements IComponentContainer<BoardNode>, ICopyOnWrite, IZobristHash {
 
     private int width;  // Width of the board
     private int height;  // Height of the board
 
     private BoardNode[][] grid;  // 2D grid representation of this board
 
+    // With copyOnWrite, copy() shares the grid (and its nodes) with the original until either of them is changed
+    private boolean copyOnWrite;
+    private boolean shared;
+    private int storageVersion;
+
+    // Zobrist hash of the grid (see getZobristHash()), updated by setElement(); zobristValid is false if the grid
+    // may have been changed in some other way since it was last computed
+    private long zobristHash;
+    private boolean zobristValid;
+
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
     }
@@ -118,6 +132,7 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
     // ***
     // A = old grid, top-left corner in new larger grid given by (offsetX, offsetY) coordinates.
     public void setWidthHeight(int width, int height, int offsetX, int offsetY) {
+        beforeWrite();
         if (offsetX + this.width > width) offsetX = 0;
         if (offsetY + this.height > height) offsetY = 0;
 
@@ -126,6 +141,7 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
 
         this.width = width;
         this.height = height;
+        zobristValid = false;
 
         BoardNode[][] grid = new BoardNode[height][width];
         for (int i = 0; i < h; i++) {
@@ -144,6 +160,9 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
      */
     public boolean setElement(int x, int y, BoardNode value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            beforeWrite();
+            if (zobristValid)
+                zobristHash ^= zobristKey(x, y, grid[y][x]) ^ zobristKey(x, y, value);
             grid[y][x] = value;
             return true;
         } else
@@ -159,11 +178,14 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
      *
      * @param x - x coordinate in the grid.
      * @param y - y coordinate in the grid.
-     * @return - element at (x,y) in the grid.
+     * @return - element at (x,y) in the grid. The caller may change it, so with copy-on-write the grid is first
+     * copied if it is shared.
      */
     public BoardNode getElement(int x, int y) {
-        if (x >= 0 && x < width && y >= 0 && y < height)
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            beforeAccess();
             return grid[y][x];
+        }
         return null;
     }
 
@@ -172,11 +194,13 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
     }
 
     /**
-     * Retrieves the grid.
+     * Retrieves the grid. This can be modified, so with copy-on-write the grid is first copied if it is shared.
      *
      * @return - 2D grid.
      */
     public BoardNode[][] getGridValues() {
+        beforeWrite();
+        zobristValid = false;
         return grid;
     }
 
@@ -184,7 +208,7 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
         List<Vector2D> emptyCells = new ArrayList<>();
         for (int i = 0; i < height; i++) {
             for (int j = 0; j < width; j++) {
-                if (getElement(j, i) == null || getElement(j, i).equals(defaultElement)) {
+                if (grid[i][j] == null || grid[i][j].equals(defaultElement)) {
                     emptyCells.add(new Vector2D(j, i));
                 }
             }
@@ -199,12 +223,12 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
      * @return - new grid with the same elements and correct orientation.
      */
     public BoardNode[][] rotate(int orientation) {
-        GridBoard copy = copy();
+        BoardNode[][] copy = copyGrid();
         orientation %= 4;  // Maximum 4 sides to a grid
         for (int i = 0; i < orientation; i++) {
-            copy.grid = rotateClockWise(copy.grid);
+            copy = rotateClockWise(copy);
         }
-        return copy.grid;
+        return copy;
     }
 
     /**
@@ -241,40 +265,63 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
 
     @Override
     public GridBoard copy() {
-        BoardNode[][] gridCopy = new BoardNode[getHeight()][getWidth()];
-        Map<Integer, BoardNode> nodeCopies = new HashMap<>();
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                if (grid[i][j] != null) {
-                    gridCopy[i][j] = new BoardNode(grid[i][j]);
-                    nodeCopies.put(gridCopy[i][j].componentID, gridCopy[i][j]);
-                }
-            }
+        GridBoard g;
+        if (copyOnWrite) {
+            g = new GridBoard(grid, componentID);
+            g.shared = true;
+            shared = true;
+        } else {
+            g = new GridBoard(copyGrid(), componentID);
         }
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                if (grid[i][j] != null) {
-                    for (Map.Entry<BoardNode, Double> neighbour : grid[i][j].getNeighbours().entrySet()) {
-                        gridCopy[i][j].addNeighbourWithCost(nodeCopies.get(neighbour.getKey().componentID), neighbour.getValue());
-                    }
-                    for (Map.Entry<BoardNode, Integer> neighbour : grid[i][j].getNeighbourSideMapping().entrySet()) {
-                        gridCopy[i][j].addNeighbourOnSide(nodeCopies.get(neighbour.getKey().componentID), neighbour.getValue());
-                    }
-                }
-            }
-        }
-        GridBoard g = new GridBoard(gridCopy, componentID);
+        g.copyOnWrite = copyOnWrite;
+        g.zobristHash = zobristHash;
+        g.zobristValid = zobristValid;
         copyComponentTo(g);
         return g;
     }
 
-    public GridBoard copyNewID() {
+    /**
+     * The hash of the grid is the XOR of a key for each non-empty cell, from its position and the name of the
+     * BoardNode in it (see Zobrist.value()). It is updated in O(1) by setElement(), and otherwise recomputed when
+     * next asked for after the grid may have changed (e.g. after getGridValues()). Changes made to the nodes in
+     * place are not included.
+     */
+    @Override
+    public long getZobristHash() {
+        if (!zobristValid) {
+            long hash = 0;
+            for (int y = 0; y < height; y++)
+                for (int x = 0; x < width; x++)
+                    hash ^= zobristKey(x, y, grid[y][x]);
+            zobristHash = hash;
+            zobristValid = true;
+        }
+        return zobristHash;
+    }
+
+    private long zobristKey(int x, int y, BoardNode node) {
+        return node == null ? 0 : Zobrist.key((long) y * width + x, Zobrist.value(node));
+    }
+
+    /**
+     * @return a deep copy of the grid, with the copied nodes linked to each other as neighbours in the same way
+     */
+    private BoardNode[][] copyGrid() {
+        return copyGrid(false);
+    }
+
+    /**
+     * @param keepTypes - if true then subclasses of BoardNode are copied with their own copy(); otherwise every node
+     *                  is copied as a plain BoardNode (games that put subclasses on the grid replace these after copy())
+     */
+    private BoardNode[][] copyGrid(boolean keepTypes) {
         BoardNode[][] gridCopy = new BoardNode[getHeight()][getWidth()];
         Map<Integer, BoardNode> nodeCopies = new HashMap<>();
         for (int i = 0; i < height; i++) {
             for (int j = 0; j < width; j++) {
                 if (grid[i][j] != null) {
-                    gridCopy[i][j] = new BoardNode(grid[i][j]);
+                    gridCopy[i][j] = keepTypes && grid[i][j].getClass() != BoardNode.class ?
+                            grid[i][j].copy() : new BoardNode(grid[i][j]);
                     nodeCopies.put(gridCopy[i][j].componentID, gridCopy[i][j]);
                 }
             }
@@ -291,7 +338,58 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
                 }
             }
         }
-        GridBoard g = new GridBoard(gridCopy);
+        return gridCopy;
+    }
+
+    /**
+     * Called before any change to the grid; if it is shared with another GridBoard after a copy-on-write copy,
+     * then this takes its own deep copy first. This also changes the storage version.
+     */
+    private void beforeWrite() {
+        storageVersion++;
+        if (shared) {
+            // the nodes may be of a game-specific type, which the game relies on
+            grid = copyGrid(true);
+            shared = false;
+        }
+    }
+
+    /**
+     * Called before handing out a node, which the caller may change in place; if the grid is shared, this takes its
+     * own deep copy first (as in beforeWrite()).
+     */
+    private void beforeAccess() {
+        if (shared)
+            beforeWrite();
+    }
+
+    @Override
+    public void unshare() {
+        beforeWrite();
+    }
+
+    @Override
+    public int getStorageVersion() {
+        return storageVersion;
+    }
+
+    @Override
+    public void setCopyOnWrite(boolean copyOnWrite) {
+        this.copyOnWrite = copyOnWrite;
+    }
+
+    @Override
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    @Override
+    public boolean isShared() {
+        return shared;
+    }
+
+    public GridBoard copyNewID() {
+        GridBoard g = new GridBoard(copyGrid());
         copyComponentTo(g);
         return g;
     }
@@ -354,10 +452,13 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
         this.height = (int) (long) size.get(1);
 
         if (board.get("img") != null) {
-            properties.put(imgHash, new PropertyString((String) board.get("img")));
+            setProperty(new PropertyString("img", imgHash, (String) board.get("img")));
         }
 
         this.grid = new BoardNode[height][width];
+        this.shared = false;
+        this.storageVersion++;
+        this.zobristValid = false;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
@@ -463,6 +564,7 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
     }
 
     public void setNeighbours(List<Pair<Vector2D, Vector2D>> neighbours) {
+        beforeWrite();
         HashMap<Vector2D, BoardNode> bnMapping = new HashMap<>();
         // Add all cells as board nodes connected to each other
         for (int i = 0; i < height; i++) {
@@ -497,9 +599,17 @@ public class GridBoard extends Component implements IComponentContainer<BoardNod
 
     @Override
     public List<BoardNode> getComponents() {
+        beforeAccess();
         return Arrays.stream(flattenGrid()).collect(Collectors.toList());
     }
 
+    @Override
+    public void forEachComponent(Consumer<? super BoardNode> action) {
+        for (BoardNode[] row : grid)
+            for (BoardNode node : row)
+                action.accept(node);
+    }
+
     @Override
     public CoreConstants.VisibilityMode getVisibilityMode() {
         return CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
@@ -65,6 +65,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         if (playerID < 0 || playerID >= deckVisibility.length)
             throw new IllegalArgumentException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
 
+        beforeAccess();
         List<T> visibleComponents = new ArrayList<>(components.size());
         for (int i = 0; i < components.size(); i++) {
             boolean[] b = elementVisibility.get(i);
@@ -140,6 +141,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param visibility - true if player can see this component, false otherwise.
      */
     public void setVisibilityOfComponent(int index, int playerID, boolean visibility) {
+        beforeWrite();
         if (index >= 0 && index < elementVisibility.size()) {
             if (playerID >= 0 && playerID < deckVisibility.length)
                 this.elementVisibility.get(index)[playerID] = visibility;
@@ -157,6 +159,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param visibility - true if player can see this component, false otherwise.
      */
     public void setVisibilityOfComponent(int index, boolean[] visibility) {
+        beforeWrite();
         if (index >= 0 && index < elementVisibility.size() && visibility.length == deckVisibility.length) {
             this.elementVisibility.set(index, visibility.clone());
         } else {
@@ -186,6 +189,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(T c, int index, boolean[] visibilityPerPlayer) {
+        beforeWrite();
         this.elementVisibility.add(index, visibilityPerPlayer.clone());
         boolean retValue = super.add(c, index);
         applyVisibilityMode();
@@ -201,6 +205,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public boolean add(Deck<T> d, int index) {
+        beforeWrite();
         if (d instanceof PartialObservableDeck<T> pod) {
             int length = d.components.size();
             for (int i = 0; i < length; i++) {
@@ -220,6 +225,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public boolean add(Collection<T> d, int index) {
+        beforeWrite();
         for (int i = 0; i < d.size(); i++) {
             this.elementVisibility.add(index, deckVisibility.clone());
         }
@@ -234,7 +240,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     @Override
     public void setComponents(List<T> components) {
         super.setComponents(components);
-        elementVisibility.clear();
+        elementVisibility = new LinkedList<>();
         for (int i = 0; i < components.size(); i++) {
             elementVisibility.add(deckVisibility.clone());
         }
@@ -276,8 +282,11 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public void clear() {
+        if (shared)
+            elementVisibility = new LinkedList<>();
+        else
+            elementVisibility.clear();
         super.clear();
-        elementVisibility.clear();
     }
 
     /**
@@ -289,6 +298,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public void shuffle(Random rnd) {
+        beforeWrite();
         elementVisibility.replaceAll(ignored -> deckVisibility.clone());
         super.shuffle(rnd);
         applyVisibilityMode();
@@ -300,6 +310,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param rnd random number generator to be used in shuffling.
      */
     public void shuffleAndKeepVisibility(Random rnd) {
+        beforeWrite();
         Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
         components = shuffled.a;
         elementVisibility = shuffled.b;
@@ -365,14 +376,24 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     @NotNull
     private PartialObservableDeck<T> commonCopy(PartialObservableDeck<T> dp) {
         dp.deckVisibility = deckVisibility.clone();
+        // with copy-on-write the element visibility is shared along with the components
+        dp.elementVisibility = dp.shared ? elementVisibility : copyVisibility(elementVisibility);
+        return dp;
+    }
 
+    private static List<boolean[]> copyVisibility(List<boolean[]> visibility) {
         ArrayList<boolean[]> newVisibility = new ArrayList<>();
-        for (boolean[] visibility : elementVisibility) {
-            newVisibility.add(visibility.clone());
+        for (boolean[] v : visibility) {
+            newVisibility.add(v.clone());
         }
-        dp.elementVisibility = newVisibility;
+        return newVisibility;
+    }
 
-        return dp;
+    @Override
+    protected void beforeWrite() {
+        if (shared)
+            elementVisibility = copyVisibility(elementVisibility);
+        super.beforeWrite();
     }
 
     public String toString(AbstractGameState gs, int playerID) {
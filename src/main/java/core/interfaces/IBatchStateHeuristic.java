@@ -0,0 +1,34 @@
+package core.interfaces;
+
+import core.AbstractGameState;
+
+import java.util.List;
+
+/**
+ * An IStateHeuristic that can evaluate several states in one call.
+ * This is useful for heuristics where per-call overhead dominates (learned models that extract a feature vector
+ * and then apply a matrix of weights), as the states can be packed into a single contiguous feature matrix.
+ * <p>
+ * MCTS will make use of this if leafBatchSize > 1 (see MCTSParams).
+ */
+public interface IBatchStateHeuristic extends IStateHeuristic {
+
+    /**
+     * Evaluates all the states for every player.
+     * The default implementation simply calls evaluateState() for each state/player combination.
+     *
+     * @param states - game states to evaluate
+     * @return - an array with one entry per state, each of which contains the value of the state for each player
+     */
+    default double[][] evaluateStates(List<AbstractGameState> states) {
+        double[][] retValue = new double[states.size()][];
+        for (int i = 0; i < states.size(); i++) {
+            AbstractGameState state = states.get(i);
+            retValue[i] = new double[state.getNPlayers()];
+            for (int p = 0; p < retValue[i].length; p++) {
+                retValue[i][p] = evaluateState(state, p);
+            }
+        }
+        return retValue;
+    }
+}
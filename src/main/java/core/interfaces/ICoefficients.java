@@ -54,6 +54,36 @@ public interface ICoefficients {
         return retValue;
     }
 
+    /**
+     * Applies the coefficients to each row of a row-major feature matrix, with rows of phi.length / rows features.
+     * This is equivalent to calling applyCoefficients() on each row, but avoids allocating a vector per row.
+     */
+    default double[] applyCoefficients(double[] phi, int rows) {
+        double[] coefficients = coefficients();
+        int[][] interactions = interactions();
+        double[] interactionCoefficients = interactionCoefficients();
+        int width = rows == 0 ? 0 : phi.length / rows;
+        double[] retValue = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            int offset = r * width;
+            double value = coefficients[0]; // the bias term
+            for (int i = 0; i < width; i++) {
+                value += phi[offset + i] * coefficients[i + 1];
+            }
+            if (interactionCoefficients != null) {
+                for (int i = 0; i < interactions.length; i++) {
+                    double interactionValue = 1;
+                    for (int j : interactions[i]) {
+                        interactionValue *= phi[offset + j];
+                    }
+                    value += interactionValue * interactionCoefficients[i];
+                }
+            }
+            retValue[r] = value;
+        }
+        return retValue;
+    }
+
     default double calculateInteractionEffects(double[] phi) {
         double retValue = 0;
         int[][] interactions = interactions();
@@ -4,6 +4,7 @@ import core.CoreConstants;
 import core.components.Component;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -36,6 +37,14 @@ public interface IComponentContainer<T extends Component> {
         return getComponents().size();
     }
 
+    /**
+     * Applies the action to each component, without needing access to the underlying collection (so a container
+     * that shares its storage in copy-on-write mode can be read without taking a copy).
+     */
+    default void forEachComponent(Consumer<? super T> action) {
+        getComponents().forEach(action);
+    }
+
     default double sumDouble(Function<T, Double> lambda) {
         double retValue = 0.0;
         for (T c : getComponents()) {
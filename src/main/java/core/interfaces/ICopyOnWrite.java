@@ -0,0 +1,45 @@
+package core.interfaces;
+
+/**
+ * Implemented by component containers (Deck, PartialObservableDeck, GridBoard, Counter, Area) that support an
+ * opt-in copy-on-write mode. When this is switched on, copy() shares the backing storage with the original instead
+ * of copying it, and the first change to either of them takes a private (deep) copy at that point.
+ * <p>
+ * This makes copying a game state much cheaper when search only changes a few components on each next(). The price
+ * is that the component objects held by a container may be replaced by copies on any change to it, so game code must
+ * look components up by componentID (as actions do) rather than keep references to them. Handing out a component
+ * (with get(), peek(), getElement(), an iterator and so on) also takes the private copy first, as the caller may
+ * change it in place; only forEachComponent() reads a container without doing so, and must not change what it is
+ * given.
+ * <p>
+ * AbstractGameState.getComponentById() takes care of this for components found by ID: if the container a component
+ * was found in is still shared, or has changed since, then the container is unshared and looked at again (and so is
+ * the container the component is in now, if it has moved). The component returned is therefore always the one held
+ * by its current container, which is not shared, so an action can change it in place.
+ * <p>
+ * The mode is inherited by copies. It can be switched on for a whole game state with
+ * AbstractGameState.setCopyOnWrite(), or for every game with the 'copy on write' core parameter.
+ */
+public interface ICopyOnWrite {
+
+    void setCopyOnWrite(boolean copyOnWrite);
+
+    boolean isCopyOnWrite();
+
+    /**
+     * @return true if the storage is currently shared with another copy, and neither has changed it since
+     */
+    boolean isShared();
+
+    /**
+     * Takes a private copy of the storage now, if it is shared.
+     */
+    void unshare();
+
+    /**
+     * @return a number that changes whenever the container changes the component objects it holds, by adding,
+     * removing or replacing any of them (including replacing them all with copies). References to them taken
+     * earlier can then be recognised as possibly out of date.
+     */
+    int getStorageVersion();
+}
@@ -1,6 +1,4 @@
-package llm;
-
-import core.interfaces.IStateHeuristic;
+package core.interfaces;
 
 public interface IHasStateHeuristic {
 
@@ -0,0 +1,21 @@
+package core.interfaces;
+
+import core.AbstractGameState;
+
+/**
+ * An IStateKey whose keys are primitive longs. Users such as MCGS can call getLongKey() and store the keys in a
+ * primitive long-keyed map (utilities.LongHashMap), avoiding boxing; getKey() returns the boxed value for everything else.
+ */
+public interface ILongStateKey extends IStateKey {
+
+    default long getLongKey(AbstractGameState state) {
+        return getLongKey(state, state.getCurrentPlayer());
+    }
+
+    long getLongKey(AbstractGameState state, int playerId);
+
+    @Override
+    default Object getKey(AbstractGameState state, int playerId) {
+        return getLongKey(state, playerId);
+    }
+}
@@ -0,0 +1,16 @@
+package core.interfaces;
+
+/**
+ * Summarises the rulebook of a game, for use in prompts (for example those of LLM-created heuristics).
+ * <p>
+ * This is a service: GameType.loadRulebook() finds an implementation with ServiceLoader, so that one can be provided
+ * by a module (the llm module) that is not on the classpath of every run.
+ */
+public interface IRuleSummariser {
+
+    /**
+     * @param rulebookPath - the rulebook of a game, usually a pdf
+     * @return a summary of the rules and strategy of the game
+     */
+    String summarise(String rulebookPath);
+}
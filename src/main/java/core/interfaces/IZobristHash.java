@@ -0,0 +1,12 @@
+package core.interfaces;
+
+/**
+ * Implemented by components and game states that keep a 64-bit Zobrist-style hash of their contents up to date as
+ * they change (see utilities.Zobrist), so that it can be read in O(1) rather than computed from scratch each time.
+ * The hash is copied with the object. Equal contents give equal hashes; different contents give different hashes
+ * except for (rare) collisions.
+ */
+public interface IZobristHash {
+
+    long getZobristHash();
+}
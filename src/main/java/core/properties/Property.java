@@ -40,6 +40,14 @@ public abstract class Property
     @Override
     public int hashCode() { return hashKey; }
 
+    /**
+     * @return true if the value of this property can never be changed after construction, so the same object can
+     * be shared between copies of a component
+     */
+    public boolean isImmutable() {
+        return false;
+    }
+
     /* Final methods */
 
     /**
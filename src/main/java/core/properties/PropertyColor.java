@@ -7,8 +7,8 @@ import java.util.Objects;
 
 public class PropertyColor extends Property
 {
-    public String valueStr;
-    private Color value;
+    public final String valueStr;
+    private final Color value;
 
     public PropertyColor(String hashString, String valStr)
     {
@@ -24,6 +24,11 @@ public class PropertyColor extends Property
         this.valueStr = valueStr;
     }
 
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return value.toString();
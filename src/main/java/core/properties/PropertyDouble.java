@@ -0,0 +1,38 @@
+package core.properties;
+
+
+public class PropertyDouble extends Property
+{
+    public double value;
+
+    public PropertyDouble(String hashString, double value)
+    {
+        super(hashString);
+        this.value = value;
+    }
+
+    public PropertyDouble(String hashString, int hashKey, double value)
+    {
+        super(hashString, hashKey);
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return ""+value;
+    }
+
+    public boolean equals(Object other)
+    {
+       if(other instanceof PropertyDouble)
+           return value == ((PropertyDouble)(other)).value;
+       return false;
+    }
+
+    @Override
+    protected Property _copy()
+    {
+        return new PropertyDouble(hashString, hashKey, value);
+    }
+
+}
@@ -11,7 +11,7 @@ public class PropertyInt extends Property
         this.value = value;
     }
 
-    private PropertyInt(String hashString, int hashKey, int value)
+    public PropertyInt(String hashString, int hashKey, int value)
     {
         super(hashString, hashKey);
         this.value = value;
@@ -0,0 +1,129 @@
+package core.properties;
+
+import core.CoreConstants.ComponentType;
+import utilities.Hash;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The layout of properties for one type of component. Each (property key, kind of value) pair that is set on a
+ * component of this type gets a slot id the first time it is seen, and components then hold the values in
+ * primitive arrays (int, long, double) or an object array, indexed by the slot's position within its kind.
+ * <p>
+ * Game code that reads or writes a property often can look up the slot id once (e.g. in a static final field) and
+ * use Component.getIntProperty(slot) and the like, which avoids both the property map lookup and the boxed Property
+ * object. Component.getProperty(int) still works for everything else.
+ * <p>
+ * Slots are only ever added, so slot ids stay valid for the whole run.
+ */
+public final class PropertySchema {
+
+    public enum Kind {
+        INT,        // PropertyInt
+        BOOLEAN,    // PropertyBoolean, stored in the int array as 0 / 1
+        LONG,       // PropertyLong
+        DOUBLE,     // PropertyDouble
+        OBJECT      // any other Property, stored as the Property object
+    }
+
+    public static final class Slot {
+        public final int id;
+        public final int hashKey;
+        public final String name;
+        public final Kind kind;
+        public final int index;  // position in the component's array for this kind
+
+        private Slot(int id, int hashKey, String name, Kind kind, int index) {
+            this.id = id;
+            this.hashKey = hashKey;
+            this.name = name;
+            this.kind = kind;
+            this.index = index;
+        }
+    }
+
+    private static final int[] NO_SLOTS = new int[0];
+    private static final Map<ComponentType, PropertySchema> schemas = new EnumMap<>(ComponentType.class);
+    private static final PropertySchema untyped = new PropertySchema(null);
+
+    static {
+        for (ComponentType type : ComponentType.values())
+            schemas.put(type, new PropertySchema(type));
+    }
+
+    public static PropertySchema of(ComponentType type) {
+        return type == null ? untyped : schemas.get(type);
+    }
+
+    public final ComponentType type;
+    private volatile Slot[] slots = new Slot[0];
+    private final int[] kindCounts = new int[Kind.values().length];
+    private final Map<Integer, int[]> slotsByKey = new ConcurrentHashMap<>();
+
+    private PropertySchema(ComponentType type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the kind of slot the given property is stored in
+     */
+    public static Kind kindOf(Property prop) {
+        if (prop instanceof PropertyInt) return Kind.INT;
+        if (prop instanceof PropertyBoolean b && b.value != null) return Kind.BOOLEAN;
+        if (prop instanceof PropertyLong) return Kind.LONG;
+        if (prop instanceof PropertyDouble) return Kind.DOUBLE;
+        return Kind.OBJECT;
+    }
+
+    /**
+     * Finds the slot for this property key and kind, adding it if this is the first time it has been seen.
+     *
+     * @return the slot id
+     */
+    public int slot(String name, Kind kind) {
+        return slot(name, Hash.GetInstance().hash(name), kind);
+    }
+
+    public int slot(String name, int hashKey, Kind kind) {
+        int[] ids = slotsByKey.getOrDefault(hashKey, NO_SLOTS);
+        for (int id : ids) {
+            if (slots[id].kind == kind) return id;
+        }
+        return addSlot(name, hashKey, kind);
+    }
+
+    private synchronized int addSlot(String name, int hashKey, Kind kind) {
+        int[] ids = slotsByKey.getOrDefault(hashKey, NO_SLOTS);
+        for (int id : ids) {
+            if (slots[id].kind == kind) return id;  // added by another thread in the meantime
+        }
+        int id = slots.length;
+        Kind storedAs = kind == Kind.BOOLEAN ? Kind.INT : kind;  // booleans share the int array
+        Slot slot = new Slot(id, hashKey, name, kind, kindCounts[storedAs.ordinal()]++);
+        Slot[] newSlots = Arrays.copyOf(slots, id + 1);
+        newSlots[id] = slot;
+        slots = newSlots;
+        int[] newIds = Arrays.copyOf(ids, ids.length + 1);
+        newIds[ids.length] = id;
+        slotsByKey.put(hashKey, newIds);
+        return id;
+    }
+
+    /**
+     * @return the ids of all slots for this property key (one per kind of value it has been set with), possibly empty
+     */
+    public int[] slotsFor(int hashKey) {
+        return slotsByKey.getOrDefault(hashKey, NO_SLOTS);
+    }
+
+    public Slot get(int slotId) {
+        return slots[slotId];
+    }
+
+    public int size() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,81 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import core.actions.ActionCache;
+import games.GameType;
+import utilities.Utils;
+
+import java.util.*;
+
+/**
+ * Measures the allocation due to actions in the pattern used by tree search: copy the state, compute the available
+ * actions, and use copies of them as keys in a map of children (which are then looked up again).
+ * <p>
+ * States are sampled from random playouts of each game, and each is measured with the game's ActionCache disabled
+ * and enabled (this only makes a difference for games that use the cache for some of their actions). The bytes
+ * allocated by the copy of the state itself are excluded. The mean bytes allocated and time per decision are printed,
+ * along with the proportion of action look-ups that were served from the cache.
+ * <p>
+ * Arguments: games=Dominion|Catan|TerraformingMars|Root (the default), nPlayers, nStates (sampled per game),
+ * reps (per state) and seed.
+ */
+public class ActionAllocationBenchmark {
+
+    public static void main(String... args) {
+        String games = Utils.getArg(args, "games", "Dominion|Catan|TerraformingMars|Root");
+        int nPlayers = Utils.getArg(args, "nPlayers", 3);
+        int nStates = Utils.getArg(args, "nStates", 50);
+        int reps = Utils.getArg(args, "reps", 20);
+        long seed = Utils.getArg(args, "seed", 42L);
+
+        System.out.printf("%-18s %8s %10s %14s %14s %12s %12s %8s%n", "Game", "States", "Actions",
+                "Off (KB)", "On (KB)", "Off (us)", "On (us)", "Hits");
+        for (String name : games.split("\\|")) {
+            GameType gameType = GameType.valueOf(name);
+            int players = Math.max(gameType.getMinPlayers(), Math.min(gameType.getMaxPlayers(), nPlayers));
+            List<AbstractGameState> states = CopyBenchmark.sampleStates(gameType, players, nStates, seed);
+            AbstractForwardModel fm = gameType.createGameInstance(players, seed).getForwardModel();
+            // all the sampled states are copies from the same game, so share one cache
+            ActionCache cache = states.get(0).getGameParameters().getActionCache();
+
+            cache.setEnabled(false);
+            measure(states, fm, 2);
+            double[] off = measure(states, fm, reps);
+            cache.setEnabled(true);
+            measure(states, fm, 2);
+            cache.clear();
+            double[] on = measure(states, fm, reps);
+            long lookups = cache.hits() + cache.misses();
+            System.out.printf("%-18s %8d %10.1f %14.2f %14.2f %12.1f %12.1f %8.3f%n", name, states.size(), off[2],
+                    off[1] / 1024.0, on[1] / 1024.0, off[0] / 1e3, on[0] / 1e3,
+                    lookups == 0 ? 0.0 : cache.hits() / (double) lookups);
+        }
+    }
+
+    /**
+     * @return mean nanoseconds, mean bytes allocated and mean number of actions per decision
+     */
+    static double[] measure(List<AbstractGameState> states, AbstractForwardModel fm, int reps) {
+        long nanos = 0, bytes = 0, actionCount = 0, count = 0;
+        for (AbstractGameState state : states) {
+            for (int r = 0; r < reps; r++) {
+                AbstractGameState copy = state.copy();
+                long startBytes = CopyBenchmark.allocatedBytes();
+                long start = System.nanoTime();
+                List<AbstractAction> actions = fm.computeAvailableActions(copy);
+                Map<AbstractAction, Object> children = new HashMap<>();
+                for (AbstractAction action : actions)
+                    children.put(action.copy(), null);
+                for (AbstractAction action : actions)
+                    children.containsKey(action);
+                nanos += System.nanoTime() - start;
+                bytes += CopyBenchmark.allocatedBytes() - startBytes;
+                actionCount += actions.size();
+                count++;
+            }
+        }
+        return new double[]{nanos / (double) count, bytes / (double) count, actionCount / (double) count};
+    }
+}
@@ -0,0 +1,114 @@
+package evaluation;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import utilities.Utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Measures the cost of the copy-and-advance pattern used by search agents: copy the state (from the perspective of
+ * the acting player), compute the actions available in the copy, and apply one of them.
+ * <p>
+ * States are sampled from random playouts of each game, and each is measured twice: with eager deep copies, and with
+ * copy-on-write enabled on the state (see ICopyOnWrite). The mean time and bytes allocated per copy+next are printed
+ * for both modes.
+ * <p>
+ * Arguments: games=Catan|TerraformingMars|... (default is Catan, TerraformingMars, Descent2e, Root, Saboteur), nPlayers,
+ * nStates (sampled per game), reps (per state), seed, and perspective=false to use copy() rather than copy(player).
+ */
+public class CopyBenchmark {
+
+    // the games measured by default; CopyOnWriteGamesTest checks that copy-on-write does not change how these play
+    public static final String DEFAULT_GAMES = "Catan|TerraformingMars|Descent2e|Root|Saboteur";
+
+    public static void main(String... args) {
+        String games = Utils.getArg(args, "games", DEFAULT_GAMES);
+        int nPlayers = Utils.getArg(args, "nPlayers", 3);
+        int nStates = Utils.getArg(args, "nStates", 50);
+        int reps = Utils.getArg(args, "reps", 20);
+        long seed = Utils.getArg(args, "seed", 42L);
+        boolean perspective = Utils.getArg(args, "perspective", true);
+
+        System.out.printf("%-18s %8s %14s %14s %14s %14s %8s%n", "Game", "States",
+                "Eager (us)", "CoW (us)", "Eager (KB)", "CoW (KB)", "Speedup");
+        for (String name : games.split("\\|")) {
+            GameType gameType = GameType.valueOf(name);
+            int players = Math.max(gameType.getMinPlayers(), Math.min(gameType.getMaxPlayers(), nPlayers));
+            List<AbstractGameState> states = sampleStates(gameType, players, nStates, seed);
+            AbstractForwardModel fm = gameType.createGameInstance(players, seed).getForwardModel();
+
+            // warm up both modes before timing
+            measure(states, fm, 2, false, perspective, seed);
+            measure(states, fm, 2, true, perspective, seed);
+            double[] eager = measure(states, fm, reps, false, perspective, seed);
+            double[] cow = measure(states, fm, reps, true, perspective, seed);
+            System.out.printf("%-18s %8d %14.1f %14.1f %14.1f %14.1f %8.2f%n", name, states.size(),
+                    eager[0] / 1e3, cow[0] / 1e3, eager[1] / 1024.0, cow[1] / 1024.0, eager[0] / cow[0]);
+        }
+    }
+
+    /**
+     * Plays random games, keeping one in ten of the decision states (with more than one action) until nStates are kept
+     */
+    public static List<AbstractGameState> sampleStates(GameType gameType, int nPlayers, int nStates, long seed) {
+        Random rnd = new Random(seed);
+        List<AbstractGameState> states = new ArrayList<>();
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        AbstractForwardModel fm = game.getForwardModel();
+        double keepProbability = 0.1;
+        while (states.size() < nStates) {
+            game.reset(Collections.emptyList(), rnd.nextLong());
+            AbstractGameState state = game.getGameState();
+            int decisions = 0;
+            while (state.isNotTerminal() && states.size() < nStates && decisions < 5000) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                if (actions.isEmpty())
+                    break;  // random play can reach dead ends in some games
+                if (actions.size() > 1 && rnd.nextDouble() < keepProbability)
+                    states.add(state.copy());
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                decisions++;
+            }
+        }
+        return states;
+    }
+
+    /**
+     * @return mean nanoseconds and mean bytes allocated per copy+next
+     */
+    static double[] measure(List<AbstractGameState> states, AbstractForwardModel fm, int reps,
+                            boolean copyOnWrite, boolean perspective, long seed) {
+        Random rnd = new Random(seed);
+        long nanos = 0, bytes = 0, count = 0;
+        for (AbstractGameState state : states) {
+            state.setCopyOnWrite(copyOnWrite);
+            int player = state.getCurrentPlayer();
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            for (int r = 0; r < reps; r++) {
+                AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+                long startBytes = allocatedBytes();
+                long start = System.nanoTime();
+                AbstractGameState copy = perspective ? state.copy(player) : state.copy();
+                // the perspective copy may have redeterminised the action's targets, so pick it again on the copy
+                List<AbstractAction> copyActions = fm.computeAvailableActions(copy);
+                if (!copyActions.isEmpty())
+                    fm.next(copy, copyActions.contains(action) ? action : copyActions.get(rnd.nextInt(copyActions.size())));
+                nanos += System.nanoTime() - start;
+                bytes += allocatedBytes() - startBytes;
+                count++;
+            }
+        }
+        return new double[]{nanos / (double) count, bytes / (double) count};
+    }
+
+    static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
+}
@@ -5,6 +5,7 @@ import core.AbstractPlayer;
 import core.interfaces.*;
 import evaluation.listeners.ActionFeatureListener;
 import evaluation.listeners.FeatureListener;
+import evaluation.listeners.IGameListener;
 import evaluation.listeners.StateFeatureListener;
 import evaluation.loggers.FileStatsLogger;
 import evaluation.metrics.Event;
@@ -20,8 +21,9 @@ import players.mcts.MCTSExpertIterationListener;
 import players.mcts.MCTSPlayer;
 import utilities.Pair;
 
-import java.io.File;
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.IntStream;
 
 import static evaluation.RunArg.parseConfig;
@@ -36,14 +38,15 @@ public class ExpertIteration {
     String stateLearnerFile, actionLearnerFile;
     IStateFeatureVector stateFeatureVector;
     IActionFeatureVector actionFeatureVector;
-    FeatureListener stateListener, actionListener;
-    int nPlayers, matchups, iterations, iter, bicMultiplier, bicTimer, expertTime;
+    int nPlayers, matchups, iterations, iter, bicMultiplier, bicTimer, expertTime, nThreads;
     double sampleRate;
+    boolean pipeline;
     String[] stateDataFilesByIteration;
     String[] actionDataFilesByIteration;
     boolean useRounds, useStateInAction;
     String prefix = "EI";
     AbstractPlayer bestAgent = null;
+    IActionHeuristic currentActionHeuristic = null;
     Map<String, Integer> tournamentWinsByAgent = new HashMap<>();
     int consecutiveWins = 0;
     Map<RunArg, Object> config;
@@ -72,6 +75,8 @@ public class ExpertIteration {
         bicTimer = (int) config.get(RunArg.bicTimer);
         sampleRate = (double) config.get(RunArg.sampleRate);
         expertTime = (int) config.get(RunArg.expertTime);
+        nThreads = (int) config.get(RunArg.nThreads);
+        pipeline = (boolean) config.get(RunArg.pipeline);
 
         params = AbstractParameters.createFromFile(gameToPlay, (String) config.get(RunArg.gameParams));
 
@@ -144,8 +149,6 @@ public class ExpertIteration {
         agents = new ArrayList<>(PlayerFactory.createPlayers(player));
         bestAgent = agents.get(0);
 
-        IActionHeuristic currentActionHeuristic = null;
-
         int restartAtIteration = restartIteration();
 
         if (restartAtIteration > 0) {
@@ -176,38 +179,70 @@ public class ExpertIteration {
             }
         }
 
-        do {
-            long iterationStartTime = System.currentTimeMillis();
-            // learn the heuristics from the data
-            finished = gatherDataAndCheckConvergence();
-
-            long dataGatheringTime = System.currentTimeMillis() - iterationStartTime;
-            if (finished)
-                break; // we are done, so we don't need to learn heuristics
-
-            Pair<IStateHeuristic, IActionHeuristic> learnedHeuristics = learnFromNewData();
-            long learningTime = System.currentTimeMillis() - iterationStartTime - dataGatheringTime;
-
-            IActionHeuristic newActionHeuristic = learnedHeuristics.b;
-            IStateHeuristic newStateHeuristic = learnedHeuristics.a;
-
-            tuneAgents(newStateHeuristic, newActionHeuristic, currentActionHeuristic);
-            long tuningTime = System.currentTimeMillis() - iterationStartTime - dataGatheringTime - learningTime;
-
-            currentActionHeuristic = newActionHeuristic;
-            Pair<Long, Long> totalTime = calculateHoursAndMinutes(System.currentTimeMillis() - iterationStartTime);
-            Pair<Long, Long> dataTime = calculateHoursAndMinutes(dataGatheringTime);
-            Pair<Long, Long> learnTime = calculateHoursAndMinutes(learningTime);
-            Pair<Long, Long> tuneTime = calculateHoursAndMinutes(tuningTime);
-            System.out.printf(
-                    "Iteration %d completed in %d h %2d m (data: %d h %2d m, learn: %d h %2d m, tune: %d h %2d m)%n",
-                    iter, totalTime.a, totalTime.b,
-                    dataTime.a, dataTime.b,
-                    learnTime.a, learnTime.b,
-                    tuneTime.a, tuneTime.b
-            );
-            iter++;
-        } while (true);
+        // In pipeline mode the data for the next iteration is gathered on a separate thread while we learn and tune
+        ExecutorService dataGatherer = pipeline ? Executors.newSingleThreadExecutor() : null;
+        Future<GatheredData> nextData = null;
+        try {
+            do {
+                long iterationStartTime = System.currentTimeMillis();
+                GatheredData data = nextData == null ? gatherData(iter, tournamentAgents(), bestAgent.copy()) : waitFor(nextData);
+                finished = checkConvergence(data);
+
+                long dataGatheringTime = System.currentTimeMillis() - iterationStartTime;
+                if (finished)
+                    break; // we are done, so we don't need to learn heuristics
+
+                if (dataGatherer != null && iter + 1 < iterations) {
+                    // the agent tuned in this iteration is not yet available, so first plays in the tournament after next
+                    int nextIteration = iter + 1;
+                    List<AbstractPlayer> nextAgents = tournamentAgents();
+                    AbstractPlayer expert = bestAgent.copy();
+                    nextData = dataGatherer.submit(() -> gatherData(nextIteration, nextAgents, expert));
+                } else {
+                    nextData = null;
+                }
+                runIteration(iterationStartTime, dataGatheringTime);
+                iter++;
+            } while (iter < iterations);
+        } finally {
+            if (dataGatherer != null)
+                dataGatherer.shutdownNow();
+        }
+    }
+
+    private GatheredData waitFor(Future<GatheredData> data) {
+        try {
+            return data.get();
+        } catch (InterruptedException e) {
+            throw new AssertionError("Interrupted while gathering data for iteration " + iter);
+        } catch (ExecutionException e) {
+            throw new AssertionError("Data gathering failed for iteration " + iter, e.getCause());
+        }
+    }
+
+    // Learn and tune the agents from the data gathered for this iteration
+    private void runIteration(long iterationStartTime, long dataGatheringTime) {
+        Pair<IStateHeuristic, IActionHeuristic> learnedHeuristics = learnFromNewData();
+        long learningTime = System.currentTimeMillis() - iterationStartTime - dataGatheringTime;
+
+        IActionHeuristic newActionHeuristic = learnedHeuristics.b;
+        IStateHeuristic newStateHeuristic = learnedHeuristics.a;
+
+        tuneAgents(newStateHeuristic, newActionHeuristic, currentActionHeuristic);
+        long tuningTime = System.currentTimeMillis() - iterationStartTime - dataGatheringTime - learningTime;
+
+        currentActionHeuristic = newActionHeuristic;
+        Pair<Long, Long> totalTime = calculateHoursAndMinutes(System.currentTimeMillis() - iterationStartTime);
+        Pair<Long, Long> dataTime = calculateHoursAndMinutes(dataGatheringTime);
+        Pair<Long, Long> learnTime = calculateHoursAndMinutes(learningTime);
+        Pair<Long, Long> tuneTime = calculateHoursAndMinutes(tuningTime);
+        System.out.printf(
+                "Iteration %d completed in %d h %2d m (data: %d h %2d m, learn: %d h %2d m, tune: %d h %2d m)%n",
+                iter, totalTime.a, totalTime.b,
+                dataTime.a, dataTime.b,
+                learnTime.a, learnTime.b,
+                tuneTime.a, tuneTime.b
+        );
     }
 
     /**
@@ -222,18 +257,14 @@ public class ExpertIteration {
         return Pair.of(hours, minutes);
     }
 
-    // A tournament of all current agents to gather data for the next training run
-    // any very poorly performing agents are removed from the list (dominated by all other agents)
-    // This also checks for convergence; meaning that the best agent has not changed for 3 iterations
-    private boolean gatherDataAndCheckConvergence() {
-        RGConfig.put(RunArg.mode, "random");  // we are most interested in a wide range of data, so do not want to reuse random seeds
-        RGConfig.put(RunArg.verbose, false);
-        String expert = ((String) config.get(RunArg.expert)).toUpperCase();
-
-        // we need to set the listener to record the required data for the Learner processes
-        RGConfig.put(RunArg.listener, new ArrayList<String>());
+    /*
+     * The results of a data-gathering tournament, and the agents that played in it (in the order used by the tournament)
+     */
+    private record GatheredData(RoundRobinTournament tournament, List<AbstractPlayer> agents) {
+    }
 
-        // and set the budget on the agents
+    // The agents for the next data-gathering tournament, with their budget set
+    private List<AbstractPlayer> tournamentAgents() {
         int budget = (int) RGConfig.get(RunArg.budget);
         if (budget > 0) {
             for (AbstractPlayer player : agents) {
@@ -241,28 +272,72 @@ public class ExpertIteration {
                     anyTime.setBudget(budget);
             }
         }
+        return new ArrayList<>(agents);
+    }
 
-        RoundRobinTournament tournament = new RoundRobinTournament(agents, gameToPlay, nPlayers, params, RGConfig);
-        tournament.setResultsFile(dataDir + File.separator + String.format("TournamentResults_%s_%02d.txt", prefix, iter));
+    // A tournament of the agents to gather data for the next training run
+    // This does not change any of the state used by learning or tuning, so can run alongside them
+    // (with nThreads > 1 the games are also run in parallel, with one data file per thread, combined at the end)
+    private GatheredData gatherData(int iteration, List<AbstractPlayer> players, AbstractPlayer expertAgent) {
+        // a copy, as this may run in the background while the main thread reads RGConfig
+        Map<RunArg, Object> tournamentConfig = new HashMap<>(RGConfig);
+        tournamentConfig.put(RunArg.mode, "random");  // we are most interested in a wide range of data, so do not want to reuse random seeds
+        tournamentConfig.put(RunArg.verbose, false);
+        String expert = ((String) config.get(RunArg.expert)).toUpperCase();
+
+        // we need to set the listener to record the required data for the Learner processes
+        tournamentConfig.put(RunArg.listener, new ArrayList<String>());
+        int budget = (int) tournamentConfig.get(RunArg.budget);
+
+        RoundRobinTournament tournament = new RoundRobinTournament(players, gameToPlay, nPlayers, params, tournamentConfig);
+        tournament.setResultsFile(dataDir + File.separator + String.format("TournamentResults_%s_%02d.txt", prefix, iteration));
+        String stateFile = null, actionFile = null;
         if (stateLearnerFile != null) {
-            stateListener = switch (expert) {
+            stateFile = String.format("State_%s_%02d.txt", prefix, iteration);
+            stateDataFilesByIteration[iteration] = dataDir + File.separator + stateFile;
+        }
+        if (actionLearnerFile != null) {
+            actionFile = String.format("Action_%s_%02d.txt", prefix, iteration);
+            actionDataFilesByIteration[iteration] = dataDir + File.separator + actionFile;
+        }
+        if (nThreads > 1) {
+            String finalStateFile = stateFile, finalActionFile = actionFile;
+            int[] worker = {0};  // the factory is called on this thread
+            tournament.setParallel(nThreads, () -> {
+                int part = worker[0]++;
+                return createListeners(expert, budget, expertAgent,
+                        partFile(finalStateFile, part), partFile(finalActionFile, part));
+            });
+        } else {
+            createListeners(expert, budget, expertAgent, stateFile, actionFile).forEach(tournament::addListener);
+        }
+        tournament.run();
+        if (nThreads > 1) {
+            combineDataFiles(stateFile);
+            combineDataFiles(actionFile);
+        }
+        return new GatheredData(tournament, players);
+    }
+
+    private List<IGameListener> createListeners(String expert, int budget, AbstractPlayer expertAgent, String stateFile, String actionFile) {
+        List<IGameListener> retValue = new ArrayList<>();
+        if (stateFile != null) {
+            FeatureListener stateListener = switch (expert) {
                 case "BASE", "MCTSACTION" -> new StateFeatureListener(stateFeatureVector,
                         useRounds ? Event.GameEvent.ROUND_OVER : Event.GameEvent.TURN_OVER,
                         false);
                 case "MCTS" -> null; // covered by ActionListener
                 default -> throw new IllegalArgumentException("Unexpected value for expert: " + expert);
             };
-            String fileName = String.format("State_%s_%02d.txt", prefix, iter);
-            stateDataFilesByIteration[iter] = dataDir + File.separator + fileName;
             if (stateListener != null) {
                 stateListener.setSampleRate(sampleRate);
-                stateListener.setLogger(new FileStatsLogger(fileName, "\t", false));
+                stateListener.setLogger(new FileStatsLogger(stateFile, "\t", false));
                 stateListener.setOutputDirectory(dataDir);
-                tournament.addListener(stateListener);
+                retValue.add(stateListener);
             }
         }
-        if (actionLearnerFile != null) {
-            MCTSPlayer oracle = (MCTSPlayer) bestAgent.copy();
+        if (actionFile != null) {
+            MCTSPlayer oracle = (MCTSPlayer) expertAgent.copy();
             // For the oracle we set a high budget, and tweak parameters to ensure some exploration
             oracle.setName("Oracle");
             oracle.setBudget(budget * expertTime);
@@ -272,7 +347,7 @@ public class ExpertIteration {
                 oracle.getParameters().setParameterValue("FPU", 1000.0);
             if (((double) oracle.getParameters().getParameterValue("K")) < 1.0)
                 oracle.getParameters().setParameterValue("K", 1.0);
-            actionListener = switch (expert) {
+            FeatureListener actionListener = switch (expert) {
                 case "BASE" -> new ActionFeatureListener(actionFeatureVector, stateFeatureVector,
                         Event.GameEvent.ACTION_CHOSEN,
                         true);
@@ -283,17 +358,58 @@ public class ExpertIteration {
                 default -> throw new IllegalArgumentException("Unexpected value for expert: " + expert);
             };
             actionListener.setSampleRate(sampleRate);
-            String fileName = String.format("Action_%s_%02d.txt", prefix, iter);
-            actionListener.setLogger(new FileStatsLogger(fileName, "\t", false));
+            actionListener.setLogger(new FileStatsLogger(actionFile, "\t", false));
             actionListener.setOutputDirectory(dataDir);
+            retValue.add(actionListener);
+        }
+        return retValue;
+    }
 
-            tournament.addListener(actionListener);
-            actionDataFilesByIteration[iter] = dataDir + File.separator + fileName;
+    private static String partFile(String fileName, int part) {
+        if (fileName == null)
+            return null;
+        return fileName.replace(".txt", String.format("_part%02d.txt", part));
+    }
+
+    // Combines the data files written by each thread into the single file for the iteration (and deletes them)
+    private void combineDataFiles(String fileName) {
+        if (fileName == null)
+            return;
+        boolean headerWritten = false;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(dataDir + File.separator + fileName))) {
+            for (int part = 0; part < nThreads; part++) {
+                File partFile = new File(dataDir + File.separator + partFile(fileName, part));
+                if (!partFile.exists())
+                    continue; // no data recorded by this thread
+                try (BufferedReader reader = new BufferedReader(new FileReader(partFile))) {
+                    String header = reader.readLine();
+                    if (header != null && !headerWritten) {
+                        writer.write(header);
+                        writer.newLine();
+                        headerWritten = true;
+                    }
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+                partFile.delete();
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Problem combining data files for " + fileName + " : " + e.getMessage());
         }
-        tournament.run();
+    }
+
+    // Any very poorly performing agents are removed from the list (dominated by all other agents)
+    // This also checks for convergence; meaning that the best agent has not changed for 3 iterations
+    private boolean checkConvergence(GatheredData data) {
+        RoundRobinTournament tournament = data.tournament();
+        List<AbstractPlayer> players = data.agents();
+        int budget = (int) RGConfig.get(RunArg.budget);
 
         int alphaWinner = tournament.getAlphaRankWinnerByWinRate();
-        AbstractPlayer winner = alphaWinner > -1 ? agents.get(alphaWinner) : tournament.getWinner();
+        AbstractPlayer winner = alphaWinner > -1 ? players.get(alphaWinner) : tournament.getWinner();
         // Are we done?
         if (iter > 0) {
             tournamentWinsByAgent.merge(winner.toString(), 1, Integer::sum);
@@ -312,17 +428,18 @@ public class ExpertIteration {
 
         if (agents.size() > nPlayers * 2) {
             // We then remove additional agents to get within 2 x nPlayers
-            int toRemove = agents.size() - 2 * nPlayers;
+            // (only agents that played in the tournament can be removed; in pipeline mode the newest may not have)
+            int toRemove = Math.min(agents.size() - 2 * nPlayers, players.size());
             System.out.println("Removing " + toRemove + " additional agents to get within 2 x nPlayers");
             // we remove the worst performing agents
-            List<Integer> sortedAgents = IntStream.range(0, agents.size())
+            List<Integer> sortedAgents = IntStream.range(0, players.size())
                     .boxed()
                     .sorted(Comparator.comparingDouble(tournament::getWinRateAlphaRank))
                     .toList();
             // This sorts them in ascending order, so the first ones are the worst performing
             List<AbstractPlayer> toRemoveAgents = sortedAgents.stream()
                     .limit(toRemove)
-                    .map(agents::get)
+                    .map(players::get)
                     .peek(a -> System.out.println("Removing agent " + a))
                     .toList();
             agents.removeAll(toRemoveAgents);
@@ -23,6 +23,18 @@ public enum RunArg {
             "MultiNTBEA is deprecated and should not be used.",
             "NTBEA",
             new Usage[]{Usage.ParameterSearch, Usage.ExpertIteration}),
+    adaptiveAlpha("The significance level used in 'adaptive' tournament mode to decide that two agents are separated.\n" +
+            "\t This is Šidák-corrected for the number of pairs of agents. Default is 0.05.",
+            0.05,
+            new Usage[]{Usage.RunGames}),
+    adaptiveBatch("The number of games played for each active permutation in each round of an 'adaptive' tournament.\n" +
+            "\t Default is 10.",
+            10,
+            new Usage[]{Usage.RunGames}),
+    adaptiveMinGames("The minimum number of games two agents must play against each other before they can be\n" +
+            "\t considered separated in an 'adaptive' tournament. Default is 30.",
+            30,
+            new Usage[]{Usage.RunGames}),
     addTimeStamp("(Optional) If true (default is false), then the results will be written to a subdirectory of destDir.\n" +
             "\t This may be useful if you want to use the same destDir for multiple experiments.",
             false,
@@ -35,10 +47,21 @@ public enum RunArg {
             "\t If false, then each player will be assigned a player type independently.",
             true,
             new Usage[]{Usage.RunGames, Usage.ParameterSearch, Usage.ExpertIteration}),
+    checkpoint("(Optional) If greater than zero (default is 0), then progress is saved to a checkpoint file in destDir\n" +
+            "\t at most every this many seconds (and at the end). A later run with the same settings and destDir then\n" +
+            "\t resumes from the checkpoint, and only plays the games (or NTBEA trials) that were not yet done.\n" +
+            "\t Games that are resumed are not seen again by the listeners. A tournament resumes with the seed of the\n" +
+            "\t checkpoint, unless 'seed' is given, when it must be the same. The checkpoint is deleted once the run completes.",
+            0,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     config("The location of a JSON file from which to read the configuration. \n" +
             "\t If this is specified, then all other arguments are ignored.",
             "",
             new Usage[]{Usage.RunGames, Usage.ParameterSearch, Usage.ExpertIteration}),
+    coordinator("(Optional) host:port of a coordinator to play games for, as one of its 'workers'. All other arguments\n" +
+            "\t are then ignored, as they are sent by the coordinator.",
+            "",
+            new Usage[]{Usage.RunGames}),
     destDir("The directory to which the results will be written. Defaults to 'metrics/out'.\n" +
             "\t If (and only if) this is being run for multiple games/player counts, then a subdirectory\n" +
             "\t will be created for each game, and then within that for  each player count combination.",
@@ -109,7 +132,7 @@ public enum RunArg {
             "\t of a json file from which a listener can be instantiated.\n" +
             "\t Defaults to evaluation.metrics.MetricsGameListener. \n" +
             "\t A pipe-delimited string can be provided to gather many types of statistics \n" +
-            "\t from the same set of games.",
+            "\t from the same set of games. Use listener= (with no value) for none.",
             "metrics/MetricsGameListener.json",
             new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     matchups("The total number of matchups to run in a tournament.\n" +
@@ -118,7 +141,7 @@ public enum RunArg {
             "\tFor NTBEA/SkillLadder this will be used as a final tournament between the recommended agents from each run.",
             100,
             new Usage[]{Usage.RunGames, Usage.ParameterSearch, Usage.SkillLadder, Usage.ExpertIteration}),
-    mode("exhaustive|exhaustiveSP|random|sequential|fixed\n" +
+    mode("exhaustive|exhaustiveSP|random|sequential|fixed|adaptive\n" +
             "\t 'exhaustive' will iterate exhaustively through every possible permutation: \n" +
             "\t every possible player in every possible position, and run an equal number of games'\n" +
             "\t for each. This can be unworkable for a given matchup budget for a large number of players.\n" +
@@ -128,6 +151,9 @@ public enum RunArg {
             "\t in which case self-play will be allowed.)\n" +
             "\t 'sequential' will run tournaments on a ONE_VS_ALL basis between each pair of agents.\n" +
             "\t 'fixed' will run a fixed tournament, where the same agents occupy the same position for all games.\n" +
+            "\t 'adaptive' runs the permutations of 'exhaustive' in rounds of adaptiveBatch games, and stops playing\n" +
+            "\t a permutation once every pair of agents in it is separated by their win rate (or ordinal, if that is\n" +
+            "\t the evalMethod). matchups is then the maximum number of games, and the remainder is spent on close pairs.\n" +
             "\t In this mode the playerDirectory must contain exactly one json file for each position. These will be sorted alphabetically.\n" +
             "\t If a focusPlayer is provided, then 'mode' is ignored.",
             "random",
@@ -169,6 +195,11 @@ public enum RunArg {
             "\t Defaults to the end of the tournament (-1)",
             -1,
             new Usage[]{Usage.RunGames}),
+    reuseInstances("If true (the default), then NTBEA reuses the same game, opponents and tuned agent across trials,\n" +
+            "\t resetting them for each new game (the tuned agent has its parameters changed in place).\n" +
+            "\t If false, then new instances are created for every trial.",
+            true,
+            new Usage[]{Usage.ParameterSearch}),
     searchSpace("The json-format file of the search space to use. No default.",
             "",
             new Usage[]{Usage.ParameterSearch}),
@@ -215,6 +246,15 @@ public enum RunArg {
             "Algorithms such as least squares can O(n^3), in which case we need to limit this (and you may have memory limits).\n",
             10000,
             new Usage[]{Usage.ExpertIteration}),
+    nThreads("The number of games to run in parallel when gathering data. Default is 1.\n" +
+            "\t Each thread writes its data to a separate file, and these are combined at the end of the tournament.",
+            1,
+            new Usage[]{Usage.ExpertIteration}),
+    pipeline("If true (default is false), then data for the next iteration is gathered (with the agents available at\n" +
+            "\t that point) while learning and tuning take place for the current one. The newly tuned agent then\n" +
+            "\t joins the data-gathering tournament one iteration later than it otherwise would.",
+            false,
+            new Usage[]{Usage.ExpertIteration}),
     seed("(Optional) Random seed to use for process. This is not the seed used for games, but the seed of \n" +
             "\t the random number generator used to generate these.",
             System.currentTimeMillis(),
@@ -272,6 +312,28 @@ public enum RunArg {
             "This only makes sense if evalGames is greater than 0, and for an evalMethod that is score-based.",
             -1,
             new Usage[]{Usage.ParameterSearch}),
+    workers("(Optional) If greater than zero (default is 0), then this process coordinates this many worker JVMs on the\n" +
+            "\t same machine, which play the games of each tournament. The results are the same as a single process run\n" +
+            "\t with the same seed (if the agents are deterministic given their seeds). The data of the listeners is sent\n" +
+            "\t back to this process, which reports it as in a single process run; except for listeners that cannot do\n" +
+            "\t this (such as TournamentMetricsGameListener), which each worker writes to a 'worker-N' subdirectory.\n" +
+            "\t More workers can join with coordinator=localhost:port.\n" +
+            "\t Not available in 'sequential' mode.",
+            0,
+            new Usage[]{Usage.RunGames}),
+    gamesPerUnit("(Optional) With workers, the most games of one matchup that are sent to a worker as one unit of work.\n" +
+            "\t The default (0) sends all the games of a matchup together, so they are played with the same copies of the\n" +
+            "\t agents, as in a single process run. Smaller units share a matchup with many games between more workers,\n" +
+            "\t and less is played again if a worker fails. But each unit then starts with new copies of the agents, so\n" +
+            "\t agents that carry anything from one game to the next (such as the state of their random number generator)\n" +
+            "\t may not give exactly the same results as a single process.",
+            0,
+            new Usage[]{Usage.RunGames}),
+    gameTimeout("(Optional) With workers, the most seconds a worker may take for each game in a unit of work. A worker\n" +
+            "\t that takes longer (in a game that never ends, say) is dropped, and the unit is sent to another worker.\n" +
+            "\t The default is 600; 0 for no limit.",
+            600,
+            new Usage[]{Usage.RunGames}),
     verbose("If true, then the result of each game is reported. Default is false.",
             false,
             new Usage[]{Usage.RunGames, Usage.ParameterSearch, Usage.ExpertIteration});
@@ -292,6 +354,17 @@ public enum RunArg {
         this.when = when;
     }
 
+    /**
+     * @return true if config has a value for this argument that was given, rather than its default
+     */
+    public boolean isGivenIn(Map<RunArg, Object> config) {
+        Object value = config.get(this);
+        if (value instanceof Number n && defaultValue instanceof Number d)
+            // numbers in a JSON config are read as ints
+            return n.longValue() != d.longValue() && n.intValue() != d.intValue();
+        return value != null && !value.equals(defaultValue);
+    }
+
     public boolean isUsedIn(Usage usage) {
         return Arrays.asList(when).contains(usage);
     }
@@ -299,7 +372,9 @@ public enum RunArg {
     public Object parse(String[] args) {
         value = getArg(args, name(), defaultValue);
         if (this == listener) {
-            value = new ArrayList<>(Arrays.asList(((String) value).split("\\|")));
+            // an empty listener= turns off the default listener
+            boolean none = Arrays.stream(args).anyMatch(arg -> arg.equalsIgnoreCase(name() + "="));
+            value = none ? new ArrayList<String>() : new ArrayList<>(Arrays.asList(((String) value).split("\\|")));
         }
         return value;
     }
@@ -4,8 +4,11 @@ import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.interfaces.IGameRunner;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.ITransferableListener;
 import evaluation.tournaments.RoundRobinTournament;
 import evaluation.tournaments.SkillGrid;
+import evaluation.tournaments.TournamentCoordinator;
+import evaluation.tournaments.TournamentWorker;
 import games.GameType;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -41,6 +44,7 @@ public class RunGames implements IGameRunner {
     Map<GameType, int[]> gamesAndPlayerCounts;
     private LinkedList<AbstractPlayer> agents;
     private String timeDir;
+    private String[] args;
 
     /**
      * Main function, creates and runs the tournament with the given settings and players.
@@ -53,8 +57,34 @@ public class RunGames implements IGameRunner {
             return;
         }
 
+        String coordinatorAddress = (String) RunArg.coordinator.parse(args);
+        if (!coordinatorAddress.isEmpty()) {
+            // everything else comes from the coordinator
+            new TournamentWorker(coordinatorAddress).run();
+            return;
+        }
+
+        RunGames runGames = create(args);
+
+        // 3. Run!
+        if (runGames.config.get(mode).equals("sequential")) {
+            if ((int) runGames.config.get(workers) > 0)
+                throw new IllegalArgumentException("Cannot use workers in sequential mode");
+            SkillGrid main = new SkillGrid(runGames.agents, runGames.config);
+            main.run();
+        } else {
+            runGames.run();
+        }
+    }
+
+    /**
+     * Creates the games, player counts and agents from the arguments, as used both by a normal run and by a
+     * TournamentWorker (which is sent the arguments of its coordinator).
+     */
+    public static RunGames create(String[] args) {
         /* 1. Settings for the tournament */
         RunGames runGames = new RunGames();
+        runGames.args = args.clone();
         runGames.config = parseConfig(args, Collections.singletonList(Usage.RunGames));
 
         runGames.initialiseGamesAndPlayerCount();
@@ -82,55 +112,73 @@ public class RunGames implements IGameRunner {
         }
 
         runGames.timeDir = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
-
-        // 3. Run!
-        if (runGames.config.get(mode).equals("sequential")) {
-            SkillGrid main = new SkillGrid(agents, runGames.config);
-            main.run();
-        } else {
-            runGames.run();
-        }
+        return runGames;
     }
 
 
     @Override
     public void run() {
-        // Now we loop over each game and player count combination
-        for (GameType gameType : gamesAndPlayerCounts.keySet()) {
-            String gameName = gameType.name();
-            //     timeDir.insert(0, gameName + "_");
-
-            for (int playerCount : gamesAndPlayerCounts.get(gameType)) {
-                System.out.printf("Game: %s, Players: %d\n", gameName, playerCount);
-                String playersDir = playerCount + "-players";
-
-                AbstractParameters params = config.get(gameParams).equals("") ? null : AbstractParameters.createFromFile(gameType, (String) config.get(gameParams));
-
-                RoundRobinTournament tournament = new RoundRobinTournament(agents, gameType, playerCount, params, config);
-
-                // Add listeners
-                //noinspection unchecked
-                for (String listenerClass : ((List<String>) config.get(listener))) {
-                    try {
-                        IGameListener gameTracker = IGameListener.createListener(listenerClass);
-                        tournament.addListener(gameTracker);
-                        String outputDir = (String) config.get(destDir);
-                        List<String> directories = new ArrayList<>(Arrays.asList(outputDir.split(Pattern.quote(File.separator))));
-                        if (gamesAndPlayerCounts.size() > 1)
-                            directories.add(gameName);
-                        if (gamesAndPlayerCounts.get(gameType).length > 1)
-                            directories.add(playersDir);
-                        if ((boolean) config.get(addTimeStamp))
-                            directories.add(timeDir);
-                        gameTracker.setOutputDirectory(directories.toArray(new String[0]));
-                    } catch (IllegalArgumentException e) {
-                        System.out.println("Error creating listener: " + e.getMessage());
-                        // this is not a problem as such, we'll still report win rate information which may be all the user wants
-                    }
+        // With workers, this process is the coordinator, and the games are played by the workers
+        TournamentCoordinator coordinator = null;
+        int nWorkers = (int) config.get(workers);
+        if (nWorkers > 0) {
+            String[] workerArgs = Arrays.stream(args).filter(arg -> !arg.startsWith(workers.name() + "=")).toArray(String[]::new);
+            coordinator = new TournamentCoordinator(workerArgs);
+            coordinator.setGameTimeout((int) config.get(gameTimeout) * 1000L);
+            coordinator.launchLocalWorkers(nWorkers);
+        }
+        try {
+            // Now we loop over each game and player count combination
+            for (GameType gameType : gamesAndPlayerCounts.keySet()) {
+                for (int playerCount : gamesAndPlayerCounts.get(gameType)) {
+                    System.out.printf("Game: %s, Players: %d\n", gameType.name(), playerCount);
+                    RoundRobinTournament tournament = createTournament(gameType, playerCount);
+                    if (coordinator != null)
+                        tournament.setCoordinator(coordinator);
+                    addListeners(tournament, gameType, playerCount);
+
+                    // run tournament
+                    tournament.run();
                 }
+            }
+        } finally {
+            if (coordinator != null)
+                coordinator.close();
+        }
+    }
 
-                // run tournament
-                tournament.run();
+    public RoundRobinTournament createTournament(GameType gameType, int playerCount) {
+        AbstractParameters params = config.get(gameParams).equals("") ? null : AbstractParameters.createFromFile(gameType, (String) config.get(gameParams));
+        return new RoundRobinTournament(agents, gameType, playerCount, params, config);
+    }
+
+    /**
+     * Adds the listeners in the config to the tournament, each writing to its own directory under destDir. The
+     * workerDirectories are added at the end for listeners that cannot send their data to a TournamentCoordinator.
+     */
+    public void addListeners(RoundRobinTournament tournament, GameType gameType, int playerCount, String... workerDirectories) {
+        String gameName = gameType.name();
+        //     timeDir.insert(0, gameName + "_");
+        String playersDir = playerCount + "-players";
+        //noinspection unchecked
+        for (String listenerClass : ((List<String>) config.get(listener))) {
+            try {
+                IGameListener gameTracker = IGameListener.createListener(listenerClass);
+                tournament.addListener(gameTracker);
+                String outputDir = (String) config.get(destDir);
+                List<String> directories = new ArrayList<>(Arrays.asList(outputDir.split(Pattern.quote(File.separator))));
+                if (gamesAndPlayerCounts.size() > 1)
+                    directories.add(gameName);
+                if (gamesAndPlayerCounts.get(gameType).length > 1)
+                    directories.add(playersDir);
+                if ((boolean) config.get(addTimeStamp))
+                    directories.add(timeDir);
+                if (!(gameTracker instanceof ITransferableListener transferable && transferable.canTransfer()))
+                    directories.addAll(Arrays.asList(workerDirectories));
+                gameTracker.setOutputDirectory(directories.toArray(new String[0]));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error creating listener: " + e.getMessage());
+                // this is not a problem as such, we'll still report win rate information which may be all the user wants
             }
         }
     }
@@ -0,0 +1,111 @@
+package evaluation;
+
+import utilities.Utils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Measures the fixed cost of starting a worker: the wall time and peak resident memory of a new JVM that runs
+ * RunGames for a small tournament of random players, and then exits.
+ * <p>
+ * Each classpath is run in turn, reps times, and the median of each measure is printed. The peak memory is read
+ * from VmHWM in /proc/[pid]/status, so is only available on Linux.
+ * <p>
+ * Arguments: cp (a '|' separated list of classpaths to compare, default is the classpath of this JVM; for example
+ * that of the core module alone, and with the learning and llm modules), game (default TicTacToe), nPlayers,
+ * matchups, reps, and jvmArgs (space separated, passed to each JVM).
+ */
+public class StartupBenchmark {
+
+    public static void main(String... args) throws IOException, InterruptedException {
+        String classpaths = Utils.getArg(args, "cp", System.getProperty("java.class.path"));
+        String game = Utils.getArg(args, "game", "TicTacToe");
+        int nPlayers = Utils.getArg(args, "nPlayers", 2);
+        int matchups = Utils.getArg(args, "matchups", 10);
+        int reps = Utils.getArg(args, "reps", 5);
+        String jvmArgs = Utils.getArg(args, "jvmArgs", "");
+
+        Path dir = Files.createTempDirectory("startup");
+        File players = dir.resolve("players").toFile();
+        players.mkdir();
+        for (int p = 0; p < nPlayers; p++) {
+            try (FileWriter writer = new FileWriter(new File(players, "random" + p + ".json"))) {
+                writer.write("{\"class\" : \"players.simple.RandomPlayer\"}");
+            }
+        }
+        List<String> runGames = List.of("evaluation.RunGames", "game=" + game, "nPlayers=" + nPlayers,
+                "matchups=" + matchups, "playerDirectory=" + players, "destDir=" + dir.resolve("out"));
+
+        System.out.printf("%-6s %8s %12s %12s  %s%n", "", "Jars", "Time (ms)", "Peak (MB)", "Classpath");
+        String[] cps = classpaths.split("\\|");
+        for (int i = 0; i < cps.length; i++) {
+            List<String> command = new ArrayList<>();
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            if (!jvmArgs.isBlank())
+                command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+            command.add("-cp");
+            command.add(cps[i]);
+            command.addAll(runGames);
+
+            run(command, dir);  // warm up the file cache
+            double[] millis = new double[reps];
+            double[] peakMB = new double[reps];
+            for (int r = 0; r < reps; r++) {
+                long[] result = run(command, dir);
+                millis[r] = result[0] / 1e6;
+                peakMB[r] = result[1] / 1024.0;
+            }
+            long jars = Arrays.stream(cps[i].split(File.pathSeparator)).filter(s -> s.endsWith(".jar")).count();
+            System.out.printf("%-6s %8d %12.0f %12.1f  %s%n", "cp" + i, jars, median(millis), median(peakMB),
+                    cps[i].length() > 60 ? cps[i].substring(0, 57) + "..." : cps[i]);
+        }
+    }
+
+    /**
+     * @return the nanoseconds until the process exits, and its peak resident memory in KB (0 if unknown)
+     */
+    static long[] run(List<String> command, Path dir) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(new File(System.getProperty("user.dir")))
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve("output.txt").toFile())
+                .start();
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        long peakKB = 0;
+        // VmHWM is the high water mark, so the last value read before the process exits is the peak
+        while (process.isAlive()) {
+            peakKB = Math.max(peakKB, highWaterMark(status));
+            Thread.sleep(10);
+        }
+        long nanos = System.nanoTime() - start;
+        if (process.exitValue() != 0)
+            throw new IllegalStateException("RunGames failed with exit code " + process.exitValue() +
+                    ", see " + dir.resolve("output.txt"));
+        return new long[]{nanos, peakKB};
+    }
+
+    static long highWaterMark(Path status) {
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmHWM:"))
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        } catch (IOException e) {
+            // the process has exited, or this is not Linux
+        }
+        return 0;
+    }
+
+    static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2.0;
+    }
+}
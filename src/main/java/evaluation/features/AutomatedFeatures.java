@@ -353,6 +353,29 @@ public class AutomatedFeatures implements IStateFeatureVector, IActionFeatureVec
         return this.buckets[index];
     }
 
+    /**
+     * The ranges that processData() would use for the RANGE features of an underlying numeric feature, if it had
+     * the given number of buckets.
+     *
+     * @param underlyingIndex - index of the feature in the underlying vector
+     * @param values          - the values of the feature in the data
+     */
+    public List<Pair<Number, Number>> bucketRanges(int underlyingIndex, int buckets, double[] values) {
+        Class<?> columnType = underlyingTypes[underlyingIndex];
+        if (columnType.equals(Integer.class) || columnType.equals(int.class)) {
+            List<Integer> integerValues = new ArrayList<>(values.length);
+            for (double value : values)
+                integerValues.add((int) value);
+            Collections.sort(integerValues);
+            return calculateFeatureRanges(integerValues, buckets, Collections.emptyList());
+        }
+        List<Double> doubleValues = new ArrayList<>(values.length);
+        for (double value : values)
+            doubleValues.add(value);
+        Collections.sort(doubleValues);
+        return calculateFeatureRanges(doubleValues, buckets, Collections.emptyList());
+    }
+
     public featureType getFeatureType(int index) {
         return featureTypes.get(index);
     }
@@ -406,7 +429,8 @@ public class AutomatedFeatures implements IStateFeatureVector, IActionFeatureVec
 
         // load files...the columns should correspond to the underlying vector
         // while allowing for additional columns (for target values)
-        Pair<List<String>, List<List<String>>> data = Utils.loadDataWithHeader("\t", inputFiles);
+        // (if there are more than maxRecords rows, a random sample of them is used)
+        Pair<List<String>, List<List<String>>> data = Utils.loadDataWithHeader("\t", maxRecords, new Random(0), inputFiles);
         List<String> headers = data.a;
         List<List<String>> dataRows = data.b;
 
@@ -0,0 +1,25 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.interfaces.ILongStateKey;
+import utilities.Zobrist;
+
+/**
+ * A state key that uses the Zobrist hash of the game state (AbstractGameState.getZobristHash()), combined with the
+ * player the key is for. For games that keep their hash up to date as they change this is O(1), so it is much
+ * cheaper as an MCGSStateKey than extracting a feature vector at every step through the tree. Other games fall back
+ * on a hash of the whole state, which costs as much as hashCode() but still tells different states apart. Unless the
+ * game also overrides AbstractGameState._positionHash() this includes the game tick, so transpositions are only
+ * found between states reached in the same number of ticks.
+ * <p>
+ * The key is for the exact state rather than an abstraction of it, so it is best suited to games with perfect
+ * information. Distinct states share a key only on a hash collision; MCTSParams.MCGSCheckCollisions can be used to
+ * count how often this happens (see TreeStatistics).
+ */
+public class ZobristStateKey implements ILongStateKey {
+
+    @Override
+    public long getLongKey(AbstractGameState state, int playerId) {
+        return state.getZobristHash() ^ Zobrist.key(-1, playerId);
+    }
+}
@@ -6,7 +6,6 @@ import core.interfaces.IActionFeatureVector;
 import core.interfaces.IStateFeatureVector;
 import evaluation.loggers.FileStatsLogger;
 import evaluation.metrics.Event;
-import org.apache.spark.sql.catalyst.expressions.Abs;
 
 import java.util.HashMap;
 import java.util.List;
@@ -0,0 +1,41 @@
+package evaluation.listeners;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A listener whose recorded data can be sent to another process. This lets the games of a tournament be played by
+ * TournamentWorkers, while the listener of the coordinator reports on all of them as it would in a single process.
+ * <p>
+ * A worker calls writeData() after each unit of work. The coordinator passes the data to readData() on its own
+ * listener, which was created from the same configuration. It does this in the order the games would have been
+ * played in one process.
+ */
+public interface ITransferableListener extends IGameListener {
+
+    /**
+     * @return false if this listener cannot transfer its data (for example because of its configuration), in which
+     * case each worker reports it separately
+     */
+    default boolean canTransfer() {
+        return true;
+    }
+
+    /**
+     * Writes the data recorded since the last call (or the last discardData()), and then forgets it
+     */
+    void writeData(DataOutput out) throws IOException;
+
+    /**
+     * Adds data written by writeData() to that recorded by this listener. The IDs of the games are replaced with new
+     * ones from this process, using (and adding to) gameIDs, so that a game has the same ID in every listener that reads it.
+     */
+    void readData(DataInput in, Map<String, String> gameIDs) throws IOException;
+
+    /**
+     * Forgets the data recorded since the last writeData(), for example from the games of a unit that failed
+     */
+    void discardData();
+}
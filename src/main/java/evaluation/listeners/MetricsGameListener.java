@@ -9,7 +9,10 @@ import evaluation.metrics.IMetricsCollection;
 import evaluation.metrics.tablessaw.DataTableSaw;
 import utilities.Utils;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 import static evaluation.metrics.Event.GameEvent.*;
@@ -26,7 +29,7 @@ import static utilities.Utils.createDirectory;
  * See {@link games.sushigo.metrics.SushiGoMetrics} for an example of a metric collection.
  * See {@link games.terraformingmars.stats.TMStatsVisualiser} for an example of a visualiser of metrics.
  */
-public class MetricsGameListener implements IGameListener {
+public class MetricsGameListener implements ITransferableListener {
 
     // List of metrics we are going to extract.
     protected Map<String, AbstractMetric> metrics;
@@ -47,6 +50,9 @@ public class MetricsGameListener implements IGameListener {
     String destDir = "metrics/out/"; //by default
     boolean firstReport;
 
+    // Games finished since the data was last transferred (see ITransferableListener)
+    int gamesSinceTransfer;
+
     public MetricsGameListener() {
     }
 
@@ -93,6 +99,46 @@ public class MetricsGameListener implements IGameListener {
             if (event.type == GAME_OVER)
                 metric.notifyGameOver();
         }
+        if (event.type == GAME_OVER)
+            gamesSinceTransfer++;
+    }
+
+    @Override
+    public boolean canTransfer() {
+        return metrics.values().stream().allMatch(m -> m.getDataLogger() instanceof DataTableSaw);
+    }
+
+    @Override
+    public void writeData(DataOutput out) throws IOException {
+        out.writeInt(gamesSinceTransfer);
+        out.writeInt(metrics.size());
+        for (AbstractMetric metric : metrics.values()) {
+            out.writeUTF(metric.getName());
+            ((DataTableSaw) metric.getDataLogger()).write(out);
+        }
+        discardData();
+    }
+
+    @Override
+    public void readData(DataInput in, Map<String, String> gameIDs) throws IOException {
+        int games = in.readInt();
+        for (int m = in.readInt(); m > 0; m--) {
+            String name = in.readUTF();
+            AbstractMetric metric = metrics.get(name);
+            if (metric == null)
+                throw new IOException("No metric " + name + " in this listener");
+            ((DataTableSaw) metric.getDataLogger()).read(in,
+                    id -> gameIDs.computeIfAbsent(id, k -> String.valueOf(Game.nextGameID())));
+            for (int g = 0; g < games; g++)
+                metric.notifyGameOver();
+        }
+    }
+
+    @Override
+    public void discardData() {
+        for (AbstractMetric metric : metrics.values())
+            metric.getDataLogger().flush();
+        gamesSinceTransfer = 0;
     }
 
     @Override
@@ -30,6 +30,14 @@ public class TournamentMetricsGameListener extends MetricsGameListener {
         super(logTo, dataTypes, Arrays.stream(metrics).map(TournamentMetric::new).toArray(AbstractMetric[]::new));
     }
 
+    /**
+     * The data is kept separately for each matchup, so is not transferred; each TournamentWorker reports its own
+     */
+    @Override
+    public boolean canTransfer() {
+        return false;
+    }
+
     public void tournamentInit(Game game, int nPlayersPerGame, Set<String> playerNames, Set<AbstractPlayer> matchup) {
         for (AbstractMetric metric : metrics.values()) {
             TournamentMetric tournamentMetric = (TournamentMetric) metric;
@@ -8,7 +8,14 @@ import evaluation.metrics.IDataProcessor;
 import tech.tablesaw.api.*;
 import tech.tablesaw.columns.Column;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.UnaryOperator;
+
+import static utilities.CheckpointFile.readString;
+import static utilities.CheckpointFile.writeString;
 
 /**
  * Using TableSaw for data storage and visualisation:
@@ -125,6 +132,69 @@ public class DataTableSaw implements IDataLogger {
         this.data = data.emptyCopy();
     }
 
+    /**
+     * Writes the rows of the table, column by column, so that they can be added to a table with the same columns in
+     * another process (see read())
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(data.rowCount());
+        out.writeInt(data.columnCount());
+        for (Column<?> column : data.columns()) {
+            out.writeUTF(column.name());
+            for (int row = 0; row < column.size(); row++) {
+                boolean missing = column.isMissing(row);
+                out.writeBoolean(missing);
+                if (missing)
+                    continue;
+                if (column instanceof StringColumn c)
+                    writeString(out, c.get(row));
+                else if (column instanceof IntColumn c)
+                    out.writeInt(c.getInt(row));
+                else if (column instanceof DoubleColumn c)
+                    out.writeDouble(c.getDouble(row));
+                else if (column instanceof BooleanColumn c)
+                    out.writeBoolean(c.get(row));
+                else
+                    throw new AssertionError("Unknown column type " + column.type());
+            }
+        }
+    }
+
+    /**
+     * Adds the rows written by write() to the end of this table, with the GameID of each row replaced by gameID
+     */
+    @SuppressWarnings("unchecked")
+    public void read(DataInput in, UnaryOperator<String> gameID) throws IOException {
+        int rows = in.readInt();
+        int columns = in.readInt();
+        if (columns != data.columnCount())
+            throw new IOException("Expected " + data.columnCount() + " columns in " + data.name() + ", not " + columns);
+        for (int col = 0; col < columns; col++) {
+            String name = in.readUTF();
+            if (!data.containsColumn(name))
+                throw new IOException("No column " + name + " in " + data.name());
+            Column<Object> column = (Column<Object>) data.column(name);
+            for (int row = 0; row < rows; row++) {
+                if (in.readBoolean()) {
+                    column.appendMissing();
+                    continue;
+                }
+                ColumnType type = column.type();
+                if (type == ColumnType.STRING) {
+                    String value = readString(in);
+                    column.append(name.equals("GameID") ? gameID.apply(value) : value);
+                } else if (type == ColumnType.INTEGER)
+                    column.append(in.readInt());
+                else if (type == ColumnType.DOUBLE)
+                    column.append(in.readDouble());
+                else if (type == ColumnType.BOOLEAN)
+                    column.append(in.readBoolean());
+                else
+                    throw new AssertionError("Unknown column type " + column.type());
+            }
+        }
+    }
+
     @Override
     public IDataLogger copy() {
         return new DataTableSaw(metric, data.copy());
@@ -11,6 +11,8 @@ import evaluation.optimisation.ntbea.SearchSpace;
 import evaluation.optimisation.ntbea.SolutionEvaluator;
 import games.GameType;
 import players.IAnyTimePlayer;
+import players.PlayerParameters;
+import utilities.Pair;
 
 import java.util.*;
 import java.util.stream.IntStream;
@@ -24,6 +26,10 @@ import static java.util.stream.Collectors.toList;
  * On each NTBEA trial the evaluate(int[] settings) function is called with the set of parameters to try next.
  * The meaning of these settings is encapsulated in the AgentSearchSpace, as this will vary with whatever is being
  * optimised.
+ * <p>
+ * Unless params.reuseInstances is false, the game, the copies of the opponents and the tuned agent(s) are kept between
+ * trials, and reset for each new game (see resetOpponent()). The tuned agent then has the parameters that differ from
+ * the previous trial changed in place (see reconfigure()), rather than being instantiated afresh.
  */
 public class GameEvaluator implements SolutionEvaluator {
 
@@ -41,6 +47,15 @@ public class GameEvaluator implements SolutionEvaluator {
     IGameHeuristic gameHeuristic;
     List<IGameListener> listeners = new ArrayList<>();
 
+    // instances kept between trials (if params.reuseInstances); the players are cleared on reset()
+    Game pooledGame;
+    Boolean tuningPlayer;
+    List<AbstractPlayer> tunedPlayers = new ArrayList<>();
+    List<int[]> tunedPlayerSettings = new ArrayList<>();
+    List<AbstractPlayer> pooledOpponentSource;
+    Map<Integer, Deque<AbstractPlayer>> opponentPool = new HashMap<>();
+    List<Pair<Integer, AbstractPlayer>> opponentsInUse = new ArrayList<>();
+
     /**
      * GameEvaluator
      *
@@ -77,6 +92,10 @@ public class GameEvaluator implements SolutionEvaluator {
     @Override
     public void reset() {
         nEvals = 0;
+        // the search space (or opponents) may have been changed since the last run
+        tunedPlayers.clear();
+        tunedPlayerSettings.clear();
+        opponentPool.clear();
     }
 
     /**
@@ -93,11 +112,20 @@ public class GameEvaluator implements SolutionEvaluator {
         if (debug)
             System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
                     Arrays.toString(settings), System.currentTimeMillis());
-        Object configuredThing = searchSpace.instantiate(settings);
-        boolean tuningPlayer = configuredThing instanceof AbstractPlayer;
+        // If we are reusing instances, then we only need to instantiate the search space to find out what it is
+        // (after which tuned players are taken from the pool in setupPlayers())
+        Object configuredThing = null;
+        if (!params.reuseInstances || tuningPlayer == null || !tuningPlayer) {
+            configuredThing = searchSpace.instantiate(settings);
+            tuningPlayer = configuredThing instanceof AbstractPlayer;
+            if (params.reuseInstances && tuningPlayer && tunedPlayers.isEmpty()) {
+                tunedPlayers.add((AbstractPlayer) configuredThing);
+                tunedPlayerSettings.add(settings.clone());
+            }
+        }
         boolean tuningGame = configuredThing instanceof Game;
 
-        Game newGame = tuningGame ? (Game) configuredThing : game.createGameInstance(nPlayers, gameParams);
+        Game newGame = tuningGame ? (Game) configuredThing : getGame();
         // we assign one player to each team (the default for a game is each player being their own team of 1)
         int nTeams = newGame.getGameState().getNTeams();
 
@@ -120,6 +148,7 @@ public class GameEvaluator implements SolutionEvaluator {
             // always reset the random seed for each new game
             newGame.reset(allPlayers, seed);
             newGame.run();
+            releaseOpponents();
 
             int playerOnTeam = -1;
             for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
@@ -143,14 +172,15 @@ public class GameEvaluator implements SolutionEvaluator {
         List<Integer> opponentOrdering = IntStream.range(0, opponents.size()).boxed().collect(toList());
         Collections.shuffle(opponentOrdering);
         int count = 0;
+        int tunedCount = 0;
         for (int i = 0; i < nTeams; i++) {
             if (params.mode != CoopNTBEA && i != teamIndex) {
                 int oppIndex = (avoidOppDupes) ? count : rnd.nextInt(opponents.size());
                 count = (count + 1) % nTeams;
-                allPlayers.add(opponents.get(oppIndex).copy());
+                allPlayers.add(getOpponent(oppIndex));
             } else {
-                AbstractPlayer tunedPlayer = (AbstractPlayer) searchSpace.instantiate(settings); // we create for each, in case this is coop
-                allPlayers.add(tunedPlayer);
+                // we need a different tuned player for each team, in case this is coop
+                allPlayers.add(getTunedPlayer(tunedCount++, settings));
             }
         }
         if (params.budget > 0) {
@@ -162,6 +192,101 @@ public class GameEvaluator implements SolutionEvaluator {
         return allPlayers;
     }
 
+    private Game getGame() {
+        if (!params.reuseInstances)
+            return game.createGameInstance(nPlayers, gameParams);
+        if (pooledGame == null)
+            pooledGame = game.createGameInstance(nPlayers, gameParams);
+        return pooledGame;
+    }
+
+    private AbstractPlayer getOpponent(int index) {
+        if (!params.reuseInstances)
+            return opponents.get(index).copy();
+        if (pooledOpponentSource != opponents) {
+            // the opponents have been changed (see NTBEA.setOpponents())
+            opponentPool.clear();
+            pooledOpponentSource = opponents;
+        }
+        Deque<AbstractPlayer> available = opponentPool.computeIfAbsent(index, i -> new ArrayDeque<>());
+        AbstractPlayer retValue;
+        if (available.isEmpty()) {
+            retValue = opponents.get(index).copy();
+        } else {
+            retValue = available.pop();
+            resetOpponent(retValue);
+        }
+        opponentsInUse.add(Pair.of(index, retValue));
+        return retValue;
+    }
+
+    /**
+     * Returns a pooled opponent to the state it had as a new copy, so that its play in a game does not depend on the
+     * games it played before. Anything constructed from its parameters (rollout policies, caches) is discarded, and
+     * the random number stream starts again. The rest is reset by initializePlayer() at the start of the game.
+     * This matches a new copy() for players that keep the random seed of their parameters when copied (as
+     * MCTSPlayer does); players whose copy() draws a new seed instead start each game with the same one.
+     */
+    private void resetOpponent(AbstractPlayer player) {
+        PlayerParameters playerParams = player.getParameters();
+        playerParams._reset();
+        player.getRnd().setSeed(playerParams.getRandomSeed());
+    }
+
+    private void releaseOpponents() {
+        for (Pair<Integer, AbstractPlayer> opponent : opponentsInUse)
+            opponentPool.get(opponent.a).push(opponent.b);
+        opponentsInUse.clear();
+    }
+
+    private AbstractPlayer getTunedPlayer(int index, int[] settings) {
+        if (!params.reuseInstances)
+            return (AbstractPlayer) searchSpace.instantiate(settings);
+        if (index < tunedPlayers.size() && reconfigure(tunedPlayers.get(index), tunedPlayerSettings.get(index), settings))
+            return tunedPlayers.get(index);
+        AbstractPlayer retValue = (AbstractPlayer) searchSpace.instantiate(settings);
+        if (index < tunedPlayers.size()) {
+            tunedPlayers.set(index, retValue);
+            tunedPlayerSettings.set(index, settings.clone());
+        } else {
+            tunedPlayers.add(retValue);
+            tunedPlayerSettings.add(settings.clone());
+        }
+        return retValue;
+    }
+
+    /**
+     * Changes the parameters of a pooled player from its current settings to the new ones. This uses the player's
+     * TunableParameters, so that anything derived from them is reset as it would be in a new instance.
+     * Only parameters with numeric, boolean or enum values are changed in place; any other value may be an object
+     * shared with the search space (or change the class of the player), so false is returned and a new player is needed.
+     *
+     * @param current - the settings the player currently has; updated to the new ones
+     * @return true if the player now has the new settings
+     */
+    private boolean reconfigure(AbstractPlayer player, int[] current, int[] settings) {
+        TunableParameters<?> playerParams = player.getParameters();
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (int i = 0; i < settings.length; i++) {
+            if (current[i] == settings[i])
+                continue;
+            Object value = searchSpace.value(i, settings[i]);
+            if (!(value instanceof Number || value instanceof Boolean || value instanceof Enum<?>))
+                return false;
+            changes.put(searchSpace.name(i), value);
+        }
+        if (!changes.isEmpty()) {
+            playerParams.resetOn = false;
+            changes.forEach(playerParams::setParameterValue);
+            playerParams.resetOn = true;
+            playerParams._reset();
+        }
+        System.arraycopy(settings, 0, current, 0, settings.length);
+        // and the random number stream starts again, as for a new player
+        player.getRnd().setSeed(playerParams.getRandomSeed());
+        return true;
+    }
+
     public void addListener(IGameListener listener) {
         listeners.add(listener);
     }
@@ -1,7 +1,6 @@
 package evaluation.optimisation;
 
 import core.interfaces.ITunableParameters;
-import org.apache.hadoop.shaded.org.eclipse.jetty.util.ajax.JSON;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import utilities.JSONUtils;
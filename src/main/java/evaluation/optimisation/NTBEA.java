@@ -15,13 +15,12 @@ import players.PlayerFactory;
 import players.heuristics.OrdinalPosition;
 import players.heuristics.PureScoreHeuristic;
 import players.heuristics.WinOnlyHeuristic;
+import utilities.CheckpointFile;
 import utilities.JSONUtils;
 import utilities.Pair;
 import utilities.Utils;
 
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
 import java.util.*;
 import java.util.function.IntToDoubleFunction;
 import java.util.regex.Pattern;
@@ -48,11 +47,19 @@ public class NTBEA {
     int currentIteration = 0;
     IStateHeuristic stateHeuristic;
     IGameHeuristic gameHeuristic;
+    // Checkpointing (if params.checkpointSeconds > 0): the result of each completed iteration, and the trials so far
+    // of the current one, so that a re-run only runs the trials that were not yet done. It is deleted at the end of run().
+    CheckpointFile checkpoint;
+    long checkpointIntervalMs, lastCheckpoint;
+    List<Pair<Pair<Double, Double>, int[]>> iterationResults = new ArrayList<>();
+    int[] nextPoint;
+    boolean resumingTrials;
 
     protected NTBEA(NTBEAParameters parameters) {
         this.params = parameters;
         landscapeModel = new NTupleSystem(params);
         searchFramework = new NTupleBanditEA(landscapeModel, params);
+        checkpointIntervalMs = params.checkpointSeconds * 1000L;
     }
 
     public NTBEA(NTBEAParameters parameters, NTBEAFunction function, int discretisationLevel) {
@@ -157,16 +164,27 @@ public class NTBEA {
      * @return
      */
     public Pair<Object, int[]> run() {
+        loadCheckpoint();
 
         for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
             // Check for existence of the output file. If it already exists, then we
             // load the file, convert it to add to winnerSettings. Then skip this iteration
             String iterationFilename = params.destDir + File.separator + "Recommended_" + currentIteration + ".json";
-            if ((new File(iterationFilename)).exists() && params.searchSpace instanceof ITPSearchSpace<?> itp) {
+            if (currentIteration < iterationResults.size()) {
+                Pair<Pair<Double, Double>, int[]> result = iterationResults.get(currentIteration);
+                winnerSettings.add(result.b);
+                if (params.searchSpace instanceof ITPSearchSpace<?> itp)
+                    winnersPerRun.add(itp.instantiate(result.b));
+                if (result.a.a > bestResult.a.a)
+                    bestResult = result;
+                System.out.println("NTBEA for iteration " + currentIteration + " was completed before the checkpoint - skipping");
+            } else if ((new File(iterationFilename)).exists() && params.searchSpace instanceof ITPSearchSpace<?> itp) {
                 int[] settings = itp.settingsFromJSON(iterationFilename);
                 winnerSettings.add(settings);
                 winnersPerRun.add(itp.instantiate(settings));
                 System.out.println("NTBEA for iteration " + currentIteration + " has already completed - skipping");
+                // with no estimate, this does not change the bestResult on a resume (as it did not here)
+                iterationResults.add(new Pair<>(new Pair<>(Double.NEGATIVE_INFINITY, 0.0), settings));
             } else {
                 runIteration();
                 if (params.searchSpace instanceof ITPSearchSpace<?> itp) {
@@ -213,6 +231,7 @@ public class NTBEA {
                 config.put(RunArg.budget, params.budget);
                 config.put(RunArg.verbose, false);
                 config.put(RunArg.destDir, params.destDir);
+                config.put(RunArg.checkpoint, params.checkpointSeconds);
                 RoundRobinTournament tournament = new RoundRobinTournament(players, game, nPlayers, params.gameParams, config);
                 createListeners().forEach(tournament::addListener);
                 tournament.run();
@@ -312,6 +331,9 @@ public class NTBEA {
             // we don't log the final run to file to avoid duplication
             printDetailsOfRun(bestResult);
         }
+        // the run is complete, so a later one starts again
+        if (checkpoint != null)
+            checkpoint.delete();
         if (params.searchSpace instanceof ITPSearchSpace<?> itp) {
             itp.writeAgentJSON(bestResult.b, finalFilename());
             return new Pair<>(itp.instantiate(bestResult.b), bestResult.b);
@@ -330,13 +352,23 @@ public class NTBEA {
 
     protected void runTrials() {
         evaluator.reset();
-        searchFramework.runTrial(evaluator, params.iterationsPerRun);
+        int[] startPoint = null;
+        if (resumingTrials) {
+            // the landscape model already has the trials from the checkpoint
+            startPoint = nextPoint;
+            if (evaluator instanceof GameEvaluator gameEvaluator)
+                gameEvaluator.nEvals = landscapeModel.numberOfSamples();
+            System.out.printf("Resuming NTBEA iteration %d after %d trials%n", currentIteration, landscapeModel.numberOfSamples());
+        }
+        searchFramework.runTrial(evaluator, params.iterationsPerRun - landscapeModel.numberOfSamples(), startPoint);
     }
 
     protected void runIteration() {
-        landscapeModel.reset();
+        if (!resumingTrials)
+            landscapeModel.reset();
 
         runTrials();
+        resumingTrials = false;
 
         if (params.verbose)
             landscapeModel.logResults(params);
@@ -360,6 +392,78 @@ public class NTBEA {
         }
         if (resultToReport.a.a > bestResult.a.a)
             bestResult = resultToReport;
+        iterationResults.add(resultToReport);
+        if (checkpoint != null) {
+            nextPoint = null;
+            writeCheckpoint();
+        }
+    }
+
+    /**
+     * If checkpointing, then this restores the results of the iterations completed before the checkpoint, and the
+     * trials of the iteration that was then in progress (which then continues from where it was, but with new random
+     * numbers).
+     */
+    private void loadCheckpoint() {
+        if (params.checkpointSeconds <= 0)
+            return;
+        StringBuilder signature = new StringBuilder(String.join("|", String.valueOf(game), String.valueOf(nPlayers),
+                String.valueOf(params.repeats), String.valueOf(params.iterationsPerRun), String.valueOf(params.evaluationsPerTrial),
+                String.valueOf(params.mode), params.evalMethod, String.valueOf(params.kExplore),
+                params.useTwoTuples + "/" + params.useThreeTuples + "/" + params.useNTuples));
+        for (int i = 0; i < params.searchSpace.nDims(); i++)
+            signature.append("|").append(params.searchSpace.name(i)).append(":").append(params.searchSpace.nValues(i));
+        checkpoint = new CheckpointFile(params.destDir + File.separator + "NTBEA.checkpoint", "NTBEA", signature.toString());
+        searchFramework.setOnEvaluation(p -> {
+            nextPoint = p;
+            if (System.currentTimeMillis() - lastCheckpoint >= checkpointIntervalMs)
+                writeCheckpoint();
+        });
+        lastCheckpoint = System.currentTimeMillis();
+        checkpoint.read(in -> {
+            for (int i = in.readInt(); i > 0; i--) {
+                double estimate = in.readDouble();
+                double other = in.readDouble();
+                iterationResults.add(new Pair<>(new Pair<>(estimate, other), readSettings(in)));
+            }
+            if (in.readBoolean()) {
+                nextPoint = readSettings(in);
+                landscapeModel.read(in);
+                resumingTrials = true;
+            }
+            return null;
+        });
+    }
+
+    private void writeCheckpoint() {
+        checkpoint.write(out -> {
+            out.writeInt(iterationResults.size());
+            for (Pair<Pair<Double, Double>, int[]> result : iterationResults) {
+                out.writeDouble(result.a.a);
+                out.writeDouble(result.a.b);
+                writeSettings(out, result.b);
+            }
+            // and the trials of the iteration in progress
+            out.writeBoolean(nextPoint != null);
+            if (nextPoint != null) {
+                writeSettings(out, nextPoint);
+                landscapeModel.write(out);
+            }
+        });
+        lastCheckpoint = System.currentTimeMillis();
+    }
+
+    private static void writeSettings(DataOutput out, int[] settings) throws IOException {
+        out.writeInt(settings.length);
+        for (int setting : settings)
+            out.writeInt(setting);
+    }
+
+    private static int[] readSettings(DataInput in) throws IOException {
+        int[] settings = new int[in.readInt()];
+        for (int i = 0; i < settings.length; i++)
+            settings[i] = in.readInt();
+        return settings;
     }
 
     private List<IGameListener> createListeners() {
@@ -48,12 +48,14 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
     public int OSDBudget = 0;
     public boolean OSDTournament = false;
     public double OSDConfidence = 0.9;
+    public boolean reuseInstances = true;
 
     // and those that are not (so must be included separately in copy etc)
     public boolean tuningGame = false;
     public String logFile = "NTBEA.log";
     public List<String> listenerClasses = Collections.emptyList();
     public String destDir = "NTBEA";
+    public int checkpointSeconds = 0;
     public SearchSpace searchSpace;
     public AbstractParameters gameParams;
     public boolean byTeam = false;
@@ -83,6 +85,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         addTunableParameter("OSDBudget", 0);
         addTunableParameter("OSDTournament", false);
         addTunableParameter("OSDConfidence", 0.9);
+        addTunableParameter("reuseInstances", true);
     }
 
     @Override
@@ -109,6 +112,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         OSDBudget = (int) getParameterValue("OSDBudget");
         OSDTournament = (boolean) getParameterValue("OSDTournament");
         OSDConfidence = (double) getParameterValue("OSDConfidence");
+        reuseInstances = (boolean) getParameterValue("reuseInstances");
 
         if (evalGames == -1) evalGames = iterationsPerRun / 5;
     }
@@ -138,6 +142,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         setParameterValue("OSDBudget", args.get(RunArg.OSDBudget));
         setParameterValue("OSDTournament", args.get(RunArg.OSDTournament));
         setParameterValue("OSDConfidence", args.get(RunArg.OSDConfidence));
+        setParameterValue("reuseInstances", args.get(RunArg.reuseInstances));
 
         _reset();
 
@@ -152,6 +157,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         listenerClasses = (List<String>) args.get(RunArg.listener);
         destDir = (String) args.get(RunArg.destDir);
         if (destDir.isEmpty()) destDir = "NTBEA";
+        checkpointSeconds = (int) args.getOrDefault(RunArg.checkpoint, 0);
         if (tuningGame && opponentDescriptor.isEmpty()) {
             throw new IllegalArgumentException("Must specify opponent descriptor when tuning a game");
         }
@@ -228,6 +234,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
         ntp.byTeam = byTeam;
         ntp.listenerClasses = listenerClasses;
         ntp.destDir = destDir;
+        ntp.checkpointSeconds = checkpointSeconds;
         ntp.gameType = gameType;
         ntp.nPlayers = nPlayers;
         ntp.logFile = logFile;
@@ -243,6 +250,7 @@ public class NTBEAParameters extends TunableParameters<NTBEA> {
                     byTeam == parameters.byTeam &&
                     listenerClasses.equals(parameters.listenerClasses) &&
                     destDir.equals(parameters.destDir) &&
+                    checkpointSeconds == parameters.checkpointSeconds &&
                     gameType.equals(parameters.gameType) &&
                     logFile.equals(parameters.logFile) &&
                     nPlayers == parameters.nPlayers;
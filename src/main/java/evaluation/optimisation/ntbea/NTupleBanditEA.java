@@ -5,6 +5,7 @@ import utilities.StatSummary;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.function.Consumer;
 
 /**
  * Created by sml on 09/01/2017.
@@ -36,8 +37,23 @@ public class NTupleBanditEA {
 
     Random rnd = new Random();
     SolutionEvaluator evaluator;
+    // called after each evaluation with the next point to be evaluated
+    Consumer<int[]> onEvaluation;
+
+    public void setOnEvaluation(Consumer<int[]> onEvaluation) {
+        this.onEvaluation = onEvaluation;
+    }
 
     public void runTrial(SolutionEvaluator evaluator, int nEvals) {
+        runTrial(evaluator, nEvals, null);
+    }
+
+    /**
+     * As runTrial(evaluator, nEvals), but starting from the given point (for example to continue a trial that was
+     * checkpointed, with the model already holding the points evaluated so far). If startPoint is null a random
+     * point is used.
+     */
+    public void runTrial(SolutionEvaluator evaluator, int nEvals, int[] startPoint) {
         this.evaluator = evaluator;
         // set  up some convenient reference
         SearchSpace searchSpace = landscapeModel.getSearchSpace();
@@ -48,7 +64,7 @@ public class NTupleBanditEA {
         // then each time around the loop try the following
         // create a neighbourhood set of points and pick the best one that combines its exploitation and evaluation scores
 
-        int[] p = SearchSpaceUtil.randomPoint(searchSpace);
+        int[] p = startPoint == null ? SearchSpaceUtil.randomPoint(searchSpace) : startPoint;
 
         for (int i = 0; i < nEvals; i++) {
             // each time around the loop we make one fitness evaluation of p
@@ -95,6 +111,8 @@ public class NTupleBanditEA {
             if (settingToTryNext.length == 0)
                 settingToTryNext = p;
             p = settingToTryNext;
+            if (onEvaluation != null)
+                onEvaluation.accept(p);
         }
     }
 }
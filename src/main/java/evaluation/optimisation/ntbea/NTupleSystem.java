@@ -4,6 +4,9 @@ import evaluation.optimisation.NTBEAParameters;
 import utilities.Pair;
 import utilities.StatSummary;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 import java.util.stream.IntStream;
 
@@ -12,6 +15,7 @@ public class NTupleSystem implements LandscapeModel {
     protected double epsilon = 0.10;
 
     List<int[]> sampledPoints = new ArrayList<>();
+    List<Double> sampledValues = new ArrayList<>();
     List<NTuple> tuples = new ArrayList<>();
 
     public boolean use1Tuple = true;
@@ -63,6 +67,7 @@ public class NTupleSystem implements LandscapeModel {
     @Override
     public void reset() {
         sampledPoints = new ArrayList<>();
+        sampledValues = new ArrayList<>();
         for (NTuple t : tuples) {
             t.reset();
         }
@@ -84,6 +89,38 @@ public class NTupleSystem implements LandscapeModel {
             tuple.add(datapoint, value);
         }
         sampledPoints.add(datapoint);
+        sampledValues.add(value);
+    }
+
+    /**
+     * Writes the sampled points and their values, from which read() rebuilds the tuple statistics.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(sampledPoints.size());
+        out.writeInt(searchSpace.nDims());
+        for (int i = 0; i < sampledPoints.size(); i++) {
+            for (int v : sampledPoints.get(i))
+                out.writeInt(v);
+            out.writeDouble(sampledValues.get(i));
+        }
+    }
+
+    /**
+     * Resets the model, and then adds the points written by write() in the same order, so that the tuple statistics
+     * are the same as they were.
+     */
+    public void read(DataInput in) throws IOException {
+        reset();
+        int nPoints = in.readInt();
+        int nDims = in.readInt();
+        if (nDims != searchSpace.nDims())
+            throw new IOException("Expected points with " + searchSpace.nDims() + " dimensions, not " + nDims);
+        for (int i = 0; i < nPoints; i++) {
+            int[] point = new int[nDims];
+            for (int d = 0; d < nDims; d++)
+                point[d] = in.readInt();
+            addPoint(point, in.readDouble());
+        }
     }
 
     @Override
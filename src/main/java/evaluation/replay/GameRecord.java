@@ -0,0 +1,133 @@
+package evaluation.replay;
+
+import core.AbstractParameters;
+import core.interfaces.ITunableParameters;
+import games.GameType;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * One recorded game: everything needed to reconstruct every state of the game with the forward model alone.
+ * <p>
+ * The game is identified by its type, number of players, a hash of its parameters and the random seed. The decisions
+ * are stored as the index of the action taken in the list returned by forwardModel.computeAvailableActions() on the
+ * full game state. Replaying the same indices from a state reset with the same seed gives the same game.
+ * <p>
+ * A replay file starts with a short header (MAGIC, VERSION) followed by any number of records. Each record is a
+ * marker byte, the game type name, then the numbers with small values (players, decisions, action indices) as
+ * variable-length integers, so most decisions take a single byte.
+ */
+public record GameRecord(GameType gameType, int nPlayers, int parametersHash, long seed, int[] actions) {
+
+    public static final int MAGIC = 0x54414752;  // "TAGR"
+    public static final int VERSION = 1;
+    private static final int RECORD_MARKER = 1;
+
+    /**
+     * A hash of the game parameters, excluding the random seed, that is stable across JVMs.
+     * For tunable parameters this uses the name and value of every parameter; otherwise it falls back to hashCode().
+     */
+    public static int parametersHash(AbstractParameters params) {
+        if (params instanceof ITunableParameters<?> tunable) {
+            int hash = 1;
+            for (String name : new TreeSet<>(tunable.getParameterNames())) {
+                if (name.equals("randomSeed")) continue;
+                hash = 31 * hash + (name + "=" + tunable.getParameterValue(name)).hashCode();
+            }
+            return hash;
+        }
+        return params.hashCode();
+    }
+
+    public static void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(RECORD_MARKER);
+        out.writeUTF(gameType.name());
+        writeVarInt(out, nPlayers);
+        out.writeInt(parametersHash);
+        out.writeLong(seed);
+        writeVarInt(out, actions.length);
+        for (int a : actions)
+            writeVarInt(out, a);
+    }
+
+    /**
+     * Reads the next record, or returns null at the end of the file
+     */
+    public static GameRecord read(DataInputStream in) throws IOException {
+        int marker = in.read();
+        if (marker == -1)
+            return null;
+        if (marker != RECORD_MARKER)
+            throw new AssertionError("Corrupt replay file: unexpected record marker " + marker);
+        GameType gameType = GameType.valueOf(in.readUTF());
+        int nPlayers = readVarInt(in);
+        int parametersHash = in.readInt();
+        long seed = in.readLong();
+        int[] actions = new int[readVarInt(in)];
+        for (int i = 0; i < actions.length; i++)
+            actions[i] = readVarInt(in);
+        return new GameRecord(gameType, nPlayers, parametersHash, seed, actions);
+    }
+
+    /**
+     * Streams every record in a replay file to the consumer, without holding the whole file in memory
+     *
+     * @return - the number of records read
+     */
+    public static int forEach(String fileName, Consumer<GameRecord> consumer) {
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            if (in.readInt() != MAGIC)
+                throw new AssertionError("Not a replay file : " + fileName);
+            int version = in.readByte();
+            if (version != VERSION)
+                throw new AssertionError("Unsupported replay file version " + version + " in " + fileName);
+            GameRecord record;
+            while ((record = read(in)) != null) {
+                consumer.accept(record);
+                count++;
+            }
+        } catch (FileNotFoundException e) {
+            throw new AssertionError("File not found : " + fileName);
+        } catch (IOException e) {
+            throw new AssertionError("Error reading replay file : " + fileName + " : " + e.getMessage());
+        }
+        return count;
+    }
+
+    public static List<GameRecord> readAll(String fileName) {
+        List<GameRecord> records = new ArrayList<>();
+        forEach(fileName, records::add);
+        return records;
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        if (value < 0)
+            throw new IllegalArgumentException("Only non-negative values can be written: " + value);
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new AssertionError("Corrupt replay file: variable-length integer is too long");
+    }
+}
@@ -0,0 +1,151 @@
+package evaluation.replay;
+
+import core.AbstractParameters;
+import core.Game;
+import evaluation.listeners.IGameListener;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Reconstructs recorded games (see ReplayRecorder) with the forward model alone, so new metrics or feature vectors can
+ * be applied to archived games at forward-model speed.
+ * <p>
+ * The listeners are attached to each Game just as they would be in RunGames, and receive the same ABOUT_TO_START,
+ * ACTION_CHOSEN, ACTION_TAKEN and GAME_OVER events (plus any events the forward model publishes). There are no players,
+ * so listeners that need the agents themselves (e.g. their names) are not suitable for replays.
+ * <p>
+ * One Game instance is created per game type and player count, and reset with the recorded seed for each replay.
+ * An engine is not thread-safe; replayAll() uses one engine (and one set of listeners) per thread.
+ */
+public class ReplayEngine {
+
+    private static final GameRecord END_OF_FILE = new GameRecord(null, 0, 0, 0, null);
+
+    final AbstractParameters params;
+    final List<IGameListener> listeners;
+    final Map<String, Game> games = new HashMap<>();
+
+    /**
+     * @param params    - the game parameters used for the recorded games; if null then the defaults for each game are used.
+     *                  These are checked against the parameters hash in each record.
+     * @param listeners - to attach to the replayed games
+     */
+    public ReplayEngine(AbstractParameters params, List<IGameListener> listeners) {
+        this.params = params;
+        this.listeners = new ArrayList<>(listeners);
+    }
+
+    /**
+     * Replays one recorded game to the end
+     *
+     * @return - the Game, with its final state. This Game is reused for the next record of the same type.
+     */
+    public Game replay(GameRecord record) {
+        Game game = games.computeIfAbsent(record.gameType().name() + "_" + record.nPlayers(), k -> createGame(record));
+        game.reset(Collections.emptyList(), record.seed());
+        int hash = GameRecord.parametersHash(game.getGameState().getGameParameters());
+        if (hash != record.parametersHash())
+            throw new AssertionError("Parameters for " + record.gameType() + " do not match those recorded (hash "
+                    + hash + " versus " + record.parametersHash() + ")");
+        game.replay(record.actions());
+        return game;
+    }
+
+    private Game createGame(GameRecord record) {
+        AbstractParameters gameParams = params == null ? null : params.copy();
+        Game game = record.gameType().createGameInstance(record.nPlayers(), record.seed(), gameParams);
+        for (IGameListener listener : listeners) {
+            listener.init(game, record.nPlayers(), Collections.emptySet());
+            game.addListener(listener);
+        }
+        return game;
+    }
+
+    public List<IGameListener> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * Replays every game in a replay file, calling report() on the listeners at the end.
+     * With more than one thread the file is read on the calling thread, and the records are shared out between
+     * nThreads workers, each with its own engine and its own listeners from listenerFactory (so these should write
+     * to different files).
+     *
+     * @return - the number of games replayed
+     */
+    public static int replayAll(String fileName, AbstractParameters params, int nThreads,
+                                Supplier<List<IGameListener>> listenerFactory) {
+        if (nThreads <= 1) {
+            ReplayEngine engine = new ReplayEngine(params, listenerFactory.get());
+            int count = GameRecord.forEach(fileName, engine::replay);
+            engine.listeners.forEach(IGameListener::report);
+            return count;
+        }
+
+        BlockingQueue<GameRecord> queue = new ArrayBlockingQueue<>(nThreads * 64);
+        AtomicInteger count = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < nThreads; t++) {
+            ReplayEngine engine = new ReplayEngine(params, listenerFactory.get());
+            Thread worker = new Thread(() -> {
+                // workers keep draining the queue after a failure, so the reader is never blocked
+                while (true) {
+                    GameRecord record;
+                    try {
+                        record = queue.take();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (record == END_OF_FILE)
+                        break;
+                    if (failure.get() != null)
+                        continue;
+                    try {
+                        engine.replay(record);
+                        count.incrementAndGet();
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+                if (failure.get() == null)
+                    engine.listeners.forEach(IGameListener::report);
+            }, "ReplayWorker-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        try {
+            GameRecord.forEach(fileName, record -> {
+                if (failure.get() != null)
+                    throw new AssertionError("Replay of " + fileName + " failed", failure.get());
+                put(queue, record);
+            });
+        } finally {
+            for (int t = 0; t < nThreads; t++)
+                put(queue, END_OF_FILE);
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    throw new AssertionError("Interrupted while replaying " + fileName);
+                }
+            }
+        }
+        if (failure.get() != null)
+            throw new AssertionError("Replay of " + fileName + " failed", failure.get());
+        return count.get();
+    }
+
+    private static void put(BlockingQueue<GameRecord> queue, GameRecord record) {
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            throw new AssertionError("Interrupted while replaying games");
+        }
+    }
+}
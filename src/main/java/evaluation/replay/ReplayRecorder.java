@@ -0,0 +1,145 @@
+package evaluation.replay;
+
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
+import utilities.Utils;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records every game it listens to as a compact binary GameRecord, appended to a single replay file.
+ * These can later be replayed with ReplayEngine, without the agents, to compute new metrics or features.
+ * <p>
+ * At each decision the index of the chosen action is looked up in forwardModel.computeAvailableActions() on the full
+ * game state (with the default action space). If the chosen action is not in that list - for example because the
+ * player used a different ActionSpace, or the action was replaced after a timeout - then the game cannot be replayed
+ * and is skipped; the number of skipped games is reported at the end.
+ */
+public class ReplayRecorder implements IGameListener {
+
+    Game game;
+    String fileName;
+    DataOutputStream out;
+    int gamesRecorded, gamesSkipped;
+
+    // the game in progress
+    GameRecord header;
+    int[] actions = new int[256];
+    int nActions;
+    AbstractAction chosenAction;
+    boolean recordable;
+
+    public ReplayRecorder() {
+        this("Replays.bin");
+    }
+
+    public ReplayRecorder(String fileName) {
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (event.type == Event.GameEvent.ABOUT_TO_START) {
+            AbstractGameState state = event.state;
+            header = new GameRecord(state.getGameType(), state.getNPlayers(),
+                    GameRecord.parametersHash(state.getGameParameters()), state.getGameParameters().getRandomSeed(), null);
+            nActions = 0;
+            recordable = true;
+        } else if (header == null || !recordable) {
+            return;
+        } else if (event.type == Event.GameEvent.ACTION_CHOSEN) {
+            List<AbstractAction> available = game.getForwardModel().computeAvailableActions(event.state);
+            int index = available.indexOf(event.action);
+            if (index < 0) {
+                recordable = false;
+            } else {
+                if (nActions == actions.length)
+                    actions = Arrays.copyOf(actions, actions.length * 2);
+                actions[nActions++] = index;
+                chosenAction = event.action;
+            }
+        } else if (event.type == Event.GameEvent.ACTION_TAKEN) {
+            // the action actually taken differs from that chosen if the player timed out
+            if (!event.action.equals(chosenAction))
+                recordable = false;
+        } else if (event.type == Event.GameEvent.GAME_OVER) {
+            write(new GameRecord(header.gameType(), header.nPlayers(), header.parametersHash(), header.seed(),
+                    Arrays.copyOf(actions, nActions)));
+            header = null;
+        }
+        if (!recordable) {
+            gamesSkipped++;
+            header = null;
+        }
+    }
+
+    private synchronized void write(GameRecord record) {
+        try {
+            if (out == null) {
+                File file = new File(fileName);
+                boolean newFile = !file.exists() || file.length() == 0;
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+                if (newFile)
+                    GameRecord.writeHeader(out);
+            }
+            record.write(out);
+            out.flush();  // so the file is complete for every finished game, even before report() is called
+            gamesRecorded++;
+        } catch (IOException e) {
+            throw new AssertionError("Error writing to replay file : " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void report() {
+        close();
+        System.out.printf("ReplayRecorder: %d games recorded to %s%s%n", gamesRecorded, fileName,
+                gamesSkipped > 0 ? String.format(" (%d skipped as a chosen action was not in the available actions)", gamesSkipped) : "");
+    }
+
+    private synchronized void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new AssertionError("Error closing replay file : " + fileName + " : " + e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    @Override
+    public boolean setOutputDirectory(String... nestedDirectories) {
+        close();
+        String folder = Utils.createDirectory(nestedDirectories);
+        fileName = folder + File.separator + new File(fileName).getName();
+        return true;
+    }
+
+    public int getGamesRecorded() {
+        return gamesRecorded;
+    }
+
+    public int getGamesSkipped() {
+        return gamesSkipped;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+}
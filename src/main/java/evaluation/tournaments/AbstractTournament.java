@@ -18,13 +18,16 @@ public abstract class AbstractTournament implements IGameRunner {
      * EXHAUSTIVE - Play all agents against each other. With every permutation of agents to player positions.
      * EXHAUSTIVE_SELF_PLAY - Play all agents against each other, but allow for self-play.
      * ONE_VS_ALL - Play one agent against all others. The one (focus) agent will be the only agent of its type in each game.
+     * ADAPTIVE - As EXHAUSTIVE, but games are played in rounds, and a permutation is dropped once all pairs of agents in it
+     *          have been separated (with confidence); the remaining budget then goes to the close matchups.
      */
     public enum TournamentMode {
         RANDOM,
         EXHAUSTIVE,
         EXHAUSTIVE_SELF_PLAY,
         ONE_VS_ALL,
-        FIXED
+        FIXED,
+        ADAPTIVE
     }
     // List of players taking part in the tournament
     protected List<? extends AbstractPlayer> agents;
@@ -0,0 +1,58 @@
+package evaluation.tournaments;
+
+import core.AbstractGameState;
+import core.CoreConstants.GameResult;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The parts of a finished game that a tournament records: for each player their result, ordinal position, score and
+ * team. This is all RoundRobinTournament needs from the final state, so it can also be sent back by a
+ * TournamentWorker that played the game in another process.
+ */
+public record GameOutcome(GameResult[] results, int[] ordinals, double[] scores, int[] teams) {
+
+    public static GameOutcome of(AbstractGameState state) {
+        int nPlayers = state.getNPlayers();
+        int[] ordinals = new int[nPlayers];
+        double[] scores = new double[nPlayers];
+        int[] teams = new int[nPlayers];
+        for (int p = 0; p < nPlayers; p++) {
+            ordinals[p] = state.getOrdinalPosition(p);
+            scores[p] = state.getGameScore(p);
+            teams[p] = state.getTeam(p);
+        }
+        return new GameOutcome(state.getPlayerResults().clone(), ordinals, scores, teams);
+    }
+
+    public int nPlayers() {
+        return results.length;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(results.length);
+        for (int p = 0; p < results.length; p++) {
+            out.writeByte(results[p].ordinal());
+            out.writeInt(ordinals[p]);
+            out.writeDouble(scores[p]);
+            out.writeInt(teams[p]);
+        }
+    }
+
+    public static GameOutcome read(DataInput in) throws IOException {
+        int nPlayers = in.readInt();
+        GameResult[] results = new GameResult[nPlayers];
+        int[] ordinals = new int[nPlayers];
+        double[] scores = new double[nPlayers];
+        int[] teams = new int[nPlayers];
+        for (int p = 0; p < nPlayers; p++) {
+            results[p] = GameResult.values()[in.readByte()];
+            ordinals[p] = in.readInt();
+            scores[p] = in.readDouble();
+            teams[p] = in.readInt();
+        }
+        return new GameOutcome(results, ordinals, scores, teams);
+    }
+}
@@ -2,8 +2,10 @@ package evaluation.tournaments;
 
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.Game;
 import evaluation.RunArg;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.ITransferableListener;
 import evaluation.listeners.TournamentMetricsGameListener;
 import games.GameType;
 import org.apache.commons.math3.linear.EigenDecomposition;
@@ -12,9 +14,12 @@ import org.apache.commons.math3.linear.RealMatrix;
 import players.IAnyTimePlayer;
 import utilities.*;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -36,6 +41,7 @@ public class RoundRobinTournament extends AbstractTournament {
     int[][] nGamesPlayedPerOpponent;
     int[][] winsPerPlayerPerOpponent;
     int[][] ordinalDeltaPerOpponent;
+    int[][] ordinalDeltaSquaredPerOpponent;
     double[] alphaRankByWin;
     double[] alphaRankByOrdinal;
     double[] pointsPerPlayerSquared;
@@ -51,10 +57,31 @@ public class RoundRobinTournament extends AbstractTournament {
     protected String evalMethod;
 
     protected long randomSeed;
+    boolean seedGiven;  // rather than the default, so a checkpoint must have been played with it
     List<Integer> gameSeeds = new ArrayList<>();
     int tournamentSeeds;
     String seedFile;
     Random seedRnd;
+    // ADAPTIVE mode only
+    int adaptiveMinGames, adaptiveRounds;
+    double adaptiveAlpha, adaptiveZ;
+    // RANDOM mode only
+    int nThreads = 1;
+    Supplier<List<IGameListener>> listenerFactory;
+    // Distributed: games are played by the workers of the coordinator, a batch of matchups at a time, split into
+    // units of at most gamesPerUnit games (0 for the whole matchup)
+    TournamentCoordinator coordinator;
+    int gamesPerUnit;
+    List<TournamentCoordinator.WorkUnit> pendingUnits = new ArrayList<>();
+    List<Integer> pendingMatchUps = new ArrayList<>();
+    private boolean listenersInitialised;
+    // Checkpointing: each matchup is numbered in the order it is created, and the outcomes of those completed are
+    // saved. On a resume the matchups in the checkpoint are recorded from it instead of being played again.
+    CheckpointFile checkpoint;
+    long checkpointIntervalMs, lastCheckpoint;
+    int nextMatchUp;
+    Map<Integer, List<GameOutcome>> completedMatchUps = new HashMap<>();
+    Map<Integer, List<GameOutcome>> restoredMatchUps = new HashMap<>();
 
     /**
      * Create a round robin tournament, which plays all agents against all others.
@@ -73,9 +100,10 @@ public class RoundRobinTournament extends AbstractTournament {
             case "EXHAUSTIVESP" -> EXHAUSTIVE_SELF_PLAY;
             case "ONEVSALL" -> ONE_VS_ALL;
             case "FIXED" -> FIXED;
+            case "ADAPTIVE" -> ADAPTIVE;
             default -> RANDOM;
         };
-        if (tournamentMode == EXHAUSTIVE && nTeams > this.agents.size()) {
+        if ((tournamentMode == EXHAUSTIVE || tournamentMode == ADAPTIVE) && nTeams > this.agents.size()) {
             throw new IllegalArgumentException("Not enough agents to fill a match without self-play." +
                     "Either add more agents, reduce the number of players per game, or switch to RANDOM mode.");
         }
@@ -105,11 +133,13 @@ public class RoundRobinTournament extends AbstractTournament {
         this.nGamesPlayed = new int[agents.size()];
         this.nGamesPlayedPerOpponent = new int[agents.size()][];
         this.ordinalDeltaPerOpponent = new int[agents.size()][];
+        this.ordinalDeltaSquaredPerOpponent = new int[agents.size()][];
         this.winsPerPlayerPerOpponent = new int[agents.size()][];
         for (int i = 0; i < agents.size(); i++) {
             this.winsPerPlayerPerOpponent[i] = new int[agents.size()];
             this.nGamesPlayedPerOpponent[i] = new int[agents.size()];
             this.ordinalDeltaPerOpponent[i] = new int[agents.size()];
+            this.ordinalDeltaSquaredPerOpponent[i] = new int[agents.size()];
         }
         this.rankPerPlayer = new double[agents.size()];
         this.rankPerPlayerSquared = new double[agents.size()];
@@ -140,6 +170,16 @@ public class RoundRobinTournament extends AbstractTournament {
                 }
                 actualGames = this.gamesPerMatchup * Utils.playerPermutations(agentPositions, agents.size(), selfPlay);
                 break;
+            case ADAPTIVE:
+                // games are played in rounds of gamesPerMatchup for each permutation still active, so the number of
+                // games actually run is only known at the end
+                this.gamesPerMatchup = (int) config.getOrDefault(RunArg.adaptiveBatch, 10);
+                this.adaptiveMinGames = (int) config.getOrDefault(RunArg.adaptiveMinGames, 30);
+                this.adaptiveAlpha = (double) config.getOrDefault(RunArg.adaptiveAlpha, 0.05);
+                this.adaptiveZ = Utils.standardZScore(adaptiveAlpha, Math.max(1, agents.size() * (agents.size() - 1) / 2));
+                if (this.gamesPerMatchup < 1)
+                    throw new IllegalArgumentException("adaptiveBatch must be at least 1");
+                break;
             case FIXED:
                 // we run the totalGameBudget number of games with no change to agent order
             case RANDOM:
@@ -149,8 +189,10 @@ public class RoundRobinTournament extends AbstractTournament {
                 throw new IllegalArgumentException("Unknown tournament mode " + config.get(RunArg.mode));
         }
         this.randomSeed = ((Number) config.getOrDefault(RunArg.seed, System.currentTimeMillis())).longValue();
+        this.seedGiven = RunArg.seed.isGivenIn(config);
         this.seedRnd = new Random(randomSeed);
         this.randomGameParams = (boolean) config.getOrDefault(RunArg.randomGameParams, false);
+        this.gamesPerUnit = (int) config.getOrDefault(RunArg.gamesPerUnit, 0);
 
         this.name = String.format("Game: %s, Players: %d, Mode: %s, TotalGames: %d, GamesPerMatchup: %d",
                 gameToPlay.name(), playersPerGame, tournamentMode, actualGames, gamesPerMatchup);
@@ -158,6 +200,11 @@ public class RoundRobinTournament extends AbstractTournament {
         String destDir = (String) config.getOrDefault(RunArg.destDir, "");
         if (!destDir.isEmpty())
             this.resultsFile = destDir + File.separator + resultsFile;
+        int checkpointSeconds = (int) config.getOrDefault(RunArg.checkpoint, 0);
+        if (checkpointSeconds > 0) {
+            String checkpointFile = String.format("Tournament_%s_%d.checkpoint", gameToPlay.name(), playersPerGame);
+            setCheckpoint(destDir.isEmpty() ? checkpointFile : destDir + File.separator + checkpointFile, checkpointSeconds);
+        }
     }
 
     /**
@@ -168,19 +215,15 @@ public class RoundRobinTournament extends AbstractTournament {
         if (verbose)
             System.out.println("Playing " + game.getGameType().name());
 
-        Set<String> agentNames = agents.stream()
-                //           .peek(a -> System.out.println(a.toString()))
-                .map(AbstractPlayer::toString).collect(Collectors.toSet());
-
-        for (IGameListener gameTracker : listeners) {
-            gameTracker.init(game, nPlayers, agentNames);
-            game.addListener(gameTracker);
-        }
+        initListeners();
+        loadCheckpoint();
 
         LinkedList<Integer> matchUp = new LinkedList<>();
         // add outer loop if we have tournamentSeeds enabled; if not this will just run once
         List<Integer> allSeeds = new ArrayList<>(gameSeeds);
-        for (int iter = 0; iter < Math.max(1, tournamentSeeds); iter++) {
+        // ADAPTIVE mode draws fresh seeds for each round, so distinctRandomSeeds is not used
+        int iterations = tournamentMode == ADAPTIVE ? 1 : Math.max(1, tournamentSeeds);
+        for (int iter = 0; iter < iterations; iter++) {
             if (tournamentSeeds > 0) {
                 // use the same seed for each game in the tournament
                 // allSeeds contains the ones loaded from file - if empty then use a random one
@@ -191,11 +234,35 @@ public class RoundRobinTournament extends AbstractTournament {
                 gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> seedRnd.nextInt()).collect(toList());
             }
             createAndRunMatchUp(matchUp);
+            runPendingUnits();
         }
         reportResults();
 
+        // with a coordinator, the workers report the listeners that do not send their data back
         for (IGameListener listener : listeners)
-            listener.report();
+            if (coordinator == null || transfersData(listener))
+                listener.report();
+        // the tournament is complete, so a later one starts again
+        if (checkpoint != null)
+            checkpoint.delete();
+    }
+
+    private static boolean transfersData(IGameListener listener) {
+        return listener instanceof ITransferableListener transferable && transferable.canTransfer();
+    }
+
+    private void initListeners() {
+        if (listenersInitialised)
+            return;
+        Set<String> agentNames = agents.stream()
+                //           .peek(a -> System.out.println(a.toString()))
+                .map(AbstractPlayer::toString).collect(Collectors.toSet());
+
+        for (IGameListener gameTracker : listeners) {
+            gameTracker.init(game, nPlayers, agentNames);
+            game.addListener(gameTracker);
+        }
+        listenersInitialised = true;
     }
 
     protected List<Integer> loadSeedsFromFile() {
@@ -213,6 +280,97 @@ public class RoundRobinTournament extends AbstractTournament {
 
     }
 
+    /**
+     * In RANDOM mode, plays the games on nThreads threads. Each thread has its own copy of the game, and its own
+     * listeners from listenerFactory (so these should write to different files). The listeners added with
+     * addListener() are then not used.
+     * The matchups and seeds are the same as those of a single-threaded tournament with the same random seed.
+     */
+    public void setParallel(int nThreads, Supplier<List<IGameListener>> listenerFactory) {
+        if (nThreads > 1 && tournamentMode != RANDOM)
+            throw new IllegalArgumentException("Games can only be run in parallel in RANDOM mode");
+        this.nThreads = Math.max(1, nThreads);
+        this.listenerFactory = listenerFactory;
+    }
+
+    /**
+     * Plays the games on the workers of the coordinator instead of in this process. The matchups are the same as
+     * without it, and are sent to the workers in batches (all of them, or one round in ADAPTIVE mode). Their outcomes
+     * are recorded in the order the games would otherwise have been played, so the results are the same as those of
+     * a single-process tournament with the same random seed, as long as the agents are deterministic given the seeds.
+     * <p>
+     * The data of the workers' ITransferableListeners is added to the listeners added here with addListener() in the
+     * same order, so these report as they would in a single process. Other listeners are reported by each worker.
+     */
+    public void setCoordinator(TournamentCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Saves the outcomes of the games played to the file at most every intervalSeconds, and deletes it once run() is
+     * complete. If the file already exists, then run() resumes from it: the games in it are recorded without being
+     * played again (or seen by the listeners), and the random seed is the one they were played with. As all the
+     * matchups and their game seeds are drawn from this seed, the rest of the tournament is then the same as it would
+     * have been. The checkpoint is only used by a tournament with the same settings and agents, and the same seed if
+     * one was given.
+     */
+    public void setCheckpoint(String file, int intervalSeconds) {
+        String signature = String.join("|", name, String.valueOf(byTeam), String.valueOf(tournamentSeeds),
+                gameSeeds.toString(), evalMethod, adaptiveMinGames + "/" + adaptiveAlpha, String.valueOf(randomGameParams),
+                agents.stream().map(AbstractPlayer::toString).collect(Collectors.joining(",")));
+        this.checkpoint = new CheckpointFile(file, "RoundRobinTournament", signature);
+        this.checkpointIntervalMs = intervalSeconds * 1000L;
+    }
+
+    private void loadCheckpoint() {
+        if (checkpoint == null)
+            return;
+        Long seed = checkpoint.read(in -> {
+            long checkpointSeed = in.readLong();
+            for (int m = in.readInt(); m > 0; m--) {
+                int index = in.readInt();
+                List<GameOutcome> outcomes = new ArrayList<>();
+                for (int g = in.readInt(); g > 0; g--)
+                    outcomes.add(GameOutcome.read(in));
+                restoredMatchUps.put(index, outcomes);
+            }
+            return checkpointSeed;
+        });
+        if (seed == null)
+            return;
+        if (seedGiven && seed != randomSeed)
+            throw new IllegalArgumentException("Checkpoint " + checkpoint.file + " is for a RoundRobinTournament with " +
+                    "different settings (seed " + seed + "). Delete it (or use a different destDir) to start again.");
+        randomSeed = seed;
+        seedRnd = new Random(randomSeed);
+        completedMatchUps.putAll(restoredMatchUps);
+        System.out.printf("Resuming from %s with %d games already played%n", checkpoint.file,
+                restoredMatchUps.values().stream().mapToInt(List::size).sum());
+        lastCheckpoint = System.currentTimeMillis();
+    }
+
+    private synchronized void writeCheckpoint() {
+        checkpoint.write(out -> {
+            out.writeLong(randomSeed);
+            out.writeInt(completedMatchUps.size());
+            for (Map.Entry<Integer, List<GameOutcome>> entry : completedMatchUps.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (GameOutcome outcome : entry.getValue())
+                    outcome.write(out);
+            }
+        });
+        lastCheckpoint = System.currentTimeMillis();
+    }
+
+    private synchronized void matchUpDone(int matchUpIndex, List<GameOutcome> outcomes) {
+        if (checkpoint == null)
+            return;
+        completedMatchUps.put(matchUpIndex, outcomes);
+        if (System.currentTimeMillis() - lastCheckpoint >= checkpointIntervalMs)
+            writeCheckpoint();
+    }
+
     public int getWinnerIndex() {
         Map<Integer, Pair<Double, Double>> ranking = switch (evalMethod) {
             case "Ordinal", "Score" -> finalOrdinalRanking;
@@ -256,11 +414,18 @@ public class RoundRobinTournament extends AbstractTournament {
             case RANDOM:
                 // In the RANDOM case we use a new seed for each game
                 PermutationCycler idStream = new PermutationCycler(agents.size(), seedRnd, nTeams);
+                List<List<Integer>> matchups = new ArrayList<>(totalGameBudget);
                 for (int i = 0; i < totalGameBudget; i++) {
                     List<Integer> matchup = new ArrayList<>(nTeams);
                     for (int j = 0; j < nTeams; j++)
                         matchup.add(idStream.getAsInt());
-                    evaluateMatchUp(matchup, 1, Collections.singletonList(gameSeeds.get(i)));
+                    matchups.add(matchup);
+                }
+                if (nThreads > 1) {
+                    runInParallel(matchups);
+                } else {
+                    for (int i = 0; i < totalGameBudget; i++)
+                        evaluateMatchUp(matchups.get(i), 1, Collections.singletonList(gameSeeds.get(i)));
                 }
                 break;
             case ONE_VS_ALL:
@@ -298,6 +463,9 @@ public class RoundRobinTournament extends AbstractTournament {
                     }
                 }
                 break;
+            case ADAPTIVE:
+                runAdaptiveMatchUps(nTeams);
+                break;
             case EXHAUSTIVE:
             case EXHAUSTIVE_SELF_PLAY:
                 // in this case we are in exhaustive mode, so we recursively construct all possible combinations of players
@@ -315,14 +483,273 @@ public class RoundRobinTournament extends AbstractTournament {
         }
     }
 
+    /**
+     * ADAPTIVE mode. Every permutation of agents to positions (as in EXHAUSTIVE) is played in rounds of
+     * gamesPerMatchup games, all using the same seeds within a round. After each round a permutation is dropped once
+     * every pair of agents in it is separated (see isPairSeparated()), so the rest of the budget is spent on the close
+     * matchups. This stops when no permutation is still active, or totalGameBudget games have been played.
+     */
+    protected void runAdaptiveMatchUps(int nTeams) {
+        List<List<Integer>> allMatchUps = new ArrayList<>();
+        addPermutations(new ArrayList<>(), nTeams, allMatchUps);
+        int budgetRemaining = totalGameBudget - totalGamesRun;
+        while (budgetRemaining > 0) {
+            List<List<Integer>> active = allMatchUps.stream().filter(m -> !allPairsSeparated(m)).collect(toList());
+            if (active.isEmpty())
+                break;
+            int nGames = Math.min(gamesPerMatchup, budgetRemaining / active.size());
+            if (nGames == 0) {
+                // not enough budget for a game of every active permutation, so we use up what is left
+                nGames = 1;
+                Collections.shuffle(active, seedRnd);
+                active = active.subList(0, budgetRemaining);
+            }
+            List<Integer> seeds = IntStream.range(0, nGames).mapToObj(i -> seedRnd.nextInt()).collect(toList());
+            for (List<Integer> matchUp : active)
+                evaluateMatchUp(matchUp, nGames, seeds);
+            runPendingUnits();
+            adaptiveRounds++;
+            budgetRemaining = totalGameBudget - totalGamesRun;
+        }
+    }
+
+    /**
+     * Plays one game of each matchup (with the corresponding seed from gameSeeds), sharing them out between nThreads
+     * workers as each finishes its previous game.
+     */
+    protected void runInParallel(List<List<Integer>> matchups) {
+        Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
+        AbstractParameters params = game.getGameState().getGameParameters();
+        AtomicInteger nextGame = new AtomicInteger();
+        int firstMatchUp = nextMatchUp;
+        nextMatchUp += matchups.size();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < nThreads; t++) {
+            Game workerGame = game.getGameType().createGameInstance(nPlayers, params.copy());
+            List<IGameListener> workerListeners = listenerFactory == null ? List.of() : listenerFactory.get();
+            for (IGameListener listener : workerListeners) {
+                listener.init(workerGame, nPlayers, agentNames);
+                workerGame.addListener(listener);
+            }
+            Thread worker = new Thread(() -> {
+                int i;
+                while (failure.get() == null && (i = nextGame.getAndIncrement()) < matchups.size()) {
+                    try {
+                        evaluateMatchUp(workerGame, firstMatchUp + i, matchups.get(i), 1, Collections.singletonList(gameSeeds.get(i)));
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+                workerListeners.forEach(IGameListener::report);
+            }, "TournamentWorker-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError("Interrupted while running tournament");
+            }
+        }
+        if (failure.get() != null)
+            throw new AssertionError("Tournament game failed", failure.get());
+    }
+
+    private void addPermutations(List<Integer> matchUp, int nTeams, List<List<Integer>> allMatchUps) {
+        if (matchUp.size() == nTeams) {
+            allMatchUps.add(new ArrayList<>(matchUp));
+            return;
+        }
+        for (Integer agentID : allAgentIds) {
+            if (!matchUp.contains(agentID)) {
+                matchUp.add(agentID);
+                addPermutations(matchUp, nTeams, allMatchUps);
+                matchUp.remove(matchUp.size() - 1);
+            }
+        }
+    }
+
+    private boolean allPairsSeparated(List<Integer> matchUp) {
+        for (int i = 0; i < matchUp.size(); i++)
+            for (int j = i + 1; j < matchUp.size(); j++)
+                if (!isPairSeparated(matchUp.get(i), matchUp.get(j)))
+                    return false;
+        return true;
+    }
+
+    /**
+     * Two agents are separated once they have played at least adaptiveMinGames games against each other, and the
+     * mean per-game difference between them is more than adaptiveZ standard errors from zero. adaptiveZ is the z-score for
+     * adaptiveAlpha with a Šidák correction over all pairs of agents (see Utils.standardZScore). The per-game difference is
+     * +1/-1/0 for a win by one or other (or neither) if evalMethod is Win; and the difference in ordinal position for
+     * Ordinal or Score. Pairs that have never had a decisive result are also treated as separated (i.e. identical).
+     * Note that as this is tested after every round, the effective significance level is somewhat higher than adaptiveAlpha.
+     */
+    public boolean isPairSeparated(int i, int j) {
+        int n = nGamesPlayedPerOpponent[i][j];
+        if (n < Math.max(1, adaptiveMinGames))
+            return false;
+        double mean, meanSquare;
+        if (evalMethod.equals("Ordinal") || evalMethod.equals("Score")) {
+            mean = ordinalDeltaPerOpponent[i][j] / (double) n;
+            meanSquare = ordinalDeltaSquaredPerOpponent[i][j] / (double) n;
+        } else {
+            mean = (winsPerPlayerPerOpponent[i][j] - winsPerPlayerPerOpponent[j][i]) / (double) n;
+            meanSquare = (winsPerPlayerPerOpponent[i][j] + winsPerPlayerPerOpponent[j][i]) / (double) n;
+        }
+        if (meanSquare == 0.0)
+            return true;
+        double stdErr = sqrt(Math.max(0.0, meanSquare - mean * mean) / n);
+        return Math.abs(mean) > adaptiveZ * stdErr;
+    }
+
     /**
      * Evaluates one combination of players.
      *
      * @param agentIDsInThisGame - IDs of agents participating in this run.
      */
     protected void evaluateMatchUp(List<Integer> agentIDsInThisGame, int nGames, List<Integer> seeds) {
+        evaluateMatchUp(game, nextMatchUp++, agentIDsInThisGame, nGames, seeds);
+    }
+
+    /**
+     * As evaluateMatchUp(agentIDsInThisGame, nGames, seeds), but playing on the specified game. The results are
+     * recorded under a lock on the tournament, so this can be called from several threads, each with its own game.
+     * With a coordinator, the games are instead added to the batch that the next runPendingUnits() sends to the workers.
+     * If the matchup was restored from a checkpoint, then its games are recorded from that instead.
+     *
+     * @param matchUpIndex - the number of the matchup in the tournament, by which it is saved in the checkpoint
+     */
+    protected void evaluateMatchUp(Game game, int matchUpIndex, List<Integer> agentIDsInThisGame, int nGames, List<Integer> seeds) {
         if (seeds.size() < nGames)
             throw new AssertionError("Not enough seeds for the number of games requested");
+        List<GameOutcome> restored = restoredMatchUps.get(matchUpIndex);
+        if (restored != null) {
+            synchronized (this) {
+                for (GameOutcome outcome : restored)
+                    recordResults(agentIDsInThisGame, outcome);
+                totalGamesRun += restored.size();
+            }
+            return;
+        }
+        if (coordinator != null) {
+            int unitSize = gamesPerUnit > 0 ? gamesPerUnit : nGames;
+            for (int from = 0; from < nGames; from += unitSize) {
+                pendingUnits.add(new TournamentCoordinator.WorkUnit(game.getGameType(), nPlayers, new ArrayList<>(agentIDsInThisGame),
+                        new ArrayList<>(seeds.subList(from, Math.min(nGames, from + unitSize)))));
+                pendingMatchUps.add(matchUpIndex);
+            }
+            return;
+        }
+        List<GameOutcome> outcomes = new ArrayList<>(nGames);
+        playGames(game, agentIDsInThisGame, nGames, seeds, outcome -> {
+            synchronized (this) {
+                recordResults(agentIDsInThisGame, outcome);
+            }
+            outcomes.add(outcome);
+        });
+        synchronized (this) {
+            totalGamesRun += nGames;
+        }
+        matchUpDone(matchUpIndex, outcomes);
+    }
+
+    /**
+     * Plays games of one matchup for a TournamentWorker, and returns their outcomes without recording them, along
+     * with the data of the listeners that can send it to the coordinator. This uses the same copies of the agents for
+     * all the games, as evaluateMatchUp() does.
+     * The listeners are initialised on the first call; reportListeners() should be called once the worker is done.
+     */
+    public TournamentCoordinator.WorkResult playMatchUp(List<Integer> agentIDsInThisGame, List<Integer> seeds) {
+        initListeners();
+        List<GameOutcome> outcomes = new ArrayList<>(seeds.size());
+        try {
+            playGames(game, agentIDsInThisGame, seeds.size(), seeds, outcomes::add);
+        } catch (RuntimeException | AssertionError e) {
+            // the unit will be played again, so what was recorded of it is not wanted
+            for (IGameListener listener : listeners)
+                if (transfersData(listener))
+                    ((ITransferableListener) listener).discardData();
+            throw e;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (IGameListener listener : listeners)
+                if (transfersData(listener))
+                    ((ITransferableListener) listener).writeData(out);
+        } catch (IOException e) {
+            throw new AssertionError("Unable to write listener data", e);
+        }
+        return new TournamentCoordinator.WorkResult(outcomes, bytes.toByteArray());
+    }
+
+    /**
+     * Reports the listeners of a TournamentWorker that do not send their data to the coordinator
+     */
+    public void reportListeners() {
+        for (IGameListener listener : listeners)
+            if (!transfersData(listener))
+                listener.report();
+    }
+
+    private void readListenerData(byte[] data) {
+        // each unit is from a different worker process, whose game IDs are replaced by new ones from this process
+        Map<String, String> gameIDs = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            for (IGameListener listener : listeners)
+                if (transfersData(listener))
+                    ((ITransferableListener) listener).readData(in, gameIDs);
+        } catch (IOException e) {
+            throw new AssertionError("Unable to read listener data from a tournament worker", e);
+        }
+    }
+
+    /**
+     * Sends the games added by evaluateMatchUp() since the last call to the coordinator's workers, and records their
+     * outcomes (and listener data) in the order they were added. A matchup is saved to the checkpoint as soon as all
+     * of its units are done.
+     */
+    protected void runPendingUnits() {
+        if (pendingUnits.isEmpty())
+            return;
+        // the units of a matchup are consecutive, from firstUnit of that matchup
+        int[] firstUnit = new int[pendingUnits.size()];
+        for (int i = 1; i < firstUnit.length; i++)
+            firstUnit[i] = pendingMatchUps.get(i).equals(pendingMatchUps.get(i - 1)) ? firstUnit[i - 1] : i;
+        TournamentCoordinator.WorkResult[] finished = new TournamentCoordinator.WorkResult[pendingUnits.size()];
+        List<TournamentCoordinator.WorkResult> results = coordinator.run(pendingUnits, (i, result) -> {
+            synchronized (finished) {
+                finished[i] = result;
+                List<GameOutcome> matchUpOutcomes = new ArrayList<>();
+                for (int u = firstUnit[i]; u < finished.length && firstUnit[u] == firstUnit[i]; u++) {
+                    if (finished[u] == null)
+                        return;
+                    matchUpOutcomes.addAll(finished[u].outcomes());
+                }
+                matchUpDone(pendingMatchUps.get(i), matchUpOutcomes);
+            }
+        });
+        List<GameOutcome> matchUpOutcomes = new ArrayList<>();
+        for (int i = 0; i < pendingUnits.size(); i++) {
+            TournamentCoordinator.WorkResult result = results.get(i);
+            for (GameOutcome outcome : result.outcomes())
+                recordResults(pendingUnits.get(i).agentIDs(), outcome);
+            totalGamesRun += result.outcomes().size();
+            readListenerData(result.listenerData());
+            matchUpOutcomes.addAll(result.outcomes());
+            if (i + 1 == pendingUnits.size() || firstUnit[i + 1] != firstUnit[i]) {
+                matchUpDone(pendingMatchUps.get(i), matchUpOutcomes);
+                matchUpOutcomes = new ArrayList<>();
+            }
+        }
+        pendingUnits.clear();
+        pendingMatchUps.clear();
+    }
+
+    private void playGames(Game game, List<Integer> agentIDsInThisGame, int nGames, List<Integer> seeds,
+                           Consumer<GameOutcome> onGameEnd) {
         if (debug)
             System.out.printf("Evaluate %s at %tT%n", agentIDsInThisGame.toString(), System.currentTimeMillis());
         LinkedList<AbstractPlayer> matchUpPlayers = new LinkedList<>();
@@ -342,7 +769,7 @@ public class RoundRobinTournament extends AbstractTournament {
 
         // TODO : Not sure this is the ideal place for this...ask Raluca
         Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
-        for (IGameListener listener : listeners) {
+        for (IGameListener listener : game.getListeners()) {
             if (listener instanceof TournamentMetricsGameListener) {
                 ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
             }
@@ -361,72 +788,76 @@ public class RoundRobinTournament extends AbstractTournament {
             }
 
             game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
-
-            int numDraws = 0;
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
-                for (int k = 0; k < matchUpPlayers.size(); k++) {
-                    if (k != j) {
-                        nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
-                    }
+            onGameEnd.accept(GameOutcome.of(game.getGameState()));
+        }
+    }
+
+    private void recordResults(List<Integer> agentIDsInThisGame, GameOutcome outcome) {
+        GameResult[] results = outcome.results();
+        int nAgents = agentIDsInThisGame.size();
+        int numDraws = 0;
+        for (int j = 0; j < nAgents; j++) {
+            nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
+            for (int k = 0; k < nAgents; k++) {
+                if (k != j) {
+                    nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
                 }
+            }
 
-                // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
-                if (byTeam) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+            // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
+            if (byTeam) {
+                for (int player = 0; player < outcome.nPlayers(); player++) {
+                    if (outcome.teams()[player] == j) {
+                        numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
+                        break; // we stop after one player on the team to avoid double counting
                     }
-                } else {
-                    numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
                 }
+            } else {
+                numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
             }
+        }
 
-            if (numDraws > 0) {
-                double pointsPerDraw = 1.0 / numDraws;
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
-                    if (results[j] == GameResult.DRAW_GAME)
-                        pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
-                }
+        if (numDraws > 0) {
+            double pointsPerDraw = 1.0 / numDraws;
+            for (int j = 0; j < nAgents; j++) {
+                if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
+                if (results[j] == GameResult.DRAW_GAME)
+                    pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
             }
+        }
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            sb.append(results[player]).append(",");
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+        if (verbose) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int j = 0; j < nAgents; j++) {
+                for (int player = 0; player < outcome.nPlayers(); player++) {
+                    if (outcome.teams()[player] == j) {
+                        sb.append(results[player]).append(",");
+                        break; // we stop after one player on the team to avoid double counting
                     }
                 }
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
             }
-
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
         }
-        totalGamesRun += nGames;
     }
 
-    private int updatePoints(GameResult[] results, List<Integer> matchUpPlayers, int j, int player) {
+    private int updatePoints(GameOutcome outcome, List<Integer> matchUpPlayers, int j, int player) {
+        GameResult[] results = outcome.results();
         // j is the index of the agent in the matchup; player is the corresponding player number in the game
-        int ordinalPos = game.getGameState().getOrdinalPosition(player);
+        int ordinalPos = outcome.ordinals()[player];
         rankPerPlayer[j] += ordinalPos;
         rankPerPlayerSquared[j] += ordinalPos * ordinalPos;
 
-        for (int playerPos = 0; playerPos < game.getGameState().getNPlayers(); playerPos++) {
+        for (int playerPos = 0; playerPos < outcome.nPlayers(); playerPos++) {
             if (playerPos != player) {
-                int ordinalOther = game.getGameState().getOrdinalPosition(playerPos);
+                int ordinalOther = outcome.ordinals()[playerPos];
                 ordinalDeltaPerOpponent[j][matchUpPlayers.get(playerPos)] += ordinalOther - ordinalPos;
+                ordinalDeltaSquaredPerOpponent[j][matchUpPlayers.get(playerPos)] += (ordinalOther - ordinalPos) * (ordinalOther - ordinalPos);
             }
         }
 
-        scorePerPlayer[j] += game.getGameState().getGameScore(player);
+        scorePerPlayer[j] += outcome.scores()[player];
 
         if (results[player] == GameResult.WIN_GAME) {
             pointsPerPlayer[j] += 1;
@@ -473,6 +904,18 @@ public class RoundRobinTournament extends AbstractTournament {
         boolean toFile = resultsFile != null && !resultsFile.isEmpty();
         List<String> dataDump = new ArrayList<>();
         dataDump.add(name + "\n");
+        if (tournamentMode == ADAPTIVE) {
+            int nPairs = 0, separated = 0;
+            for (int i = 0; i < agents.size(); i++)
+                for (int j = i + 1; j < agents.size(); j++) {
+                    nPairs++;
+                    if (isPairSeparated(i, j)) separated++;
+                }
+            String str = String.format("Adaptive: %d of %d budgeted games played in %d rounds. %d of %d pairs of agents separated (alpha %.2f)%n",
+                    totalGamesRun, totalGameBudget, adaptiveRounds, separated, nPairs, adaptiveAlpha);
+            dataDump.add(str);
+            if (verbose) System.out.print(str);
+        }
 
         if (agents.size() > game.getGameState().getNPlayers()) {
             // We only calculate alpha-rank if we have more agents than players
@@ -852,4 +1295,8 @@ public class RoundRobinTournament extends AbstractTournament {
     public int[] getNGamesPlayed() {
         return nGamesPlayed;
     }
+
+    public int getTotalGamesRun() {
+        return totalGamesRun;
+    }
 }
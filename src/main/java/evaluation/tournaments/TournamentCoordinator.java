@@ -0,0 +1,371 @@
+package evaluation.tournaments;
+
+import games.GameType;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Hands out the games of a tournament to TournamentWorkers in other processes, and collects their outcomes, so that a
+ * large tournament is not limited by the heap (and GC pauses) of a single JVM.
+ * <p>
+ * The coordinator listens on a socket on the loopback interface. A worker connects, and is sent the RunGames
+ * arguments of the coordinator, from which it creates the same agents and games. It is then sent work units - some
+ * or all of the games of one matchup, each with its seed - one at a time as it finishes the previous one, and replies
+ * with their outcomes and the data recorded by its listeners (see ITransferableListener). If a worker reports a
+ * failure, does not reply in time (see setGameTimeout()), or its connection is lost, the unit is sent again (to any
+ * worker) up to MAX_ATTEMPTS times before the whole batch fails.
+ * <p>
+ * Workers can be started with launchLocalWorkers(), or by hand with RunGames coordinator=localhost:port.
+ */
+public class TournamentCoordinator implements AutoCloseable {
+
+    /**
+     * Games of one matchup: the agent in each position, and the seed for each game.
+     */
+    public record WorkUnit(GameType gameType, int nPlayers, List<Integer> agentIDs, List<Integer> seeds) {
+
+        void write(DataOutput out) throws IOException {
+            out.writeUTF(gameType.name());
+            out.writeInt(nPlayers);
+            out.writeInt(agentIDs.size());
+            for (int id : agentIDs)
+                out.writeInt(id);
+            out.writeInt(seeds.size());
+            for (int seed : seeds)
+                out.writeInt(seed);
+        }
+
+        static WorkUnit read(DataInput in) throws IOException {
+            GameType gameType = GameType.valueOf(in.readUTF());
+            int nPlayers = in.readInt();
+            List<Integer> agentIDs = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--)
+                agentIDs.add(in.readInt());
+            List<Integer> seeds = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--)
+                seeds.add(in.readInt());
+            return new WorkUnit(gameType, nPlayers, agentIDs, seeds);
+        }
+    }
+
+    /**
+     * The outcomes of the games of a unit, and the data recorded by the worker's listeners while playing them
+     */
+    public record WorkResult(List<GameOutcome> outcomes, byte[] listenerData) {
+
+        void write(DataOutput out) throws IOException {
+            out.writeInt(outcomes.size());
+            for (GameOutcome outcome : outcomes)
+                outcome.write(out);
+            out.writeInt(listenerData.length);
+            out.write(listenerData);
+        }
+
+        static WorkResult read(DataInput in) throws IOException {
+            List<GameOutcome> outcomes = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--)
+                outcomes.add(GameOutcome.read(in));
+            byte[] listenerData = new byte[in.readInt()];
+            in.readFully(listenerData);
+            return new WorkResult(outcomes, listenerData);
+        }
+    }
+
+    static final int MAGIC = 0x54414757;  // "TAGW"
+    static final byte UNIT = 1, RESULT = 2, FAILED = 3, STOP = 4;
+    public static final int MAX_ATTEMPTS = 3;
+    // a batch fails if there are no workers for this long
+    static final long WORKER_TIMEOUT_MS = 60_000;
+    public static final long DEFAULT_GAME_TIMEOUT_MS = 600_000;
+
+    private static class Task {
+        final int batch, index;
+        final WorkUnit unit;
+        final BiConsumer<Integer, WorkResult> onUnitDone;
+        int attempts;
+
+        Task(int batch, int index, WorkUnit unit, BiConsumer<Integer, WorkResult> onUnitDone) {
+            this.batch = batch;
+            this.index = index;
+            this.unit = unit;
+            this.onUnitDone = onUnitDone;
+        }
+    }
+
+    private final String[] workerArgs;
+    private final ServerSocket server;
+    private final List<Process> localWorkers = new ArrayList<>();
+    private final List<Thread> connections = Collections.synchronizedList(new ArrayList<>());
+    private final BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final AtomicInteger nextWorkerID = new AtomicInteger();
+    private volatile boolean closed;
+    private volatile long gameTimeoutMs = DEFAULT_GAME_TIMEOUT_MS;
+
+    // the current batch; guarded by this
+    private int batch;
+    private List<WorkResult> results;
+    private int remaining;
+    private String failure;
+    private int retries;
+
+    /**
+     * @param workerArgs - the RunGames arguments sent to each worker
+     */
+    public TournamentCoordinator(String[] workerArgs) {
+        this.workerArgs = workerArgs.clone();
+        try {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new AssertionError("Unable to open a socket for tournament workers", e);
+        }
+        Thread acceptor = new Thread(this::acceptWorkers, "TournamentCoordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        System.out.println("Tournament coordinator listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * A worker that takes longer than this for each game of a unit (for example in a game that never ends, or with
+     * an agent that is stuck) is treated as having failed: the unit is sent again, and the connection to the worker
+     * is closed. The default is DEFAULT_GAME_TIMEOUT_MS.
+     *
+     * @param timeoutMs - the time allowed for each game, or 0 for no limit
+     */
+    public void setGameTimeout(long timeoutMs) {
+        gameTimeoutMs = timeoutMs;
+    }
+
+    /**
+     * Starts n worker JVMs on this machine, with the same classpath and heap settings as this one.
+     * Their output goes to the output of this process.
+     */
+    public void launchLocalWorkers(int n) {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments())
+            if (arg.startsWith("-Xmx") || arg.startsWith("-Xms") || arg.startsWith("-Xss"))
+                command.add(arg);
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), "evaluation.RunGames",
+                "coordinator=localhost:" + getPort()));
+        for (int i = 0; i < n; i++) {
+            try {
+                localWorkers.add(new ProcessBuilder(command).inheritIO().start());
+            } catch (IOException e) {
+                throw new AssertionError("Unable to start tournament worker", e);
+            }
+        }
+    }
+
+    /**
+     * Plays all the units on the workers, and returns the result of each unit, in the same order as the units. This
+     * blocks until they are all done, and throws an AssertionError if any unit fails MAX_ATTEMPTS times, or if there
+     * are no workers for WORKER_TIMEOUT_MS.
+     */
+    public List<WorkResult> run(List<WorkUnit> units) {
+        return run(units, null);
+    }
+
+    /**
+     * As run(units), but onUnitDone is also called with the index and result of each unit as soon as it is done
+     * (in whatever order they finish, and on a thread of the coordinator). This returns after the last of these calls.
+     */
+    public synchronized List<WorkResult> run(List<WorkUnit> units, BiConsumer<Integer, WorkResult> onUnitDone) {
+        if (closed)
+            throw new IllegalStateException("Coordinator has been closed");
+        batch++;
+        results = new ArrayList<>(Collections.nCopies(units.size(), null));
+        remaining = units.size();
+        failure = null;
+        for (int i = 0; i < units.size(); i++)
+            queue.add(new Task(batch, i, units.get(i), onUnitDone));
+        long lastWorkerSeen = System.currentTimeMillis();
+        while (remaining > 0 && failure == null) {
+            try {
+                wait(1000);
+            } catch (InterruptedException e) {
+                throw new AssertionError("Interrupted while waiting for tournament workers");
+            }
+            long now = System.currentTimeMillis();
+            // local workers that are still starting up count, but not those that have since been dropped (they may
+            // be stuck in a game)
+            if (liveWorkers.get() > 0 || (nextWorkerID.get() < localWorkers.size()
+                    && localWorkers.stream().anyMatch(Process::isAlive)))
+                lastWorkerSeen = now;
+            else if (now - lastWorkerSeen > WORKER_TIMEOUT_MS)
+                failure = "No tournament workers for " + WORKER_TIMEOUT_MS / 1000 + " seconds";
+        }
+        if (failure != null) {
+            queue.clear();
+            throw new AssertionError(failure);
+        }
+        List<WorkResult> retValue = results;
+        results = null;
+        return retValue;
+    }
+
+    /**
+     * @return the number of times a unit has been sent again after a failure
+     */
+    public synchronized int getRetries() {
+        return retries;
+    }
+
+    public int getLiveWorkers() {
+        return liveWorkers.get();
+    }
+
+    // records the result, if the unit is still wanted; it is only counted as done by unitDone()
+    private synchronized boolean complete(Task task, WorkResult result) {
+        if (task.batch != batch || results == null || results.get(task.index) != null)
+            return false;
+        results.set(task.index, result);
+        return true;
+    }
+
+    private synchronized void unitDone(Task task) {
+        if (task.batch != batch || results == null)
+            return;
+        remaining--;
+        notifyAll();
+    }
+
+    private synchronized void fail(Task task, String reason) {
+        if (task.batch != batch || results == null)
+            return;
+        task.attempts++;
+        if (task.attempts >= MAX_ATTEMPTS) {
+            failure = String.format("Work unit %s failed %d times: %s", task.unit, task.attempts, reason);
+        } else {
+            retries++;
+            System.out.printf("Retrying work unit %d after failure: %s%n", task.index, reason);
+            queue.add(task);
+        }
+        notifyAll();
+    }
+
+    private void acceptWorkers() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                Thread connection = new Thread(() -> serve(socket), "TournamentCoordinator-" + socket.getPort());
+                connection.setDaemon(true);
+                connections.add(connection);
+                connection.start();
+            } catch (IOException e) {
+                if (!closed)
+                    System.out.println("Error accepting tournament worker: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Task task = null;
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            if (in.readInt() != MAGIC)
+                return;
+            out.writeInt(nextWorkerID.getAndIncrement());
+            out.writeInt(workerArgs.length);
+            for (String arg : workerArgs)
+                out.writeUTF(arg);
+            out.flush();
+            liveWorkers.incrementAndGet();
+            try {
+                while (true) {
+                    task = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (task == null) {
+                        if (closed) {
+                            out.writeByte(STOP);
+                            out.flush();
+                            return;
+                        }
+                        continue;
+                    }
+                    out.writeByte(UNIT);
+                    task.unit.write(out);
+                    out.flush();
+                    socket.setSoTimeout(unitTimeout(task.unit));
+                    byte reply = in.readByte();
+                    if (reply == RESULT) {
+                        WorkResult result = WorkResult.read(in);
+                        if (complete(task, result)) {
+                            try {
+                                if (task.onUnitDone != null)
+                                    task.onUnitDone.accept(task.index, result);
+                            } finally {
+                                unitDone(task);
+                            }
+                        }
+                    } else if (reply == FAILED) {
+                        fail(task, in.readUTF());
+                    } else {
+                        throw new IOException("Unexpected reply " + reply);
+                    }
+                    task = null;
+                }
+            } finally {
+                liveWorkers.decrementAndGet();
+            }
+        } catch (SocketTimeoutException e) {
+            // the connection is closed, so that the worker does not take any more units
+            fail(task, String.format("no reply from worker in %d seconds", unitTimeout(task.unit) / 1000));
+        } catch (IOException | InterruptedException e) {
+            // the worker has gone, so anything it was doing is sent to another one
+            if (task != null)
+                fail(task, "lost connection to worker (" + e.getMessage() + ")");
+        }
+    }
+
+    // the socket timeout while waiting for the result of a unit (0 for none)
+    private int unitTimeout(WorkUnit unit) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, gameTimeoutMs) * unit.seeds().size());
+    }
+
+    /**
+     * Tells the workers to stop once they are idle (which makes them report any listeners that do not transfer
+     * their data), and waits for the local workers to exit.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (connections) {
+            for (Thread connection : connections) {
+                try {
+                    connection.join(10_000);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+        try {
+            server.close();
+        } catch (IOException ignored) {
+        }
+        for (Process worker : localWorkers) {
+            try {
+                if (!worker.waitFor(60, TimeUnit.SECONDS))
+                    worker.destroy();
+            } catch (InterruptedException e) {
+                worker.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package evaluation.tournaments;
+
+import evaluation.RunGames;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static evaluation.tournaments.TournamentCoordinator.*;
+
+/**
+ * Plays games for a TournamentCoordinator. The worker is sent the coordinator's RunGames arguments when it connects,
+ * and creates one RoundRobinTournament (with its listeners) for each game and player count it is then asked to play.
+ * The data of ITransferableListeners is sent back with the outcomes of each unit, for the coordinator to report.
+ * Any other listeners write to a 'worker-N' subdirectory of the usual output directory, and report once the
+ * coordinator has no more work.
+ */
+public class TournamentWorker implements Runnable {
+
+    private final String host;
+    private final int port;
+
+    /**
+     * @param coordinator - host:port of the coordinator
+     */
+    public TournamentWorker(String coordinator) {
+        int colon = coordinator.lastIndexOf(':');
+        if (colon < 1)
+            throw new IllegalArgumentException("Coordinator must be given as host:port, not " + coordinator);
+        this.host = coordinator.substring(0, colon);
+        this.port = Integer.parseInt(coordinator.substring(colon + 1));
+    }
+
+    @Override
+    public void run() {
+        try (Socket socket = new Socket(host, port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            out.writeInt(MAGIC);
+            out.flush();
+            int id = in.readInt();
+            String[] args = new String[in.readInt()];
+            for (int i = 0; i < args.length; i++)
+                args[i] = in.readUTF();
+            RunGames runGames = RunGames.create(args);
+
+            Map<String, RoundRobinTournament> tournaments = new LinkedHashMap<>();
+            while (in.readByte() == UNIT) {
+                WorkUnit unit = WorkUnit.read(in);
+                try {
+                    RoundRobinTournament tournament = tournaments.computeIfAbsent(unit.gameType() + "-" + unit.nPlayers(), k -> {
+                        RoundRobinTournament t = runGames.createTournament(unit.gameType(), unit.nPlayers());
+                        runGames.addListeners(t, unit.gameType(), unit.nPlayers(), "worker-" + id);
+                        return t;
+                    });
+                    WorkResult result = tournament.playMatchUp(unit.agentIDs(), unit.seeds());
+                    out.writeByte(RESULT);
+                    result.write(out);
+                } catch (RuntimeException | AssertionError e) {
+                    String message = String.valueOf(e);
+                    out.writeByte(FAILED);
+                    out.writeUTF(message.length() > 1000 ? message.substring(0, 1000) : message);
+                }
+                out.flush();
+            }
+            for (RoundRobinTournament tournament : tournaments.values())
+                tournament.reportListeners();
+        } catch (IOException e) {
+            throw new AssertionError("Lost connection to tournament coordinator at " + host + ":" + port, e);
+        }
+    }
+}
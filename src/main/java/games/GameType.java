@@ -4,6 +4,7 @@ import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractParameters;
 import core.Game;
+import core.interfaces.IRuleSummariser;
 import core.rules.AbstractRuleBasedForwardModel;
 import games.XIIScripta.XIIGUIManager;
 import games.XIIScripta.XIIParameters;
@@ -143,7 +144,6 @@ import gametemplate.GTParameters;
 import gui.AbstractGUIManager;
 import gui.GamePanel;
 import gui.*;
-import llm.DocumentSummariser;
 import org.apache.commons.lang3.reflect.ConstructorUtils;
 import players.human.ActionController;
 import players.human.HumanGUIPlayer;
@@ -365,6 +365,11 @@ public enum GameType {
         this(minPlayers, maxPlayers, categories, mechanics, gameStateClass, forwardModelClass, parameterClass, guiManagerClass, null);
     }
 
+    /**
+     * The rule summary of the game, for use in prompts. The first time this is called the summary is created from
+     * the rulebook.pdf of the game by an IRuleSummariser (which the llm module provides), and then saved in the data
+     * directory of the game.
+     */
     public String loadRulebook() {
         String pdfFilePath = "data/" + this.name().toLowerCase() + "/rulebook.pdf";
         String ruleSummaryPath = "data/" + this.name().toLowerCase() + "/ruleSummary.txt";
@@ -385,10 +390,12 @@ public enum GameType {
             }
         }
 
+        IRuleSummariser summariser = ServiceLoader.load(IRuleSummariser.class).findFirst()
+                .orElseThrow(() -> new UnsupportedOperationException("There is no " + ruleSummaryPath +
+                        ", and no IRuleSummariser to create it (the llm module is not on the classpath)"));
         String rulesText;
         try {
-            DocumentSummariser summariser = new DocumentSummariser(pdfFilePath);
-            rulesText = summariser.processText("game rules and strategy", 500);
+            rulesText = summariser.summarise(pdfFilePath);
         } catch (IllegalArgumentException e) {
             throw new AssertionError("Error reading rulebook file: " + pdfFilePath, e);
         }
@@ -1,6 +1,7 @@
 package games.catan;
 
 import core.actions.AbstractAction;
+import core.actions.ActionCache;
 import core.actions.ActionSpace;
 import core.actions.DoNothing;
 import core.components.Counter;
@@ -18,7 +19,6 @@ import games.catan.components.Building;
 import games.catan.components.CatanCard;
 import games.catan.components.CatanTile;
 import games.puertorico.roles.Settler;
-import org.antlr.v4.runtime.misc.IntSet;
 import utilities.Utils;
 
 import java.util.*;
@@ -348,6 +348,7 @@ public class CatanActionFactory {
                 && !gs.playerTokens.get(player).get(BuyAction.BuyType.City).isMaximum();
         if (canBuySettlement || canBuyCity) {
             Set<Building> settlementsAdded = new HashSet<>();
+            ActionCache cache = catanParameters.getActionCache();
             CatanTile[][] board = gs.getBoard();
             for (int x = 0; x < board.length; x++) {
                 for (int y = 0; y < board[x].length; y++) {
@@ -358,14 +359,14 @@ public class CatanActionFactory {
                         settlementsAdded.add(settlement);
 
                         if (canBuyCity && settlement.getOwnerId() == player && settlement.getBuildingType() == Settlement) {
-                            actions.add(new BuildCity(x, y, i, player));
+                            actions.add(cache.intern(new BuildCity(x, y, i, player)));
                         }
 
                         if (canBuySettlement && settlement.getOwnerId() == -1) {  // cannot build on top of existing settlement
                             // legal to place?
                             if (!(tile.getTileType().equals(CatanTile.TileType.SEA) || tile.getTileType().equals(CatanTile.TileType.DESERT))
                                     && gs.checkSettlementPlacement(settlement, gs.getCurrentPlayer())) {
-                                actions.add(new BuildSettlement(x, y, i, player, false));
+                                actions.add(cache.intern(new BuildSettlement(x, y, i, player, false)));
                             }
                         }
                     }
@@ -4,6 +4,7 @@ import core.AbstractGameState;
 import core.CoreConstants;
 import core.StandardForwardModel;
 import core.actions.AbstractAction;
+import core.actions.ActionCache;
 import core.actions.ActionSpace;
 import core.actions.DoNothing;
 import core.components.Counter;
@@ -11,7 +12,11 @@ import core.components.Deck;
 import core.components.Edge;
 import core.components.GraphBoardWithEdges;
 import evaluation.metrics.Event;
+import games.catan.actions.build.BuildCity;
+import games.catan.actions.build.BuildRoad;
+import games.catan.actions.build.BuildSettlement;
 import games.catan.actions.build.BuyAction;
+import games.catan.actions.build.BuyDevelopmentCard;
 import games.catan.actions.discard.DiscardResourcesPhase;
 import games.catan.actions.trade.OfferPlayerTrade;
 import games.catan.components.Building;
@@ -39,6 +44,8 @@ public class CatanForwardModel extends StandardForwardModel {
 
         state.setBoard(generateBoard(params, state.getRnd()));
         state.setGraph(extractGraphFromBoard(state.getBoard(), params, state.getRnd()));
+        state.roadSlots = roadSlots(state);
+        state.buildingSlots = buildingSlots(state);
 
         state.scores = new int[state.getNPlayers()];
         state.victoryPoints = new int[state.getNPlayers()];
@@ -287,6 +294,155 @@ public class CatanForwardModel extends StandardForwardModel {
         return mainActions;
     }
 
+    /**
+     * Samples directly in the main phase of the flat action space while no trade offer is open. Trades with the bank,
+     * buying and playing development cards and ending the turn are few, so these are listed as usual; offers of
+     * trades to other players are counted, and only the one picked is created. Roads, settlements and cities have a
+     * slot for each edge or vertex of the board, and an illegal placement picked is rejected and we sample again,
+     * falling back to computing all the actions if no legal action is found fairly quickly.
+     */
+    @Override
+    protected AbstractAction _sampleRandomAction(AbstractGameState gameState, ActionSpace actionSpace, Random rnd) {
+        CatanGameState cgs = (CatanGameState) gameState;
+        CatanParameters cp = (CatanParameters) gameState.getGameParameters();
+        if (cgs.getGamePhase() != Main || cgs.tradeOffer != null || actionSpace.structure == ActionSpace.Structure.Deep)
+            return null;
+        int player = cgs.getCurrentPlayer();
+
+        List<AbstractAction> listed = new ArrayList<>(CatanActionFactory.getDefaultTradeActions(cgs, actionSpace, player));
+        if (cgs.checkCost(cp.costMapping.get(BuyAction.BuyType.DevCard), player) && cgs.devCards.getSize() > 0)
+            listed.add(new BuyDevelopmentCard(player));
+        if (cgs.noDevelopmentCardPlayed())
+            listed.addAll(CatanActionFactory.getDevCardActions(cgs, actionSpace, player));
+        listed.add(new DoNothing());
+
+        // Same conditions as in CatanActionFactory.getPlayerTradeOfferActions()
+        int offersPerPlayer = 0, nOffers = 0;
+        if (cp.tradingAllowed && cgs.nTradesThisTurn < cp.max_trade_actions_allowed && cgs.getNResourcesInHand(player) > 0) {
+            for (CatanParameters.Resource res : CatanParameters.Resource.values()) {
+                if (res == CatanParameters.Resource.WILD) continue;
+                offersPerPlayer += cgs.getPlayerResources(player).get(res).getValue() * (nResourceTypes() - 1) * Math.max(0, cp.max_resources_request_trade);
+            }
+            for (int p = 0; p < cgs.getNPlayers(); p++) {
+                if (p != player && cgs.getNResourcesInHand(p) > 0) nOffers += offersPerPlayer;
+            }
+        }
+
+        boolean canBuyRoad = cgs.checkCost(cp.costMapping.get(BuyAction.BuyType.Road), player)
+                && !cgs.playerTokens.get(player).get(BuyAction.BuyType.Road).isMaximum();
+        boolean canBuySettlement = cgs.checkCost(cp.costMapping.get(BuyAction.BuyType.Settlement), player)
+                && !cgs.playerTokens.get(player).get(BuyAction.BuyType.Settlement).isMaximum();
+        boolean canBuyCity = cgs.checkCost(cp.costMapping.get(BuyAction.BuyType.City), player)
+                && !cgs.playerTokens.get(player).get(BuyAction.BuyType.City).isMaximum();
+        int nRoadSlots = canBuyRoad ? cgs.roadSlots.length : 0;
+        int nBuildingSlots = canBuySettlement || canBuyCity ? cgs.buildingSlots.length : 0;
+
+        int total = listed.size() + nOffers + nRoadSlots + nBuildingSlots;
+        for (int attempt = 0; attempt <= nRoadSlots + nBuildingSlots; attempt++) {
+            int k = rnd.nextInt(total);
+            if (k < listed.size()) return listed.get(k);
+            k -= listed.size();
+            if (k < nOffers) return playerTradeOffer(cgs, cp, player, k, offersPerPlayer);
+            k -= nOffers;
+            if (k < nRoadSlots) {
+                // as in CatanActionFactory.getBuyRoadActions()
+                int[] slot = cgs.roadSlots[k];
+                CatanTile tile = cgs.getBoard()[slot[0]][slot[1]];
+                Edge edge = cgs.getRoad(tile, slot[2], slot[2]);
+                if (cgs.checkRoadPlacement(tile, slot[2], (slot[2] + 1) % HEX_SIDES, edge, player))
+                    return new BuildRoad(slot[0], slot[1], slot[2], player, false, edge.getComponentID());
+                continue;
+            }
+            // as in CatanActionFactory.getBuySettlementActions()
+            int[] slot = cgs.buildingSlots[k - nRoadSlots];
+            CatanTile tile = cgs.getBoard()[slot[0]][slot[1]];
+            Building settlement = cgs.getBuilding(tile, slot[2]);
+            ActionCache cache = cp.getActionCache();
+            if (canBuyCity && settlement.getOwnerId() == player && settlement.getBuildingType() == Building.Type.Settlement)
+                return cache.intern(new BuildCity(slot[0], slot[1], slot[2], player));
+            if (canBuySettlement && settlement.getOwnerId() == -1
+                    && !(tile.getTileType().equals(CatanTile.TileType.SEA) || tile.getTileType().equals(CatanTile.TileType.DESERT))
+                    && cgs.checkSettlementPlacement(settlement, player))
+                return cache.intern(new BuildSettlement(slot[0], slot[1], slot[2], player, false));
+        }
+        return null;
+    }
+
+    private static int nResourceTypes() {
+        return CatanParameters.Resource.values().length - 1;  // not WILD
+    }
+
+    /**
+     * @return the index-th of the new trade offers listed by CatanActionFactory.getPlayerTradeOfferActions(), which
+     * gives offersPerPlayer offers to each other player with resources in hand
+     */
+    private static OfferPlayerTrade playerTradeOffer(CatanGameState cgs, CatanParameters cp, int player, int index, int offersPerPlayer) {
+        int nBefore = index / offersPerPlayer;
+        index %= offersPerPlayer;
+        int otherPlayer = 0;
+        for (; otherPlayer < cgs.getNPlayers(); otherPlayer++) {
+            if (otherPlayer != player && cgs.getNResourcesInHand(otherPlayer) > 0 && nBefore-- == 0) break;
+        }
+        int maxToRequest = cp.max_resources_request_trade;
+        for (CatanParameters.Resource resToOffer : CatanParameters.Resource.values()) {
+            if (resToOffer == CatanParameters.Resource.WILD) continue;
+            int maxToOffer = cgs.getPlayerResources(player).get(resToOffer).getValue();
+            int perRequest = maxToOffer * maxToRequest;
+            if (index >= perRequest * (nResourceTypes() - 1)) {
+                index -= perRequest * (nResourceTypes() - 1);
+                continue;
+            }
+            int nRequestBefore = index / perRequest;
+            index %= perRequest;
+            for (CatanParameters.Resource resToRequest : CatanParameters.Resource.values()) {
+                if (resToRequest != CatanParameters.Resource.WILD && resToRequest != resToOffer && nRequestBefore-- == 0)
+                    return new OfferPlayerTrade(OfferPlayerTrade.Stage.Offer, resToOffer, index / maxToRequest + 1,
+                            resToRequest, index % maxToRequest + 1, player, otherPlayer);
+            }
+        }
+        throw new AssertionError("No trade offer " + index);
+    }
+
+    /**
+     * @return {x, y, vertex} for each edge of the board that a road may be built on, from the first tile in
+     * CatanActionFactory.getBuyRoadActions() that looks at it
+     */
+    private static int[][] roadSlots(CatanGameState gs) {
+        List<int[]> slots = new ArrayList<>();
+        Set<Edge> edgesChecked = new HashSet<>();
+        CatanTile[][] board = gs.getBoard();
+        for (int x = 0; x < board.length; x++) {
+            for (int y = 0; y < board[x].length; y++) {
+                CatanTile tile = board[x][y];
+                if (tile.getTileType().equals(CatanTile.TileType.SEA) || tile.getTileType().equals(CatanTile.TileType.DESERT))
+                    continue;
+                for (int i = 0; i < HEX_SIDES; i++) {
+                    Edge edge = gs.getRoad(tile, i, i);
+                    if (edge != null && edgesChecked.add(edge)) slots.add(new int[]{x, y, i});
+                }
+            }
+        }
+        return slots.toArray(new int[0][]);
+    }
+
+    /**
+     * @return {x, y, vertex} for each vertex of the board, from the first tile in
+     * CatanActionFactory.getBuySettlementActions() that looks at it
+     */
+    private static int[][] buildingSlots(CatanGameState gs) {
+        List<int[]> slots = new ArrayList<>();
+        Set<Building> settlementsAdded = new HashSet<>();
+        CatanTile[][] board = gs.getBoard();
+        for (int x = 0; x < board.length; x++) {
+            for (int y = 0; y < board[x].length; y++) {
+                for (int i = 0; i < HEX_SIDES; i++) {
+                    if (settlementsAdded.add(gs.getBuilding(board[x][y], i))) slots.add(new int[]{x, y, i});
+                }
+            }
+        }
+        return slots.toArray(new int[0][]);
+    }
+
     private CatanTile[][] generateBoard(CatanParameters params, Random rnd) {
         // Shuffle the tile types
         ArrayList<CatanTile.TileType> tileList = new ArrayList<>();
@@ -20,6 +20,7 @@ import static games.catan.stats.CatanMetrics.CatanEvent.LargestArmySteal;
 public class CatanGameState extends AbstractGameState {
     protected CatanTile[][] board;
     protected GraphBoardWithEdges catanGraph;
+    int[][] roadSlots, buildingSlots;  // {x, y, vertex} once per edge / vertex, for random sampling (see CatanForwardModel._sampleRandomAction())
     protected int[] scores; // score for each player
     protected int[] victoryPoints; // secret points from victory cards
     protected int[] knights, roadLengths; // knight count and road length for each player
@@ -405,6 +406,8 @@ public class CatanGameState extends AbstractGameState {
         copy.gamePhase = gamePhase;
         copy.board = copyBoard();
         copy.catanGraph = catanGraph.copy();
+        copy.roadSlots = roadSlots;
+        copy.buildingSlots = buildingSlots;
 
         copy.gameStatus = gameStatus;
         copy.playerResults = playerResults.clone();
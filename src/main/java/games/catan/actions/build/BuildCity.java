@@ -15,12 +15,14 @@ public class BuildCity extends AbstractAction {
     public final int col;
     public final int vertex;
     public final int playerID;
+    private final int hash;
 
     public BuildCity(int row, int col, int vertex, int playerID) {
         this.row = row;
         this.col = col;
         this.vertex = vertex;
         this.playerID = playerID;
+        hash = Objects.hash(row, col, vertex, playerID);
     }
 
     @Override
@@ -61,6 +63,7 @@ public class BuildCity extends AbstractAction {
 
     @Override
     public boolean equals(Object other) {
+        if (this == other) return true;
         if (other instanceof BuildCity){
             BuildCity otherAction = (BuildCity)other;
             return row == otherAction.row && col == otherAction.col && vertex == otherAction.vertex && playerID == otherAction.playerID;
@@ -70,7 +73,7 @@ public class BuildCity extends AbstractAction {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row,col,vertex,playerID);
+        return hash;
     }
 
     @Override
@@ -19,6 +19,7 @@ public class BuildRoad extends AbstractAction {
     public final int playerID;
     public final boolean free;
     public final int componentID;
+    private final int hash;
 
     public BuildRoad(int x, int y, int edge, int playerID, boolean free, int componentID) {
         this.x = x;
@@ -27,6 +28,7 @@ public class BuildRoad extends AbstractAction {
         this.playerID = playerID;
         this.free = free;
         this.componentID = componentID;
+        hash = Objects.hash(playerID, free, componentID);
     }
 
     @Override
@@ -97,7 +99,7 @@ public class BuildRoad extends AbstractAction {
 
     @Override
     public int hashCode() {
-        return Objects.hash(playerID, free, componentID);
+        return hash;
     }
 
     @Override
@@ -20,6 +20,7 @@ public class BuildSettlement extends AbstractAction {
     public final int vertex;
     public final int playerID;
     public final boolean free;
+    private final int hash;
 
     public BuildSettlement(int x, int y, int vertex, int playerID, boolean free){
         this.x = x;
@@ -27,6 +28,7 @@ public class BuildSettlement extends AbstractAction {
         this.vertex = vertex;
         this.playerID = playerID;
         this.free = free;
+        hash = Objects.hash(x, y, vertex, playerID, free);
     }
 
     @Override
@@ -74,6 +76,7 @@ public class BuildSettlement extends AbstractAction {
 
     @Override
     public boolean equals(Object other) {
+        if (this == other) return true;
         if (other instanceof BuildSettlement){
             BuildSettlement otherAction = (BuildSettlement)other;
             return x == otherAction.x && y == otherAction.y && vertex == otherAction.vertex && playerID == otherAction.playerID && free == otherAction.free;
@@ -83,7 +86,7 @@ public class BuildSettlement extends AbstractAction {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, vertex, playerID, free);
+        return hash;
     }
 
     @Override
@@ -585,6 +585,9 @@ public class ChessForwardModel extends StandardForwardModel {
             }
         }
         //TODO: Check for insufficient material
+
+        // this is the last step of _afterAction(), so the next player does not need to compute these again
+        keepAvailableActions(chessState, availableActions);
     }
 
     @Override
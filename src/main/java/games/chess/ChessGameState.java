@@ -50,6 +50,11 @@ public class ChessGameState extends AbstractGameState {
         return components;
     }
 
+    @Override
+    protected boolean copyIsExact(int playerId) {
+        return true;  // there is no hidden information in chess
+    }
+
     @Override
     protected ChessGameState _copy(int playerId) {
         ChessGameState copy = new ChessGameState(getGameParameters(), getNPlayers());
@@ -1,6 +1,7 @@
 package games.connect4;
 import core.AbstractGameState;
 import core.CoreConstants;
+import core.UndoJournal;
 import core.actions.AbstractAction;
 import core.actions.SetGridValueAction;
 import core.components.BoardNode;
@@ -50,6 +51,25 @@ public class Connect4ForwardModel extends SequentialActionForwardModel {
         return actions;
     }
 
+    @Override
+    public boolean supportsUndo(AbstractGameState gameState) {
+        return true;
+    }
+
+    @Override
+    protected void _recordUndo(AbstractGameState gameState, AbstractAction action, UndoJournal journal) {
+        // every action drops one token into the grid, and a win replaces the list of winning cells
+        Connect4GameState c4gs = (Connect4GameState) gameState;
+        SetGridValueAction setCell = (SetGridValueAction) action;
+        GridBoard gridBoard = c4gs.gridBoard;
+        BoardNode previous = gridBoard.getElement(setCell.getX(), setCell.getY());
+        LinkedList<Pair<Integer, Integer>> winnerCells = c4gs.winnerCells;
+        journal.record(() -> {
+            gridBoard.setElement(setCell.getX(), setCell.getY(), previous);
+            c4gs.winnerCells = winnerCells;
+        });
+    }
+
     @Override
     protected void _afterAction(AbstractGameState currentState, AbstractAction action) {
         Connect4GameState c4gs = (Connect4GameState) currentState;
@@ -105,6 +105,17 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         return Objects.hash(super.hashCode(), gridBoard);
     }
 
+    @Override
+    protected int _positionHash() {
+        return Objects.hash(corePositionHash(), gridBoard);
+    }
+
+    @Override
+    protected long _getZobristHash() {
+        // the board is the only thing that changes, and it keeps its own hash up to date
+        return gridBoard.getZobristHash();
+    }
+
     @Override
     public GridBoard getGridBoard() {
         return gridBoard;
@@ -0,0 +1,392 @@
+package games.descent2e;
+
+import core.components.BoardNode;
+import core.components.GridBoard;
+import core.properties.PropertyVector2D;
+import games.descent2e.actions.monsterfeats.MonsterAbilities;
+import games.descent2e.components.Figure;
+import games.descent2e.components.Monster;
+import utilities.Pair;
+import utilities.Vector2D;
+
+import java.util.*;
+
+import static core.CoreConstants.coordinateHash;
+import static games.descent2e.DescentConstants.playersSlot;
+
+/**
+ * Tables computed once from the layout of the master board: which cells exist, their neighbours and movement costs
+ * as flat arrays, and which cells can see each other if no figure is in the way. The layout does not change after
+ * setup, so one instance is shared by a DescentGameState and all its copies; only the figures on the board (the
+ * "players" property of each cell) need to be checked at query time.
+ * <p>
+ * Cells are indexed as y * width + x.
+ */
+public final class DescentBoardTables {
+
+    final int width, height;
+    private final boolean[] exists;
+    private final boolean[] walkable;
+    private final int[][] neighbours;
+    private final double[][] costs;
+    // visible[start] is a bitset over end cells: true if the straight line from start to end passes only through
+    // existing cells that are connected to each other (i.e. no walls), ignoring figures
+    private final long[][] visible;
+
+    DescentBoardTables(GridBoard board) {
+        width = board.getWidth();
+        height = board.getHeight();
+        int nCells = width * height;
+        exists = new boolean[nCells];
+        walkable = new boolean[nCells];
+        neighbours = new int[nCells][];
+        costs = new double[nCells][];
+        for (int i = 0; i < nCells; i++) {
+            BoardNode node = board.getElement(i % width, i / width);
+            if (node == null) {
+                neighbours[i] = new int[0];
+                costs[i] = new double[0];
+                continue;
+            }
+            exists[i] = true;
+            walkable[i] = DescentTypes.TerrainType.isWalkableTerrain(node.getComponentName());
+            // Sorted by cell, so that searches do not depend on the iteration order of the neighbour map
+            TreeMap<Integer, Double> sorted = new TreeMap<>();
+            for (Map.Entry<BoardNode, Double> e : node.getNeighbours().entrySet()) {
+                Vector2D loc = ((PropertyVector2D) e.getKey().getProperty(coordinateHash)).values;
+                sorted.put(index(loc.getX(), loc.getY()), e.getValue());
+            }
+            neighbours[i] = sorted.keySet().stream().mapToInt(Integer::intValue).toArray();
+            costs[i] = sorted.values().stream().mapToDouble(Double::doubleValue).toArray();
+        }
+
+        visible = new long[nCells][];
+        int[] line = new int[width + height + 2];
+        for (int start = 0; start < nCells; start++) {
+            if (!exists[start]) continue;
+            visible[start] = new long[(nCells + 63) >> 6];
+            for (int end = 0; end < nCells; end++) {
+                if (!exists[end]) continue;
+                int n = line(start % width, start / width, end % width, end / width, line);
+                boolean clear = true;
+                for (int i = 1; i < n && clear; i++) {
+                    clear = exists[line[i]] && isNeighbour(line[i - 1], line[i]);
+                }
+                if (clear)
+                    visible[start][end >> 6] |= 1L << end;
+            }
+        }
+    }
+
+    int index(int x, int y) {
+        return y * width + x;
+    }
+
+    boolean contains(Vector2D point) {
+        return point.getX() >= 0 && point.getX() < width && point.getY() >= 0 && point.getY() < height
+                && exists[index(point.getX(), point.getY())];
+    }
+
+    private boolean isNeighbour(int from, int to) {
+        for (int n : neighbours[from]) {
+            if (n == to) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Bresenham's line between two cells, as in LineOfSight.bresenhamsLineAlgorithm(), but writing cell indices
+     * into the given array instead of allocating a list of points.
+     *
+     * @return the number of cells on the line
+     */
+    int line(int x1, int y1, int x2, int y2, int[] out) {
+        int n = 0;
+        int d = 0;
+        int dx = Math.abs(x2 - x1);
+        int dy = Math.abs(y2 - y1);
+        int ix = x1 < x2 ? 1 : -1;
+        int iy = y1 < y2 ? 1 : -1;
+        int x = x1;
+        int y = y1;
+        if (dx > dy) {
+            while (true) {
+                out[n++] = index(x, y);
+                if (x == x2) break;
+                d += 2 * dy;
+                if (d > dx) {
+                    y += iy;
+                    out[n++] = index(x, y);
+                    d -= 2 * dx;
+                }
+                x += ix;
+            }
+        } else if (dy > dx) {
+            while (true) {
+                out[n++] = index(x, y);
+                if (y == y2) break;
+                d += 2 * dx;
+                if (d > dy) {
+                    x += ix;
+                    out[n++] = index(x, y);
+                    d -= 2 * dy;
+                }
+                y += iy;
+            }
+        } else {
+            while (true) {
+                out[n++] = index(x, y);
+                if (y == y2 || x == x2) break;
+                y += iy;
+                x += ix;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return true if there is line of sight between the two cells: the line between them is not blocked by walls
+     * (from the precomputed table), and no figure other than the ones at either end stands on it
+     */
+    boolean hasLineOfSight(GridBoard board, Vector2D startPoint, Vector2D endPoint) {
+        if (!contains(startPoint) || !contains(endPoint))
+            return false;
+        int start = index(startPoint.getX(), startPoint.getY());
+        int end = index(endPoint.getX(), endPoint.getY());
+        if ((visible[start][end >> 6] & (1L << end)) == 0)
+            return false;
+
+        int startFigure = occupant(board, start);
+        int endFigure = occupant(board, end);
+        int[] line = new int[Math.abs(endPoint.getX() - startPoint.getX()) + Math.abs(endPoint.getY() - startPoint.getY()) + 1];
+        int n = line(startPoint.getX(), startPoint.getY(), endPoint.getX(), endPoint.getY(), line);
+        for (int i = 1; i < n - 1; i++) {
+            int owner = occupant(board, line[i]);
+            if (owner != -1 && owner != startFigure && owner != endFigure)
+                return false;
+        }
+        return true;
+    }
+
+    int occupant(GridBoard board, int cell) {
+        return board.getElement(cell % width, cell / width).getIntProperty(playersSlot);
+    }
+
+    /**
+     * Where a figure could move to from its current position, and the cheapest way to get there, ignoring its
+     * remaining movement points. Computed with Dijkstra over the flat neighbour arrays: the search expands the cell
+     * the figure is on and any cells with friendly figures on them (which can be moved through but not stopped on),
+     * and every walkable empty cell next to an expanded cell is a destination.
+     */
+    MovementPlan planMovement(DescentGameState dgs, Figure figure) {
+        Vector2D position = figure.getPosition();
+        int start = index(position.getX(), position.getY());
+        int nCells = width * height;
+        double[] dist = new double[nCells];
+        double[] destCost = new double[nCells];
+        int[] prev = new int[nCells];
+        int[] destPrev = new int[nCells];
+        // the figure on each cell that the search has looked at, so that the plan can be checked against later states
+        int[] seen = new int[nCells];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(destCost, Double.POSITIVE_INFINITY);
+        Arrays.fill(seen, Integer.MIN_VALUE);
+        int[] cellType = new int[nCells];  // 0 = not yet classified, 1 = friendly, 2 = empty, 3 = blocked
+
+        MinHeap queue = new MinHeap(16);
+        dist[start] = 0;
+        prev[start] = -1;
+        seen[start] = occupant(dgs.masterBoard, start);
+        queue.push(0, start);
+        while (!queue.isEmpty()) {
+            double cost = queue.peekKey();
+            int cell = queue.pop();
+            if (cost > dist[cell]) continue;  // stale entry
+            for (int k = 0; k < neighbours[cell].length; k++) {
+                int next = neighbours[cell][k];
+                if (cellType[next] == 0) {
+                    seen[next] = occupant(dgs.masterBoard, next);
+                    cellType[next] = classify(dgs, figure, next, seen[next]);
+                }
+                double total = cost + costs[cell][k];
+                if (cellType[next] == 1) {
+                    if (total < dist[next]) {
+                        dist[next] = total;
+                        prev[next] = cell;
+                        queue.push(total, next);
+                    }
+                } else if (cellType[next] == 2 && total < destCost[next]) {
+                    destCost[next] = total;
+                    destPrev[next] = cell;
+                }
+            }
+        }
+
+        int nDestinations = 0, nSeen = 0;
+        for (int i = 0; i < nCells; i++) {
+            if (destCost[i] < Double.POSITIVE_INFINITY) nDestinations++;
+            if (seen[i] != Integer.MIN_VALUE) nSeen++;
+        }
+        MovementPlan plan = new MovementPlan(figure.getComponentID(), start, figure.canIgnoreEnemies(), nDestinations, nSeen);
+        int d = 0, s = 0;
+        for (int i = 0; i < nCells; i++) {
+            if (seen[i] != Integer.MIN_VALUE) {
+                plan.seenCells[s] = i;
+                plan.seenOccupants[s++] = seen[i];
+            }
+            if (destCost[i] < Double.POSITIVE_INFINITY) {
+                // path from the first step to the destination, excluding the starting cell
+                int length = 1;
+                for (int c = destPrev[i]; c != start; c = prev[c]) length++;
+                int[] path = new int[length];
+                path[length - 1] = i;
+                for (int c = destPrev[i], j = length - 2; c != start; c = prev[c], j--) path[j] = c;
+                plan.destinations[d] = i;
+                plan.costs[d] = destCost[i];
+                plan.paths[d++] = path;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @return 1 if the figure can move through the cell, 2 if it can end its move there, 3 if neither
+     */
+    private int classify(DescentGameState dgs, Figure figure, int cell, int occupant) {
+        boolean isFriendly = false;
+        boolean isEmpty = walkable[cell];
+        if (occupant != -1) {
+            isEmpty = false;
+            Figure other = (Figure) dgs.getComponentById(occupant);
+            if (other != null) {
+                String figureType = figure.getTokenType();
+                // If our current figure is the same as our neighbour (in the case of large figures), we can move into the neighbour tile
+                if (figure.equals(other)) {
+                    isEmpty = true;
+                }
+                // If our current figure is the same team as the neighbour (Hero or Monster), we can move through it
+                else if (figureType.equals(other.getTokenType())) {
+                    isFriendly = true;
+                }
+                // If our current figure is a monster with the Scamper passive, we can move through Hero figures as if they were friendly
+                else if (figureType.equals("Monster")) {
+                    if (((Monster) figure).hasPassive(MonsterAbilities.MonsterPassive.SCAMPER) && other.getTokenType().equals("Hero"))
+                        isFriendly = true;
+                }
+            }
+            // If, for whatever reason, our Heroes are allowed to ignore enemies entirely when moving
+            // We can move through all other figures as if they were friendly
+            if (figure.canIgnoreEnemies())
+                isFriendly = true;
+        }
+        return isFriendly ? 1 : isEmpty ? 2 : 3;
+    }
+
+    /**
+     * The result of planMovement(). This only depends on the figure, where it is, and the figures on the cells the
+     * search looked at, so it can be reused for as long as those have not changed.
+     */
+    final class MovementPlan {
+        final int figureID, start;
+        final boolean ignoreEnemies;
+        final int[] destinations;
+        final double[] costs;
+        final int[][] paths;
+        final int[] seenCells, seenOccupants;
+
+        MovementPlan(int figureID, int start, boolean ignoreEnemies, int nDestinations, int nSeen) {
+            this.figureID = figureID;
+            this.start = start;
+            this.ignoreEnemies = ignoreEnemies;
+            destinations = new int[nDestinations];
+            costs = new double[nDestinations];
+            paths = new int[nDestinations][];
+            seenCells = new int[nSeen];
+            seenOccupants = new int[nSeen];
+        }
+
+        boolean isValidFor(DescentGameState dgs, Figure figure) {
+            Vector2D position = figure.getPosition();
+            if (figure.getComponentID() != figureID || figure.canIgnoreEnemies() != ignoreEnemies
+                    || index(position.getX(), position.getY()) != start)
+                return false;
+            for (int i = 0; i < seenCells.length; i++) {
+                if (occupant(dgs.masterBoard, seenCells[i]) != seenOccupants[i])
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return destination -> (movement cost, positions travelled through to get there), as a new map each time
+         */
+        HashMap<Vector2D, Pair<Double, List<Vector2D>>> toMap() {
+            HashMap<Vector2D, Pair<Double, List<Vector2D>>> retValue = new HashMap<>();
+            for (int d = 0; d < destinations.length; d++) {
+                List<Vector2D> path = new ArrayList<>(paths[d].length);
+                for (int cell : paths[d]) path.add(new Vector2D(cell % width, cell / width));
+                retValue.put(path.get(path.size() - 1), new Pair<>(costs[d], path));
+            }
+            return retValue;
+        }
+    }
+
+    /**
+     * Binary min-heap of cells, keyed by cost. Cells may be pushed more than once; callers skip stale entries.
+     */
+    private static final class MinHeap {
+        private double[] keys;
+        private int[] cells;
+        private int size;
+
+        MinHeap(int capacity) {
+            keys = new double[capacity];
+            cells = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double peekKey() {
+            return keys[0];
+        }
+
+        void push(double key, int cell) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                cells[i] = cells[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            cells[i] = cell;
+        }
+
+        int pop() {
+            int top = cells[0];
+            size--;
+            double key = keys[size];
+            int cell = cells[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= key) break;
+                keys[i] = keys[child];
+                cells[i] = cells[child];
+                i = child;
+            }
+            keys[i] = key;
+            cells[i] = cell;
+            return top;
+        }
+    }
+}
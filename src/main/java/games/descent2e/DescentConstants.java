@@ -1,7 +1,10 @@
 package games.descent2e;
 
+import core.properties.PropertySchema;
 import utilities.Hash;
 
+import static core.CoreConstants.ComponentType.BOARD_NODE;
+
 public class DescentConstants {
 
     public final static int connectionHash = Hash.GetInstance().hash("connections");
@@ -17,4 +20,7 @@ public class DescentConstants {
     public final static int abilityHash = Hash.GetInstance().hash("ability");
     public final static int setupHash = Hash.GetInstance().hash("setup");
 
+    // Slot of the figure (component ID, or -1) on each cell of the master board, for Component.getIntProperty()
+    public final static int playersSlot = PropertySchema.of(BOARD_NODE).slot("players", PropertySchema.Kind.INT);
+
 }
@@ -1269,10 +1269,14 @@ public class DescentForwardModel extends StandardForwardModel {
                     BoardNode bn = dgs.masterBoard.getElement(j, i);
                     if (bn != null) {
                         bn.setProperty(new PropertyVector2D("coordinates", new Vector2D(j, i)));
+                        bn.setPropertyConstant(coordinateHash);  // set once, when the board is built
                         bn.setProperty(new PropertyInt("players", -1));
                     }
                 }
             }
+            // Line of sight and movement tables for this layout, shared by all copies of the state
+            dgs.boardTables = new DescentBoardTables(dgs.masterBoard);
+            dgs.movementPlans.clear();
         } else {
 //            System.out.println("Tiles for the map not found");
         }
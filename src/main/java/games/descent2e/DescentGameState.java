@@ -55,6 +55,11 @@ public class DescentGameState extends AbstractGameState implements IPrintable {
     int monsterActingNext;
     int heroActingNext;
 
+    // Line of sight and movement tables for the layout of masterBoard; shared with copies, as the layout does not change
+    DescentBoardTables boardTables;
+    // Movement plans computed in this state, by figure ID (not copied; each plan checks that it is still valid)
+    Map<Integer, DescentBoardTables.MovementPlan> movementPlans = new HashMap<>();
+
     /**
      * Constructor. Initialises some generic game state variables.
      *
@@ -162,6 +167,7 @@ public class DescentGameState extends AbstractGameState implements IPrintable {
             copy.gridReferences.put(e.getKey(), map);
         }
         copy.initData = initData;
+        copy.boardTables = boardTables;
         copy.tokens = new ArrayList<>();
         for (DToken t : tokens) {
             copy.tokens.add(t.copy());
@@ -304,6 +310,12 @@ public class DescentGameState extends AbstractGameState implements IPrintable {
         return masterBoard;
     }
 
+    DescentBoardTables getBoardTables() {
+        if (boardTables == null)
+            boardTables = new DescentBoardTables(masterBoard);
+        return boardTables;
+    }
+
     public List<Hero> getHeroes() {
         return heroes;
     }
@@ -15,7 +15,6 @@ import games.descent2e.actions.items.RerollAttributeTest;
 import games.descent2e.actions.monsterfeats.MonsterAbilities;
 import games.descent2e.components.*;
 import games.descent2e.components.tokens.DToken;
-import utilities.LineOfSight;
 import utilities.Pair;
 import utilities.Vector2D;
 
@@ -23,6 +22,7 @@ import java.util.*;
 
 import static core.CoreConstants.coordinateHash;
 import static core.CoreConstants.playersHash;
+import static games.descent2e.DescentConstants.playersSlot;
 import static games.descent2e.components.Figure.Attribute.MovePoints;
 
 public class DescentHelper {
@@ -75,7 +75,7 @@ public class DescentHelper {
 
             for (BoardNode neighbour : neighbours) {
                 if (neighbour == null) continue;
-                int neighbourID = ((PropertyInt) neighbour.getProperty(playersHash)).value;
+                int neighbourID = neighbour.getIntProperty(playersSlot);
                 if (neighbourID != -1) {
                     Figure other = (Figure) dgs.getComponentById(neighbourID);
                     // Checks to make sure that there is a line of sight before approving the attack action
@@ -141,7 +141,7 @@ public class DescentHelper {
 
             for (BoardNode neighbour : rangedTargets) {
                 if (neighbour == null) continue;
-                int neighbourID = ((PropertyInt) neighbour.getProperty(playersHash)).value;
+                int neighbourID = neighbour.getIntProperty(playersSlot);
                 if (neighbourID != -1) {
                     Figure other = (Figure) dgs.getComponentById(neighbourID);
 
@@ -175,7 +175,7 @@ public class DescentHelper {
         for (BoardNode neighbour : startTile.getNeighbours().keySet()) {
             if (neighbour == null) continue;
             if (newTiles.contains(neighbour)) continue;
-            int neighbourID = ((PropertyInt) neighbour.getProperty(playersHash)).value;
+            int neighbourID = neighbour.getIntProperty(playersSlot);
             if (neighbourID == f)
             {
                 newTiles.addAll(getAttackingTiles(f, neighbour, newTiles));
@@ -190,55 +190,13 @@ public class DescentHelper {
     }
 
     public static boolean hasLineOfSight(DescentGameState dgs, Vector2D startPoint, Vector2D endPoint){
-        int counter = 0;
-        boolean hasLineOfSight = true;
-
-        ArrayList<Vector2D> containedPoints = LineOfSight.bresenhamsLineAlgorithm(startPoint, endPoint);
-
-        BoardNode startTile = dgs.masterBoard.getElement(startPoint.getX(), startPoint.getY());
-        int start = ((PropertyInt) startTile.getProperty(playersHash)).value;
-
-        BoardNode targetTile = dgs.masterBoard.getElement(endPoint.getX(), endPoint.getY());
-        int target = ((PropertyInt) targetTile.getProperty(playersHash)).value;
-
-        // For each coordinate in the line, check:
+        // For each coordinate in the line (see LineOfSight.bresenhamsLineAlgorithm), check:
         // 1) Does the coordinate have its board node
         // 2) Is the board node empty (no character on location)
         // 3) Is the board node connected to previously checked board node
         // If any of these are false, then there is no LOS
-        for (int i = 1; i < containedPoints.size(); i++){
-
-            Vector2D previousPoint = containedPoints.get(i - 1);
-            Vector2D point = containedPoints.get(i);
-
-            // Check 1) Does the board node exist at this coordinate
-            BoardNode currentTile = dgs.masterBoard.getElement(point.getX(), point.getY());
-            if (currentTile == null){
-                hasLineOfSight = false;
-                break;
-            }
-
-            // Check 2) Is the board node empty (or, if either figure is large, not occupied by itself or the target)
-            int owner = ((PropertyInt) currentTile.getProperty(playersHash)).value;
-            if (owner != -1 && i != containedPoints.size() - 1){
-                if (owner != target && owner != start){
-                    hasLineOfSight = false;
-                    break;
-                }
-            }
-
-            // Check 3) Is the board node connected to previous board node
-            BoardNode previousTile = dgs.masterBoard.getElement(previousPoint.getX(), previousPoint.getY());
-            if (!previousTile.getNeighbours().containsKey(currentTile)){
-                hasLineOfSight = false;
-                break;
-            }
-        }
-
-        if (hasLineOfSight)
-            counter++;
-
-        return (counter > 0);
+        // 1) and 3) only depend on the map, so are looked up in a table computed once per layout
+        return dgs.getBoardTables().hasLineOfSight(dgs.masterBoard, startPoint, endPoint);
     }
 
     public static List<AbstractAction> moveActions(DescentGameState dgs, Figure f) {
@@ -311,92 +269,14 @@ public class DescentHelper {
     }
 
     private static HashMap<Vector2D, Pair<Double,List<Vector2D>>> getAllAdjacentNodes(DescentGameState dgs, Figure figure){
-        Vector2D figureLocation = figure.getPosition();
-        BoardNode figureNode = dgs.getMasterBoard().getElement(figureLocation.getX(), figureLocation.getY());
-        String figureType = figure.getTokenType();
-
-        //<Board Node, Cost to get there>
-        HashMap<BoardNode, Pair<Double,List<Vector2D>>> expandedBoardNodes = new HashMap<>();
-        HashMap<BoardNode, Pair<Double,List<Vector2D>>> nodesToBeExpanded = new HashMap<>();
-        HashMap<BoardNode, Pair<Double,List<Vector2D>>> allAdjacentNodes = new HashMap<>();
-
-        nodesToBeExpanded.put(figureNode, new Pair<>(0.0, new ArrayList<>()));
-        while (!nodesToBeExpanded.isEmpty()){
-            // Pick a node to expand, and remove it from the map
-            Map.Entry<BoardNode,Pair<Double,List<Vector2D>>> entry = nodesToBeExpanded.entrySet().iterator().next();
-            BoardNode expandingNode = entry.getKey();
-            double expandingNodeCost = entry.getValue().a;
-            List<Vector2D> expandingNodePath = entry.getValue().b;
-            nodesToBeExpanded.remove(expandingNode);
-
-            // Go through all the neighbour nodes
-            HashMap<BoardNode, Double> neighbours = expandingNode.getNeighbours();
-            for (BoardNode neighbour : neighbours.keySet()){
-                Vector2D loc = ((PropertyVector2D) neighbour.getProperty(coordinateHash)).values;
-
-                double costToMoveToNeighbour = expandingNode.getNeighbourCost(neighbour);
-                double totalCost = expandingNodeCost + costToMoveToNeighbour;
-                List<Vector2D> totalPath = new ArrayList<>(expandingNodePath);
-                if (totalPath.contains(loc)) continue;
-                totalPath.add(loc);
-                boolean isFriendly = false;
-                boolean isEmpty = DescentTypes.TerrainType.isWalkableTerrain(neighbour.getComponentName());
-
-                PropertyInt figureOnLocation = (PropertyInt)neighbour.getProperty(playersHash);
-                if (figureOnLocation.value != -1) {
-                    isEmpty = false;
-                    Figure neighbourFigure = (Figure) dgs.getComponentById(figureOnLocation.value);
-
-                    if (neighbourFigure != null) {
-                        // If our current figure is the same as our neighbour (in the case of large figures), we can move into the neighbour tile
-                        if (figure.equals(neighbourFigure)) {
-                            isEmpty = true;
-                        }
-                        // If our current figure is the same team as the neighbour (Hero or Monster), we can move through it
-                        else if (figureType.equals(neighbourFigure.getTokenType())) {
-                            isFriendly = true;
-                        }
-                        // If our current figure is a monster with the Scamper passive, we can move through Hero figures as if they were friendly
-                        else if (figureType == "Monster") {
-                            if ((((Monster) figure).hasPassive(MonsterAbilities.MonsterPassive.SCAMPER)) && neighbourFigure.getTokenType().equals("Hero"))
-                                isFriendly = true;
-                        }
-                    }
-                    // If, for whatever reason, our Heroes are allowed to ignore enemies entirely when moving
-                    // We can move through all other figures as if they were friendly
-                    if (figure.canIgnoreEnemies())
-                    {
-                        isFriendly = true;
-                    }
-                }
-
-                if (isFriendly){
-                    //if the node is friendly and not expanded - add it to the expansion list
-                    if(!expandedBoardNodes.containsKey(neighbour)){
-                        nodesToBeExpanded.put(neighbour, new Pair<>(totalCost, totalPath));
-                        //if the node is friendly and expanded but the cost was higher - add it to the expansion list
-                    } else if (expandedBoardNodes.containsKey(neighbour) && expandedBoardNodes.get(neighbour).a > totalCost){
-                        expandedBoardNodes.remove(neighbour);
-                        nodesToBeExpanded.put(neighbour, new Pair<>(totalCost, totalPath));
-                    }
-                } else if (isEmpty) {
-                    //if the node is empty - add it to adjacentNodeList
-                    if (!allAdjacentNodes.containsKey(neighbour) || allAdjacentNodes.get(neighbour).a > totalCost){
-                        allAdjacentNodes.put(neighbour, new Pair<>(totalCost, totalPath));
-                    }
-                }
-                expandedBoardNodes.put(neighbour, new Pair<>(totalCost, totalPath));
-            }
+        // The search is reused for as long as the figure has not moved, and no figure has moved in or out of the
+        // cells it looked at
+        DescentBoardTables.MovementPlan plan = dgs.movementPlans.get(figure.getComponentID());
+        if (plan == null || !plan.isValidFor(dgs, figure)) {
+            plan = dgs.getBoardTables().planMovement(dgs, figure);
+            dgs.movementPlans.put(figure.getComponentID(), plan);
         }
-
-        //Return list of coordinates
-        HashMap<Vector2D, Pair<Double,List<Vector2D>>> allAdjacentLocations = new HashMap<>();
-        for (BoardNode boardNode : allAdjacentNodes.keySet()){
-            Vector2D loc = ((PropertyVector2D) boardNode.getProperty(coordinateHash)).values;
-            allAdjacentLocations.put(loc, allAdjacentNodes.get(boardNode));
-        }
-
-        return allAdjacentLocations;
+        return plan.toMap();
     }
 
     // Pair<final position, final orientation> -> pair<movement cost to get there, list of positions to travel through to get there>
@@ -443,14 +323,14 @@ public class DescentHelper {
 
                             if (spaceOccupied != null)
                             {
-                                PropertyInt figureOnLocation = (PropertyInt) spaceOccupied.getProperty(playersHash);
+                                int figureOnLocation = spaceOccupied.getIntProperty(playersSlot);
                                 if (!DescentTypes.TerrainType.isWalkableTerrain(spaceOccupied.getComponentName()) ||
-                                        figureOnLocation.value != -1 && figureOnLocation.value != figure.getComponentID())
+                                        figureOnLocation != -1 && figureOnLocation != figure.getComponentID())
                                 {
                                     legal = false;
                                     break;
                                 }
-                                if (figureOnLocation.value == figure.getComponentID())
+                                if (figureOnLocation == figure.getComponentID())
                                 {
                                     // DOWN = 0, LEFT = 1, UP = 2, RIGHT = 3
                                     // If they are opposite directions, the difference will be 2
@@ -652,7 +532,7 @@ public class DescentHelper {
         StringBuilder coords = new StringBuilder();
         for (Component node : grid) {
             if (node != null) {
-                if (((PropertyInt) node.getProperty(playersHash)).value == figureId) {
+                if (node.getIntProperty(playersSlot) == figureId) {
                     counter++;
                     coords.append(node.getProperty("coordinates").toString()+"; ");
                 }
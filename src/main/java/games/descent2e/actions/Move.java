@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import static games.descent2e.DescentConstants.playersSlot;
 import static utilities.Utils.getNeighbourhood;
 
 public class Move extends AbstractAction {
@@ -81,7 +82,7 @@ public class Move extends AbstractAction {
 
         // We can only end our movement on a space that is not occupied by another figure
         // This is not important if we are considered off the map
-        int player = ((PropertyInt) node.getProperty("players")).value;
+        int player = node.getIntProperty(playersSlot);
         if (!f.isOffMap()) {
             if (player != -1 && player != f.getComponentID()) return false;
             //if (checkCollision(dgs, f, finalPosition)) return false;
@@ -209,7 +210,7 @@ public class Move extends AbstractAction {
             if (baseSpace.getComponentName().equalsIgnoreCase("pit")) {
                 f.setAttributeToMin(Figure.Attribute.MovePoints);
             }
-            temporary.value = false;
+            baseSpace.setProperty(new PropertyBoolean("tempPlacement", false));
         } else {
             // Full remove figure of all spaces (including adjacent) that it occupies
             if (f instanceof Monster) {
@@ -245,7 +246,7 @@ public class Move extends AbstractAction {
 
         BoardNode baseSpace = dgs.getMasterBoard().getElement(position.getX(), position.getY());
         // If the original space is empty, or is occupied by this figure, we can just place the figure there
-        int player = ((PropertyInt) baseSpace.getProperty("players")).value;
+        int player = baseSpace.getIntProperty(playersSlot);
 
         if (player == -1 || player == f.getComponentID()) {
             place(dgs, f, position, orientation);
@@ -269,7 +270,7 @@ public class Move extends AbstractAction {
                     BoardNode node = board.getElement(neighbour.getX(), neighbour.getY());
                     if (node != null) {
                         // Check if there are no other figures on the space, and that it is walkable
-                        player = ((PropertyInt) node.getProperty("players")).value;
+                        player = node.getIntProperty(playersSlot);
                         if (DescentTypes.TerrainType.isWalkableTerrain(node.getComponentName()) && (player == -1 || player == f.getComponentID())) {
                             possibilities.add(neighbour);
                         }
@@ -7,7 +7,6 @@ import games.descent2e.DescentGameState;
 import games.descent2e.actions.AttributeTest;
 import games.descent2e.actions.herofeats.DoubleMoveAttack;
 import games.descent2e.actions.herofeats.HeroicFeatExtraMovement;
-import org.apache.hadoop.shaded.org.apache.kerby.kerberos.kerb.crypto.util.Des;
 
 import javax.management.Attribute;
 import java.util.Objects;
@@ -1,6 +1,5 @@
 package games.descent2e.actions.herofeats;
 
-import breeze.util.ArrayUtil;
 import core.AbstractGameState;
 import core.components.Deck;
 import core.properties.PropertyStringArray;
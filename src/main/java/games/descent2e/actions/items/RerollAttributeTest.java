@@ -7,7 +7,6 @@ import games.descent2e.actions.AttributeTest;
 import games.descent2e.actions.DescentAction;
 import games.descent2e.actions.Triggers;
 import games.descent2e.components.*;
-import javassist.runtime.Desc;
 
 import java.util.Objects;
 
@@ -76,7 +76,7 @@ public class Figure extends Token {
     boolean hasMoved, hasAttacked, hasRerolled;
     boolean isOffMap, canIgnoreEnemies, extraAction = false;
 
-    Deck<DescentCard> exhausted = new Deck<>("Exhausted", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);;
+    Deck<DescentCard> exhausted;
 
     List<String> actionsTaken = new ArrayList<>();
 
@@ -90,6 +90,7 @@ public class Figure extends Token {
         attributes.put(Gold, new Counter(0, 0, -1, "Gold"));
         abilities = new ArrayList<>();
         nActionsExecuted = new Counter(0, 0, nActionsPossible, "Actions executed");
+        exhausted = new Deck<>("Exhausted", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);  // not in copies, which keep their IDs
     }
 
     protected Figure(String name, Counter actions, int ID) {
@@ -179,19 +179,19 @@ public class DominionForwardModel extends StandardForwardModel {
                             .map(dc -> dc.getAction(playerID))
                             .distinct()
                             .collect(toList());
-                    availableActions.add(new EndPhase(DominionGameState.DominionGamePhase.Play));
+                    availableActions.add(EndPhase.of(state, DominionGameState.DominionGamePhase.Play));
                     return availableActions;
                 }
-                return Collections.singletonList(new EndPhase(DominionGameState.DominionGamePhase.Play));
+                return Collections.singletonList(EndPhase.of(state, DominionGameState.DominionGamePhase.Play));
             case "Buy":
                 // we return every available card for purchase within our price range
                 int budget = state.getAvailableSpend(playerID);
                 List<AbstractAction> options = state.getCardsToBuy().stream()
                         .filter(ct -> ct.cost <= budget)
                         .sorted(Comparator.comparingInt(c -> -c.cost))
-                        .map(ct -> new BuyCard(ct, playerID))
+                        .map(ct -> BuyCard.of(state, ct, playerID))
                         .collect(toList());
-                options.add(new EndPhase(DominionGameState.DominionGamePhase.Buy));
+                options.add(EndPhase.of(state, DominionGameState.DominionGamePhase.Buy));
                 return options;
             default:
                 throw new AssertionError("Unknown Game Phase " + state.getGamePhase());
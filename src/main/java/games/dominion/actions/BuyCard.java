@@ -9,10 +9,21 @@ import games.dominion.cards.*;
  */
 public class BuyCard extends GainCard {
 
+    private static final CardType[] CARD_TYPES = CardType.values();
+
     public BuyCard(CardType cardToBuy, int playerID) {
         super(cardToBuy, playerID);
     }
 
+    /**
+     * @return the shared instance of BuyCard(cardToBuy, playerID) from the game's ActionCache
+     */
+    public static BuyCard of(AbstractGameState state, CardType cardToBuy, int playerID) {
+        return state.getGameParameters().getActionCache().get(BuyCard.class,
+                playerID * CARD_TYPES.length + cardToBuy.ordinal(),
+                i -> new BuyCard(CARD_TYPES[i % CARD_TYPES.length], i / CARD_TYPES.length));
+    }
+
     /**
      * Executes this action, applying its effect to the given game state. Can access any component IDs stored
      * through the AbstractGameState.getComponentById(int id) method.
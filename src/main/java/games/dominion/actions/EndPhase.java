@@ -14,10 +14,19 @@ public class EndPhase extends AbstractAction {
 
     public final DominionGameState.DominionGamePhase phase;
 
+    private static final DominionGameState.DominionGamePhase[] PHASES = DominionGameState.DominionGamePhase.values();
+
     public EndPhase(DominionGameState.DominionGamePhase phase) {
         this.phase = phase;
     }
 
+    /**
+     * @return the shared instance of EndPhase(phase) from the game's ActionCache
+     */
+    public static EndPhase of(AbstractGameState state, DominionGameState.DominionGamePhase phase) {
+        return state.getGameParameters().getActionCache().get(EndPhase.class, phase.ordinal(), i -> new EndPhase(PHASES[i]));
+    }
+
     @Override
     public boolean execute(AbstractGameState gs) {
         return true;
@@ -13,11 +13,13 @@ public class GainCard extends AbstractAction {
     public final CardType cardType;
     public final int buyingPlayer;
     public final DominionConstants.DeckType destinationDeck;
+    private final int hash;  // immutable, so we only calculate this once
 
     public GainCard(CardType cardToBuy, int playerID, DominionConstants.DeckType deck) {
         buyingPlayer = playerID;
         cardType = cardToBuy;
         destinationDeck = deck;
+        hash = Objects.hash(buyingPlayer, cardType, destinationDeck);
     }
     public GainCard(CardType cardToBuy, int playerID) {
         this(cardToBuy, playerID, DominionConstants.DeckType.DISCARD);
@@ -55,6 +57,7 @@ public class GainCard extends AbstractAction {
 
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) return true;
         if (obj instanceof GainCard) {
             GainCard other = (GainCard) obj;
             return other.cardType == cardType
@@ -66,7 +69,7 @@ public class GainCard extends AbstractAction {
 
     @Override
     public int hashCode() {
-        return Objects.hash(buyingPlayer, cardType, destinationDeck);
+        return hash;
     }
 
     @Override
@@ -2,7 +2,9 @@ package games.dotsboxes;
 
 import core.AbstractGameState;
 import core.StandardForwardModel;
+import core.UndoJournal;
 import core.actions.AbstractAction;
+import core.actions.ActionSpace;
 import utilities.Vector2D;
 
 import java.util.*;
@@ -15,6 +17,7 @@ public class DBForwardModel extends StandardForwardModel {
         DBParameters dbp = (DBParameters) firstState.getGameParameters();
 
         dbgs.lastActionDidNotScore = false;
+        dbgs.zobristHash = 0;
         // Generate edge to cell mapping and all cell objects with appropriate constructor
         dbgs.edgeToCellMap = new HashMap<>();
         dbgs.cellToEdgesMap = new HashMap<>();
@@ -43,10 +46,40 @@ public class DBForwardModel extends StandardForwardModel {
                 dbgs.cellToEdgesMap.put(c, edges);
             }
         }
+        dbgs.edgeArray = dbgs.edges.toArray(new DBEdge[0]);
         // Initialise other variables
         dbgs.nCellsPerPlayer = new int[dbgs.getNPlayers()];
     }
 
+    @Override
+    public boolean supportsUndo(AbstractGameState gameState) {
+        return true;
+    }
+
+    @Override
+    protected void _recordUndo(AbstractGameState gameState, AbstractAction action, UndoJournal journal) {
+        // An edge is placed, and any of its cells that were not yet complete may be completed by it
+        DBGameState dbgs = (DBGameState) gameState;
+        DBEdge edge = ((AddGridCellEdge) action).edge;
+        List<DBCell> openCells = new ArrayList<>(2);
+        for (DBCell c : dbgs.edgeToCellMap.get(edge)) {
+            if (!dbgs.cellToOwnerMap.containsKey(c))
+                openCells.add(c);
+        }
+        boolean lastActionDidNotScore = dbgs.lastActionDidNotScore;
+        long zobristHash = dbgs.zobristHash;
+        journal.record(() -> {
+            dbgs.edgeToOwnerMap.remove(edge);
+            for (DBCell c : openCells) {
+                Integer owner = dbgs.cellToOwnerMap.remove(c);
+                if (owner != null)
+                    dbgs.nCellsPerPlayer[owner]--;
+            }
+            dbgs.lastActionDidNotScore = lastActionDidNotScore;
+            dbgs.zobristHash = zobristHash;
+        });
+    }
+
     @Override
     protected void _afterAction(AbstractGameState currentState, AbstractAction action) {
         DBGameState dbgs = (DBGameState) currentState;
@@ -81,25 +114,46 @@ public class DBForwardModel extends StandardForwardModel {
         // Actions in this game are adding edges to the board (that don't already exist)
         for (DBEdge e : dbgs.edges) {
             if (!dbgs.edgeToOwnerMap.containsKey(e)) {
-                if (!override && dbgs.getGameTick() < dbp.disallowThreeBoxCreationUntilMove) {
-                    // we also need to check if this would create a three-box without closing one
-                    // (i.e. any cell already has 2 edges; and none have 3)
-                    boolean threeBox = false;
-                    for (DBCell c : dbgs.edgeToCellMap.get(e)) {
-                        int edges = dbgs.countCompleteEdges(c);
-                        if (edges == 3) {
-                            threeBox = false;
-                            break;  // and no need to check other cells
-                        } else if (edges == 2) {
-                            threeBox = true;
-                        }
-                    }
-                    if (threeBox) continue;
-                }
+                if (!override && dbgs.getGameTick() < dbp.disallowThreeBoxCreationUntilMove && createsThreeBox(dbgs, e))
+                    continue;
                 // Can add this edge
                 actions.add(new AddGridCellEdge(e));
             }
         }
         return actions;
     }
+
+    /**
+     * @return true if adding the edge would create a three-box without closing one
+     * (i.e. any of its cells already has 2 edges; and none have 3)
+     */
+    private boolean createsThreeBox(DBGameState dbgs, DBEdge e) {
+        boolean threeBox = false;
+        for (DBCell c : dbgs.edgeToCellMap.get(e)) {
+            int edges = dbgs.countCompleteEdges(c);
+            if (edges == 3) {
+                return false;  // and no need to check other cells
+            } else if (edges == 2) {
+                threeBox = true;
+            }
+        }
+        return threeBox;
+    }
+
+    /**
+     * Rejection sampling over all the edges. If this does not find a legal edge fairly quickly we fall back to
+     * computing all the actions, which also deals with the case where the three-box rule has to be overridden.
+     */
+    @Override
+    protected AbstractAction _sampleRandomAction(AbstractGameState gameState, ActionSpace actionSpace, Random rnd) {
+        DBGameState dbgs = (DBGameState) gameState;
+        DBParameters dbp = (DBParameters) gameState.getGameParameters();
+        boolean checkThreeBox = dbgs.getGameTick() < dbp.disallowThreeBoxCreationUntilMove;
+        for (int attempt = 0; attempt < dbgs.edgeArray.length; attempt++) {
+            DBEdge e = dbgs.edgeArray[rnd.nextInt(dbgs.edgeArray.length)];
+            if (!dbgs.edgeToOwnerMap.containsKey(e) && !(checkThreeBox && createsThreeBox(dbgs, e)))
+                return new AddGridCellEdge(e);
+        }
+        return null;
+    }
 }
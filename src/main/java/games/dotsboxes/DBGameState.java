@@ -5,6 +5,7 @@ import core.AbstractParameters;
 import core.components.Component;
 import core.interfaces.IStateHeuristic;
 import games.GameType;
+import utilities.Zobrist;
 
 import java.util.*;
 
@@ -14,6 +15,7 @@ public class DBGameState extends AbstractGameState {
 
     // List of all edges possible
     HashSet<DBEdge> edges;
+    DBEdge[] edgeArray;  // the same edges, for random sampling (see DBForwardModel._sampleRandomAction())
     // List of all cells possible
     HashSet<DBCell> cells;
     // Mapping from each edge to the cells it neighbours
@@ -26,6 +28,8 @@ public class DBGameState extends AbstractGameState {
     HashMap<DBCell, Integer> cellToOwnerMap;  // Mapping from each cell to its owner, if complete
     HashMap<DBEdge, Integer> edgeToOwnerMap;  // Mapping from each edge to its owner, if placed
     boolean lastActionDidNotScore;
+    // Zobrist hash of the placed edges and completed cells (with their owners), kept up to date by AddGridCellEdge
+    long zobristHash;
 
     /**
      * Constructor. Initialises some generic game state variables.
@@ -51,6 +55,7 @@ public class DBGameState extends AbstractGameState {
     protected AbstractGameState _copy(int playerId) {
         DBGameState dbgs = new DBGameState(gameParameters, getNPlayers());
         dbgs.edges = edges;
+        dbgs.edgeArray = edgeArray;
         dbgs.cells = cells;
         dbgs.edgeToCellMap = edgeToCellMap;
         dbgs.cellToEdgesMap = cellToEdgesMap;
@@ -60,6 +65,7 @@ public class DBGameState extends AbstractGameState {
         dbgs.cellToOwnerMap = (HashMap<DBCell, Integer>) cellToOwnerMap.clone();
         dbgs.edgeToOwnerMap = (HashMap<DBEdge, Integer>) edgeToOwnerMap.clone();
         dbgs.heuristic = heuristic;
+        dbgs.zobristHash = zobristHash;
         return dbgs;
     }
 
@@ -101,12 +107,34 @@ public class DBGameState extends AbstractGameState {
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(super.hashCode(), edges, cells, edgeToCellMap, cellToEdgesMap,
+        return hash(super.hashCode());
+    }
+
+    @Override
+    protected int _positionHash() {
+        return hash(corePositionHash());
+    }
+
+    private int hash(int coreHash) {
+        int result = Objects.hash(coreHash, edges, cells, edgeToCellMap, cellToEdgesMap,
                 cellToOwnerMap, edgeToOwnerMap, lastActionDidNotScore);
         result = 31 * result + Arrays.hashCode(nCellsPerPlayer);
         return result;
     }
 
+    @Override
+    protected long _getZobristHash() {
+        return lastActionDidNotScore ? zobristHash ^ Zobrist.key(Integer.MIN_VALUE, 1) : zobristHash;
+    }
+
+    static long edgeKey(DBEdge edge, int owner) {
+        return Zobrist.key(-1 - owner, edge.hashCode());
+    }
+
+    static long cellKey(DBCell cell, int owner) {
+        return Zobrist.key(owner, cell.hashCode());
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
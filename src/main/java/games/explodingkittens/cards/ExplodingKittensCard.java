@@ -3,7 +3,6 @@ package games.explodingkittens.cards;
 import core.components.Card;
 import games.explodingkittens.ExplodingKittensGameState;
 import games.explodingkittens.actions.ChoiceOfCardToGive;
-import org.apache.spark.sql.catalyst.plans.logical.BinaryCommand;
 
 import java.util.function.BiConsumer;
 
@@ -4,6 +4,7 @@ import core.*;
 import core.actions.AbstractAction;
 import core.actions.DrawCard;
 import core.components.Area;
+import core.components.BoardNode;
 import core.components.Card;
 import core.components.Counter;
 import core.components.Deck;
@@ -26,6 +27,7 @@ import java.util.*;
 
 import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
 import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+import static core.CoreConstants.coordinateHash;
 import static core.CoreConstants.nameHash;
 import static core.CoreConstants.playerHandHash;
 import static games.pandemic.PandemicActionFactory.*;
@@ -174,6 +176,11 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
         // Load the board
         state.world = _data.findGraphBoard("cities");
         gameArea.putComponent(pandemicBoardHash, state.world);
+        // City connections and map positions come from the board file and never change during a game
+        for (BoardNode city : state.world.getBoardNodes()) {
+            city.setPropertyConstant(neighboursHash);
+            city.setPropertyConstant(coordinateHash);
+        }
 
         // Initialize game state variables
         state.setNCardsDrawn(0);
@@ -2,6 +2,7 @@ package games.pentegrammai;
 
 import core.AbstractGameState;
 import core.StandardForwardModel;
+import core.UndoJournal;
 import core.actions.AbstractAction;
 import core.actions.DoNothing;
 import core.components.Dice;
@@ -107,6 +108,42 @@ public class PenteForwardModel extends StandardForwardModel {
         return actions;
     }
 
+    @Override
+    public boolean supportsUndo(AbstractGameState gameState) {
+        return true;
+    }
+
+    /**
+     * A move changes the tokens at its two points, and with a blot the tokens off the board and the blot count.
+     * The die is rolled after every action.
+     */
+    @Override
+    protected void _recordUndo(AbstractGameState gameState, AbstractAction action, UndoJournal journal) {
+        PenteGameState state = (PenteGameState) gameState;
+        int dieValue = state.die.getValue();
+        if (action instanceof PenteMoveAction move) {
+            List<Token> from = move.from == -1 ? null : new ArrayList<>(state.board.get(move.from));
+            List<Token> to = new ArrayList<>(state.board.get(move.to));
+            List<Token> offBoard = new ArrayList<>(state.offBoard);
+            int[] blotCount = state.blotCount.clone();
+            journal.record(() -> {
+                if (from != null)
+                    restore(state.board.get(move.from), from);
+                restore(state.board.get(move.to), to);
+                restore(state.offBoard, offBoard);
+                state.blotCount = blotCount;
+                state.die.setValue(dieValue);
+            });
+        } else {
+            journal.record(() -> state.die.setValue(dieValue));
+        }
+    }
+
+    private static void restore(List<Token> tokens, List<Token> previous) {
+        tokens.clear();
+        tokens.addAll(previous);
+    }
+
     /**
      * This is a method hook for any game-specific functionality that should run after an Action is executed
      * by the forward model
@@ -30,16 +30,16 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         TMGameState gs = (TMGameState) firstState;
         TMGameParameters params = (TMGameParameters) firstState.getGameParameters();
 
-        gs.playerResources = new HashMap[gs.getNPlayers()];
-        gs.playerProduction = new HashMap[gs.getNPlayers()];
+        gs.playerResources = new EnumMap[gs.getNPlayers()];
+        gs.playerProduction = new EnumMap[gs.getNPlayers()];
         gs.playerResourceMap = new HashSet[gs.getNPlayers()];
         gs.playerDiscountEffects = new HashMap[gs.getNPlayers()];
-        gs.playerResourceIncreaseGen = new HashMap[gs.getNPlayers()];
+        gs.playerResourceIncreaseGen = new EnumMap[gs.getNPlayers()];
 
         for (int i = 0; i < gs.getNPlayers(); i++) {
-            gs.playerResources[i] = new HashMap<>();
-            gs.playerProduction[i] = new HashMap<>();
-            gs.playerResourceIncreaseGen[i] = new HashMap<>();
+            gs.playerResources[i] = new EnumMap<>(TMTypes.Resource.class);
+            gs.playerProduction[i] = new EnumMap<>(TMTypes.Resource.class);
+            gs.playerResourceIncreaseGen[i] = new EnumMap<>(TMTypes.Resource.class);
             for (TMTypes.Resource res : TMTypes.Resource.values()) {
                 int startingRes = params.startingResources.get(res);
                 if (res == TR && gs.getNPlayers() == 1) {
@@ -73,7 +73,7 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         gs.bonuses = new HashSet<>();
         gs.milestones = new HashSet<>();
         gs.awards = new HashSet<>();
-        gs.globalParameters = new HashMap<>();
+        gs.globalParameters = new EnumMap<>(TMTypes.GlobalParameter.class);
 
         // Load base
         TMTypes.Expansion.Base.loadProjectCards(gs.projectCards);
@@ -135,12 +135,6 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         gs.projectCards.shuffle(gs.getRnd());
         gs.corpCards.shuffle(gs.getRnd());
 
-        HashMap<TMTypes.Tag, Counter>[] playerCardsPlayedTags;
-        HashSet<AbstractAction>[] playerCardsPlayedEffects;
-        HashSet<AbstractAction>[] playerCardsPlayedActions;
-        HashMap<TMTypes.CardType, Counter>[] playerCardsPlayedTypes;
-        HashMap<TMTypes.Tile, Counter>[] tilesPlaced;
-
         gs.playerCorporations = new TMCard[gs.getNPlayers()];
         gs.playerCardChoice = new Deck[gs.getNPlayers()];
         gs.playerHands = new Deck[gs.getNPlayers()];
@@ -155,21 +149,21 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
             gs.playerCardPoints[i] = new Counter(0, 0, params.maxPoints, "Points of p" + i);
         }
 
-        gs.playerTilesPlaced = new HashMap[gs.getNPlayers()];
-        gs.playerCardsPlayedTypes = new HashMap[gs.getNPlayers()];
-        gs.playerCardsPlayedTags = new HashMap[gs.getNPlayers()];
+        gs.playerTilesPlaced = new EnumMap[gs.getNPlayers()];
+        gs.playerCardsPlayedTypes = new EnumMap[gs.getNPlayers()];
+        gs.playerCardsPlayedTags = new EnumMap[gs.getNPlayers()];
         gs.playerExtraActions = new HashSet[gs.getNPlayers()];
         gs.playerPersistingEffects = new HashSet[gs.getNPlayers()];
         for (int i = 0; i < gs.getNPlayers(); i++) {
-            gs.playerTilesPlaced[i] = new HashMap<>();
+            gs.playerTilesPlaced[i] = new EnumMap<>(TMTypes.Tile.class);
             for (TMTypes.Tile t : TMTypes.Tile.values()) {
                 gs.playerTilesPlaced[i].put(t, new Counter(0, 0, params.maxPoints, t.name() + " tiles placed player " + i));
             }
-            gs.playerCardsPlayedTypes[i] = new HashMap<>();
+            gs.playerCardsPlayedTypes[i] = new EnumMap<>(TMTypes.CardType.class);
             for (TMTypes.CardType t : TMTypes.CardType.values()) {
                 gs.playerCardsPlayedTypes[i].put(t, new Counter(0, 0, params.maxPoints, t.name() + " cards played player " + i));
             }
-            gs.playerCardsPlayedTags[i] = new HashMap<>();
+            gs.playerCardsPlayedTags[i] = new EnumMap<>(TMTypes.Tag.class);
             for (TMTypes.Tag t : TMTypes.Tag.values()) {
                 gs.playerCardsPlayedTags[i].put(t, new Counter(0, 0, params.maxPoints, t.name() + " cards played player " + i));
             }
@@ -343,7 +337,8 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
 
         List<AbstractAction> possibleActions = getAllActions(gs);
 
-        // Wrap actions that can actually be played and must be paid for
+        // Wrap actions that can actually be played and must be paid for. Every requirement is tested afresh on each
+        // call; legality is not tracked across next(), as counters are changed directly from many places
         for (AbstractAction aa : possibleActions) {
             TMAction a = (TMAction) aa;
             if (a != null && a.canBePlayed(gs)) {
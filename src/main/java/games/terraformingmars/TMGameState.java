@@ -36,7 +36,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     int generation;
     GridBoard board;
     HashSet<TMMapTile> extraTiles;
-    HashMap<TMTypes.GlobalParameter, GlobalParameter> globalParameters;
+    EnumMap<TMTypes.GlobalParameter, GlobalParameter> globalParameters;
     HashSet<Bonus> bonuses;
     Deck<TMCard> projectCards, corpCards, discardCards;  // Face-down decks
 
@@ -47,18 +47,18 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     HashSet<Effect>[] playerPersistingEffects;
 
     // Player-specific counters
-    HashMap<TMTypes.Resource, Counter>[] playerResources;
-    HashMap<TMTypes.Resource, Boolean>[] playerResourceIncreaseGen;  // True if this resource was increased this gen
-    HashMap<TMTypes.Resource, Counter>[] playerProduction;
-    HashMap<TMTypes.Tag, Counter>[] playerCardsPlayedTags;
-    HashMap<TMTypes.CardType, Counter>[] playerCardsPlayedTypes;
-    HashMap<TMTypes.Tile, Counter>[] playerTilesPlaced;
+    EnumMap<TMTypes.Resource, Counter>[] playerResources;
+    EnumMap<TMTypes.Resource, Boolean>[] playerResourceIncreaseGen;  // True if this resource was increased this gen
+    EnumMap<TMTypes.Resource, Counter>[] playerProduction;
+    EnumMap<TMTypes.Tag, Counter>[] playerCardsPlayedTags;
+    EnumMap<TMTypes.CardType, Counter>[] playerCardsPlayedTypes;
+    EnumMap<TMTypes.Tile, Counter>[] playerTilesPlaced;
     Counter[] playerCardPoints;  // Points gathered by playing cards
 
     // Player cards
     Deck<TMCard>[] playerHands;
     Deck<TMCard>[] playerComplicatedPointCards;  // Cards played that can gather resources
-    Deck<TMCard>[] playedCards;  // Cards played that can gather resources
+    Deck<TMCard>[] playedCards;  // Cards played that are not in playerComplicatedPointCards
     Deck<TMCard>[] playerCardChoice;
     TMCard[] playerCorporations;
 
@@ -137,7 +137,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         for (TMMapTile mt : extraTiles) {
             copy.extraTiles.add(mt.copy());
         }
-        copy.globalParameters = new HashMap<>();
+        copy.globalParameters = new EnumMap<>(TMTypes.GlobalParameter.class);
         for (TMTypes.GlobalParameter p : globalParameters.keySet()) {
             copy.globalParameters.put(p, globalParameters.get(p).copy());
         }
@@ -166,12 +166,12 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         copy.playerResourceMap = new HashSet[getNPlayers()];
         copy.playerPersistingEffects = new HashSet[getNPlayers()];
         copy.playerDiscountEffects = new HashMap[getNPlayers()];
-        copy.playerResources = new HashMap[getNPlayers()];
-        copy.playerResourceIncreaseGen = new HashMap[getNPlayers()];
-        copy.playerProduction = new HashMap[getNPlayers()];
-        copy.playerCardsPlayedTags = new HashMap[getNPlayers()];
-        copy.playerCardsPlayedTypes = new HashMap[getNPlayers()];
-        copy.playerTilesPlaced = new HashMap[getNPlayers()];
+        copy.playerResources = new EnumMap[getNPlayers()];
+        copy.playerResourceIncreaseGen = new EnumMap[getNPlayers()];
+        copy.playerProduction = new EnumMap[getNPlayers()];
+        copy.playerCardsPlayedTags = new EnumMap[getNPlayers()];
+        copy.playerCardsPlayedTypes = new EnumMap[getNPlayers()];
+        copy.playerTilesPlaced = new EnumMap[getNPlayers()];
         copy.playerCardPoints = new Counter[getNPlayers()];
         copy.playerComplicatedPointCards = new Deck[getNPlayers()];
         copy.playedCards = new Deck[getNPlayers()];
@@ -181,12 +181,12 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
             copy.playerResourceMap[i] = new HashSet<>();
             copy.playerPersistingEffects[i] = new HashSet<>();
             copy.playerDiscountEffects[i] = new HashMap<>();
-            copy.playerResources[i] = new HashMap<>();
-            copy.playerResourceIncreaseGen[i] = new HashMap<>();
-            copy.playerProduction[i] = new HashMap<>();
-            copy.playerCardsPlayedTags[i] = new HashMap<>();
-            copy.playerCardsPlayedTypes[i] = new HashMap<>();
-            copy.playerTilesPlaced[i] = new HashMap<>();
+            copy.playerResources[i] = new EnumMap<>(TMTypes.Resource.class);
+            copy.playerResourceIncreaseGen[i] = new EnumMap<>(playerResourceIncreaseGen[i]);
+            copy.playerProduction[i] = new EnumMap<>(TMTypes.Resource.class);
+            copy.playerCardsPlayedTags[i] = new EnumMap<>(TMTypes.Tag.class);
+            copy.playerCardsPlayedTypes[i] = new EnumMap<>(TMTypes.CardType.class);
+            copy.playerTilesPlaced[i] = new EnumMap<>(TMTypes.Tile.class);
             copy.playerCardPoints[i] = playerCardPoints[i].copy();
             copy.playerComplicatedPointCards[i] = playerComplicatedPointCards[i].copy();
             copy.playedCards[i] = playedCards[i].copy();
@@ -207,7 +207,6 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
             }
             for (TMTypes.Resource r : playerResources[i].keySet()) {
                 copy.playerResources[i].put(r, playerResources[i].get(r).copy());
-                copy.playerResourceIncreaseGen[i].put(r, playerResourceIncreaseGen[i].get(r));
             }
             for (TMTypes.Resource r : playerProduction[i].keySet()) {
                 copy.playerProduction[i].put(r, playerProduction[i].get(r).copy());
@@ -411,11 +410,11 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
      * Public API
      */
 
-    public HashMap<TMTypes.Resource, Counter>[] getPlayerProduction() {
+    public EnumMap<TMTypes.Resource, Counter>[] getPlayerProduction() {
         return playerProduction;
     }
 
-    public HashMap<TMTypes.Resource, Counter>[] getPlayerResources() {
+    public EnumMap<TMTypes.Resource, Counter>[] getPlayerResources() {
         return playerResources;
     }
 
@@ -427,7 +426,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return bonuses;
     }
 
-    public HashMap<TMTypes.GlobalParameter, GlobalParameter> getGlobalParameters() {
+    public EnumMap<TMTypes.GlobalParameter, GlobalParameter> getGlobalParameters() {
         return globalParameters;
     }
 
@@ -439,11 +438,11 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return playerHands;
     }
 
-    public HashMap<TMTypes.Tag, Counter>[] getPlayerCardsPlayedTags() {
+    public EnumMap<TMTypes.Tag, Counter>[] getPlayerCardsPlayedTags() {
         return playerCardsPlayedTags;
     }
 
-    public HashMap<TMTypes.CardType, Counter>[] getPlayerCardsPlayedTypes() {
+    public EnumMap<TMTypes.CardType, Counter>[] getPlayerCardsPlayedTypes() {
         return playerCardsPlayedTypes;
     }
 
@@ -451,7 +450,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return playerExtraActions;
     }
 
-    public HashMap<TMTypes.Tile, Counter>[] getPlayerTilesPlaced() {
+    public EnumMap<TMTypes.Tile, Counter>[] getPlayerTilesPlaced() {
         return playerTilesPlaced;
     }
 
@@ -506,7 +505,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return generation;
     }
 
-    public HashMap<TMTypes.Resource, Boolean>[] getPlayerResourceIncreaseGen() {
+    public EnumMap<TMTypes.Resource, Boolean>[] getPlayerResourceIncreaseGen() {
         return playerResourceIncreaseGen;
     }
 
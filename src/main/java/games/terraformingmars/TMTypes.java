@@ -18,7 +18,7 @@ import java.awt.*;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.HashSet;
 
 import static games.terraformingmars.components.TMMapTile.parseMapTile;
@@ -303,7 +303,7 @@ public class TMTypes {
         /* custom loading info from json */
 
         public void loadBoard(GridBoard board, HashSet<TMMapTile> extraTiles, HashSet<Bonus> bonuses,
-                              HashSet<Milestone> milestones, HashSet<Award> awards, HashMap<GlobalParameter, games.terraformingmars.components.GlobalParameter> globalParameters) {
+                              HashSet<Milestone> milestones, HashSet<Award> awards, EnumMap<GlobalParameter, games.terraformingmars.components.GlobalParameter> globalParameters) {
             JSONParser jsonParser = new JSONParser();
             try (FileReader reader = new FileReader(getBoardPath())) {
                 JSONObject data = (JSONObject) jsonParser.parse(reader);
@@ -29,8 +29,9 @@ public class BuyCard extends TMAction {
 
             // Execute immediate effect of corporation (starting bonus)
             for (TMAction aa: card.immediateEffects) {
-                aa.player = player;
-                aa.execute(gs);
+                TMAction effect = aa.copy();  // as in PlayCard, the card's own effects are not changed by playing them
+                effect.player = player;
+                effect.execute(gs);
             }
             // Add actions
             for (TMAction a: card.actions) {
@@ -42,7 +42,9 @@ public class DuplicateImmediateEffect extends TMAction implements IExtendedSeque
         if (getCardID() == -1) {
             // Put viable cards in card choice deck
             boolean found = false;
-            for (TMCard card : gameState.getPlayedCards()[player].getComponents()) {
+            List<TMCard> played = new ArrayList<>(gameState.getPlayedCards()[player].getComponents());
+            played.addAll(gameState.getPlayerComplicatedPointCards()[player].getComponents());
+            for (TMCard card : played) {
                 for (TMTypes.Tag t : card.tags) {
                     if (t == tagRequirement) {
                         for (TMAction action : card.immediateEffects) {
@@ -65,8 +67,9 @@ public class DuplicateImmediateEffect extends TMAction implements IExtendedSeque
             TMCard card = (TMCard) gameState.getComponentById(getCardID());
             for (TMAction action : card.immediateEffects) {
                 if (action.getClass().getSimpleName().equalsIgnoreCase(actionClassName) && (!actionClassName.equalsIgnoreCase("ModifyPlayerResource") || ((ModifyPlayerResource) action).production == production)) {
-                    action.player = player;
-                    action.execute(gameState);
+                    TMAction effect = action.copy();
+                    effect.player = player;
+                    effect.execute(gameState);
                 }
             }
         }
@@ -121,7 +121,7 @@ public class PayForAction extends TMAction implements IExtendedSequence {
             // Shouldn't happen
             stage = resourcesToPayWith.length;
             this.action.player = player;
-            this.action.requirements.remove(costRequirement);
+            this.action.requirements.remove(this.action.costRequirement);
             this.action.execute(state);
             return;
         }
@@ -132,7 +132,7 @@ public class PayForAction extends TMAction implements IExtendedSequence {
         if (costPaid >= getCost()) {
             // Action paid for, execute
             this.action.player = player;
-            this.action.requirements.remove(costRequirement);
+            this.action.requirements.remove(this.action.costRequirement);
             this.action.execute(state);
             stage = resourcesToPayWith.length;
         }
@@ -51,8 +51,8 @@ public class PlayCard extends TMAction {
 
         gs.getPlayerCardsPlayedTypes()[player].get(card.cardType).increment(1);
         if (card.shouldSaveCard()) {
+            // only kept here: the same card object in two decks would become two separate cards once the state is copied
             gs.getPlayerComplicatedPointCards()[player].add(card);
-            gs.getPlayedCards()[player].add(card);
         } else {
             gs.getPlayedCards()[player].add(card);
             if (card.nPoints != 0) {
@@ -76,8 +76,10 @@ public class PlayCard extends TMAction {
         // Execute on-play effects
         for (TMAction aa: card.immediateEffects) {
             card.actionPlayed = false;  // This is set by each action, preventing the next ones, but we want all to be executed
-            aa.player = player;
-            aa.execute(gs);
+            // a copy, as an effect that asks for choices changes itself while in progress, and the card may be copied meanwhile
+            TMAction effect = aa.copy();
+            effect.player = player;
+            effect.execute(gs);
         }
         card.actionPlayed = false;  // We've not executed the active card action
     }
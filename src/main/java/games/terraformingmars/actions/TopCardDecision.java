@@ -54,12 +54,16 @@ public class TopCardDecision extends TMAction implements IExtendedSequence {
         if (nCardsLook == 1 || nCardsKept < nCardsKeep) {
             if (buy) {
                 int cost = ((TMGameParameters)gs.getGameParameters()).getProjectPurchaseCost();
-                actions.add(new PayForAction(player, new BuyCard(player, cardId, cost)));
+                PayForAction a = new PayForAction(player, new BuyCard(player, cardId, cost));
+                if (a.canBePlayed(gs)) {
+                    actions.add(a);
+                }
             } else {
                 actions.add(new BuyCard(player, cardId, 0));
             }
         }
-        if (nCardsLook == 1 || nCardsLook - stage > nCardsKeep - nCardsKept) {
+        if (actions.isEmpty() || nCardsLook == 1 || nCardsLook - stage > nCardsKeep - nCardsKept) {
+            // The card can always be discarded if it cannot be bought
             actions.add(new DiscardCard(player, cardId, true));
         }
         return actions;
@@ -84,6 +88,13 @@ public class TopCardDecision extends TMAction implements IExtendedSequence {
 //        }
     }
 
+    @Override
+    public void afterRemovalFromQueue(AbstractGameState state, IExtendedSequence completedSequence) {
+        // Each decision is already counted in _afterAction(). The sequences removed below this one are either the
+        // PayForAction of a card bought here (counted when it was chosen), or the one that played the card that
+        // created this decision, so neither is a decision on these cards
+    }
+
     @Override
     public boolean executionComplete(AbstractGameState state) {
         return ((TMGameState)state).getPlayerCardChoice()[player].getSize() == 0;
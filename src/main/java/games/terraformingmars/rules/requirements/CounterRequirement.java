@@ -13,7 +13,11 @@ public class CounterRequirement implements Requirement<TMGameState> {
 
     public String counterCode;
 
-    int counterID = -1;
+    // counterCode resolved to the counter it names: a global parameter, or a resource or production of the current player
+    boolean resolved;
+    TMTypes.GlobalParameter globalParameter;
+    TMTypes.Resource resource;
+    boolean production;
     int thresholdIdx;
     public boolean max;  // if true, value of counter must be <= threshold, if false >=
 
@@ -89,23 +93,36 @@ public class CounterRequirement implements Requirement<TMGameState> {
     @Override
     public CounterRequirement copy() {
         CounterRequirement copy = new CounterRequirement(counterCode, thresholdIdx, max);
-        copy.counterID = counterID;
+        copy.resolved = resolved;
+        copy.globalParameter = globalParameter;
+        copy.resource = resource;
+        copy.production = production;
         return copy;
     }
 
     private Counter getCounter(TMGameState gs) {
-        Counter which;
-        if (counterID == -1) {
-            which = gs.stringToGPOrPlayerResCounter(counterCode, -1);
-            counterID = which.getComponentID();
-            if (which.getComponentName().equalsIgnoreCase("temperature") ||
-                    which.getComponentName().equalsIgnoreCase("venus")) {
+        if (!resolved) {
+            // Only the name is needed to find the counter, so this is done once, and then the counter read directly
+            // from the state's maps (rather than looked up by component ID)
+            globalParameter = Utils.searchEnum(TMTypes.GlobalParameter.class, counterCode);
+            if (globalParameter == null) {
+                resource = TMTypes.Resource.valueOf(counterCode.split("prod")[0]);
+                production = counterCode.contains("prod");
+            }
+            resolved = true;
+            if (globalParameter == TMTypes.GlobalParameter.Temperature || globalParameter == TMTypes.GlobalParameter.Venus) {
                 // Turn to index
-                thresholdIdx = Utils.indexOf(which.getValues(), thresholdIdx);
+                thresholdIdx = Utils.indexOf(gs.getGlobalParameters().get(globalParameter).getValues(), thresholdIdx);
             }
+        }
+
+        Counter which;
+        if (globalParameter != null) {
+            which = gs.getGlobalParameters().get(globalParameter);
+        } else if (production) {
+            which = gs.getPlayerProduction()[gs.getCurrentPlayer()].get(resource);
         } else {
-            gs.getAllComponents();
-            which = (Counter) gs.getComponentById(counterID);
+            which = gs.getPlayerResources()[gs.getCurrentPlayer()].get(resource);
         }
 
         if (max && thresholdIdx == -1) {
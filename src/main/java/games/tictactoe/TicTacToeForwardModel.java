@@ -3,6 +3,7 @@ package games.tictactoe;
 import core.AbstractGameState;
 import core.CoreConstants;
 import core.StandardForwardModel;
+import core.UndoJournal;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.SetGridValueAction;
@@ -14,6 +15,7 @@ import utilities.ActionTreeNode;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 
 public class TicTacToeForwardModel extends StandardForwardModel implements ITreeActionSpace {
@@ -50,6 +52,40 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
         return actions;
         }
 
+    /**
+     * Rejection sampling over the cells of the grid, falling back to computing all the actions if no empty cell is
+     * found fairly quickly.
+     */
+    @Override
+    protected AbstractAction _sampleRandomAction(AbstractGameState gameState, ActionSpace actionSpace, Random rnd) {
+        TicTacToeGameState tttgs = (TicTacToeGameState) gameState;
+        if (!gameState.isNotTerminal())
+            return null;
+        int width = tttgs.gridBoard.getWidth(), height = tttgs.gridBoard.getHeight();
+        for (int attempt = 0; attempt < width * height; attempt++) {
+            int cell = rnd.nextInt(width * height);
+            int x = cell / height, y = cell % height;
+            if (tttgs.gridBoard.getElement(x, y).getComponentName().equals(TicTacToeConstants.emptyCell))
+                return new SetGridValueAction(tttgs.gridBoard.getComponentID(), x, y,
+                        TicTacToeConstants.playerMapping.get(gameState.getCurrentPlayer()).getComponentID());
+        }
+        return null;
+    }
+
+    @Override
+    public boolean supportsUndo(AbstractGameState gameState) {
+        return true;
+    }
+
+    @Override
+    protected void _recordUndo(AbstractGameState gameState, AbstractAction action, UndoJournal journal) {
+        // every action sets one cell of the grid; the end of game check only changes the core state
+        SetGridValueAction setCell = (SetGridValueAction) action;
+        GridBoard gridBoard = ((TicTacToeGameState) gameState).gridBoard;
+        BoardNode previous = gridBoard.getElement(setCell.getX(), setCell.getY());
+        journal.record(() -> gridBoard.setElement(setCell.getX(), setCell.getY(), previous));
+    }
+
     @Override
     protected void _afterAction(AbstractGameState currentState, AbstractAction action) {
         if (checkAndProcessGameEnd((TicTacToeGameState) currentState)) {
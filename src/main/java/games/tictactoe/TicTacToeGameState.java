@@ -77,6 +77,17 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
     public int hashCode() {
         return Objects.hash(super.hashCode(), gridBoard);
     }
+
+    @Override
+    protected int _positionHash() {
+        return Objects.hash(corePositionHash(), gridBoard);
+    }
+
+    @Override
+    protected long _getZobristHash() {
+        // the board is the only thing that changes, and it keeps its own hash up to date
+        return gridBoard.getZobristHash();
+    }
     @Override
     public String toString() {
         return Objects.hash(gameParameters) + "|" +
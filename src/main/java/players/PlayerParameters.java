@@ -5,6 +5,7 @@ import core.interfaces.IPlayerDecorator;
 import core.actions.ActionSpace;
 import core.interfaces.IStateHeuristic;
 import evaluation.optimisation.TunableParameters;
+import players.heuristics.CachedStateHeuristic;
 
 import java.util.Arrays;
 
@@ -23,6 +24,12 @@ public class PlayerParameters extends TunableParameters<AbstractPlayer> {
     // otherwise the Random() object will be used from the old game, ensuring that we do not take exactly the same
     // set of actions
     public boolean resetSeedEachGame = false;
+    // If greater than zero, the player records phase timings for one in every profileSampleRate calls (see SearchProfiler)
+    // zero switches profiling off. Only used by search-based players.
+    public int profileSampleRate = 0;
+    // If greater than zero, the state heuristic is wrapped in a cache of this size in MB (see cached())
+    public double heuristicCacheMB = 0.0;
+    private volatile CachedStateHeuristic heuristicCache;
 
     // Heuristic
     public IStateHeuristic gameHeuristic;
@@ -42,6 +49,8 @@ public class PlayerParameters extends TunableParameters<AbstractPlayer> {
         addTunableParameter("resetSeedEachGame", false);
         addTunableParameter("epsilon", 1e-6);
         addTunableParameter("actionRestriction", IPlayerDecorator.class);
+        addTunableParameter("profileSampleRate", 0);
+        addTunableParameter("heuristicCacheMB", 0.0);
     }
 
     @Override
@@ -58,6 +67,9 @@ public class PlayerParameters extends TunableParameters<AbstractPlayer> {
         budget = (int) getParameterValue("budget");
         resetSeedEachGame = (boolean) getParameterValue("resetSeedEachGame");
         breakMS = (int) getParameterValue("breakMS");
+        profileSampleRate = (int) getParameterValue("profileSampleRate");
+        heuristicCacheMB = ((Number) getParameterValue("heuristicCacheMB")).doubleValue();
+        heuristicCache = null;
         noiseEpsilon = (double) getParameterValue("epsilon");
         budgetType = (PlayerConstants) getParameterValue("budgetType");
         actionSpace = new ActionSpace ((ActionSpace.Structure) getParameterValue("actionSpaceStructure"),
@@ -77,6 +89,34 @@ public class PlayerParameters extends TunableParameters<AbstractPlayer> {
         return false;
     }
 
+    /**
+     * Agents evaluate states with cached(heuristic) rather than the heuristic itself. If heuristicCacheMB is greater than
+     * zero this returns a CachedStateHeuristic wrapping it, which is kept (so that values are re-used across decisions)
+     * until the parameters change or a different heuristic is passed in; otherwise it returns the heuristic.
+     */
+    public IStateHeuristic cached(IStateHeuristic heuristic) {
+        if (heuristicCacheMB <= 0.0 || heuristic == null || heuristic instanceof CachedStateHeuristic)
+            return heuristic;
+        CachedStateHeuristic cache = heuristicCache;
+        if (cache == null || cache.getHeuristic() != heuristic) {
+            synchronized (this) {
+                cache = heuristicCache;
+                if (cache == null || cache.getHeuristic() != heuristic) {
+                    cache = new CachedStateHeuristic(heuristic, heuristicCacheMB);
+                    heuristicCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @return the cache created by cached() (for its hit rate), or null if there is none
+     */
+    public CachedStateHeuristic getHeuristicCache() {
+        return heuristicCache;
+    }
+
     @Override
     public AbstractPlayer instantiate() {
         throw new RuntimeException("PlayerParameters should not be instantiated directly.");
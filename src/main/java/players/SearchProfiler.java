@@ -0,0 +1,151 @@
+package players;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A low-overhead profiler for the phases of a search (used by MCTSPlayer, RHEAPlayer and MaxNSearchPlayer).
+ * <p>
+ * Every call to a phase is counted, but only one call in every sampleRate is timed with System.nanoTime().
+ * The total time spent in a phase is then estimated as the mean sampled time multiplied by the number of calls.
+ * Sampled times are also recorded in a histogram with power-of-two nanosecond buckets (bucket k holds
+ * times in [2^k, 2^(k+1)) ns).
+ * <p>
+ * Phases nest: Selection and Rollout include the time of the Copy, Next and ComputeActions calls made within them.
+ * A sampleRate of zero switches profiling off, in which case start() returns immediately and nothing is recorded.
+ * The profiler is reset by the player at the start of each decision, so all figures are per-decision.
+ */
+public class SearchProfiler {
+
+    public enum Phase {
+        Selection, Expansion, Copy, Next, ComputeActions, Rollout, Heuristic
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    // A profiler that never records anything. Safe to share between threads (it is never reset)
+    public static final SearchProfiler DISABLED = new SearchProfiler();
+
+    public static final int BUCKETS = 32;  // 2^31 ns is a little over two seconds; anything longer goes in the last bucket
+
+    private int sampleRate;
+    private final long[] calls = new long[PHASES.length];
+    private final long[] samples = new long[PHASES.length];
+    private final long[] sampledNanos = new long[PHASES.length];
+    private final long[][] histogram = new long[PHASES.length][BUCKETS];
+
+    /**
+     * Clears all counts ready for a new decision
+     *
+     * @param sampleRate - time one call in every sampleRate; zero switches profiling off
+     */
+    public void reset(int sampleRate) {
+        if (this == DISABLED)
+            throw new AssertionError("The DISABLED profiler cannot be reset");
+        this.sampleRate = Math.max(0, sampleRate);
+        for (int p = 0; p < PHASES.length; p++) {
+            calls[p] = 0;
+            samples[p] = 0;
+            sampledNanos[p] = 0;
+            Arrays.fill(histogram[p], 0);
+        }
+    }
+
+    public boolean isEnabled() {
+        return sampleRate > 0;
+    }
+
+    /**
+     * Counts a call to the phase.
+     *
+     * @return - the start time to pass to stop() if this call is sampled, or -1 if it is not
+     */
+    public long start(Phase phase) {
+        if (sampleRate == 0)
+            return -1;
+        long n = calls[phase.ordinal()]++;
+        return n % sampleRate == 0 ? System.nanoTime() : -1;
+    }
+
+    /**
+     * Records the end of a phase call started with start(). Does nothing if the call was not sampled.
+     */
+    public void stop(Phase phase, long startTime) {
+        if (startTime < 0)
+            return;
+        long nanos = System.nanoTime() - startTime;
+        int p = phase.ordinal();
+        samples[p]++;
+        sampledNanos[p] += nanos;
+        histogram[p][bucket(nanos)]++;
+    }
+
+    static int bucket(long nanos) {
+        if (nanos <= 1)
+            return 0;
+        return Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    public long calls(Phase phase) {
+        return calls[phase.ordinal()];
+    }
+
+    public long samples(Phase phase) {
+        return samples[phase.ordinal()];
+    }
+
+    public double meanNanos(Phase phase) {
+        int p = phase.ordinal();
+        return samples[p] == 0 ? 0.0 : sampledNanos[p] / (double) samples[p];
+    }
+
+    /**
+     * @return - estimated total time in the phase (mean sampled time multiplied by the number of calls)
+     */
+    public double estimatedTotalMillis(Phase phase) {
+        return meanNanos(phase) * calls[phase.ordinal()] / 1e6;
+    }
+
+    public long[] histogram(Phase phase) {
+        return histogram[phase.ordinal()].clone();
+    }
+
+    /**
+     * The histogram as a compact string of 'bucket:count' pairs, omitting empty buckets.
+     * For example "10:3 11:40" means 3 samples took 1-2 microseconds, and 40 took 2-4 microseconds.
+     */
+    public String histogramAsString(Phase phase) {
+        StringBuilder sb = new StringBuilder();
+        long[] h = histogram[phase.ordinal()];
+        for (int b = 0; b < BUCKETS; b++) {
+            if (h[b] == 0) continue;
+            if (!sb.isEmpty()) sb.append(" ");
+            sb.append(b).append(":").append(h[b]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Adds the current per-phase figures to a metrics record, using the column names from columns()
+     */
+    public void addTo(Map<String, Object> records) {
+        for (Phase phase : PHASES) {
+            records.put(phase + "Calls", calls(phase));
+            records.put(phase + "MeanNanos", meanNanos(phase));
+            records.put(phase + "TotalMs", estimatedTotalMillis(phase));
+            records.put(phase + "Histogram", histogramAsString(phase));
+        }
+    }
+
+    public static Map<String, Class<?>> columns() {
+        Map<String, Class<?>> cols = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            cols.put(phase + "Calls", Long.class);
+            cols.put(phase + "MeanNanos", Double.class);
+            cols.put(phase + "TotalMs", Double.class);
+            cols.put(phase + "Histogram", String.class);
+        }
+        return cols;
+    }
+}
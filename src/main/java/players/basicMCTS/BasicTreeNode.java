@@ -245,7 +245,8 @@ class BasicTreeNode {
             }
         }
         // Evaluate final state and return normalised score
-        double value = player.getParameters().getStateHeuristic().evaluateState(rolloutState, player.getPlayerID());
+        BasicMCTSParams params = player.getParameters();
+        double value = params.cached(params.getStateHeuristic()).evaluateState(rolloutState, player.getPlayerID());
         if (Double.isNaN(value))
             throw new AssertionError("Illegal heuristic value - should be a number");
         return value;
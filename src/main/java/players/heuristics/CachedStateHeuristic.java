@@ -0,0 +1,161 @@
+package players.heuristics;
+
+import core.AbstractGameState;
+import core.interfaces.ILongStateKey;
+import core.interfaces.IStateHeuristic;
+import evaluation.features.ZobristStateKey;
+import utilities.Zobrist;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps an IStateHeuristic with a fixed-size cache of its values, so that states which recur (across iterations of a
+ * search, or across decisions) are only evaluated once. This is worthwhile for expensive heuristics (for example
+ * GLMHeuristic or DecisionTreeStateHeuristic that need to extract features), particularly with short rollouts.
+ * Agents use this when PlayerParameters.heuristicCacheMB is greater than zero (see PlayerParameters.cached()).
+ * <p>
+ * The key is a 64-bit hash of the state and player; by default a ZobristStateKey. A hit is therefore wrong on a hash
+ * collision, which setCheckCollisions(true) can be used to count. Games that maintain their own hash (overriding
+ * AbstractGameState._getZobristHash()) make the key O(1); for other games it includes a hash of the whole state, so
+ * the cache only pays off for heuristics that cost more than hashCode().
+ * <p>
+ * The table is set-associative: each key maps to a bucket of four slots, and when the bucket is full the entry to
+ * replace is chosen with the clock (second chance) algorithm. Each slot holds two longs, the key XORed with the
+ * value and the value, so that a reader can detect a slot that another thread is in the middle of writing (the
+ * check fails, and it is treated as a miss). No locks are used, so an agent and a pondering thread can share a cache.
+ */
+public class CachedStateHeuristic implements IStateHeuristic {
+
+    static final int BUCKET_SIZE = 4;
+    // per slot: two longs, and one byte for the reference bit; plus one byte per bucket for the clock hand
+    static final int BYTES_PER_SLOT = 2 * Long.BYTES + 1;
+
+    private final IStateHeuristic heuristic;
+    private final ILongStateKey stateKey;
+    private final AtomicLongArray data;
+    private final byte[] referenced;
+    private final byte[] hands;
+    private final int bucketMask;
+    private boolean checkCollisions;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    public CachedStateHeuristic(IStateHeuristic heuristic, double sizeMB) {
+        this(heuristic, sizeMB, new ZobristStateKey());
+    }
+
+    public CachedStateHeuristic(IStateHeuristic heuristic, double sizeMB, ILongStateKey stateKey) {
+        if (sizeMB <= 0.0)
+            throw new IllegalArgumentException("Cache size must be positive, not " + sizeMB);
+        this.heuristic = heuristic;
+        this.stateKey = stateKey;
+        long slots = (long) (sizeMB * 1024 * 1024) / BYTES_PER_SLOT;
+        // a power of two number of buckets (at least one), so that the table is no bigger than requested
+        int buckets = Integer.highestOneBit((int) Math.max(1, Math.min(1 << 26, slots / BUCKET_SIZE)));
+        bucketMask = buckets - 1;
+        data = new AtomicLongArray(2 * buckets * BUCKET_SIZE);
+        referenced = new byte[buckets * BUCKET_SIZE];
+        hands = new byte[buckets];
+    }
+
+    @Override
+    public double evaluateState(AbstractGameState gs, int playerId) {
+        long key = stateKey.getLongKey(gs, playerId);
+        int bucket = (int) Zobrist.mix(key) & bucketMask;
+        int first = bucket * BUCKET_SIZE;
+        for (int slot = first; slot < first + BUCKET_SIZE; slot++) {
+            long valueBits = data.getOpaque(2 * slot + 1);
+            long check = data.getOpaque(2 * slot);
+            if ((check ^ valueBits) == key && (check | valueBits) != 0) {
+                hits.increment();
+                referenced[slot] = 1;
+                double value = Double.longBitsToDouble(valueBits);
+                if (checkCollisions && Double.doubleToLongBits(heuristic.evaluateState(gs, playerId)) != valueBits)
+                    collisions.increment();
+                return value;
+            }
+        }
+        misses.increment();
+        double value = heuristic.evaluateState(gs, playerId);
+        store(first, bucket, key, Double.doubleToLongBits(value));
+        return value;
+    }
+
+    private void store(int first, int bucket, long key, long valueBits) {
+        // clock: sweep from the hand, clearing reference bits, until we find an empty or unreferenced slot
+        int hand = hands[bucket];
+        int slot = first + hand;
+        for (int step = 0; step < 2 * BUCKET_SIZE; step++) {
+            slot = first + hand;
+            hand = (hand + 1) % BUCKET_SIZE;
+            boolean empty = (data.getOpaque(2 * slot) | data.getOpaque(2 * slot + 1)) == 0;
+            if (empty || referenced[slot] == 0) {
+                if (!empty)
+                    evictions.increment();
+                break;
+            }
+            referenced[slot] = 0;
+        }
+        hands[bucket] = (byte) hand;
+        // readers check the key against both words, so a torn write looks like a miss
+        data.setOpaque(2 * slot, key ^ valueBits);
+        data.setOpaque(2 * slot + 1, valueBits);
+        referenced[slot] = 1;
+    }
+
+    /**
+     * If true, then on every hit the heuristic is also evaluated, and a collision counted if the cached value differs.
+     * This is for checking whether the state key distinguishes states well enough for the heuristic.
+     */
+    public void setCheckCollisions(boolean checkCollisions) {
+        this.checkCollisions = checkCollisions;
+    }
+
+    public IStateHeuristic getHeuristic() {
+        return heuristic;
+    }
+
+    public int capacity() {
+        return referenced.length;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long collisions() {
+        return collisions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum(), total = h + misses.sum();
+        return total == 0 ? 0.0 : h / (double) total;
+    }
+
+    @Override
+    public double minValue() {
+        return heuristic.minValue();
+    }
+
+    @Override
+    public double maxValue() {
+        return heuristic.maxValue();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cached(%s, %d slots, hit rate %.3f)", heuristic, capacity(), hitRate());
+    }
+}
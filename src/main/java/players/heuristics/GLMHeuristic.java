@@ -2,7 +2,6 @@ package players.heuristics;
 
 import core.interfaces.ICoefficients;
 import core.interfaces.IHasName;
-import org.apache.spark.ml.regression.GeneralizedLinearRegressionModel;
 import org.json.simple.JSONObject;
 import utilities.Pair;
 
@@ -26,9 +25,6 @@ public abstract class GLMHeuristic implements ICoefficients, IHasName {
 
     protected DoubleUnaryOperator inverseLinkFunction = x -> x;  // default to linear link function
 
-    // This is not actually used, but is available immediately after training
-    protected GeneralizedLinearRegressionModel underlyingModel;
-
     @Override
     public double[] coefficients() {
         return coefficients;
@@ -75,16 +71,14 @@ public abstract class GLMHeuristic implements ICoefficients, IHasName {
         }
     }
 
-    public GeneralizedLinearRegressionModel getModel() {
-        return underlyingModel;
-    }
-
-    public GLMHeuristic setModel(GeneralizedLinearRegressionModel model) {
-        this.underlyingModel = model;
-        double[] coeffs = model.coefficients().toArray();
-        coefficients = new double[coeffs.length + 1];
-        coefficients[0] = model.intercept();
-        System.arraycopy(coeffs, 0, coefficients, 1, coeffs.length);
+    /**
+     * Sets the coefficients from a fitted model (e.g. by one of the players.learners), which has the intercept
+     * separately from the coefficients of the features
+     */
+    public GLMHeuristic setCoefficients(double intercept, double[] featureCoefficients) {
+        coefficients = new double[featureCoefficients.length + 1];
+        coefficients[0] = intercept;
+        System.arraycopy(featureCoefficients, 0, coefficients, 1, featureCoefficients.length);
         return this;
     }
 
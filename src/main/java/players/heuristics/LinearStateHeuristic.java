@@ -6,7 +6,9 @@ import org.json.simple.JSONObject;
 import utilities.JSONUtils;
 import utilities.Utils;
 
-public class LinearStateHeuristic extends GLMHeuristic implements IStateHeuristic, IToJSON {
+import java.util.List;
+
+public class LinearStateHeuristic extends GLMHeuristic implements IBatchStateHeuristic, IToJSON {
 
     protected IStateFeatureVector features;
     protected IStateHeuristic defaultHeuristic;
@@ -49,6 +51,49 @@ public class LinearStateHeuristic extends GLMHeuristic implements IStateHeuristi
         return 0;
     }
 
+    /**
+     * Packs the feature vectors of all (state, player) pairs into a single row-major matrix, and then applies
+     * the coefficients in one pass. Terminal states (or missing coefficients) use the default heuristic as in evaluateState().
+     */
+    @Override
+    public double[][] evaluateStates(List<AbstractGameState> states) {
+        double[][] retValue = new double[states.size()][];
+        int width = features.names().length;
+        int rows = 0;
+        for (AbstractGameState state : states) {
+            if (coefficients != null && (defaultHeuristic == null || state.isNotTerminal()))
+                rows += state.getNPlayers();
+        }
+        double[] phi = new double[rows * width];
+        int row = 0;
+        for (int i = 0; i < states.size(); i++) {
+            AbstractGameState state = states.get(i);
+            retValue[i] = new double[state.getNPlayers()];
+            if (coefficients != null && (defaultHeuristic == null || state.isNotTerminal())) {
+                for (int p = 0; p < retValue[i].length; p++) {
+                    System.arraycopy(features.doubleVector(state, p), 0, phi, row * width, width);
+                    row++;
+                }
+            } else {
+                for (int p = 0; p < retValue[i].length; p++)
+                    retValue[i][p] = defaultHeuristic != null ? defaultHeuristic.evaluateState(state, p) : 0;
+            }
+        }
+        double[] linearPredictors = applyCoefficients(phi, rows);
+        row = 0;
+        for (int i = 0; i < states.size(); i++) {
+            AbstractGameState state = states.get(i);
+            if (coefficients != null && (defaultHeuristic == null || state.isNotTerminal())) {
+                for (int p = 0; p < retValue[i].length; p++) {
+                    double value = inverseLinkFunction.applyAsDouble(linearPredictors[row++]);
+                    retValue[i][p] = defaultHeuristic != null ?
+                            Utils.clamp(value, defaultHeuristic.minValue(), defaultHeuristic.maxValue()) : value;
+                }
+            }
+        }
+        return retValue;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public JSONObject toJSON() {
@@ -4,6 +4,7 @@ import core.AbstractGameState;
 import core.AbstractParameters;
 import core.actions.AbstractAction;
 import core.interfaces.IActionHeuristic;
+import core.interfaces.IBatchStateHeuristic;
 import core.interfaces.ICoefficients;
 import core.interfaces.IStateHeuristic;
 import evaluation.optimisation.TunableParameters;
@@ -11,7 +12,7 @@ import evaluation.optimisation.TunableParameters;
 import java.util.List;
 import java.util.Map;
 
-public class TunableGLMHeuristic extends TunableParameters implements IActionHeuristic, IStateHeuristic {
+public class TunableGLMHeuristic extends TunableParameters implements IActionHeuristic, IBatchStateHeuristic {
 
     public GLMHeuristic heuristic;
 
@@ -80,4 +81,11 @@ public class TunableGLMHeuristic extends TunableParameters implements IActionHeu
         throw new AssertionError("Heuristic is not an IStateHeuristic");
     }
 
+    @Override
+    public double[][] evaluateStates(List<AbstractGameState> states) {
+        if (heuristic instanceof IBatchStateHeuristic batchHeuristic)
+            return batchHeuristic.evaluateStates(states);
+        return IBatchStateHeuristic.super.evaluateStates(states);
+    }
+
 }
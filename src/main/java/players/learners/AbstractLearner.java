@@ -3,8 +3,6 @@ package players.learners;
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.ILearner;
 import core.interfaces.IStateFeatureVector;
-import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
 
@@ -12,15 +10,18 @@ import static java.util.stream.Collectors.toList;
 
 public abstract class AbstractLearner implements ILearner {
 
-    protected double[][] dataArray;
+    // the data from loadData(), open until closeData()
+    protected ColumnStore data;
     protected String[] header;
-    protected double[][] target;
-    protected double[][] currentScore;
+    int[] featureColumns;
+    int targetIndex, turnIndex, totalTurnsIndex, playerCountIndex, currentScoreIndex;
     String[] descriptions;
     double gamma;
     Target targetType;
     IStateFeatureVector stateFeatureVector;
     IActionFeatureVector actionFeatureVector;
+    int maxRecords = 0;
+    long sampleSeed = 0;
 
     public enum Target {
         WIN("Win", false),  // 0 or 1 for loss/win
@@ -101,89 +102,142 @@ public abstract class AbstractLearner implements ILearner {
         return stateCount + actionCount;
     }
 
-    protected void loadData(String... files) {
+    /**
+     * Limits the data used to a random sample of this many records (0, the default, to use all of them)
+     */
+    public AbstractLearner setMaxRecords(int maxRecords) {
+        this.maxRecords = maxRecords;
+        return this;
+    }
 
-        Pair<List<String>, List<List<String>>> rawData = Utils.loadDataWithHeader("\t", files);
-        header = rawData.a.toArray(new String[0]);
+    /**
+     * @return true if the model learned is logistic (Binomial/Logit) rather than linear; as used by LearnFromData to
+     * score candidate features
+     */
+    protected boolean isLogistic() {
+        return false;
+    }
 
-        String[] specialColumns = {"GameID", "Player", "Turn", "Round", "Tick", "CurrentScore", "Win", "Ordinal",
-                "FinalScore", "FinalScoreAdv", "TotalRounds", "PlayerCount", "TotalTurns", "TotalTicks",
-                "ActualWin", "ActualOrdinal", "ActualScore", "ActualScoreAdv",
-                "CHOSEN", "ACTION_VISITS", "ADVANTAGE", "ACTION_VALUE", "VISIT_PROPORTION"};
-        Map<String, Integer> indexForSpecialColumns = new HashMap<>();
+    /**
+     * @return the L2 regularisation of the model learned
+     */
+    protected double regularisation() {
+        return 0.0;
+    }
 
-        // then set descriptions to the rest of the data
-        // and validate that the data matches the feature vector
+    /**
+     * Opens the data in the files, which is then read with rows(), features(), target() and the like until
+     * closeData(). Only the columns used are loaded, and values are read from the store as needed rather than
+     * copied into arrays.
+     */
+    protected void loadData(String... files) {
+        closeData();
+        // descriptions are the names of the features, in the order of the feature vector
         descriptions = stateFeatureVector == null ?
                 actionFeatureVector.names() : stateFeatureVector.names();
-        List<String> expectedNames = Arrays.stream(descriptions).collect(toList());
-        Map<String, Integer> indexForDescriptions = new HashMap<>();
-        for (int i = 0; i < header.length; i++) {
-            String h = header[i];
-//            if (!indexForSpecialColumns.containsKey(h) && !expectedNames.contains(h)) {
-//                System.out.println("Unexpected feature: " + h);
-//            }
-            if (expectedNames.contains(h)) {
-                indexForDescriptions.put(h, i);
-                expectedNames.remove(h);
-            }
-            if (Arrays.asList(specialColumns).contains(h)) {
-                indexForSpecialColumns.put(h, i);
-            }
-        }
+        // only the columns we use are parsed, straight into primitive columns
+        List<String> used = new ArrayList<>(List.of("Turn", "TotalTurns", "PlayerCount", "CurrentScore", targetType.header));
+        used.addAll(Arrays.asList(descriptions));
+        ColumnStore store = ColumnStore.load("\t", used, maxRecords, new Random(sampleSeed), files);
+        header = store.header().toArray(new String[0]);
+
         // we allow missing features in the data, but not extra ones
+        List<String> expectedNames = Arrays.stream(descriptions).filter(h -> !store.hasColumn(h)).collect(toList());
         if (!expectedNames.isEmpty()) {
             System.out.println("Missing features: " + expectedNames);
         }
+        targetIndex = store.indexOf(targetType.header);
+        if (targetIndex == -1) {
+            store.close();
+            throw new IllegalArgumentException("Target " + targetType.header + " not found in data");
+        }
+        // the features that are present fill the first positions, in the order of the feature vector (and any
+        // missing ones are then zero)
+        featureColumns = Arrays.stream(descriptions).mapToInt(store::indexOf).filter(i -> i >= 0).toArray();
+        turnIndex = store.indexOf("Turn");
+        totalTurnsIndex = store.indexOf("TotalTurns");
+        playerCountIndex = store.indexOf("PlayerCount");
+        currentScoreIndex = store.indexOf("CurrentScore");
+        data = store;
+    }
+
+    /**
+     * Closes the data opened by loadData(), if any
+     */
+    protected void closeData() {
+        if (data != null) {
+            data.close();
+            data = null;
+        }
+    }
+
+    protected int rows() {
+        return data.rows();
+    }
+
+    /**
+     * @return the value of each feature for the row (without the bias), in the order of descriptions
+     */
+    protected double[] features(int row) {
+        double[] retValue = new double[descriptions.length];
+        for (int j = 0; j < featureColumns.length; j++)
+            retValue[j] = data.get(featureColumns[j], row);
+        return retValue;
+    }
+
+    /**
+     * @return one column per feature, with the bias (all 1.0) in column 0 and then the features in the order of
+     * descriptions
+     */
+    protected double[][] designColumns() {
+        double[][] columns = new double[descriptions.length + 1][];
+        columns[0] = new double[rows()];
+        Arrays.fill(columns[0], 1.0);
+        for (int j = 0; j < descriptions.length; j++)
+            columns[j + 1] = j < featureColumns.length ? data.column(featureColumns[j]) : new double[rows()];
+        return columns;
+    }
+
+    protected double currentScore(int row) {
+        return data.get(currentScoreIndex, row);
+    }
 
+    /**
+     * @return the value to learn for the row, discounted (and scaled) as required by the targetType
+     */
+    protected double target(int row) {
         // TODO: discounting should really use TICKS as more reliably generic across games, even if it
         // does not map in the same way all the time
 
-        dataArray = new double[rawData.b.size()][];
-        target = new double[rawData.b.size()][1];
-        currentScore = new double[rawData.b.size()][1];
-        for (int i = 0; i < dataArray.length; i++) {
-            List<String> allData = rawData.b.get(i);
-            // calculate the number of turns from this point until the end of the game
-            double turns = Double.parseDouble(allData.get(indexForSpecialColumns.get("TotalTurns"))) -
-                    Double.parseDouble(allData.get(indexForSpecialColumns.get("Turn")));
-            double playerCount = Double.parseDouble(allData.get(indexForSpecialColumns.get("PlayerCount")));
-            int targetIndex = indexForSpecialColumns.getOrDefault(targetType.header, -1);
-            if (targetIndex == -1) {
-                throw new IllegalArgumentException("Target " + targetType.header + " not found in data");
-            }
-            // discount target (towards expected result where relevant)
-            double expectedAverage = 0.0;
-            if (targetType == Target.WIN_MEAN)
-                expectedAverage = 1.0 / playerCount;
-            if (targetType == Target.ORD_MEAN || targetType == Target.ORD_MEAN_SCALE)
-                expectedAverage = (1.0 + playerCount) / 2.0;
-
-            if (targetType == Target.SCORE_DELTA)
-                target[i][0] = Double.parseDouble(allData.get(targetIndex)) * Math.pow(gamma, turns);
-            else {
-                target[i][0] = (Double.parseDouble(allData.get(targetIndex)) - expectedAverage) * Math.pow(gamma, turns) + expectedAverage;
-            }
-
-            if (targetType == Target.ORDINAL || targetType == Target.ORD_MEAN)
-                target[i][0] = -target[i][0];  // if we are targeting the Ordinal position, then high is bad!
-            if (targetType == Target.ORD_MEAN_SCALE || targetType == Target.ORD_SCALE)
-                target[i][0] = (playerCount - target[i][0]) / (playerCount - 1.0);  // scale to [0, 1]
-
-            currentScore[i][0] = Double.parseDouble(allData.get(indexForSpecialColumns.get("CurrentScore")));
-            double[] regressionData = new double[descriptions.length + 1];
-            regressionData[0] = 1.0; // the bias term
-            // then copy the rest of the data into the regression data
-            // the order of the data in the regression data is the same as the order in the names() of the feature vector
-            int j = 1;
-            for (String h : descriptions) {
-                if (indexForDescriptions.get(h) != null) {
-                    regressionData[j] = Double.parseDouble(allData.get(indexForDescriptions.get(h)));
-                    j++;
-                }
-            }
-            dataArray[i] = regressionData;
+        // calculate the number of turns from this point until the end of the game
+        double turns = data.get(totalTurnsIndex, row) - data.get(turnIndex, row);
+        double playerCount = data.get(playerCountIndex, row);
+        // discount target (towards expected result where relevant)
+        double expectedAverage = 0.0;
+        if (targetType == Target.WIN_MEAN)
+            expectedAverage = 1.0 / playerCount;
+        if (targetType == Target.ORD_MEAN || targetType == Target.ORD_MEAN_SCALE)
+            expectedAverage = (1.0 + playerCount) / 2.0;
+
+        double retValue;
+        if (targetType == Target.SCORE_DELTA)
+            retValue = data.get(targetIndex, row) * Math.pow(gamma, turns);
+        else {
+            retValue = (data.get(targetIndex, row) - expectedAverage) * Math.pow(gamma, turns) + expectedAverage;
         }
+
+        if (targetType == Target.ORDINAL || targetType == Target.ORD_MEAN)
+            retValue = -retValue;  // if we are targeting the Ordinal position, then high is bad!
+        if (targetType == Target.ORD_MEAN_SCALE || targetType == Target.ORD_SCALE)
+            retValue = (playerCount - retValue) / (playerCount - 1.0);  // scale to [0, 1]
+        return retValue;
+    }
+
+    protected double[] targetColumn() {
+        double[] retValue = new double[rows()];
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = target(i);
+        return retValue;
     }
 
 }
@@ -0,0 +1,251 @@
+package players.learners;
+
+import java.io.*;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Numeric columns from one or more delimited data files (as written when gathering data for learning), held as one
+ * primitive column per field.
+ * <p>
+ * Files are read a line at a time, and only the requested columns are parsed, straight into their column; so neither
+ * the text of the files nor boxed values are ever held in memory.
+ * If maxRecords is set, and the files contain more rows than this, a uniform random sample of maxRecords rows
+ * is kept (reservoir sampling), so that rows from the last file are as likely to be used as those from the first.
+ * <p>
+ * Stores larger than MAPPED_THRESHOLD bytes are kept in a memory-mapped temporary file rather than on the heap, which
+ * is deleted when the store is closed.
+ */
+public class ColumnStore implements AutoCloseable {
+
+    public static long MAPPED_THRESHOLD = 256L << 20;
+
+    private final List<String> header;
+    private final List<String> names;
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final DoubleBuffer[] columns;
+    private final int capacity;
+    private int rows;
+    private Path mappedFile;
+
+    private ColumnStore(List<String> header, List<String> names, int capacity) {
+        this.header = header;
+        this.names = names;
+        this.capacity = capacity;
+        for (int i = 0; i < names.size(); i++)
+            indices.put(names.get(i), i);
+        columns = new DoubleBuffer[names.size()];
+        long bytes = (long) capacity * names.size() * Double.BYTES;
+        if (bytes > MAPPED_THRESHOLD && capacity > 0) {
+            try {
+                mappedFile = Files.createTempFile("ColumnStore", ".bin");
+                mappedFile.toFile().deleteOnExit();
+                try (FileChannel channel = FileChannel.open(mappedFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    long columnBytes = (long) capacity * Double.BYTES;
+                    for (int i = 0; i < columns.length; i++)
+                        columns[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * columnBytes, columnBytes).asDoubleBuffer();
+                }
+            } catch (IOException e) {
+                throw new AssertionError("Unable to create memory-mapped store : " + e.getMessage());
+            }
+        } else {
+            for (int i = 0; i < columns.length; i++)
+                columns[i] = DoubleBuffer.allocate(capacity);
+        }
+    }
+
+    /**
+     * @param delimiter  - between the fields on each line
+     * @param wanted     - the columns to load; any not in the header of the first file are ignored
+     * @param maxRecords - the maximum number of rows to keep (a random sample if there are more); 0 or less for all
+     * @param rnd        - for the sample
+     * @param files      - each with a header line
+     */
+    public static ColumnStore load(String delimiter, Collection<String> wanted, int maxRecords, Random rnd, String... files) {
+        if (files.length == 0)
+            throw new IllegalArgumentException("No data files");
+        List<String> header = Arrays.asList(readHeader(files[0]).split(Pattern.quote(delimiter)));
+        List<String> names = wanted.stream().distinct().filter(header::contains).toList();
+        long available = 0;
+        for (String file : files)
+            available += countRows(file);
+        int capacity = (int) (maxRecords > 0 ? Math.min(available, maxRecords) : Math.min(available, Integer.MAX_VALUE));
+        ColumnStore store = new ColumnStore(header, names, capacity);
+        store.read(delimiter, rnd, files);
+        return store;
+    }
+
+    private void read(String delimiter, Random rnd, String... files) {
+        long seen = 0;
+        double[] values = new double[names.size()];
+        for (String file : files) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file), 1 << 16)) {
+                String headerLine = reader.readLine();
+                List<String> fileHeader = headerLine == null ? List.of() : Arrays.asList(headerLine.split(Pattern.quote(delimiter)));
+                // the field position of each column in this file, and the reverse
+                int[] fieldToColumn = new int[fileHeader.size()];
+                Arrays.fill(fieldToColumn, -1);
+                int lastField = -1;
+                for (int c = 0; c < names.size(); c++) {
+                    int field = fileHeader.indexOf(names.get(c));
+                    if (field == -1)
+                        throw new AssertionError("Column " + names.get(c) + " missing from " + file);
+                    fieldToColumn[field] = c;
+                    lastField = Math.max(lastField, field);
+                }
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty())
+                        continue;
+                    if (!parse(line, delimiter, fieldToColumn, lastField, values)) {
+                        System.err.println("Warning: Skipping row with inconsistent number of columns in " + file);
+                        continue;
+                    }
+                    // Reservoir sampling: keep the first capacity rows, and then each later row replaces a random one
+                    // with probability capacity / (rows seen so far)
+                    long slot = seen < capacity ? seen : (long) (rnd.nextDouble() * (seen + 1));
+                    seen++;
+                    if (slot < capacity) {
+                        for (int c = 0; c < values.length; c++)
+                            columns[c].put((int) slot, values[c]);
+                        rows = (int) Math.max(rows, slot + 1);
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                throw new AssertionError("Problem reading file " + file);
+            }
+        }
+    }
+
+    private static boolean parse(String line, String delimiter, int[] fieldToColumn, int lastField, double[] values) {
+        int start = 0;
+        for (int field = 0; field <= lastField; field++) {
+            int end = line.indexOf(delimiter, start);
+            if (end == -1) {
+                if (field != lastField)
+                    return false;
+                end = line.length();
+            }
+            int column = fieldToColumn[field];
+            if (column >= 0)
+                values[column] = Double.parseDouble(line.substring(start, end));
+            start = end + delimiter.length();
+        }
+        return true;
+    }
+
+    private static String readHeader(String file) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            return line == null ? "" : line;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem reading file " + file);
+        }
+    }
+
+    /*
+     * The number of (non-empty) lines after the header, from a quick scan of the bytes
+     */
+    private static long countRows(String file) {
+        long rows = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            boolean lineHasContent = false;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        if (lineHasContent) rows++;
+                        lineHasContent = false;
+                    } else if (buffer[i] != '\r') {
+                        lineHasContent = true;
+                    }
+                }
+            }
+            if (lineHasContent) rows++;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem reading file " + file);
+        }
+        return Math.max(rows - 1, 0);
+    }
+
+    /**
+     * @return the header of the first file
+     */
+    public List<String> header() {
+        return header;
+    }
+
+    /**
+     * @return the names of the columns loaded, in the order requested
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    public boolean hasColumn(String name) {
+        return indices.containsKey(name);
+    }
+
+    public int indexOf(String name) {
+        return indices.getOrDefault(name, -1);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public double get(int column, int row) {
+        return columns[column].get(row);
+    }
+
+    public double get(String column, int row) {
+        Integer index = indices.get(column);
+        if (index == null)
+            throw new IllegalArgumentException("No column " + column);
+        return columns[index].get(row);
+    }
+
+    /**
+     * @return a copy of the column
+     */
+    public double[] column(String name) {
+        int index = indexOf(name);
+        if (index == -1)
+            throw new IllegalArgumentException("No column " + name);
+        return column(index);
+    }
+
+    public double[] column(int index) {
+        double[] retValue = new double[rows];
+        DoubleBuffer column = columns[index];
+        for (int i = 0; i < rows; i++)
+            retValue[i] = column.get(i);
+        return retValue;
+    }
+
+    public boolean isMapped() {
+        return mappedFile != null;
+    }
+
+    @Override
+    public void close() {
+        if (mappedFile != null) {
+            Arrays.fill(columns, null);
+            try {
+                Files.deleteIfExists(mappedFile);
+            } catch (IOException e) {
+                // deleteOnExit will have another go
+            }
+            mappedFile = null;
+        }
+    }
+}
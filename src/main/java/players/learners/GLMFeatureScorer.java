@@ -0,0 +1,442 @@
+package players.learners;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scores changes to the features of a GLM in memory, for the feature search in LearnFromData.
+ * <p>
+ * The design matrix (one column per feature, plus the bias in column 0) is held in memory together with the fit for
+ * the current features, and each candidate change is scored from that fit instead of refitting from scratch:
+ * - adding a single column (an interaction) is a Newton step on the bordered system, using the cached inverse of
+ * X'WX (X'X for OLS), so only needs the new column's products with the existing ones. For OLS this is exact; for
+ * the logistic model we continue with Newton steps that keep the Hessian from the current fit, which are O(np) each.
+ * - removing a single column is done in the same way, with the coefficient fixed at zero.
+ * - anything else (re-bucketing a feature) is refitted with IRLS, warm-started from the current coefficients.
+ * In all cases the log-likelihood is then calculated exactly from the new coefficients.
+ * <p>
+ * Fits use a ridge penalty of regParam * n * var(x) on each feature (not the bias), so that the penalty does not
+ * depend on the scale of the feature. The scorer is not changed by scoring, so candidates can be scored in parallel.
+ */
+public class GLMFeatureScorer {
+
+    static int MAX_ITERATIONS = 25;
+    static int CANDIDATE_ITERATIONS = 3;
+    static double TOLERANCE = 1e-8;
+
+    final int n;
+    final boolean logistic;
+    final double regParam;
+    final double[] y;
+    final double[][] columns;
+    final double[] penalty;
+    final double[] beta;
+    final double[] eta;
+    final double[] weights;
+    final double[] residuals;
+    final double[][] inverse;
+    final double negLogLikelihood;
+
+    /**
+     * @param dataArray - one row per data point, with the bias (1.0) first
+     * @param target    - target value for each data point
+     * @param logistic  - true for a Binomial/Logit model, false for Gaussian/Identity
+     * @param regParam  - L2 regularisation
+     */
+    public GLMFeatureScorer(double[][] dataArray, double[][] target, boolean logistic, double regParam) {
+        this(transpose(dataArray), Arrays.stream(target).mapToDouble(t -> t[0]).toArray(), logistic, regParam);
+    }
+
+    /**
+     * @param columns  - one column per feature, with the bias (all 1.0) first; as AbstractLearner.designColumns().
+     *                 These are kept (not copied) by the scorer.
+     * @param y        - target value for each data point; as AbstractLearner.targetColumn()
+     * @param logistic - true for a Binomial/Logit model, false for Gaussian/Identity
+     * @param regParam - L2 regularisation
+     */
+    public GLMFeatureScorer(double[][] columns, double[] y, boolean logistic, double regParam) {
+        this.n = y.length;
+        this.logistic = logistic;
+        this.regParam = regParam;
+        this.y = y;
+        this.columns = columns;
+        int p = columns.length;
+        penalty = new double[p];
+        for (int j = 1; j < p; j++)
+            penalty[j] = penalty(columns[j]);
+
+        beta = fit(Arrays.asList(columns), penalty, new double[p], MAX_ITERATIONS);
+        if (beta == null)
+            throw new AssertionError("Unable to fit the current model");
+        eta = linearPredictor(Arrays.asList(columns), beta);
+        weights = weights(eta);
+        residuals = residuals(eta);
+        double[][] hessian = gram(Arrays.asList(columns), weights, penalty);
+        inverse = invert(hessian);
+        negLogLikelihood = negLogLikelihood(eta);
+    }
+
+    private static double[][] transpose(double[][] rows) {
+        double[][] retValue = new double[rows[0].length][rows.length];
+        for (int i = 0; i < rows.length; i++)
+            for (int j = 0; j < rows[i].length; j++)
+                retValue[j][i] = rows[i][j];
+        return retValue;
+    }
+
+    /**
+     * @return the number of features (excluding the bias)
+     */
+    public int features() {
+        return columns.length - 1;
+    }
+
+    /**
+     * @return the values of the feature (indexed as in the feature vector, so excluding the bias) for each data point
+     */
+    public double[] column(int feature) {
+        return columns[feature + 1];
+    }
+
+    public double[] coefficients() {
+        return beta.clone();
+    }
+
+    /**
+     * @return the negative log-likelihood of the fit with the current features
+     */
+    public double negLogLikelihood() {
+        return negLogLikelihood;
+    }
+
+    /**
+     * @param values - the new feature for each data point
+     * @return the negative log-likelihood with the feature added to the current ones
+     */
+    public double scoreAddition(double[] values) {
+        int p = columns.length;
+        double[] g = new double[p];
+        for (int j = 0; j < p; j++)
+            g[j] = dot(columns[j], weights, values);
+        double c = dot(values, weights, values) + penalty(values);
+        double[] hg = multiply(inverse, g);
+        double s = c - dot(g, hg);
+        if (s <= 1e-10 * c)
+            return negLogLikelihood; // the new feature is (near enough) a combination of the existing ones
+        double newPenalty = c - dot(values, weights, values);
+        // The gradient for the existing coefficients is zero at the current fit, and that for the new one is the
+        // product of the feature with the residuals, so the first Newton step is exact for OLS
+        double gamma = dot(values, residuals) / s;
+        double[] delta = new double[p];
+        for (int j = 0; j < p; j++)
+            delta[j] = -hg[j] * gamma;
+        double[] newEta = eta.clone();
+        for (int j = 0; j < p; j++)
+            addScaled(newEta, columns[j], delta[j]);
+        addScaled(newEta, values, gamma);
+
+        if (logistic) {
+            // The weights change with the coefficients, so we continue with further Newton steps, but keep the
+            // Hessian (and its inverse) from the current fit. Each step then only needs the new gradient, which is O(np).
+            for (int iteration = 1; iteration < MAX_ITERATIONS; iteration++) {
+                double[] r = residuals(newEta);
+                double[] gradient = new double[p];
+                for (int j = 0; j < p; j++)
+                    gradient[j] = dot(columns[j], r) - penalty[j] * (beta[j] + delta[j]);
+                double newGradient = dot(values, r) - newPenalty * gamma;
+                double[] hGradient = multiply(inverse, gradient);
+                double gammaStep = (newGradient - dot(g, hGradient)) / s;
+                double maxStep = Math.abs(gammaStep);
+                gamma += gammaStep;
+                addScaled(newEta, values, gammaStep);
+                for (int j = 0; j < p; j++) {
+                    double step = hGradient[j] - hg[j] * gammaStep;
+                    delta[j] += step;
+                    addScaled(newEta, columns[j], step);
+                    maxStep = Math.max(maxStep, Math.abs(step));
+                }
+                if (maxStep < TOLERANCE)
+                    break;
+            }
+        }
+        // the current fit is always possible with the new feature (with a zero coefficient), so this is an upper bound
+        return Math.min(negLogLikelihood(newEta), negLogLikelihood);
+    }
+
+    /**
+     * @param feature - index of the feature (excluding the bias)
+     * @return the negative log-likelihood with the feature removed
+     */
+    public double scoreRemoval(int feature) {
+        int k = feature + 1;
+        int p = columns.length;
+        // Newton step with the constraint that the coefficient is zero, which is exact for OLS
+        double[] coefficients = beta.clone();
+        double[] newEta = eta.clone();
+        double scale = beta[k] / inverse[k][k];
+        for (int j = 0; j < p; j++) {
+            coefficients[j] -= inverse[j][k] * scale;
+            addScaled(newEta, columns[j], -inverse[j][k] * scale);
+        }
+        coefficients[k] = 0.0;
+
+        if (logistic) {
+            // and then as for scoreAddition(), further steps with the Hessian from the current fit
+            for (int iteration = 1; iteration < MAX_ITERATIONS; iteration++) {
+                double[] r = residuals(newEta);
+                double[] gradient = new double[p];
+                for (int j = 0; j < p; j++)
+                    gradient[j] = j == k ? 0.0 : dot(columns[j], r) - penalty[j] * coefficients[j];
+                double[] step = multiply(inverse, gradient);
+                double correction = step[k] / inverse[k][k];
+                double maxStep = 0.0;
+                for (int j = 0; j < p; j++) {
+                    if (j == k) continue;
+                    double s = step[j] - inverse[j][k] * correction;
+                    coefficients[j] += s;
+                    addScaled(newEta, columns[j], s);
+                    maxStep = Math.max(maxStep, Math.abs(s));
+                }
+                if (maxStep < TOLERANCE)
+                    break;
+            }
+        }
+        return negLogLikelihood(newEta);
+    }
+
+    /**
+     * Scores a general change in the features, refitting with IRLS from the current coefficients.
+     *
+     * @param removed - indices of the features to remove (excluding the bias)
+     * @param added   - values for each new feature
+     * @return the negative log-likelihood with the changed features
+     */
+    public double scoreChange(int[] removed, double[][] added) {
+        List<double[]> design = new ArrayList<>();
+        List<Double> newPenalty = new ArrayList<>();
+        List<Double> start = new ArrayList<>();
+        for (int j = 0; j < columns.length; j++) {
+            final int feature = j - 1;
+            if (Arrays.stream(removed).anyMatch(r -> r == feature))
+                continue;
+            design.add(columns[j]);
+            newPenalty.add(penalty[j]);
+            start.add(beta[j]);
+        }
+        for (double[] values : added) {
+            design.add(values);
+            newPenalty.add(penalty(values));
+            start.add(0.0);
+        }
+        double[] coefficients = fit(design,
+                newPenalty.stream().mapToDouble(Double::doubleValue).toArray(),
+                start.stream().mapToDouble(Double::doubleValue).toArray(),
+                logistic ? CANDIDATE_ITERATIONS : 1);
+        if (coefficients == null)
+            return Double.POSITIVE_INFINITY;
+        return negLogLikelihood(linearPredictor(design, coefficients));
+    }
+
+    /*
+     * Newton-Raphson (IRLS) on the penalised negative log-likelihood from the starting coefficients.
+     * For OLS a single iteration is exact.
+     */
+    private double[] fit(List<double[]> design, double[] pen, double[] start, int maxIterations) {
+        double[] coefficients = start.clone();
+        double[] linear = linearPredictor(design, coefficients);
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double[] w = weights(linear);
+            double[] r = residuals(linear);
+            double[][] hessian = gram(design, w, pen);
+            double[] gradient = new double[coefficients.length];
+            for (int j = 0; j < coefficients.length; j++)
+                gradient[j] = dot(design.get(j), r) - pen[j] * coefficients[j];
+            double[] step = solve(hessian, gradient);
+            if (step == null)
+                return null;
+            double maxStep = 0.0;
+            for (int j = 0; j < coefficients.length; j++) {
+                coefficients[j] += step[j];
+                maxStep = Math.max(maxStep, Math.abs(step[j]));
+            }
+            linear = linearPredictor(design, coefficients);
+            if (!logistic || maxStep < TOLERANCE)
+                break;
+        }
+        return coefficients;
+    }
+
+    private double penalty(double[] values) {
+        double sum = 0.0, sumSq = 0.0;
+        for (double v : values) {
+            sum += v;
+            sumSq += v * v;
+        }
+        double variance = Math.max(sumSq / n - (sum / n) * (sum / n), 0.0);
+        return regParam * n * variance;
+    }
+
+    private double[] linearPredictor(List<double[]> design, double[] coefficients) {
+        double[] retValue = new double[n];
+        for (int j = 0; j < coefficients.length; j++)
+            addScaled(retValue, design.get(j), coefficients[j]);
+        return retValue;
+    }
+
+    private double[] weights(double[] linear) {
+        double[] retValue = new double[n];
+        for (int i = 0; i < n; i++) {
+            if (logistic) {
+                double mu = sigmoid(linear[i]);
+                retValue[i] = Math.max(mu * (1.0 - mu), 1e-10);
+            } else {
+                retValue[i] = 1.0;
+            }
+        }
+        return retValue;
+    }
+
+    private double[] residuals(double[] linear) {
+        double[] retValue = new double[n];
+        for (int i = 0; i < n; i++)
+            retValue[i] = y[i] - (logistic ? sigmoid(linear[i]) : linear[i]);
+        return retValue;
+    }
+
+    private double negLogLikelihood(double[] linear) {
+        if (logistic) {
+            double retValue = 0.0;
+            for (int i = 0; i < n; i++)
+                retValue += y[i] * softplus(-linear[i]) + (1.0 - y[i]) * softplus(linear[i]);
+            return retValue;
+        }
+        double rss = 0.0;
+        for (int i = 0; i < n; i++) {
+            double e = y[i] - linear[i];
+            rss += e * e;
+        }
+        rss = Math.max(rss, 1e-300);
+        return n / 2.0 * (Math.log(2.0 * Math.PI * rss / n) + 1.0);
+    }
+
+    private static double sigmoid(double x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+
+    private static double softplus(double x) {
+        return x > 0 ? x + Math.log1p(Math.exp(-x)) : Math.log1p(Math.exp(x));
+    }
+
+    private static double[][] gram(List<double[]> design, double[] w, double[] pen) {
+        int p = design.size();
+        double[][] retValue = new double[p][p];
+        for (int a = 0; a < p; a++) {
+            for (int b = a; b < p; b++) {
+                double value = dot(design.get(a), w, design.get(b));
+                retValue[a][b] = value;
+                retValue[b][a] = value;
+            }
+            retValue[a][a] += pen[a];
+        }
+        return retValue;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double retValue = 0.0;
+        for (int i = 0; i < a.length; i++)
+            retValue += a[i] * b[i];
+        return retValue;
+    }
+
+    private static double dot(double[] a, double[] w, double[] b) {
+        double retValue = 0.0;
+        for (int i = 0; i < a.length; i++)
+            retValue += a[i] * w[i] * b[i];
+        return retValue;
+    }
+
+    private static void addScaled(double[] target, double[] values, double scale) {
+        if (scale == 0.0) return;
+        for (int i = 0; i < target.length; i++)
+            target[i] += values[i] * scale;
+    }
+
+    private static double[] multiply(double[][] matrix, double[] vector) {
+        double[] retValue = new double[matrix.length];
+        for (int i = 0; i < matrix.length; i++)
+            retValue[i] = dot(matrix[i], vector);
+        return retValue;
+    }
+
+    /*
+     * Cholesky decomposition of a symmetric matrix. If the matrix is not positive definite (for example because two
+     * columns are identical and unpenalised) a small ridge is added to the diagonal.
+     */
+    private static double[][] cholesky(double[][] matrix) {
+        int p = matrix.length;
+        double jitter = 0.0;
+        for (int attempt = 0; attempt < 5; attempt++) {
+            double[][] l = new double[p][p];
+            boolean ok = true;
+            for (int i = 0; i < p && ok; i++) {
+                for (int j = 0; j <= i; j++) {
+                    double sum = matrix[i][j] + (i == j ? jitter * Math.max(matrix[i][i], 1.0) : 0.0);
+                    for (int k = 0; k < j; k++)
+                        sum -= l[i][k] * l[j][k];
+                    if (i == j) {
+                        if (sum <= 0.0) {
+                            ok = false;
+                            break;
+                        }
+                        l[i][i] = Math.sqrt(sum);
+                    } else {
+                        l[i][j] = sum / l[j][j];
+                    }
+                }
+            }
+            if (ok)
+                return l;
+            jitter = jitter == 0.0 ? 1e-10 : jitter * 100;
+        }
+        return null;
+    }
+
+    private static double[] solve(double[][] matrix, double[] b) {
+        double[][] l = cholesky(matrix);
+        return l == null ? null : substitute(l, b);
+    }
+
+    private static double[] substitute(double[][] l, double[] b) {
+        int p = l.length;
+        double[] z = new double[p];
+        for (int i = 0; i < p; i++) {
+            double sum = b[i];
+            for (int k = 0; k < i; k++)
+                sum -= l[i][k] * z[k];
+            z[i] = sum / l[i][i];
+        }
+        double[] x = new double[p];
+        for (int i = p - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int k = i + 1; k < p; k++)
+                sum -= l[k][i] * x[k];
+            x[i] = sum / l[i][i];
+        }
+        return x;
+    }
+
+    private static double[][] invert(double[][] matrix) {
+        double[][] l = cholesky(matrix);
+        if (l == null)
+            throw new AssertionError("Unable to invert the Hessian of the current model");
+        int p = matrix.length;
+        double[][] retValue = new double[p][];
+        for (int j = 0; j < p; j++) {
+            double[] unit = new double[p];
+            unit[j] = 1.0;
+            retValue[j] = substitute(l, unit);  // the inverse is symmetric, so this is also row j
+        }
+        return retValue;
+    }
+}
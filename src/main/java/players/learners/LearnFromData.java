@@ -5,6 +5,7 @@ import org.json.simple.JSONObject;
 import evaluation.features.AutomatedFeatures;
 import players.heuristics.GLMHeuristic;
 import utilities.JSONUtils;
+import utilities.Pair;
 import utilities.Utils;
 
 import java.io.File;
@@ -107,6 +108,7 @@ public class LearnFromData {
             learner.setStateFeatureVector(asf);
         // this creates the extended AutomatedFeatures, and fits to this; before considering any interactions, bucketing or pruning
         int startingFeatureCount = learner.featureCount();
+        learner.setMaxRecords(maxRecords);
         Object learnedThing = learner.learnFrom(convertedDataFile);
 
         // we are now in a position to modify the features in a loop
@@ -146,17 +148,13 @@ public class LearnFromData {
         long startTime = System.currentTimeMillis();
         if (startingHeuristic instanceof GLMHeuristic glm) {
             AutomatedFeatures asf = (AutomatedFeatures) (learner.getActionFeatureVector() != null ? learner.getActionFeatureVector() : learner.getStateFeatureVector());
-            String bestFeatureDescription = "";
-            double baseBIC = bicFromAic(glm.getModel().summary().aic(), asf.names().length, n);
-            double bestBIC = baseBIC;
-            System.out.println("Starting modified BIC: " + baseBIC);
             List<String> excludedFeatures = new ArrayList<>();
-            List<String> excludedBucketFeatures = new ArrayList<>();
-            List<String> excludedInteractionFeatures = new ArrayList<>();
-            List<String> featuresToKeep = new ArrayList<>();
+            // for each feature excluded from bucketing, the position in the iteration at which this happened (-1 for earlier iterations)
+            Map<String, Integer> excludedBucketFeatures = new HashMap<>();
+            Set<String> excludedInteractionFeatures = new HashSet<>();
+            Set<String> featuresToKeep = new HashSet<>();
             int iteration = 0;
             String dataDirectory = dataFiles[0].substring(0, dataFiles[0].lastIndexOf(File.separator));
-            String outputFile = dataDirectory + File.separator + "ImproveModel_tmp.txt";
 
             String[] rawData = dataFiles;
             AutomatedFeatures bestFeatures;
@@ -173,60 +171,60 @@ public class LearnFromData {
                 removeExcludedFeatures(excludedFeatures, asf);
             }
 
+            // All candidate changes are scored in memory against the current model; only the best one is then
+            // written out and refitted in full by the learner
+            setFeatureVector(learner, asf);
+            GLMFeatureScorer scorer = newScorer(learner, rawData);
+            double bestBIC = bicFromNll(scorer.negLogLikelihood(), asf.names().length, n);
+            System.out.println("Starting modified BIC: " + bestBIC);
+
             do {
                 bestFeatures = null;
                 if (debug)
                     System.out.printf("Iteration %d, current feature count %d / %d%n", iteration, asf.names().length, learner.featureCount());
-                baseBIC = bestBIC;  // reset baseline
-                for (int i = 0; i < asf.names().length; i++) {
+                double baseBIC = bestBIC;  // reset baseline
+                excludedBucketFeatures.replaceAll((feature, position) -> -1);
+                int featureCount = asf.names().length;
+
+                // Re-bucketing comes first, as this determines which RANGE features can be used in interactions
+                List<Candidate> bucketCandidates = new ArrayList<>();
+                for (int i = 0; i < featureCount; i++) {
+                    if (asf.getFeatureType(i) == RAW && !excludedBucketFeatures.containsKey(asf.names()[i]))
+                        bucketCandidates.add(new Candidate(order(i, 0, featureCount), Change.BUCKETS, i, -1, asf.names()[i]));
+                }
+                List<ScoredCandidate> results = new ArrayList<>(score(bucketCandidates, asf, scorer, excludedFeatures, n));
+                for (ScoredCandidate result : results) {
+                    if (result.newBIC > baseBIC) {
+                        // once a feature is below the base BIC, we save time by not checking it for bucketing again
+                        if (debug)
+                            System.out.println("Excluding feature " + result.candidate.name + " with buckets " +
+                                    (asf.getBuckets(asf.getUnderlyingIndex(result.candidate.first)) + BUCKET_INCREMENT) + " as it did not improve BIC");
+                        excludedBucketFeatures.put(result.candidate.name, result.candidate.first);
+                    }
+                }
+
+                List<Candidate> candidates = new ArrayList<>();
+                for (int i = 0; i < featureCount; i++) {
 
                     String firstFeature = asf.names()[i];
                     AutomatedFeatures.featureType type1 = asf.getFeatureType(i);
 
-                    if (type1 == RANGE) {
-                        int underlyingIndex = asf.getUnderlyingIndex(i);
-                        String underlyingFeature = asf.names()[underlyingIndex];
-                        if (!excludedBucketFeatures.contains(underlyingFeature))
-                            continue;  // we only consider RANGE features for interactions once the bucketing is fixed
-                    }
-                    if (type1 == AutomatedFeatures.featureType.RAW && !excludedBucketFeatures.contains(firstFeature)) {
-                        // once a feature is below the base AIC, we save time by not checking it for bucketing again
-                        AutomatedFeatures adjustedASF = asf.copy();
-                        int underlyingIndex = asf.getUnderlyingIndex(i);
-                        adjustedASF.setBuckets(underlyingIndex, asf.getBuckets(underlyingIndex) + BUCKET_INCREMENT);
-
-                        FeatureAnalysisResult result = processNewFeature(adjustedASF, outputFile, rawData, learner, n);
-
-                        if (result.newBIC < bestBIC) {
-                            bestBIC = result.newBIC;
-                            bestFeatures = result.adjustedASF;
-                            startingHeuristic = result.newHeuristic;
-                            bestFeatureDescription = firstFeature + " (Buckets: " + result.adjustedASF.getBuckets(underlyingIndex) + ")";
-                        } else if (result.newBIC > baseBIC) {
-                            if (debug)
-                                System.out.println("Excluding feature " + firstFeature + " with buckets " +
-                                        adjustedASF.getBuckets(underlyingIndex) + " as it did not improve BIC");
-                            excludedBucketFeatures.add(firstFeature);
-                        }
-                    }
+                    if (type1 == RANGE && !bucketingFixed(asf, i, i, excludedBucketFeatures))
+                        continue;  // we only consider RANGE features for interactions once the bucketing is fixed
 
-                    for (int j = i; j < asf.names().length; j++) {
+                    for (int j = i; j < featureCount; j++) {
                         String secondFeature = asf.names()[j];
                         String interactionName = firstFeature + ":" + secondFeature;
                         AutomatedFeatures.featureType type2 = asf.getFeatureType(j);
 
-                        if (type2 == RANGE) {
-                            int underlyingIndex = asf.getUnderlyingIndex(j);
-                            String underlyingFeature = asf.names()[underlyingIndex];
-                            if (!excludedBucketFeatures.contains(underlyingFeature))
-                                continue;  // we only consider RANGE features for interactions once the bucketing is fixed
-                        }
+                        if (type2 == RANGE && !bucketingFixed(asf, j, i, excludedBucketFeatures))
+                            continue;  // we only consider RANGE features for interactions once the bucketing is fixed
 
                         if (excludedInteractionFeatures.contains(interactionName))
                             continue;  // we've already checked this one and it failed to help
 
                         // check that this is not an interaction between two mutually exclusive ENUM/RANGE features
-                        if ((asf.getFeatureType(j) == ENUM || asf.getFeatureType(j) == RANGE) &&
+                        if ((type2 == ENUM || type2 == RANGE) &&
                                 asf.getUnderlyingIndex(i) == asf.getUnderlyingIndex(j)) {
                             continue;
                         }
@@ -234,86 +232,85 @@ public class LearnFromData {
                         // check that this is not already an interaction
                         if (asf.getColumnDetails().stream().anyMatch(r -> r.type() == INTERACTION &&
                                 r.name().equals(interactionName))) {
-                            //  System.out.println("Already an interaction: " + firstFeature + " : " + secondFeature);
                             continue;
                         }
 
-                        // Consider the interaction of features
-                        AutomatedFeatures adjustedASF = asf.copy();
-                        adjustedASF.addInteraction(i, j);
-                        FeatureAnalysisResult result = processNewFeature(adjustedASF, outputFile, rawData, learner, n);
-
-                        if (debug)
-                            System.out.printf("\tConsidered interaction: %s, new BIC: %.2f%n", interactionName, result.newBIC);
-//                        System.out.printf("\tCoefficients: %s%n",
-//                                result.newHeuristic.coefficients() != null ?
-//                                        Arrays.stream(result.newHeuristic.coefficients()).mapToObj(d -> String.format("%.2f", d)).collect(joining("|")) : "[]");
-
-                        if (result.newBIC < bestBIC) {
-                            bestBIC = result.newBIC;
-                            bestFeatures = result.adjustedASF;
-                            startingHeuristic = result.newHeuristic;
-                            bestFeatureDescription = interactionName;
-                        } else if (result.newBIC > baseBIC) {
-                            // if an interaction worsens the BIC, then we exclude it from future consideration
-                            // on the basis that this is *unlikely* to improve in future iterations [although it might]
-                            excludedInteractionFeatures.add(interactionName);
-                        }
+                        candidates.add(new Candidate(order(i, 1 + j - i, featureCount), Change.INTERACTION, i, j, interactionName));
                     }
 
                     // Then consider removing this feature (if it is not part of an interaction, and we have finished bucketing)
-                    String featureToRemove = asf.names()[i];
                     // we *can* remove interactions that are in other interactions (just not RANGE or RAW features)
-                    if (asf.getFeatureType(i) != INTERACTION && (featuresToKeep.contains(featureToRemove) || usedInInteraction(asf, featureToRemove)))
+                    if (type1 != INTERACTION && (featuresToKeep.contains(firstFeature) || usedInInteraction(asf, firstFeature)))
                         continue; // we don't want to remove a RAW/RANGE feature that is part of an interaction, or that previous removal damaged BIC
 
-                    AutomatedFeatures adjustedASF = asf.copy();
-                    adjustedASF.removeFeature(i);
-
-                    // we always use the data file from this iteration of building the model (as this has all the data)
-                    FeatureAnalysisResult result = processNewFeature(adjustedASF, outputFile, new String[0], learner, n);
-
-                    if (debug)
-                        System.out.printf("\tConsidered feature removal: %s, new BIC: %.2f%n", featureToRemove, result.newBIC);
-//                    System.out.printf("\tCoefficients: %s%n",
-//                            result.newHeuristic.coefficients() != null ?
-//                                    Arrays.stream(result.newHeuristic.coefficients()).mapToObj(d -> String.format("%.2f", d)).collect(joining("|")) : "[]");
+                    candidates.add(new Candidate(order(i, featureCount + 1, featureCount), Change.REMOVAL, i, -1, firstFeature));
+                }
+                results.addAll(score(candidates, asf, scorer, excludedFeatures, n));
+
+                // Then go through the results in the same order as a sequential search would have
+                results.sort(Comparator.comparingLong(r -> r.candidate.order));
+                ScoredCandidate best = null;
+                for (ScoredCandidate result : results) {
+                    Candidate candidate = result.candidate;
+                    if (debug && candidate.change != Change.BUCKETS)
+                        System.out.printf("\tConsidered %s: %s, new BIC: %.2f%n",
+                                candidate.change == Change.INTERACTION ? "interaction" : "feature removal", candidate.name, result.newBIC);
                     if (result.newBIC < bestBIC) {
                         bestBIC = result.newBIC;
-                        bestFeatures = result.adjustedASF;
-                        startingHeuristic = result.newHeuristic;
-                        bestFeatureDescription = String.format("Removed Feature %s", featureToRemove);
-                    } else if (result.newBIC > baseBIC + bicMultiplier * asf.names().length) {
-                        featuresToKeep.add(featureToRemove);
+                        best = result;
+                    } else if (candidate.change == Change.INTERACTION && result.newBIC > baseBIC) {
+                        // if an interaction worsens the BIC, then we exclude it from future consideration
+                        // on the basis that this is *unlikely* to improve in future iterations [although it might]
+                        excludedInteractionFeatures.add(candidate.name);
+                    } else if (candidate.change == Change.REMOVAL && result.newBIC > baseBIC + bicMultiplier * featureCount) {
+                        featuresToKeep.add(candidate.name);
                     }
                 }
 
-                if (bestFeatureDescription.startsWith("Removed Feature")) {
-                    // If the best is a removal, we need to add to excludedFeatures so that we exclude it from future iterations
-                    // otherwise processNewData will keep adding it back in
-                    excludedFeatures.add(bestFeatureDescription.substring(bestFeatureDescription.lastIndexOf("is ") + 3));
-                }
-                // We then also need to set up the data file to be used as the baseline for the next iteration
-                if (bestFeatures != null) {
+                // We then update to the single best change (provided it improved on the BIC)
+                if (best == null) {
+                    System.out.println("No feature changes improved BIC");
+                } else {
+                    String description = best.candidate.description(asf);
+                    bestFeatures = best.candidate.apply(asf);
+                    if (best.candidate.change == Change.REMOVAL) {
+                        // If the best is a removal, we need to add to excludedFeatures so that we exclude it from future iterations
+                        // otherwise processNewData will keep adding it back in
+                        excludedFeatures.add(best.candidate.name);
+                    }
+                    // We then also need to set up the data file to be used as the baseline for the next iteration
                     String newFileName = dataDirectory + File.separator + "ImproveModel_Iter_" + iteration + ".txt";
-                    bestFeatures.processData(false, newFileName, maxRecords, rawData);
+                    // (all features are written, so that new RANGE features from re-bucketing are included)
+                    bestFeatures.processData(true, newFileName, maxRecords, rawData);
                     // then remove excluded features from the bestFeatures (these are always in the file so it always contains the original raw data)
                     removeExcludedFeatures(excludedFeatures, bestFeatures);
                     iteration++;
                     rawData = new String[]{newFileName};
-                }
 
-                // We then update to the single best change (provided it improved on the BIC)
-                if (bestFeatures == null) {
-                    System.out.println("No feature changes improved BIC");
-                } else {
-                    System.out.printf("Best feature with BIC: %.2f is %s%n", bestBIC, bestFeatureDescription);
+                    // and this is the one full refit for the iteration
+                    setFeatureVector(learner, bestFeatures);
+                    Object newHeuristic = learner.learnFrom(newFileName);
+                    GLMFeatureScorer newScorer = newScorer(learner, newFileName);
+                    double newBIC = bicFromNll(newScorer.negLogLikelihood(), bestFeatures.names().length, n);
+                    if (newBIC >= baseBIC) {
+                        // should not happen, as the scores are from the same model; but if it does we stop rather than loop
+                        System.out.printf("Refit with %s did not improve BIC (%.2f), so stopping%n", description, newBIC);
+                        setFeatureVector(learner, asf);
+                        bestFeatures = null;
+                        continue;
+                    }
+                    startingHeuristic = newHeuristic;
+                    scorer = newScorer;
+                    asf = bestFeatures;
+                    bestBIC = newBIC;
+
+                    System.out.printf("Best feature with BIC: %.2f is %s%n", bestBIC, description);
                     if (debug) {
+                        double[] coefficients = ((GLMHeuristic) startingHeuristic).coefficients();
                         System.out.printf("\tCoefficients: %s%n",
-                                glm.coefficients() != null ?
-                                        Arrays.stream(glm.coefficients()).mapToObj(d -> String.format("%.2f", d)).collect(joining("|")) : "[]");
+                                coefficients != null ?
+                                        Arrays.stream(coefficients).mapToObj(d -> String.format("%.2f", d)).collect(joining("|")) : "[]");
                     }
-                    asf = bestFeatures;
                 }
 
                 // increment bicMultiplier if time is getting on
@@ -324,7 +321,7 @@ public class LearnFromData {
                     startTime = System.currentTimeMillis();
                     bicMultiplier = bicMultiplier + baseBicMultiplier;
                     // then adjust current bestBIC to reflect the new multiplier
-                    bestBIC = bicFromAic(glm.getModel().summary().aic(), asf.names().length, n);
+                    bestBIC = bicFromNll(scorer.negLogLikelihood(), asf.names().length, n);
                 }
             } while (bestFeatures != null);
 
@@ -361,34 +358,123 @@ public class LearnFromData {
         maxRecords = i;
     }
 
-    private record FeatureAnalysisResult(
-            AutomatedFeatures adjustedASF,
-            GLMHeuristic newHeuristic,
-            double newBIC) {
+    private enum Change {BUCKETS, INTERACTION, REMOVAL}
+
+    /**
+     * A possible change to the current features: more buckets for the RAW feature 'first', an interaction between
+     * 'first' and 'second', or removing 'first'.
+     * 'order' is the position of the change in a sequential search over the features, which determines which of two
+     * equally good changes is used.
+     */
+    private record Candidate(long order, Change change, int first, int second, String name) {
+
+        AutomatedFeatures apply(AutomatedFeatures asf) {
+            AutomatedFeatures adjustedASF = asf.copy();
+            switch (change) {
+                case BUCKETS -> {
+                    int underlyingIndex = asf.getUnderlyingIndex(first);
+                    adjustedASF.setBuckets(underlyingIndex, asf.getBuckets(underlyingIndex) + BUCKET_INCREMENT);
+                }
+                case INTERACTION -> adjustedASF.addInteraction(first, second);
+                case REMOVAL -> adjustedASF.removeFeature(first);
+            }
+            return adjustedASF;
+        }
+
+        String description(AutomatedFeatures asf) {
+            return switch (change) {
+                case BUCKETS -> name + " (Buckets: " + (asf.getBuckets(asf.getUnderlyingIndex(first)) + BUCKET_INCREMENT) + ")";
+                case INTERACTION -> name;
+                case REMOVAL -> "Removed Feature " + name;
+            };
+        }
+    }
+
+    private record ScoredCandidate(Candidate candidate, double newBIC) {
+    }
+
+    private static long order(int feature, int step, int featureCount) {
+        return (long) feature * (featureCount + 2) + step;
     }
 
-    FeatureAnalysisResult processNewFeature(AutomatedFeatures asf,
-                                            String outputFile,
-                                            String[] rawData,
-                                            AbstractLearner learner,
-                                            int n) {
+    /*
+     * RANGE features are only used in interactions once the bucketing of their underlying feature is fixed. In a
+     * sequential search over the features this happens when the search reaches the RAW feature, so a RANGE feature
+     * is only available from that position on.
+     */
+    private static boolean bucketingFixed(AutomatedFeatures asf, int rangeFeature, int position,
+                                          Map<String, Integer> excludedBucketFeatures) {
+        String underlyingFeature = asf.names()[asf.getUnderlyingIndex(rangeFeature)];
+        Integer excludedAt = excludedBucketFeatures.get(underlyingFeature);
+        return excludedAt != null && excludedAt <= position;
+    }
 
-        AutomatedFeatures localASF = asf.copy();
-        if (rawData != null && rawData.length > 0)
-            localASF.processData(false, outputFile, maxRecords, rawData);
+    private List<ScoredCandidate> score(List<Candidate> candidates, AutomatedFeatures asf, GLMFeatureScorer scorer,
+                                        List<String> excludedFeatures, int n) {
+        return candidates.parallelStream()
+                .map(c -> new ScoredCandidate(c, score(c, asf, scorer, excludedFeatures, n)))
+                .toList();
+    }
 
+    private double score(Candidate candidate, AutomatedFeatures asf, GLMFeatureScorer scorer,
+                         List<String> excludedFeatures, int n) {
+        int k = asf.names().length;
+        switch (candidate.change) {
+            case BUCKETS: {
+                int underlyingIndex = asf.getUnderlyingIndex(candidate.first);
+                double[] values = scorer.column(candidate.first);
+                List<Pair<Number, Number>> ranges = asf.bucketRanges(underlyingIndex,
+                        asf.getBuckets(underlyingIndex) + BUCKET_INCREMENT, values);
+                // the new RANGE features replace any current ones
+                int[] removed = IntStream.range(0, k)
+                        .filter(f -> asf.getFeatureType(f) == RANGE && asf.getUnderlyingIndex(f) == underlyingIndex)
+                        .toArray();
+                // (and any that have been removed before will be removed again after the refit)
+                List<double[]> added = new ArrayList<>();
+                for (int b = 0; b < ranges.size(); b++) {
+                    if (excludedFeatures.contains(candidate.name + "_B" + b))
+                        continue;
+                    double lower = ranges.get(b).a.doubleValue(), upper = ranges.get(b).b.doubleValue();
+                    double[] indicator = new double[values.length];
+                    for (int row = 0; row < values.length; row++)
+                        indicator[row] = values[row] >= lower && values[row] < upper ? 1.0 : 0.0;
+                    added.add(indicator);
+                }
+                return bicFromNll(scorer.scoreChange(removed, added.toArray(new double[0][])),
+                        k - removed.length + added.size(), n);
+            }
+            case INTERACTION: {
+                double[] first = scorer.column(candidate.first);
+                double[] second = scorer.column(candidate.second);
+                double[] values = new double[first.length];
+                for (int row = 0; row < values.length; row++)
+                    values[row] = first[row] * second[row];
+                return bicFromNll(scorer.scoreAddition(values), k + 1, n);
+            }
+            case REMOVAL:
+                return bicFromNll(scorer.scoreRemoval(candidate.first), k - 1, n);
+            default:
+                throw new AssertionError("Unknown change " + candidate.change);
+        }
+    }
+
+    private void setFeatureVector(AbstractLearner learner, AutomatedFeatures asf) {
         if (learner.actionFeatureVector != null)
-            learner.setActionFeatureVector(localASF);
+            learner.setActionFeatureVector(asf);
         else
-            learner.setStateFeatureVector(localASF);
+            learner.setStateFeatureVector(asf);
+    }
 
-        GLMHeuristic newHeuristic = (GLMHeuristic) learner.learnFrom(outputFile);
-        double newBIC = bicFromAic(newHeuristic.getModel().summary().aic(), localASF.names().length, n);
-        return new FeatureAnalysisResult(localASF, newHeuristic, newBIC);
+    private GLMFeatureScorer newScorer(AbstractLearner learner, String... files) {
+        learner.loadData(files);
+        try {
+            return new GLMFeatureScorer(learner.designColumns(), learner.targetColumn(), learner.isLogistic(), learner.regularisation());
+        } finally {
+            learner.closeData();
+        }
     }
 
-    private double bicFromAic(double aic, int k, int n) {
-        double nll = aic / 2.0 - k;
+    private double bicFromNll(double nll, int k, int n) {
         return 2 * nll + bicMultiplier * k * Math.log(n);
     }
 }
@@ -0,0 +1,107 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.CoreConstants;
+import core.Game;
+import core.actions.AbstractAction;
+import evaluation.CopyBenchmark;
+import games.GameType;
+import utilities.Utils;
+
+import java.util.*;
+
+import static players.PlayerConstants.BUDGET_TIME;
+
+/**
+ * Compares Information_Set MCTS with and without a pool of pre-sampled determinisations (see DeterminisationPool).
+ * <p>
+ * Speed is the number of iterations per second on decision states sampled from random playouts of each game,
+ * with the same time budget per decision. Strength is measured by playing games with one seat taken by the pooled
+ * agent and the others by the baseline (the pooled seat rotates), again with the same time budget per decision.
+ * <p>
+ * Arguments: games=Hanabi|LoveLetter|Dominion (the default), nPlayers, nStates (sampled per game), budget (ms per
+ * decision), pool (the determinisationPool size), refresh (determinisationRefresh), background
+ * (determinisationBackground), nGames (0 to skip the strength test), and seed.
+ */
+public class DeterminisationBenchmark {
+
+    public static void main(String... args) {
+        String games = Utils.getArg(args, "games", "Hanabi|LoveLetter|Dominion");
+        int nPlayers = Utils.getArg(args, "nPlayers", 2);
+        int nStates = Utils.getArg(args, "nStates", 20);
+        int budget = Utils.getArg(args, "budget", 50);
+        int pool = Utils.getArg(args, "pool", 16);
+        int refresh = Utils.getArg(args, "refresh", 0);
+        boolean background = Utils.getArg(args, "background", false);
+        int nGames = Utils.getArg(args, "nGames", 20);
+        long seed = Utils.getArg(args, "seed", 42L);
+
+        MCTSParams baseline = new MCTSParams();
+        baseline.setParameterValue("budgetType", BUDGET_TIME);
+        baseline.setParameterValue("budget", budget);
+        baseline.setParameterValue("information", MCTSEnums.Information.Information_Set);
+        baseline.setParameterValue("randomSeed", (int) seed);
+        MCTSParams pooled = (MCTSParams) baseline.copy();
+        pooled.setParameterValue("determinisationPool", pool);
+        pooled.setParameterValue("determinisationRefresh", refresh);
+        pooled.setParameterValue("determinisationBackground", background);
+
+        System.out.printf("%-12s %8s %14s %14s %8s %8s %10s%n", "Game", "States",
+                "Base (it/s)", "Pool (it/s)", "Speedup", "Games", "Pool wins");
+        for (String name : games.split("\\|")) {
+            GameType gameType = GameType.valueOf(name);
+            int players = Math.max(gameType.getMinPlayers(), Math.min(gameType.getMaxPlayers(), nPlayers));
+            List<AbstractGameState> states = CopyBenchmark.sampleStates(gameType, players, nStates, seed);
+            AbstractForwardModel fm = gameType.createGameInstance(players, seed).getForwardModel();
+
+            // the first pass is a warm-up
+            iterationsPerSecond(states, fm, new MCTSPlayer((MCTSParams) baseline.copy()));
+            iterationsPerSecond(states, fm, new MCTSPlayer((MCTSParams) pooled.copy()));
+            double baseSpeed = iterationsPerSecond(states, fm, new MCTSPlayer((MCTSParams) baseline.copy()));
+            double poolSpeed = iterationsPerSecond(states, fm, new MCTSPlayer((MCTSParams) pooled.copy()));
+
+            double wins = nGames > 0 ? winRate(gameType, players, nGames, baseline, pooled, seed) : Double.NaN;
+            System.out.printf("%-12s %8d %14.0f %14.0f %8.2f %8d %10.3f%n", name, states.size(),
+                    baseSpeed, poolSpeed, poolSpeed / baseSpeed, nGames, wins);
+        }
+    }
+
+    static double iterationsPerSecond(List<AbstractGameState> states, AbstractForwardModel fm, MCTSPlayer player) {
+        player.setForwardModel(fm);
+        long iterations = 0;
+        double millis = 0.0;
+        for (AbstractGameState state : states) {
+            AbstractGameState copy = state.copy();
+            List<AbstractAction> actions = fm.computeAvailableActions(copy);
+            if (actions.size() < 2)
+                continue;
+            player.getAction(copy, actions);
+            iterations += player.root.getVisits();
+            millis += player.root.timeTaken;
+        }
+        return millis == 0.0 ? 0.0 : iterations * 1000.0 / millis;
+    }
+
+    /**
+     * @return the proportion of games won by the pooled agent (with 1/nPlayers being par)
+     */
+    static double winRate(GameType gameType, int nPlayers, int nGames, MCTSParams baseline, MCTSParams pooled, long seed) {
+        Random rnd = new Random(seed);
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        int wins = 0;
+        for (int g = 0; g < nGames; g++) {
+            int pooledSeat = g % nPlayers;
+            List<AbstractPlayer> players = new ArrayList<>();
+            for (int p = 0; p < nPlayers; p++)
+                players.add(new MCTSPlayer((MCTSParams) (p == pooledSeat ? pooled : baseline).copy(),
+                        p == pooledSeat ? "Pool" : "Base"));
+            game.reset(players, rnd.nextLong());
+            game.run();
+            if (game.getGameState().getPlayerResults()[pooledSeat] == CoreConstants.GameResult.WIN_GAME)
+                wins++;
+        }
+        return wins / (double) nGames;
+    }
+}
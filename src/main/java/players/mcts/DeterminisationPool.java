@@ -0,0 +1,106 @@
+package players.mcts;
+
+import core.AbstractGameState;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed set of determinisations of the root state, sampled once per decision for Information_Set MCTS.
+ * Each iteration then starts from a plain copy() of one of these (which does not redeterminise the hidden
+ * information), cycling through the pool. This is much cheaper than copy(player) in games where redeterminisation
+ * reshuffles a lot of hidden state.
+ * <p>
+ * If refreshInterval > 0, then every refreshInterval iterations one member of the pool (the oldest) is replaced
+ * with a new determinisation, so that over a long search the pool progressively covers more of the information set.
+ * <p>
+ * If background is true, the pool is filled on a separate thread from a private copy of the root state, and
+ * until the first determinisation is ready the iterations redeterminise the root state directly.
+ */
+public class DeterminisationPool {
+
+    final AbstractGameState root;
+    final int player;
+    final int refreshInterval;
+    final AtomicReferenceArray<AbstractGameState> pool;
+    final AtomicInteger filled = new AtomicInteger();
+    final boolean background;
+    Thread filler;
+    volatile boolean stopFilling;
+    int next, oldest, iterations;
+    int determinisations;  // the number sampled on this thread (for metrics)
+
+    public DeterminisationPool(AbstractGameState root, int player, int size, int refreshInterval, boolean background) {
+        if (size < 1)
+            throw new IllegalArgumentException("Determinisation pool size must be at least 1, not " + size);
+        this.root = root;
+        this.player = player;
+        this.refreshInterval = refreshInterval;
+        this.background = background;
+        pool = new AtomicReferenceArray<>(size);
+        if (background) {
+            // the filler thread only ever touches its own copy of the root state
+            AbstractGameState template = root.copy();
+            filler = new Thread(() -> {
+                for (int i = 0; i < size && !stopFilling; i++) {
+                    pool.set(i, template.copy(player));
+                    filled.incrementAndGet();
+                }
+            }, "DeterminisationPool");
+            filler.setDaemon(true);
+            filler.start();
+        } else {
+            for (int i = 0; i < size; i++) {
+                pool.set(i, root.copy(player));
+                determinisations++;
+            }
+            filled.set(size);
+        }
+    }
+
+    /**
+     * @return a state to start the next iteration from. This is always a new object that the caller is free to modify.
+     */
+    public AbstractGameState nextState() {
+        int available = filled.get();
+        if (available == 0) {
+            determinisations++;
+            return root.copy(player);
+        }
+        iterations++;
+        if (refreshInterval > 0 && available == pool.length() && iterations % refreshInterval == 0) {
+            pool.set(oldest, root.copy(player));
+            determinisations++;
+            oldest = (oldest + 1) % pool.length();
+        }
+        AbstractGameState retValue = pool.get(next % available).copy();
+        next = (next + 1) % available;
+        return retValue;
+    }
+
+    public int size() {
+        return filled.get();
+    }
+
+    /**
+     * The total number of full redeterminisations made, including those made on the background thread
+     */
+    public int determinisations() {
+        return determinisations + (background ? filled.get() : 0);
+    }
+
+    /**
+     * Stops any background filling. The pool should not be used after this.
+     */
+    public void close() {
+        if (filler != null) {
+            stopFilling = true;
+            try {
+                filler.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            filler = null;
+        }
+    }
+}
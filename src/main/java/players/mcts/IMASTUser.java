@@ -1,11 +1,6 @@
 package players.mcts;
 
-import utilities.Pair;
-
-import java.util.List;
-import java.util.Map;
-
 public interface IMASTUser {
 
-    void setMASTStats(List<Map<Object, Pair<Integer, Double>>> MASTStats);
+    void setMASTStats(MASTTable MASTStats);
 }
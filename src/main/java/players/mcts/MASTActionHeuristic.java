@@ -9,13 +9,12 @@ import core.interfaces.IActionKey;
 import core.interfaces.ITunableParameters;
 import evaluation.optimisation.TunableParameters;
 import players.simple.BoltzmannActionPlayer;
-import utilities.Pair;
 
 import java.util.*;
 
 public class MASTActionHeuristic extends TunableParameters<MASTActionHeuristic> implements IActionHeuristic, IMASTUser {
 
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics = new ArrayList<>();
+    MASTTable MASTStatistics;
     IActionKey actionKey; // null is fine; this indicates to use the Action as the Key
     double defaultValue;
 
@@ -36,20 +35,14 @@ public class MASTActionHeuristic extends TunableParameters<MASTActionHeuristic>
         defaultValue = (double) getParameterValue("defaultValue");
     }
     
-    public void setMASTStats(List<Map<Object, Pair<Integer, Double>>> MASTStatistics) {
+    public void setMASTStats(MASTTable MASTStatistics) {
         this.MASTStatistics = MASTStatistics;
     }
 
     @Override
     public double evaluateAction(AbstractAction action, AbstractGameState state, List<AbstractAction> contextActions) {
         Object key = actionKey == null ? action : actionKey.key(action);
-        Map<Object, Pair<Integer, Double>> MAST = MASTStatistics.get(state.getCurrentPlayer());
-        if (MAST.containsKey(key)) {
-            Pair<Integer, Double> stats = MAST.get(key);
-            if (stats.a > 0)
-                return stats.b / stats.a;
-        }
-        return defaultValue;
+        return MASTStatistics.mean(state.getCurrentPlayer(), key, defaultValue);
     }
 
     @Override
@@ -60,7 +53,7 @@ public class MASTActionHeuristic extends TunableParameters<MASTActionHeuristic>
     @Override
     protected boolean _equals(Object o) {
         return o instanceof MASTActionHeuristic &&
-               Arrays.equals(MASTStatistics.toArray(), ((MASTActionHeuristic) o).MASTStatistics.toArray());
+               Objects.equals(MASTStatistics, ((MASTActionHeuristic) o).MASTStatistics);
     }
 
     @Override
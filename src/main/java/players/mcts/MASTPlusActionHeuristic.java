@@ -6,10 +6,8 @@ import core.actions.AbstractAction;
 import core.interfaces.IActionHeuristic;
 import core.interfaces.IActionKey;
 import evaluation.optimisation.TunableParameters;
-import utilities.Pair;
 
 import java.util.List;
-import java.util.Map;
 
 public class MASTPlusActionHeuristic extends TunableParameters<MASTPlusActionHeuristic> implements IActionHeuristic, IMASTUser {
 
@@ -63,7 +61,7 @@ public class MASTPlusActionHeuristic extends TunableParameters<MASTPlusActionHeu
     }
 
     @Override
-    public void setMASTStats(List<Map<Object, Pair<Integer, Double>>> MASTStats) {
+    public void setMASTStats(MASTTable MASTStats) {
         baseHeuristic.setMASTStats(MASTStats);
     }
 }
@@ -0,0 +1,223 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+/**
+ * The statistics used by MAST (Move-Average Sampling Technique): for each player, the number of visits and the
+ * total value of each action key (either the action itself, or the key from an IActionKey).
+ * <p>
+ * Each player has an open-addressing hash table with the counts and values held in primitive arrays, so that
+ * updates and look-ups of keys already in the table do not allocate anything. When a new AbstractAction is
+ * added as a key, a copy of it is stored (as actions may be mutable); other keys are stored as they are.
+ * <p>
+ * decay(gamma) is applied lazily: it just records gamma and increments a generation counter, and each entry is
+ * brought up to date the next time it is accessed. The result is the same as decaying every entry immediately,
+ * with the count of visits truncated to an integer at each decay (as in Utils.decay()).
+ * Every MAX_GENERATIONS decays (at the decision boundary where decay() is called), compact() applies the pending
+ * decay to every entry and drops the keys that have decayed to zero visits, so a long-lived table does not keep
+ * growing with keys that are no longer used.
+ * <p>
+ * This is not thread-safe.
+ */
+public class MASTTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_GENERATIONS = 8;
+
+    private final PlayerTable[] tables;
+    private int generation;
+    private final double[] gammas = new double[MAX_GENERATIONS];  // gammas[g] is applied to entries at generation g
+
+    public MASTTable(int nPlayers) {
+        tables = new PlayerTable[nPlayers];
+        for (int p = 0; p < nPlayers; p++)
+            tables[p] = new PlayerTable();
+    }
+
+    public int nPlayers() {
+        return tables.length;
+    }
+
+    /**
+     * Adds one visit with the given value to the key for the player
+     */
+    public void update(int player, Object key, double value) {
+        PlayerTable table = tables[player];
+        int slot = table.findOrInsert(key);
+        table.counts[slot]++;
+        table.values[slot] += value;
+    }
+
+    /**
+     * @return the number of visits to the key for the player (after any decay)
+     */
+    public int visits(int player, Object key) {
+        PlayerTable table = tables[player];
+        int slot = table.find(key);
+        return slot < 0 ? 0 : table.counts[slot];
+    }
+
+    /**
+     * @return the total value of the key for the player (after any decay)
+     */
+    public double totalValue(int player, Object key) {
+        PlayerTable table = tables[player];
+        int slot = table.find(key);
+        return slot < 0 ? 0.0 : table.values[slot];
+    }
+
+    /**
+     * @return the mean value of the key for the player, or defaultValue if it has no visits
+     */
+    public double mean(int player, Object key, double defaultValue) {
+        PlayerTable table = tables[player];
+        int slot = table.find(key);
+        if (slot < 0 || table.counts[slot] == 0)
+            return defaultValue;
+        return table.values[slot] / table.counts[slot];
+    }
+
+    /**
+     * Decays all the statistics by gamma. Values of gamma outside [0, 1) leave them unchanged.
+     */
+    public void decay(double gamma) {
+        if (gamma < 0.0 || gamma >= 1.0)
+            return;
+        if (generation == MAX_GENERATIONS)
+            compact();
+        gammas[generation] = gamma;
+        generation++;
+    }
+
+    /**
+     * Applies any pending decay to every entry, and removes the keys that have decayed to zero visits
+     * (as these have no effect on visits() or mean()). The generation count then starts again from zero.
+     */
+    public void compact() {
+        for (PlayerTable table : tables)
+            table.compact();
+        generation = 0;
+    }
+
+    /**
+     * @return the number of keys held for the player (including any that have decayed to zero visits since the
+     * last compact())
+     */
+    public int size(int player) {
+        return tables[player].size;
+    }
+
+    public void clear() {
+        for (int p = 0; p < tables.length; p++)
+            tables[p] = new PlayerTable();
+        generation = 0;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private class PlayerTable {
+        Object[] keys = new Object[INITIAL_CAPACITY];
+        int[] hashes = new int[INITIAL_CAPACITY];
+        int[] counts = new int[INITIAL_CAPACITY];
+        double[] values = new double[INITIAL_CAPACITY];
+        int[] generations = new int[INITIAL_CAPACITY];
+        int size;
+
+        /**
+         * @return the slot of the key (brought up to date with any decay), or -1 if it is not in the table
+         */
+        int find(Object key) {
+            int hash = spread(key.hashCode());
+            int mask = keys.length - 1;
+            for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && keys[slot].equals(key)) {
+                    catchUp(slot);
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int findOrInsert(Object key) {
+            int hash = spread(key.hashCode());
+            int mask = keys.length - 1;
+            int slot = hash & mask;
+            for (; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && keys[slot].equals(key)) {
+                    catchUp(slot);
+                    return slot;
+                }
+            }
+            if (2 * (size + 1) > keys.length) {
+                resize();
+                return findOrInsert(key);
+            }
+            keys[slot] = key instanceof AbstractAction ? ((AbstractAction) key).copy() : key;
+            hashes[slot] = hash;
+            generations[slot] = generation;
+            size++;
+            return slot;
+        }
+
+        private void catchUp(int slot) {
+            int count = counts[slot];
+            double value = values[slot];
+            for (int g = generations[slot]; g < generation && count > 0; g++) {
+                int newCount = (int) (count * gammas[g]);
+                value = value * newCount / count;
+                count = newCount;
+            }
+            if (count == 0)
+                value = 0.0;
+            counts[slot] = count;
+            values[slot] = value;
+            generations[slot] = generation;
+        }
+
+        void compact() {
+            int live = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] == null)
+                    continue;
+                catchUp(slot);
+                if (counts[slot] > 0)
+                    live++;
+            }
+            int capacity = INITIAL_CAPACITY;
+            while (2 * live > capacity)
+                capacity *= 2;
+            rehash(capacity, true);
+            size = live;
+        }
+
+        private void resize() {
+            rehash(keys.length * 2, false);
+        }
+
+        private void rehash(int capacity, boolean dropUnvisited) {
+            Object[] oldKeys = keys;
+            int[] oldHashes = hashes, oldCounts = counts, oldGenerations = generations;
+            double[] oldValues = values;
+            keys = new Object[capacity];
+            hashes = new int[capacity];
+            counts = new int[capacity];
+            values = new double[capacity];
+            generations = new int[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null || (dropUnvisited && oldCounts[i] == 0))
+                    continue;
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null)
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                counts[slot] = oldCounts[i];
+                values[slot] = oldValues[i];
+                generations[slot] = dropUnvisited ? 0 : oldGenerations[i];
+            }
+        }
+    }
+}
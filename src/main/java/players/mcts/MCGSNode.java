@@ -2,14 +2,24 @@ package players.mcts;
 
 import core.AbstractGameState;
 import core.actions.AbstractAction;
+import core.interfaces.ILongStateKey;
+import utilities.LongHashMap;
 
 import java.util.*;
 
 public class MCGSNode extends SingleTreeNode {
 
+    // With an ILongStateKey the root creates a LongHashMap instead, so that keys need not be boxed for look-ups
     private Map<Object, MCGSNode> transpositionMap = new HashMap<>();
     public List<Object> trajectory = new ArrayList<>();
     protected List<Object> keysTorRemove = new ArrayList<>();
+    // With MCGSCheckCollisions, the positionHashCode() of the state this node was created for. For games that override
+    // _positionHash() this ignores the game tick (as the keys do), so a transposition reached in a different number of
+    // moves is not counted as a collision.
+    private int stateHashCode;
+    // On the root, with MCGSCheckCollisions: the number of times a state was matched to an existing node, and the
+    // number of these where the node was created for a state with a different positionHashCode() (a key collision)
+    int keyChecks, keyCollisions;
 
     protected MCGSNode() {
     }
@@ -18,13 +28,27 @@ public class MCGSNode extends SingleTreeNode {
     @Override
     protected void instantiate(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state) {
         super.instantiate(parent, actionToReach, state);
+        if (parent == null && params.MCGSStateKey instanceof ILongStateKey && transpositionMap.isEmpty())
+            transpositionMap = new LongHashMap<>();
+        if (params.MCGSCheckCollisions)
+            stateHashCode = state.positionHashCode();
         // the only additional instantiation we need to do is to add the state to the transposition table
         addToTranspositionTable(this, state);
     }
 
     private void addToTranspositionTable(MCGSNode node, AbstractGameState keyState) {
-        Object key = params.MCGSStateKey.getKey(keyState);
         MCGSNode graphRoot = (MCGSNode) root;
+        if (graphRoot.transpositionMap instanceof LongHashMap<MCGSNode> longMap) {
+            long key = ((ILongStateKey) params.MCGSStateKey).getLongKey(keyState);
+            MCGSNode existing = longMap.get(key);
+            if (existing == null)
+                longMap.put(key, node);
+            else if (existing != node)
+                throw new AssertionError("We have found a clash in the transposition table for key: " + key +
+                        ". We are expanding a new node, and this key already exists in the transposition table, but it is not the same node.");
+            return;
+        }
+        Object key = params.MCGSStateKey.getKey(keyState);
         if (graphRoot.transpositionMap.containsKey(key)) {
             if (graphRoot.transpositionMap.get(key) != node) {
                 throw new AssertionError("We have found a clash in the transposition table for key: " + key +
@@ -35,6 +59,22 @@ public class MCGSNode extends SingleTreeNode {
         }
     }
 
+    /**
+     * @return the node in the transposition table for the state, or null if there is none
+     */
+    private MCGSNode lookUp(AbstractGameState keyState) {
+        MCGSNode graphRoot = (MCGSNode) root;
+        MCGSNode node = graphRoot.transpositionMap instanceof LongHashMap<MCGSNode> longMap ?
+                longMap.get(((ILongStateKey) params.MCGSStateKey).getLongKey(keyState)) :
+                graphRoot.transpositionMap.get(params.MCGSStateKey.getKey(keyState));
+        if (node != null && params.MCGSCheckCollisions) {
+            graphRoot.keyChecks++;
+            if (node.stateHashCode != keyState.positionHashCode())
+                graphRoot.keyCollisions++;
+        }
+        return node;
+    }
+
     /**
      * Expands the node by creating a new child node for the action taken and adding to the tree.
      *
@@ -46,15 +86,13 @@ public class MCGSNode extends SingleTreeNode {
 
         // we create the new node here; so that the backup does not create new nodes (which is in line with the main MCTS algorithm).
         // this enforces (for the moment) the rule that each iteration adds one new node.
-        MCGSNode graphRoot = (MCGSNode) root;
-        Object key = params.MCGSStateKey.getKey(nextState);
-        if (graphRoot.transpositionMap.containsKey(key)) {
+        MCGSNode existing = lookUp(nextState);
+        if (existing != null) {
             if (params.MCGSExpandAfterClash) {
                 throw new AssertionError("Unexpected?");
             } else {
-                MCGSNode retValue = graphRoot.transpositionMap.get(key);
-                retValue.setActionsFromOpenLoopState(openLoopState);
-                return retValue;
+                existing.setActionsFromOpenLoopState(openLoopState);
+                return existing;
             }
         }
         return createChildNode(actionCopy, nextState);
@@ -63,8 +101,7 @@ public class MCGSNode extends SingleTreeNode {
     @Override
     protected SingleTreeNode nextNodeInTree(AbstractAction actionChosen) {
         // we look up the node in the transposition table using the feature vector for the openLoopState
-        Object key = params.MCGSStateKey.getKey(openLoopState);
-        MCGSNode nextNode = ((MCGSNode) root).transpositionMap.get(key);
+        MCGSNode nextNode = lookUp(openLoopState);
 
         if (nextNode != null) {
             if (actionValues.get(actionChosen).nVisits == 0) {
@@ -99,6 +136,13 @@ public class MCGSNode extends SingleTreeNode {
         super.advanceState(gs, act, inRollout);
     }
 
+    @Override
+    protected void initialiseRootMetrics() {
+        super.initialiseRootMetrics();
+        keyChecks = 0;
+        keyCollisions = 0;
+    }
+
     @Override
     protected void resetDepth(SingleTreeNode unusedArgument) {
         int depthDelta = depth;
@@ -6,6 +6,8 @@ import evaluation.listeners.MetricsGameListener;
 import evaluation.metrics.AbstractMetric;
 import evaluation.metrics.Event;
 import evaluation.metrics.IMetricsCollection;
+import players.SearchProfiler;
+import players.heuristics.CachedStateHeuristic;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,11 +35,16 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("PlayerID", e.state.getCurrentPlayer());
                 records.put("Iterations", root.getVisits());
                 records.put("ReusedVisits", mctsPlayer.root.inheritedVisits);
+                records.put("PonderIterations", mctsPlayer.lastPonderIterations);
+                records.put("PonderReusedVisits", mctsPlayer.ponderReusedVisits);
                 records.put("MaxDepth", treeStats.depthReached);
                 records.put("MeanLeafDepth", treeStats.meanLeafDepth);
                 records.put("MeanNodeDepth", treeStats.meanNodeDepth);
                 records.put("Nodes", treeStats.totalNodes);
                 records.put("LeafNodes", treeStats.totalLeaves);
+                records.put("PeakNodes", treeStats.peakNodes);
+                records.put("PrunedNodes", treeStats.prunedNodes);
+                records.put("PruneEvents", treeStats.pruneEvents);
                 records.put("OneActionNodes", treeStats.oneActionNodes);
                 records.put("MeanActionsAtNode", treeStats.meanActionsAtNode);
                 records.put("MeanActionsExpanded", treeStats.meanActionsExpanded);
@@ -49,6 +56,9 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("ActionsAtRoot", root.actionValues.size());
                 records.put("fmCalls", mctsPlayer.root.fmCallsCount / visits);
                 records.put("copyCalls", mctsPlayer.root.copyCount / visits);
+                records.put("Determinisations", mctsPlayer.root.determinisations);
+                CachedStateHeuristic cache = mctsPlayer.getParameters().getHeuristicCache();
+                records.put("HeuristicCacheHitRate", cache == null ? 0.0 : cache.hitRate());
                 records.put("time", mctsPlayer.root.timeTaken);
                 records.put("initTime", mctsPlayer.root.initialisationTimeTaken);
                 return true;
@@ -68,11 +78,16 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("PlayerID", Integer.class);
             cols.put("Iterations", Integer.class);
             cols.put("ReusedVisits", Integer.class); // visits from reused tree
+            cols.put("PonderIterations", Integer.class); // iterations run while pondering before this decision
+            cols.put("PonderReusedVisits", Integer.class); // visits from the pondered tree (included in ReusedVisits)
             cols.put("MaxDepth", Integer.class);
             cols.put("MeanLeafDepth", Double.class);
             cols.put("MeanNodeDepth", Double.class);
             cols.put("Nodes", Integer.class);
             cols.put("LeafNodes", Integer.class);
+            cols.put("PeakNodes", Integer.class); // the most nodes in the tree during the search
+            cols.put("PrunedNodes", Integer.class); // nodes pruned to keep within maxTreeNodes / maxTreeMB
+            cols.put("PruneEvents", Integer.class);
             cols.put("OneActionNodes", Integer.class);
             cols.put("MeanActionsAtNode", Double.class);
             cols.put("MeanActionsExpanded", Double.class);
@@ -83,6 +98,8 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("ActionsAtRoot", Integer.class);
             cols.put("fmCalls", Integer.class);
             cols.put("copyCalls", Integer.class);
+            cols.put("Determinisations", Integer.class); // full redeterminisations of the root state in the search
+            cols.put("HeuristicCacheHitRate", Double.class); // cumulative, if PlayerParameters.heuristicCacheMB is set
             cols.put("time", Double.class);
             cols.put("initTime", Double.class);
             return cols;
@@ -90,6 +107,38 @@ public class MCTSMetrics implements IMetricsCollection {
     }
 
 
+    /**
+     * Per-decision phase timings and histograms (see SearchProfiler). Only recorded if profileSampleRate > 0.
+     */
+    public static class SearchProfile extends AbstractMetric {
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof MCTSPlayer mctsPlayer && mctsPlayer.profiler.isEnabled()) {
+                records.put("PlayerType", mctsPlayer.toString());
+                records.put("PlayerID", e.state.getCurrentPlayer());
+                mctsPlayer.profiler.addTo(records);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> cols = new LinkedHashMap<>();
+            cols.put("PlayerType", String.class);
+            cols.put("PlayerID", Integer.class);
+            cols.putAll(SearchProfiler.columns());
+            return cols;
+        }
+    }
+
     public static class MultiTreeStats extends AbstractMetric {
 
         @Override
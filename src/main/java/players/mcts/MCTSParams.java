@@ -59,6 +59,9 @@ public class MCTSParams extends PlayerParameters {
     public IActionKey MASTActionKey;
     public IStateKey MCGSStateKey;
     public boolean MCGSExpandAfterClash = true;
+    // If true, MCGS counts how often a state is matched to a node created for a state with a different hashCode()
+    // (reported in TreeStatistics); this costs a hashCode() on every look-up, so is for checking keys only
+    public boolean MCGSCheckCollisions = false;
     public double firstPlayUrgency = 1e6;
     @NotNull public IActionHeuristic actionHeuristic = IActionHeuristic.nullReturn;
     public int actionHeuristicRecalculationThreshold = 20;
@@ -73,6 +76,16 @@ public class MCTSParams extends PlayerParameters {
     public MCTSEnums.BackupPolicy backupPolicy = MCTSEnums.BackupPolicy.MonteCarlo;
     public double backupLambda = 1.0;
     public int maxBackupThreshold = 1000000;
+    public boolean ponder = false;  // if true (and reuseTree), search continues on a background thread during opponents' turns
+    public boolean ponderInCompetition = false;  // pondering is switched off in competitionMode unless this is also true
+    public int ponderMaxIterations = 100000;  // upper limit on the size of the tree built while pondering
+    public int leafBatchSize = 1;  // if > 1 (and heuristic is an IBatchStateHeuristic), leaf states are evaluated in batches of this size
+    public int determinisationPool = 0;  // if > 0, Information_Set samples this many determinisations per decision, and iterations cycle through them
+    public int determinisationRefresh = 0;  // if > 0, one member of the determinisation pool is re-sampled every this many iterations
+    public boolean determinisationBackground = false;  // if true, the determinisation pool is filled on a background thread
+    public int maxTreeNodes = 0;  // if > 0, the least-visited subtrees are pruned when the tree grows beyond this many nodes
+    public double maxTreeMB = 0.0;  // if > 0, as maxTreeNodes, with the limit estimated from treeNodeKB
+    public double treeNodeKB = 16.0;  // estimated memory per node (mostly the game state it holds), for maxTreeMB
     public Class<?> instantiationClass;
 
     public MCTSParams() {
@@ -111,6 +124,7 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("MASTDefaultValue", 0.0);
         addTunableParameter("MCGSStateKey", IStateKey.class);
         addTunableParameter("MCGSExpandAfterClash", true);
+        addTunableParameter("MCGSCheckCollisions", false);
         addTunableParameter("FPU", 1e6);
         addTunableParameter("actionHeuristic", IActionHeuristic.class,  IActionHeuristic.nullReturn);
         addTunableParameter("progressiveBias", 0.0);
@@ -122,6 +136,16 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("backupPolicy", MCTSEnums.BackupPolicy.MonteCarlo, Arrays.asList(MCTSEnums.BackupPolicy.values()));
         addTunableParameter("backupLambda", 1.0);
         addTunableParameter("maxBackupThreshold", 1000000);
+        addTunableParameter("leafBatchSize", 1);
+        addTunableParameter("determinisationPool", 0, Arrays.asList(0, 1, 4, 16, 64));
+        addTunableParameter("determinisationRefresh", 0, Arrays.asList(0, 10, 100));
+        addTunableParameter("determinisationBackground", false);
+        addTunableParameter("ponder", false);
+        addTunableParameter("ponderInCompetition", false);
+        addTunableParameter("ponderMaxIterations", 100000);
+        addTunableParameter("maxTreeNodes", 0);
+        addTunableParameter("maxTreeMB", 0.0);
+        addTunableParameter("treeNodeKB", 16.0);
         addTunableParameter("instantiationClass", "players.mcts.MCTSPlayer");
     }
 
@@ -168,6 +192,7 @@ public class MCTSParams extends PlayerParameters {
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
         MCGSStateKey = (IStateKey) getParameterValue("MCGSStateKey");
         MCGSExpandAfterClash = (boolean) getParameterValue("MCGSExpandAfterClash");
+        MCGSCheckCollisions = (boolean) getParameterValue("MCGSCheckCollisions");
         rolloutPolicyParams = (TunableParameters) getParameterValue("rolloutPolicyParams");
         opponentModelParams = (TunableParameters) getParameterValue("opponentModelParams");
         // we then null those elements of params which are constructed (lazily) from the above
@@ -178,6 +203,16 @@ public class MCTSParams extends PlayerParameters {
         backupPolicy = (MCTSEnums.BackupPolicy) getParameterValue("backupPolicy");
         backupLambda = (double) getParameterValue("backupLambda");
         maxBackupThreshold = (int) getParameterValue("maxBackupThreshold");
+        leafBatchSize = (int) getParameterValue("leafBatchSize");
+        determinisationPool = (int) getParameterValue("determinisationPool");
+        determinisationRefresh = (int) getParameterValue("determinisationRefresh");
+        determinisationBackground = (boolean) getParameterValue("determinisationBackground");
+        ponder = (boolean) getParameterValue("ponder");
+        ponderInCompetition = (boolean) getParameterValue("ponderInCompetition");
+        ponderMaxIterations = (int) getParameterValue("ponderMaxIterations");
+        maxTreeNodes = (int) getParameterValue("maxTreeNodes");
+        maxTreeMB = ((Number) getParameterValue("maxTreeMB")).doubleValue();
+        treeNodeKB = ((Number) getParameterValue("treeNodeKB")).doubleValue();
         try {
             instantiationClass = Class.forName((String) getParameterValue("instantiationClass"));
         } catch (ClassNotFoundException e) {
@@ -205,6 +240,20 @@ public class MCTSParams extends PlayerParameters {
         return new MCTSParams();
     }
 
+    /**
+     * The maximum number of nodes in the search tree, from maxTreeNodes and maxTreeMB (whichever is lower if both are
+     * set), or 0 if there is no limit.
+     * The memory used by a node depends mostly on the size of the game state it holds, from about 2KB for a small
+     * game in Closed_Loop to several hundred KB in Open_Loop for a game with a large state; so treeNodeKB should be
+     * set for the game if maxTreeMB is used.
+     */
+    public int nodeBudget() {
+        int budget = maxTreeNodes > 0 ? maxTreeNodes : Integer.MAX_VALUE;
+        if (maxTreeMB > 0.0)
+            budget = (int) Math.min(budget, Math.max(1.0, maxTreeMB * 1024 / treeNodeKB));
+        return budget == Integer.MAX_VALUE ? 0 : budget;
+    }
+
     public AbstractPlayer getOpponentModel() {
         if (opponentModel == null) {
             if (oppModelType == PARAMS)
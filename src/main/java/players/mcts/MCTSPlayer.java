@@ -6,12 +6,12 @@ import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import core.interfaces.IActionHeuristic;
 import evaluation.listeners.IGameListener;
+import core.interfaces.IHasStateHeuristic;
 import core.interfaces.IStateHeuristic;
 import evaluation.metrics.Event;
-import llm.IHasStateHeuristic;
 import players.IAnyTimePlayer;
+import players.SearchProfiler;
 import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
 import java.util.function.BiFunction;
@@ -28,9 +28,18 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
     protected boolean debug = false;
     protected SingleTreeNode root;
     protected Pair<Integer, AbstractAction> lastAction;
-    List<Map<Object, Pair<Integer, Double>>> MASTStats;
+    MASTTable MASTStats;
     protected Map<Object, Integer> oldGraphKeys = new HashMap<>();
     protected List<Object> recentlyRemovedKeys = new ArrayList<>();
+    // Pondering: a separate tree searched on a background thread from the state after our last action
+    protected SingleTreeNode ponderRoot;
+    protected Thread ponderThread;
+    protected volatile boolean stopPondering;
+    protected volatile boolean ponderFailed;
+    protected boolean rootIncludesLastAction;
+    protected int ponderIterations, lastPonderIterations, ponderReusedVisits;
+    // Phase timings for the most recent decision (if profileSampleRate > 0)
+    protected final SearchProfiler profiler = new SearchProfiler();
 
     public MCTSPlayer() {
         this(new MCTSParams());
@@ -50,8 +59,15 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
         return (MCTSParams) parameters;
     }
 
+    public SearchProfiler getProfiler() {
+        return profiler;
+    }
+
     @Override
     public void initializePlayer(AbstractGameState state) {
+        stopPondering();
+        ponderRoot = null;
+        rootIncludesLastAction = false;
         if (getParameters().resetSeedEachGame) {
             rnd = new Random(parameters.getRandomSeed());
             getParameters().rolloutPolicy = null;
@@ -88,6 +104,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
     @Override
     public void registerUpdatedObservation(AbstractGameState gameState) {
         super.registerUpdatedObservation(gameState);
+        stopPondering();
         if (!getParameters().reuseTree) {
             root = null;
         }
@@ -124,6 +141,17 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
     protected SingleTreeNode newRootNode(AbstractGameState gameState) {
         MCTSParams params = getParameters();
         recentlyRemovedKeys.clear();
+        ponderReusedVisits = 0;
+        lastPonderIterations = 0;
+        if (ponderRoot != null) {
+            // the tree built while pondering starts after our last action, so it replaces the one from our last decision
+            if (!ponderFailed) {
+                root = ponderRoot;
+                rootIncludesLastAction = true;
+                lastPonderIterations = ponderIterations;
+            }
+            ponderRoot = null;
+        }
         if (params.reuseTree && (params.opponentTreePolicy == MCGS || params.opponentTreePolicy == MCGSSelfOnly)) {
             // In this case we remove any nodes from the graph that were not present before the last action was taken
             MCGSNode mcgsRoot = (MCGSNode) root;
@@ -175,6 +203,9 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
                 return newMultiTreeRootNode(gameState);
 
             newRoot = backtrack(root, gameState);
+            if (rootIncludesLastAction && newRoot != null)
+                ponderReusedVisits = newRoot.nVisits;
+            rootIncludesLastAction = false;
 
             if (root == newRoot)
                 throw new AssertionError("Root node should not be the same as the new root node");
@@ -214,7 +245,9 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
                 foundPointInHistory = true;
                 if (debug)
                     System.out.println("Matching action found at " + backwardLoop + " of " + history.size() + " - tracking forward");
-                for (int forwardLoop = backwardLoop; forwardLoop < history.size(); forwardLoop++) {
+                // if the root already has our last action applied (pondering), then we start from the next one
+                int firstAction = startingRoot == root && rootIncludesLastAction ? backwardLoop + 1 : backwardLoop;
+                for (int forwardLoop = firstAction; forwardLoop < history.size(); forwardLoop++) {
                     if (selfOnly && history.get(forwardLoop).a != rootPlayer)
                         continue; // we only care about our actions
                     AbstractAction action = history.get(forwardLoop).b;
@@ -252,10 +285,10 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
         } else {
             root = newRoot;
         }
-        if (MASTStats != null && getParameters().MASTGamma > 0.0)
-            root.MASTStatistics = MASTStats.stream()
-                    .map(m -> Utils.decay(m, getParameters().MASTGamma))
-                    .collect(Collectors.toList());
+        if (MASTStats != null && getParameters().MASTGamma > 0.0) {
+            MASTStats.decay(getParameters().MASTGamma);
+            root.MASTStatistics = MASTStats;
+        }
 
         if (getParameters().getRolloutStrategy() instanceof IMASTUser) {
             ((IMASTUser) getParameters().getRolloutStrategy()).setMASTStats(root.MASTStatistics);
@@ -267,9 +300,13 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
 
     @Override
     public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
+        stopPondering();
+        profiler.reset(getParameters().profileSampleRate);
         // Search for best action from the root
         long currentTimeNano = System.nanoTime();
         createRootNode(gameState);
+        // a reused (or pondered) root may have been created with a different profiler
+        root.profiler = profiler;
         long timeTaken = System.nanoTime() - currentTimeNano;
 
         root.mctsSearch(timeTaken / 1000000);
@@ -294,11 +331,67 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer, IHasSt
         if (root.children.size() > 3 * actions.size() && !(root instanceof MCGSNode) && !getParameters().reuseTree && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
             throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()));
         lastAction = new Pair<>(gameState.getCurrentPlayer(), root.bestAction());
+        if (ponderingAllowed(gameState))
+            startPondering(gameState);
         return lastAction.b.copy();
     }
 
+    protected boolean ponderingAllowed(AbstractGameState gameState) {
+        MCTSParams params = getParameters();
+        // Pondering builds a tree rooted at an opponent's decision, so we need a tree that includes their actions
+        if (!params.ponder || !params.reuseTree || params.opponentTreePolicy != OneTree)
+            return false;
+        return !gameState.getCoreGameParameters().competitionMode || params.ponderInCompetition;
+    }
+
+    /**
+     * Starts a background search from the state reached after our chosen action. This uses its own tree, copy of
+     * the state and Random, so nothing is shared with the tree from our decision (which listeners may still inspect).
+     * The tree is grafted in when we next decide (see newRootNode()), by backtracking through the actions
+     * taken since.
+     */
+    protected void startPondering(AbstractGameState gameState) {
+        AbstractGameState ponderState = gameState.copy();
+        getForwardModel().next(ponderState, lastAction.b.copy());
+        // nothing to ponder if the game is over, or we immediately decide again
+        if (!ponderState.isNotTerminal() || ponderState.getCurrentPlayer() == getPlayerID())
+            return;
+        SingleTreeNode newPonderRoot = SingleTreeNode.createRootNode(this, ponderState, new Random(rnd.nextLong()), getFactory());
+        newPonderRoot.setRedeterminisationPlayer(getPlayerID());
+        newPonderRoot.profiler = SearchProfiler.DISABLED;  // the profiler is not thread-safe, and only covers decisions
+        ponderRoot = newPonderRoot;
+        stopPondering = false;
+        ponderFailed = false;
+        ponderIterations = 0;
+        int maxIterations = getParameters().ponderMaxIterations;
+        ponderThread = new Thread(() -> {
+            try {
+                ponderIterations = newPonderRoot.ponderSearch(() -> stopPondering, maxIterations);
+            } catch (RuntimeException | AssertionError e) {
+                // the tree may be part-way through an iteration, so we discard it
+                ponderFailed = true;
+            }
+        }, "MCTSPonder-" + this);
+        ponderThread.setDaemon(true);
+        ponderThread.start();
+    }
+
+    protected void stopPondering() {
+        if (ponderThread == null)
+            return;
+        stopPondering = true;
+        try {
+            ponderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ponderThread = null;
+    }
+
     @Override
     public void finalizePlayer(AbstractGameState state) {
+        stopPondering();
+        ponderRoot = null;
         getParameters().getRolloutStrategy().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         getParameters().getOpponentModel().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (getParameters().heuristic instanceof IGameListener)
@@ -3,6 +3,7 @@ package players.mcts;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
 import utilities.Pair;
 import utilities.Utils;
 
@@ -10,6 +11,8 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static players.SearchProfiler.Phase.*;
+
 /**
  * MultiTreeNode is really a wrapper for SingleTreeNode when we are using MultiTree MCTS.
  * In this case we maintain a separate tree for each player as a form of opponent modelling.
@@ -39,9 +42,7 @@ public class MultiTreeNode extends SingleTreeNode {
         this.rnd = rnd;
         mctsPlayer = player;
         // only root node maintains MAST statistics
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTTable(state.getNPlayers());
         if (params.useMASTAsActionHeuristic) {
             params.actionHeuristic = new MASTActionHeuristic(params.MASTActionKey, params.MASTDefaultValue);
             ((MASTActionHeuristic) params.actionHeuristic).setMASTStats(MASTStatistics);
@@ -100,7 +101,9 @@ public class MultiTreeNode extends SingleTreeNode {
                 // note that different players will enter rollout at different times, which is why
                 // we cannot have a simple rollout() method as in SingleTree search
                 AbstractPlayer agent = currentActor == decisionPlayer ? params.getRolloutStrategy() : params.getOpponentModel();
+                long t = profiler.start(ComputeActions);
                 List<AbstractAction> availableActions = forwardModel.computeAvailableActions(currentState, mctsPlayer.getParameters().actionSpace);
+                profiler.stop(ComputeActions, t);
                 if (availableActions.isEmpty())
                     throw new AssertionError("We should always have something to choose from");
 
@@ -131,9 +134,12 @@ public class MultiTreeNode extends SingleTreeNode {
         // Evaluate final state and return normalised score
         double[] finalValues = new double[state.getNPlayers()];
 
+        long t = profiler.start(Heuristic);
+        IStateHeuristic heuristic = params.cached(params.heuristic);
         for (int i = 0; i < finalValues.length; i++) {
-            finalValues[i] = params.heuristic.evaluateState(currentState, i);
+            finalValues[i] = heuristic.evaluateState(currentState, i);
         }
+        profiler.stop(Heuristic, t);
         for (int p = 0; p < roots.length; p++) {
             if (currentLocation[p] != null) { // the currentLocation will be null if the player has not acted at all (if, say they have been eliminated)
                 // the full actions in tree and rollout are stored on the overall root
@@ -3,7 +3,10 @@ package players.mcts;
 import core.*;
 import core.actions.AbstractAction;
 import core.interfaces.IActionHeuristic;
+import core.interfaces.IStateHeuristic;
+import core.interfaces.IBatchStateHeuristic;
 import players.PlayerConstants;
+import players.SearchProfiler;
 import utilities.*;
 
 import java.util.*;
@@ -12,6 +15,7 @@ import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.*;
 import static players.PlayerConstants.*;
+import static players.SearchProfiler.Phase.*;
 import static players.mcts.MCTSEnums.Information.Closed_Loop;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.RolloutTermination.EXACT;
@@ -52,6 +56,9 @@ public class SingleTreeNode {
     // the id of the player who makes the decision at this node
     protected int decisionPlayer;
     protected int redeterminisationPlayer = -1;
+    // pre-sampled determinisations of the root state for Information_Set (only if params.determinisationPool > 0)
+    protected DeterminisationPool determinisationPool;
+    protected int determinisations;  // the number of full redeterminisations in the last search
     protected int round, turn, turnOwner;
     boolean terminalNode;
     double timeTaken;
@@ -69,7 +76,7 @@ public class SingleTreeNode {
     // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
     Map<AbstractAction, SingleTreeNode[]> children = new LinkedHashMap<>();
     Map<AbstractAction, ActionStats> actionValues = new HashMap<>();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    MASTTable MASTStatistics; // per player: Action (or key) -> (visits, totValue)
     // ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
     private Supplier<? extends SingleTreeNode> factory;
@@ -77,6 +84,25 @@ public class SingleTreeNode {
     protected List<SingleTreeNode> currentNodeTrajectory;
     protected List<Pair<Integer, AbstractAction>> actionsInTree;
     List<Pair<Integer, AbstractAction>> actionsInRollout;
+    // Leaves awaiting batch evaluation (only used on the root, and only when leafBatchSize > 1)
+    protected List<PendingLeaf> pendingLeaves = new ArrayList<>();
+    // Phase timings for the current decision (only used on the root; all nodes record via root.profiler)
+    protected SearchProfiler profiler = SearchProfiler.DISABLED;
+    // The number of nodes in the tree, the most there were in the last search, and how many were pruned to keep within
+    // MCTSParams.nodeBudget() (only used on the root)
+    protected int treeSize = 1, peakTreeSize, prunedNodes, pruneEvents;
+
+    /**
+     * A leaf state reached by an iteration whose evaluation has been deferred, together with the
+     * trajectory needed to back up the result once the evaluation is available.
+     */
+    protected record PendingLeaf(SingleTreeNode selected, AbstractGameState leafState,
+                                 List<SingleTreeNode> nodeTrajectory,
+                                 List<Pair<Integer, AbstractAction>> treeActions,
+                                 List<Pair<Integer, AbstractAction>> rolloutActions,
+                                 List<List<AbstractAction>> availableActions,
+                                 double virtualLoss) {
+    }
 
     protected SingleTreeNode() {
     }
@@ -89,10 +115,9 @@ public class SingleTreeNode {
         retValue.params = player.getParameters();
         retValue.forwardModel = player.getForwardModel();
         retValue.rnd = rnd;
+        retValue.profiler = player.profiler;
         // only root node maintains MAST statistics
-        retValue.MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
+        retValue.MASTStatistics = new MASTTable(state.getNPlayers());
         if (retValue.params.useMASTAsActionHeuristic) {
             retValue.params.actionHeuristic = new MASTActionHeuristic(retValue.params.MASTActionKey, retValue.params.MASTDefaultValue);
             ((MASTActionHeuristic) retValue.params.actionHeuristic).setMASTStats(retValue.MASTStatistics);
@@ -122,7 +147,9 @@ public class SingleTreeNode {
             // these master copies *are* required if we want to do something funky with the final tree, and gather
             // features from the nodes - if we are gathering Expert Iteration data or Learning an Advantage function
             root.copyCount++;
+            long t = root.profiler.start(Copy);
             this.state = rootState.copy();
+            root.profiler.stop(Copy, t);
         } else {
             this.state = rootState;
         }
@@ -157,9 +184,7 @@ public class SingleTreeNode {
         highReward = template.highReward;
         lowReward = template.lowReward;
         inheritedVisits = nVisits;
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < template.MASTStatistics.size(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTTable(template.MASTStatistics.nPlayers());
     }
 
     protected void resetDepth(SingleTreeNode newRoot) {
@@ -197,7 +222,9 @@ public class SingleTreeNode {
     protected void setActionsFromOpenLoopState(AbstractGameState actionState) {
         openLoopState = actionState;
         if (actionState.getCurrentPlayer() == this.decisionPlayer && actionState.isNotTerminalForPlayer(decisionPlayer)) {
+            long t = root.profiler.start(ComputeActions);
             actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace);
+            root.profiler.stop(ComputeActions, t);
             //      System.out.printf("Setting OLS actions for P%d (%d)%n%s%n", decisionPlayer, actionState.getCurrentPlayer(),
 //                actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
             if (actionsFromOpenLoopState.size() != actionsFromOpenLoopState.stream().distinct().count())
@@ -303,6 +330,9 @@ public class SingleTreeNode {
         initialisationTimeTaken = 0.0;
         nodeClash = 0;
         rolloutActionsTaken = 0;
+        determinisations = 0;
+        prunedNodes = 0;
+        pruneEvents = 0;
         regretMatchingAverage.clear();
     }
 
@@ -313,45 +343,45 @@ public class SingleTreeNode {
         initialiseRootMetrics();
         initialisationTimeTaken = initialisationTime;
         // Variables for tracking time budget
-        double avgTimeTaken;
-        long remaining;
         int remainingLimit = params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
             elapsedTimer.setMaxTimeMillis(params.budget - initialisationTime);
         }
 
+        // Leaf evaluations are batched only if the heuristic supports it, and the tree is a single one with
+        // standard trajectories (MultiTree and MCGS track their own trajectories)
+        boolean batchEvaluation = params.leafBatchSize > 1 && params.heuristic instanceof IBatchStateHeuristic
+                && params.opponentTreePolicy != MultiTree && params.opponentTreePolicy != MCGS
+                && params.opponentTreePolicy != MCGSSelfOnly;
+        pendingLeaves.clear();
+
+        // a reused tree keeps the nodes below the new root, which we need to count to keep within the budget
+        int nodeBudget = nodeBudget();
+        if (nVisits > 0)
+            treeSize = allNodesInTree().size();
+        peakTreeSize = treeSize;
+
         // Tracking number of iterations for iteration budget
         int numIters = 0;
         boolean stop = false;
         while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    setActionsFromOpenLoopState(state);
-                    break;
-                case Open_Loop:
-                    setActionsFromOpenLoopState(state.copy());
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    if (redeterminisationPlayer == -1)
-                        redeterminisationPlayer = decisionPlayer;
-                    setActionsFromOpenLoopState(state.copy(redeterminisationPlayer));
-                    copyCount++;
-                    break;
-            }
+            setIterationState();
             // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
-            oneSearchIteration();
+            if (batchEvaluation)
+                batchedSearchIteration();
+            else
+                oneSearchIteration();
 
             // Finished iteration
             numIters++;
+            checkNodeBudget(nodeBudget);
             // Check stopping condition
             PlayerConstants budgetType = params.budgetType;
             if (budgetType == BUDGET_TIME) {
-                // Time budget
-                remaining = elapsedTimer.remainingTimeMillis();
-                avgTimeTaken = (double) elapsedTimer.elapsedMillis() / numIters;
-                stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
+                // Time budget (the clock is only read every few iterations, as this is expensive for cheap iterations)
+                elapsedTimer.endIteration();
+                stop = !elapsedTimer.enoughBudgetIterationAmortised(remainingLimit);
             } else if (budgetType == BUDGET_ITERATIONS) {
                 // Iteration budget
                 stop = numIters >= params.budget;
@@ -364,9 +394,127 @@ public class SingleTreeNode {
                 stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
             }
         }
+        // any leaves still awaiting evaluation are backed up before we finish
+        evaluatePendingLeaves();
+        closeDeterminisationPool();
         timeTaken = elapsedTimer.elapsedMillis();
     }
 
+    /**
+     * Sets up the openLoopState at the root for the start of an iteration. In Closed_Loop this is the root state
+     * itself; otherwise a fresh copy (redeterminised in Information_Set).
+     */
+    protected void setIterationState() {
+        if (params.information == Closed_Loop) {
+            setActionsFromOpenLoopState(state);
+            return;
+        }
+        long t = profiler.start(Copy);
+        AbstractGameState iterationState = switch (params.information) {
+            case Open_Loop -> state.copy();
+            case Information_Set -> {
+                if (redeterminisationPlayer == -1)
+                    redeterminisationPlayer = decisionPlayer;
+                if (params.determinisationPool > 0) {
+                    if (determinisationPool == null)
+                        determinisationPool = new DeterminisationPool(state, redeterminisationPlayer,
+                                params.determinisationPool, params.determinisationRefresh, params.determinisationBackground);
+                    yield determinisationPool.nextState();
+                }
+                determinisations++;
+                yield state.copy(redeterminisationPlayer);
+            }
+            default -> throw new AssertionError("Unexpected information type " + params.information);
+        };
+        profiler.stop(Copy, t);
+        copyCount++;
+        setActionsFromOpenLoopState(iterationState);
+    }
+
+    /**
+     * Runs search iterations from this (root) node until the stop condition is true, or maxIterations is reached.
+     * This is used to ponder on a background thread during opponents' turns, so there is no budget
+     * and the root metrics are not reset (that happens when mctsSearch() is later called on the grafted subtree).
+     *
+     * @return - the number of iterations run
+     */
+    public int ponderSearch(BooleanSupplier stop, int maxIterations) {
+        int numIters = 0;
+        int nodeBudget = nodeBudget();
+        while (numIters < maxIterations && !stop.getAsBoolean()) {
+            setIterationState();
+            oneSearchIteration();
+            numIters++;
+            checkNodeBudget(nodeBudget);
+        }
+        closeDeterminisationPool();
+        return numIters;
+    }
+
+    /**
+     * The maximum number of nodes in the tree (see MCTSParams.nodeBudget()), or 0 if there is no limit.
+     * MultiTree and MCGS trees are never pruned, as their nodes are also reached from the other trees, or the
+     * transposition map.
+     */
+    protected int nodeBudget() {
+        if (params.opponentTreePolicy == MultiTree || params.opponentTreePolicy == MCGS
+                || params.opponentTreePolicy == MCGSSelfOnly)
+            return 0;
+        return params.nodeBudget();
+    }
+
+    /**
+     * Called after each iteration to record the peak size of the tree, and prune it back to three-quarters of the
+     * budget if this is exceeded. When leaf evaluations are batched, this waits until the pending leaves
+     * (whose trajectories may include any node) have been backed up.
+     */
+    protected void checkNodeBudget(int nodeBudget) {
+        if (treeSize > peakTreeSize)
+            peakTreeSize = treeSize;
+        if (nodeBudget > 0 && treeSize > nodeBudget && pendingLeaves.isEmpty())
+            pruneTree(nodeBudget * 3 / 4);
+    }
+
+    /**
+     * Detaches the least-visited subtrees (the deepest first amongst those with equal visits) until there are no
+     * more than targetSize nodes in the tree.
+     * The statistics on the edge to a detached node are kept in its parent, so if the action is selected again
+     * a new node is expanded in its place, and the search of that line starts again below it.
+     */
+    protected void pruneTree(int targetSize) {
+        List<SingleTreeNode> nodes = allNodesInTree();
+        nodes.remove(this);
+        nodes.sort(Comparator.<SingleTreeNode>comparingInt(n -> n.nVisits).thenComparingInt(n -> -n.depth));
+        Set<SingleTreeNode> detached = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SingleTreeNode node : nodes) {
+            if (treeSize <= targetSize)
+                break;
+            // nodes in a subtree already detached have been counted with it
+            if (node.matchingParent(detached::contains) != null)
+                continue;
+            SingleTreeNode[] nodeArray = node.parent.children.get(node.actionToReach);
+            for (int i = 0; i < nodeArray.length; i++)
+                if (nodeArray[i] == node)
+                    nodeArray[i] = null;
+            detached.add(node);
+            int subtreeSize = node.allNodesInTree().size();
+            treeSize -= subtreeSize;
+            prunedNodes += subtreeSize;
+        }
+        pruneEvents++;
+    }
+
+    /**
+     * The pool is only valid for the root state of one search, so it is discarded at the end of each
+     */
+    protected void closeDeterminisationPool() {
+        if (determinisationPool != null) {
+            determinisations += determinisationPool.determinisations();
+            determinisationPool.close();
+            determinisationPool = null;
+        }
+    }
+
     /**
      * oneSearchIteration() implements the strategy for tree search (plus expansion, rollouts, backup and so on)
      * Its result is purely stored in the tree generated from root
@@ -376,7 +524,9 @@ public class SingleTreeNode {
         currentNodeTrajectory = new ArrayList<>();
         actionsInRollout = new ArrayList<>();
 
+        long t = profiler.start(Selection);
         SingleTreeNode selected = treePolicy();
+        profiler.stop(Selection, t);
         if (selected == this && openLoopState.isNotTerminalForPlayer(decisionPlayer) && nVisits > 3 && !(this instanceof MCGSNode))
             throw new AssertionError("We have not expanded or selected a new node");
         // by this point (and really earlier) we should have expanded a new node.
@@ -393,6 +543,93 @@ public class SingleTreeNode {
         updateMASTStatistics(actionsInTree, actionsInRollout, delta);
     }
 
+    /**
+     * As oneSearchIteration(), but the evaluation of the leaf state reached is deferred until leafBatchSize
+     * leaves have been collected. These are then evaluated in one call to the IBatchStateHeuristic, and backed up.
+     * A virtual loss is applied along the path of each pending leaf so that subsequent iterations in the same
+     * batch are discouraged from following exactly the same trajectory.
+     */
+    protected void batchedSearchIteration() {
+        actionsInTree = new ArrayList<>();
+        currentNodeTrajectory = new ArrayList<>();
+        actionsInRollout = new ArrayList<>();
+
+        long t = profiler.start(Selection);
+        SingleTreeNode selected = treePolicy();
+        profiler.stop(Selection, t);
+        int lastActorInTree = actionsInTree.isEmpty() ? decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
+        t = profiler.start(Rollout);
+        AbstractGameState leafState = selected.rolloutToLeaf(lastActorInTree);
+        profiler.stop(Rollout, t);
+        rolloutActionsTaken += actionsInRollout.size();
+
+        // The virtual loss is the worst reward seen so far. If rewards are normalised and none have yet been seen, then
+        // we have no range to normalise against, and no virtual loss is applied (NaN)
+        double virtualLoss = Double.isFinite(lowReward) ? lowReward :
+                params.normaliseRewards ? Double.NaN : params.heuristic.minValue();
+        // In open loop the actions available at a node depend on the trajectory, and later iterations in the batch will
+        // overwrite them; so we record them as they were for this iteration
+        List<List<AbstractAction>> availableActions = new ArrayList<>(currentNodeTrajectory.size());
+        for (SingleTreeNode node : currentNodeTrajectory)
+            availableActions.add(node.actionsFromOpenLoopState);
+        PendingLeaf leaf = new PendingLeaf(selected, leafState, currentNodeTrajectory, actionsInTree, actionsInRollout,
+                availableActions, virtualLoss);
+        applyVirtualLoss(leaf, true);
+        pendingLeaves.add(leaf);
+        if (pendingLeaves.size() >= params.leafBatchSize)
+            evaluatePendingLeaves();
+    }
+
+    /**
+     * Evaluates all pending leaves with a single call to the batch heuristic, and then backs up each result
+     * (in the order the leaves were reached).
+     */
+    protected void evaluatePendingLeaves() {
+        if (pendingLeaves.isEmpty())
+            return;
+        List<AbstractGameState> states = new ArrayList<>(pendingLeaves.size());
+        for (PendingLeaf leaf : pendingLeaves) {
+            applyVirtualLoss(leaf, false);
+            states.add(leaf.leafState());
+        }
+        long t = profiler.start(Heuristic);
+        double[][] values = ((IBatchStateHeuristic) params.heuristic).evaluateStates(states);
+        profiler.stop(Heuristic, t);
+        for (int i = 0; i < pendingLeaves.size(); i++) {
+            PendingLeaf leaf = pendingLeaves.get(i);
+            checkHeuristicValues(values[i]);
+            // backUp() and MAST work from the trajectory stored on the root, so we restore this first
+            currentNodeTrajectory = leaf.nodeTrajectory();
+            actionsInTree = leaf.treeActions();
+            actionsInRollout = leaf.rolloutActions();
+            for (int n = 0; n < currentNodeTrajectory.size(); n++)
+                currentNodeTrajectory.get(n).actionsFromOpenLoopState = leaf.availableActions().get(n);
+            leaf.selected().backUp(values[i]);
+            updateMASTStatistics(actionsInTree, actionsInRollout, values[i]);
+        }
+        pendingLeaves.clear();
+    }
+
+    /**
+     * Adds (or removes) a virtual loss of one visit at the minimum reward seen so far on every
+     * action in the trajectory to a pending leaf.
+     */
+    protected void applyVirtualLoss(PendingLeaf leaf, boolean add) {
+        if (Double.isNaN(leaf.virtualLoss()))
+            return;
+        int sign = add ? 1 : -1;
+        for (int i = 0; i < leaf.nodeTrajectory().size(); i++) {
+            SingleTreeNode node = leaf.nodeTrajectory().get(i);
+            ActionStats stats = node.actionValues.get(leaf.treeActions().get(i).b);
+            if (stats == null)
+                continue;
+            stats.nVisits += sign;
+            stats.validVisits += sign;
+            stats.totValue[node.decisionPlayer] += sign * leaf.virtualLoss();
+            node.nVisits += sign;
+        }
+    }
+
     protected void updateMASTStatistics
             (List<Pair<Integer, AbstractAction>> tree, List<Pair<Integer, AbstractAction>> rollout, double[] value) {
         if (params.useMAST) {
@@ -523,6 +760,7 @@ public class SingleTreeNode {
 
 
     protected SingleTreeNode expandNode(AbstractAction actionCopy, AbstractGameState nextState) {
+        long t = root.profiler.start(Expansion);
         // then instantiate a new node
         int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
         SingleTreeNode tn = createChildNode(actionCopy, nextState);
@@ -532,6 +770,8 @@ public class SingleTreeNode {
             newNodeArray = new SingleTreeNode[nextState.getNPlayers()];
         newNodeArray[nextPlayer] = tn; // we store this by id of the player who will take their turn next
         children.put(actionCopy, newNodeArray);
+        root.treeSize++;
+        root.profiler.stop(Expansion, t);
         return tn;
     }
 
@@ -559,7 +799,9 @@ public class SingleTreeNode {
         } else {
             root.actionsInTree.add(new Pair<>(gs.getCurrentPlayer(), act));
         }
+        long t = root.profiler.start(Next);
         forwardModel.next(gs, act.copy());
+        root.profiler.stop(Next, t);
         root.fmCallsCount++;
         if (params.opponentTreePolicy != MultiTree &&
                 params.opponentTreePolicy.selfOnlyTree &&
@@ -579,17 +821,26 @@ public class SingleTreeNode {
         while (gs.getCurrentPlayer() != id && gs.isNotTerminalForPlayer(id) && !(inRollout && finishRollout(gs))) {
             //       AbstractGameState preGS = gs.copy();
             AbstractPlayer oppModel = params.getOpponentModel();
-            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(gs, params.actionSpace);
-            if (availableActions.isEmpty())
-                throw new AssertionError("Should always have at least one action possible..." + (action != null ? " Last action: " + action : ""));
-            action = oppModel.getAction(gs, availableActions);
+            long t = root.profiler.start(ComputeActions);
+            if (oppModel.choosesUniformly()) {
+                action = oppModel.getAction(gs, forwardModel, params.actionSpace);
+                root.profiler.stop(ComputeActions, t);
+            } else {
+                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(gs, params.actionSpace);
+                root.profiler.stop(ComputeActions, t);
+                if (availableActions.isEmpty())
+                    throw new AssertionError("Should always have at least one action possible..." + (action != null ? " Last action: " + action : ""));
+                action = oppModel.getAction(gs, availableActions);
+            }
             if (inRollout) {
                 root.actionsInRollout.add(new Pair<>(gs.getCurrentPlayer(), action));
                 lastActorInRollout = gs.getCurrentPlayer();
                 lastRoundInRollout = gs.getRoundCounter();
                 lastTurnInRollout = gs.getTurnCounter();
             }
+            t = root.profiler.start(Next);
             forwardModel.next(gs, action);
+            root.profiler.stop(Next, t);
             root.fmCallsCount++;
         }
     }
@@ -882,6 +1133,35 @@ public class SingleTreeNode {
      * @return - value of rollout.
      */
     protected double[] rollout(int lastActor) {
+        long t = root.profiler.start(Rollout);
+        AbstractGameState rolloutState = rolloutToLeaf(lastActor);
+        root.profiler.stop(Rollout, t);
+        // Evaluate final state and return normalised score
+        double[] retValue = new double[rolloutState.getNPlayers()];
+
+        t = root.profiler.start(Heuristic);
+        IStateHeuristic heuristic = params.cached(params.heuristic);
+        for (int i = 0; i < retValue.length; i++) {
+            retValue[i] = heuristic.evaluateState(rolloutState, i);
+        }
+        root.profiler.stop(Heuristic, t);
+        checkHeuristicValues(retValue);
+        return retValue;
+    }
+
+    private void checkHeuristicValues(double[] values) {
+        for (double value : values) {
+            if (Double.isNaN(value) || Double.isInfinite(value))
+                throw new AssertionError("Illegal heuristic value - should be a number - " + params.heuristic.toString());
+        }
+    }
+
+    /**
+     * Runs the rollout policy from this node until finishRollout() is true.
+     *
+     * @return - the state reached at the end of the rollout (to be evaluated by the heuristic)
+     */
+    protected AbstractGameState rolloutToLeaf(int lastActor) {
         lastActorInRollout = lastActor;
         roundAtStartOfRollout = openLoopState.getRoundCounter();
         turnAtStartOfRollout = openLoopState.getTurnCounter();
@@ -896,30 +1176,32 @@ public class SingleTreeNode {
                 // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
                 // model at each action. Hence the current state on the node is the one we have been using up to now.
                 /// Hence we do not need to copy it.
+                long t = root.profiler.start(Copy);
                 rolloutState = state.copy();
+                root.profiler.stop(Copy, t);
                 root.copyCount++;
             }
 
             AbstractAction next = null;
             while (!finishRollout(rolloutState)) {
-                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(rolloutState, params.actionSpace);
-                if (availableActions.isEmpty()) {
-                    throw new AssertionError("No actions available in rollout!" + (next != null ? " Last action: " + next : ""));
-                }
                 AbstractPlayer agent = rolloutState.getCurrentPlayer() == root.decisionPlayer ? params.getRolloutStrategy() : params.getOpponentModel();
-                next = agent.getAction(rolloutState, availableActions);
+                long t = root.profiler.start(ComputeActions);
+                if (agent.choosesUniformly()) {
+                    // the game may be able to sample the action without computing all of them
+                    next = agent.getAction(rolloutState, forwardModel, params.actionSpace);
+                    root.profiler.stop(ComputeActions, t);
+                } else {
+                    List<AbstractAction> availableActions = forwardModel.computeAvailableActions(rolloutState, params.actionSpace);
+                    root.profiler.stop(ComputeActions, t);
+                    if (availableActions.isEmpty()) {
+                        throw new AssertionError("No actions available in rollout!" + (next != null ? " Last action: " + next : ""));
+                    }
+                    next = agent.getAction(rolloutState, availableActions);
+                }
                 advanceState(rolloutState, next, true);
             }
         }
-        // Evaluate final state and return normalised score
-        double[] retValue = new double[rolloutState.getNPlayers()];
-
-        for (int i = 0; i < retValue.length; i++) {
-            retValue[i] = params.heuristic.evaluateState(rolloutState, i);
-            if (Double.isNaN(retValue[i]) || Double.isInfinite(retValue[i]))
-                throw new AssertionError("Illegal heuristic value - should be a number - " + params.heuristic.toString());
-        }
-        return retValue;
+        return rolloutState;
     }
 
     /**
@@ -1132,11 +1414,9 @@ public class SingleTreeNode {
         for (Pair<Integer, AbstractAction> pair : rolloutActions) {
             AbstractAction action = pair.b;
             int player = pair.a;
-            Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta[player];   // value
-            MASTStatistics.get(player).put(actionKey, stats);
+            // the table copies the action if it is added as a new key
+            Object actionKey = params.MASTActionKey == null ? action : params.MASTActionKey.key(action);
+            MASTStatistics.update(player, actionKey, delta[player]);
         }
     }
 
@@ -24,6 +24,15 @@ public class TreeStatistics {
     public double meanActionsAtNode;
     public double meanActionsExpanded;
     public int oneActionNodes;
+    // MCGS only: the number of state keys matched to an existing node, and how many of these were collisions
+    // (the node was created for a state with a different positionHashCode()); only counted with MCGSCheckCollisions
+    public int mcgsKeyChecks;
+    public int mcgsKeyCollisions;
+    public double mcgsCollisionRate;
+    // The most nodes in the tree during the last search, and the nodes pruned to keep within MCTSParams.nodeBudget()
+    public int peakNodes;
+    public int prunedNodes;
+    public int pruneEvents;
 
 
     public void mcgsStats(MCGSNode root) {
@@ -52,6 +61,9 @@ public class TreeStatistics {
         meanLeafDepth = totalLeaves > 0 ? IntStream.range(0, depthReached + 1).mapToDouble(i -> i * leafDistribution[i]).sum() : 0;
         meanNodeDepth = IntStream.range(0, depthReached + 1).mapToDouble(i -> i * nodeDistribution[i]).sum();
         oneActionNodes = (int) transpositionMap.values().stream().filter(n -> n.actionValues.size() == 1).count();
+        mcgsKeyChecks = root.keyChecks;
+        mcgsKeyCollisions = root.keyCollisions;
+        mcgsCollisionRate = mcgsKeyCollisions / (double) Math.max(mcgsKeyChecks, 1);
     }
 
     public TreeStatistics(SingleTreeNode root) {
@@ -61,6 +73,9 @@ public class TreeStatistics {
             throw new AssertionError("Not expected");
         else
             mctsStats(root);
+        peakNodes = Math.max(root.peakTreeSize, totalNodes);
+        prunedNodes = root.prunedNodes;
+        pruneEvents = root.pruneEvents;
     }
 
     public void mctsStats(SingleTreeNode root) {
@@ -130,7 +145,11 @@ public class TreeStatistics {
         List<String> leafDist = Arrays.stream(leafDistribution).mapToObj(n -> String.format("%2.0f%%", n * 100.0)).collect(toList());
         retValue.append(String.format("\tNodes  by depth: %s\n", String.join(", ", nodeDist)));
         retValue.append(String.format("\tLeaves by depth: %s\n", String.join(", ", leafDist)));
+        if (mcgsKeyChecks > 0)
+            retValue.append(String.format("\tKey collisions: %d of %d matches (%.2f%%)\n", mcgsKeyCollisions, mcgsKeyChecks, mcgsCollisionRate * 100.0));
 
+        if (pruneEvents > 0)
+            retValue.append(String.format("\tPruned %d nodes in %d events, from a peak of %d\n", prunedNodes, pruneEvents, peakNodes));
         return retValue.toString();
     }
 }
@@ -5,11 +5,14 @@ import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import core.interfaces.IStateHeuristic;
+import players.SearchProfiler;
 import utilities.Pair;
 
 import java.util.List;
 import java.util.Random;
 
+import static players.SearchProfiler.Phase.*;
+
 public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
     protected int repairCount;
@@ -21,13 +24,15 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
     double discountFactor;            // Discount factor for calculating rewards
     IStateHeuristic heuristic;
     AbstractPlayer rolloutPolicy;
+    SearchProfiler profiler = SearchProfiler.DISABLED;
     private Random gen;               // Random generator
 
     RHEAIndividual(int L, double discountFactor, AbstractForwardModel fm, AbstractGameState gs,
                    int playerID, Random gen, IStateHeuristic heuristic,
-                   AbstractPlayer rolloutPolicy) {
+                   AbstractPlayer rolloutPolicy, SearchProfiler profiler) {
         // Initialize
         this.gen = gen;
+        this.profiler = profiler;
         this.discountFactor = discountFactor;
         actions = new AbstractAction[L];
         gameStates = new AbstractGameState[L + 1];
@@ -47,6 +52,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         discountFactor = I.discountFactor;
         heuristic = I.heuristic;
         rolloutPolicy = I.rolloutPolicy;
+        profiler = I.profiler;
 
         for (int i = 0; i < length; i++) {
             actions[i] = I.actions[i]; //.copy();
@@ -73,7 +79,9 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         for (int mutation = 0; mutation < mutationCount; mutation++) {
             int position = gen.nextInt(length); // we only consider actions up to the end of the game (which will therefore increase mutation rate towards game end)
             if (gameStates[position] != null) {
+                long t = profiler.start(ComputeActions);
                 List<AbstractAction> available = fm.computeAvailableActions(gameStates[position]);
+                profiler.stop(ComputeActions, t);
                 actions[position] = available.get(gen.nextInt(available.size()));
                 if (position < startIndex)
                     startIndex = position;  // start the rollout from the first mutation
@@ -99,6 +107,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
      * @return - number of calls to the FM.next() function
      */
     public Pair<Integer, Integer> rollout(AbstractForwardModel fm, int startIndex, int playerID, boolean repair) {
+        long rolloutStart = profiler.start(Rollout);
         length = 0;
         double delta = 0;
         double previousScore = 0;
@@ -113,7 +122,9 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
         for (int i = 0; i < startIndex; i++) {
             double score;
+            long t = profiler.start(Heuristic);
             score = heuristic.evaluateState(gameStates[i + 1], playerID);
+            profiler.stop(Heuristic, t);
             if (Double.isNaN(score))
                 throw new AssertionError("Illegal heuristic value - should be a number");
             delta += Math.pow(discountFactor, i) * (score - previousScore);
@@ -126,9 +137,13 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
             if (gs.isNotTerminal()) {
                 // is the action valid
                 AbstractAction action;
+                long t = profiler.start(Copy);
                 AbstractGameState gsCopy = gs.copy();
+                profiler.stop(Copy, t);
                 copyCalls++;
+                t = profiler.start(ComputeActions);
                 List<AbstractAction> currentActions = fm.computeAvailableActions(gsCopy, rolloutPolicy.getParameters().actionSpace);
+                profiler.stop(ComputeActions, t);
                 availableActions[i] = currentActions;
                 boolean illegalAction = !currentActions.contains(actions[i]);
                 illegalActions[i] = illegalAction;
@@ -145,18 +160,24 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
                 }
                 // TODO: Add a closed loop option to not copy the state (expensively) if the action is valid, but jump to the next state stored
                 // TODO: When implemented, this will also need to take account of shiftLeft
+                t = profiler.start(Next);
                 fm.next(gsCopy, action.copy());
+                profiler.stop(Next, t);
                 fmCalls++;
 
                 // If it's my turn, store this in the individual
                 while (gsCopy.isNotTerminal() && !(gsCopy.getCurrentPlayer() == playerID)) {
                     // now we fast forward through any opponent moves with a random OM
                     // TODO: Add in other opponent model options, and record other player moves for MAST
-                    List<AbstractAction> moves = fm.computeAvailableActions(gsCopy);
-                    if (moves.isEmpty()) {
+                    t = profiler.start(ComputeActions);
+                    AbstractAction move = fm.sampleRandomAction(gsCopy, gen);
+                    profiler.stop(ComputeActions, t);
+                    if (move == null) {
                         throw new AssertionError("No moves found in state " + gsCopy);
                     }
-                    fm.next(gsCopy, moves.get(gen.nextInt(moves.size())));
+                    t = profiler.start(Next);
+                    fm.next(gsCopy, move);
+                    profiler.stop(Next, t);
                     fmCalls++;
                 }
                 oldGameStates[i+1] = gameStates[i+1];
@@ -166,7 +187,9 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
                 // Add value of state, discounted
                 double score;
+                t = profiler.start(Heuristic);
                 score = heuristic.evaluateState(gameStates[i + 1], playerID);
+                profiler.stop(Heuristic, t);
                 if (Double.isNaN(score))
                     throw new AssertionError("Illegal heuristic value - should be a number");
                 delta += Math.pow(discountFactor, i) * (score - previousScore);
@@ -180,6 +203,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         }
 //        this.value = gs.getScore(playerID);
         this.value = delta;
+        profiler.stop(Rollout, rolloutStart);
         return new Pair<>(fmCalls, copyCalls);
     }
 
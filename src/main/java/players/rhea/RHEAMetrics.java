@@ -6,6 +6,7 @@ import evaluation.listeners.MetricsGameListener;
 import evaluation.metrics.AbstractMetric;
 import evaluation.metrics.Event;
 import evaluation.metrics.IMetricsCollection;
+import players.SearchProfiler;
 
 import java.util.*;
 
@@ -58,4 +59,36 @@ public class RHEAMetrics implements IMetricsCollection {
             return stats;
         }
     }
+
+    /**
+     * Per-decision phase timings and histograms (see SearchProfiler). Only recorded if profileSampleRate > 0.
+     */
+    public static class SearchProfile extends AbstractMetric {
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> stats) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof RHEAPlayer rheaPlayer && rheaPlayer.profiler.isEnabled()) {
+                stats.put("PlayerType", rheaPlayer.toString());
+                stats.put("PlayerID", e.state.getCurrentPlayer());
+                rheaPlayer.profiler.addTo(stats);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> stats = new LinkedHashMap<>();
+            stats.put("PlayerType", String.class);
+            stats.put("PlayerID", Integer.class);
+            stats.putAll(SearchProfiler.columns());
+            return stats;
+        }
+    }
 }
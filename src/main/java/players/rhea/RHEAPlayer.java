@@ -5,18 +5,18 @@ import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import players.IAnyTimePlayer;
 import players.PlayerConstants;
+import players.SearchProfiler;
 import players.mcts.MASTPlayer;
+import players.mcts.MASTTable;
 import players.simple.RandomPlayer;
 import utilities.ElapsedCpuTimer;
 import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     private static final AbstractPlayer randomPlayer = new RandomPlayer();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    MASTTable MASTStatistics; // per player: Action -> (visits, totValue)
     protected List<RHEAIndividual> population = new ArrayList<>();
     // Budgets
     protected double timePerIteration = 0, timeTaken = 0, initTime = 0;
@@ -25,6 +25,8 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected int copyCalls = 0;
     protected int repairCount, nonRepairCount;
     private MASTPlayer mastPlayer;
+    // Phase timings for the most recent decision (if profileSampleRate > 0)
+    protected final SearchProfiler profiler = new SearchProfiler();
 
     public RHEAPlayer(RHEAParams params) {
         super(params, "RHEAPlayer");
@@ -38,11 +40,13 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
     public RHEAParams getParameters() {
         return (RHEAParams) parameters;
     }
+
+    public SearchProfiler getProfiler() {
+        return profiler;
+    }
     @Override
     public void initializePlayer(AbstractGameState state) {
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTTable(state.getNPlayers());
         population = new ArrayList<>();
     }
 
@@ -56,16 +60,13 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         repairCount = 0;
         nonRepairCount = 0;
         RHEAParams params = getParameters();
+        profiler.reset(params.profileSampleRate);
 
         if (params.useMAST) {
             if (MASTStatistics == null) {
-                MASTStatistics = new ArrayList<>();
-                for (int i = 0; i < stateObs.getNPlayers(); i++)
-                    MASTStatistics.add(new HashMap<>());
+                MASTStatistics = new MASTTable(stateObs.getNPlayers());
             } else {
-                MASTStatistics = MASTStatistics.stream()
-                        .map(m -> Utils.decay(m, params.discountFactor))
-                        .collect(Collectors.toList());
+                MASTStatistics.decay(params.discountFactor);
             }
             mastPlayer = new MASTPlayer(null, 1.0, 0.0, System.currentTimeMillis(), 0.0);
             mastPlayer.setMASTStats(MASTStatistics);
@@ -74,7 +75,7 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         if (params.shiftLeft && !population.isEmpty()) {
             population.forEach(i -> i.value = Double.NEGATIVE_INFINITY);  // so that any we don't have time to shift are ignored when picking an action
             for (RHEAIndividual genome : population) {
-                if (!budgetLeft(timer)) break;
+                if (!budgetLeft(timer, false)) break;
                 System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
                 // we shift all actions along, and then rollout with repair
                 genome.gameStates[0] = stateObs.copy();
@@ -85,9 +86,9 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         } else {
             population = new ArrayList<>();
             for (int i = 0; i < params.populationSize; ++i) {
-                if (!budgetLeft(timer)) break;
+                if (!budgetLeft(timer, false)) break;
                 population.add(new RHEAIndividual(params.horizon, params.discountFactor, getForwardModel(), stateObs,
-                        getPlayerID(), rnd, params.heuristic, params.useMAST ? mastPlayer : randomPlayer));
+                        getPlayerID(), rnd, params.cached(params.heuristic), params.useMAST ? mastPlayer : randomPlayer, profiler));
                 fmCalls += population.get(i).length;
                 copyCalls += population.get(i).length;
             }
@@ -96,8 +97,9 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         population.sort(Comparator.naturalOrder());
         initTime = timer.elapsedMillis();
         // Run evolution
-        while (budgetLeft(timer)) {
+        while (budgetLeft(timer, true)) {
             runIteration();
+            timer.endIteration();
         }
 
         timeTaken = timer.elapsedMillis();
@@ -110,11 +112,17 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         return retValue;
     }
 
-    private boolean budgetLeft(ElapsedCpuTimer timer) {
+    /**
+     * @param generation - true for the check before each generation, false for those while setting up the population
+     */
+    private boolean budgetLeft(ElapsedCpuTimer timer, boolean generation) {
         RHEAParams params = getParameters();
         if (params.budgetType == PlayerConstants.BUDGET_TIME) {
-            long remaining = timer.remainingTimeMillis();
-            return remaining > params.breakMS;
+            if (!generation)
+                return timer.remainingTimeMillis() > params.breakMS;
+            // the same check, but the clock is only read every few generations (counted with endIteration()), as
+            // this is expensive relative to cheap generations
+            return timer.enoughBudgetIterationAmortised(params.breakMS, 0);
         } else if (params.budgetType == PlayerConstants.BUDGET_FM_CALLS) {
             return fmCalls < params.budget;
         } else if (params.budgetType == PlayerConstants.BUDGET_COPY_CALLS) {
@@ -247,7 +255,9 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
         }
         //crossover
         for (int i = 0; i < params.childCount; ++i) {
+            long t = profiler.start(SearchProfiler.Phase.Selection);
             RHEAIndividual[] parents = selectParents();
+            profiler.stop(SearchProfiler.Phase.Selection, t);
             RHEAIndividual child = crossover(parents[0], parents[1]);
             population.add(child);
         }
@@ -283,10 +293,7 @@ public class RHEAPlayer extends AbstractPlayer implements IAnyTimePlayer {
             AbstractAction action = rolloutActions[i];
             if (action == null)
                 break;
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(action, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta;   // value
-            MASTStatistics.get(player).put(action.copy(), stats);
+            MASTStatistics.update(player, action, delta);
         }
     }
 
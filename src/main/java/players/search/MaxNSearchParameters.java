@@ -19,6 +19,8 @@ public class MaxNSearchParameters extends PlayerParameters {
     protected boolean alphaBetaPruning = true;
     protected boolean iterativeDeepening = false;
     protected boolean expandByEstimatedValue = false;
+    // make and unmake moves on one state with nextWithUndo()/undo(), where the game supports this, rather than copy
+    protected boolean useUndo = true;
 
     public MaxNSearchParameters() {
         this.addTunableParameter("searchDepth", 1);
@@ -28,6 +30,7 @@ public class MaxNSearchParameters extends PlayerParameters {
         this.addTunableParameter("iterativeDeepening", false);
         this.addTunableParameter("alphaBetaPruning", true);
         this.addTunableParameter("expandByEstimatedValue", false);
+        this.addTunableParameter("useUndo", true);
     }
 
     @Override
@@ -40,6 +43,7 @@ public class MaxNSearchParameters extends PlayerParameters {
         iterativeDeepening = (boolean) getParameterValue("iterativeDeepening");
         alphaBetaPruning = (boolean) getParameterValue("alphaBetaPruning");
         expandByEstimatedValue = (boolean) getParameterValue("expandByEstimatedValue");
+        useUndo = (boolean) getParameterValue("useUndo");
         if (heuristic == null) {
             heuristic = new GameDefaultHeuristic();
         }
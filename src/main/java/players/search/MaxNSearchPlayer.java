@@ -3,11 +3,14 @@ package players.search;
 import core.*;
 import core.actions.AbstractAction;
 import players.mcts.ActionStats;
+import core.interfaces.IHasStateHeuristic;
 import core.interfaces.IStateHeuristic;
-import llm.IHasStateHeuristic;
+import players.SearchProfiler;
 
 import java.util.*;
 
+import static players.SearchProfiler.Phase.*;
+
 public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeuristic {
     /**
      * This class is a simple implementation of a MaxN search player.
@@ -23,6 +26,8 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
      * - heuristic: the heuristic function to evaluate the state of the game
      * - paranoid: if true, the algorithm assumes that all players are trying to minimise its score
      * - searchUnit: the unit of search (ACTION, MACRO_ACTION, TURN)
+     * - useUndo: if the forward model supports it, each action is applied to the state with nextWithUndo() and
+     *   reversed with undo() after the recursive call, instead of being applied to a copy of the state
      * <p></p>
      * The searchUnit determines how we measure D, or searchDepth.
      * - ACTION: D is decremented at each decision node
@@ -36,6 +41,8 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
 
     private long startTime;
     private SearchResult rootResult;
+    // Phase timings for the most recent decision (if profileSampleRate > 0)
+    protected final SearchProfiler profiler = new SearchProfiler();
 
     protected List<Map<AbstractAction, ActionStats>> actionValueEstimates;
 
@@ -56,6 +63,7 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
         // - MACRO_ACTION: only when the currentPlayer() has changed as a result of applying the action
         // - TURN: only when turn number has changed as a result of applying the action
         startTime = System.currentTimeMillis();
+        profiler.reset(getParameters().profileSampleRate);
         rootResult = null;
         actionValueEstimates = new ArrayList<>();
         if (getParameters().iterativeDeepening) {
@@ -87,6 +95,10 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
         return rootResult;
     }
 
+    public SearchProfiler getProfiler() {
+        return profiler;
+    }
+
     @Override
     public void setStateHeuristic(IStateHeuristic heuristic) {
         getParameters().setParameterValue("heuristic", heuristic);
@@ -111,16 +123,19 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
             // as all of these need to be back-propagated up so that the relevant one can be used for decision-making
             // if paranoid and this action belongs to another player, we assume they try to minimise our score
             double[] values = new double[state.getNPlayers()];
+            long t = profiler.start(Heuristic);
+            IStateHeuristic heuristic = params.cached(params.heuristic);
             if (params.paranoid) {
-                double value = params.heuristic.evaluateState(state, getPlayerID());
+                double value = heuristic.evaluateState(state, getPlayerID());
                 for (int i = 0; i < state.getNPlayers(); i++) {
                     values[i] = i == getPlayerID() ? value : -value;
                 }
             } else {
                 for (int i = 0; i < state.getNPlayers(); i++) {
-                    values[i] = params.heuristic.evaluateState(state, i);
+                    values[i] = heuristic.evaluateState(state, i);
                 }
             }
+            profiler.stop(Heuristic, t);
             return new SearchResult(null, values, alpha, beta, null);
         }
 
@@ -128,33 +143,55 @@ public class MaxNSearchPlayer extends AbstractPlayer implements IHasStateHeurist
         double[] bestValues = new double[state.getNPlayers()];
         double bestValue = Double.NEGATIVE_INFINITY;
         AbstractAction bestAction = null;
+        Map<AbstractAction, ActionStats> statsMap = actionValueEstimates.get(searchDepth - 1);
         // we shuffle the actions so that ties are broken at random
         if (params.expandByEstimatedValue) {
-            // sort actions based on actionValueEstimates (with highest value first)
-            actions.sort(Comparator.comparingDouble(a -> -actionValueEstimates.get(searchDepth - 1)
-                    .getOrDefault(a, new ActionStats(state.getNPlayers()))
-                    .totValue[state.getCurrentPlayer()]));
+            // sort actions based on actionValueEstimates (with highest value first; unseen actions count as zero)
+            int actingPlayer = state.getCurrentPlayer();
+            actions.sort(Comparator.comparingDouble(a -> {
+                ActionStats stats = statsMap.get(a);
+                return stats == null ? 0.0 : -stats.totValue[actingPlayer];
+            }));
         } else {
             Collections.shuffle(actions, getRnd());
         }
-        Map<AbstractAction, ActionStats> statsMap = actionValueEstimates.get(searchDepth - 1);
         Map<AbstractAction, double[]> actionValues = new HashMap<>();
+        boolean undo = params.useUndo && getForwardModel().supportsUndo(state);
+        int currentPlayer = state.getCurrentPlayer();
+        int turnCounter = state.getTurnCounter();
         for (AbstractAction action : actions) {
-            AbstractGameState stateCopy = state.copy();
-            getForwardModel().next(stateCopy, action);
+            AbstractGameState stateCopy;
+            long t;
+            if (undo) {
+                // we apply the action to state itself, and undo it once we have the value
+                stateCopy = state;
+                t = profiler.start(Next);
+                getForwardModel().nextWithUndo(state, action);
+            } else {
+                t = profiler.start(Copy);
+                stateCopy = state.copy();
+                profiler.stop(Copy, t);
+                t = profiler.start(Next);
+                getForwardModel().next(stateCopy, action);
+            }
+            profiler.stop(Next, t);
             // if we are at the bottom, then save a bit of time by not calculating the valid actions (which we'll never try)
+            t = profiler.start(ComputeActions);
             List<AbstractAction> nextActions = searchDepth > 0 ? getForwardModel().computeAvailableActions(stateCopy) : List.of();
+            profiler.stop(ComputeActions, t);
 
             int newDepth = switch (params.searchUnit) {
                 case ACTION -> searchDepth - 1;
                 case MACRO_ACTION ->
-                        state.getCurrentPlayer() != stateCopy.getCurrentPlayer() ? searchDepth - 1 : searchDepth;
-                case TURN -> state.getTurnCounter() != stateCopy.getTurnCounter() ? searchDepth - 1 : searchDepth;
+                        currentPlayer != stateCopy.getCurrentPlayer() ? searchDepth - 1 : searchDepth;
+                case TURN -> turnCounter != stateCopy.getTurnCounter() ? searchDepth - 1 : searchDepth;
             };
 
             // recurse - we are here just interested in the value of stateCopy, and hence of taking action
             // We are not interested in the best action from stateCopy
             SearchResult result = expand(stateCopy, nextActions, newDepth, alpha, beta);
+            if (undo)
+                getForwardModel().undo(state);
             if (params.expandByEstimatedValue) {
                 // we store the value estimates for each action
                 if (!statsMap.containsKey(action)) {
@@ -5,7 +5,7 @@ import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import core.interfaces.IActionHeuristic;
 import players.mcts.IMASTUser;
-import utilities.Pair;
+import players.mcts.MASTTable;
 import utilities.Utils;
 
 import java.util.*;
@@ -93,7 +93,7 @@ public class BoltzmannActionPlayer extends AbstractPlayer implements IMASTUser {
     }
 
     @Override
-    public void setMASTStats(List<Map<Object, Pair<Integer, Double>>> MASTStats) {
+    public void setMASTStats(MASTTable MASTStats) {
         if (actionHeuristic instanceof IMASTUser) {
             ((IMASTUser) actionHeuristic).setMASTStats(MASTStats);
         }
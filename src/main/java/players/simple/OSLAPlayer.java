@@ -47,7 +47,7 @@ public class OSLAPlayer extends AbstractPlayer {
             getForwardModel().next(gsCopy, action);
 
             if (heuristic != null) {
-                valState[actionIndex] = heuristic.evaluateState(gsCopy, playerID);
+                valState[actionIndex] = getParameters().cached(heuristic).evaluateState(gsCopy, playerID);
             } else {
                 valState[actionIndex] = gsCopy.getHeuristicScore(playerID);
             }
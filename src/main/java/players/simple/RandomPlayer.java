@@ -28,6 +28,14 @@ public class RandomPlayer extends AbstractPlayer {
         return actions.get(randomAction);
     }
 
+    /**
+     * Subclasses that override _getAction() should also override this to return false
+     */
+    @Override
+    public boolean choosesUniformly() {
+        return true;
+    }
+
     @Override
     public RandomPlayer copy() {
         RandomPlayer retValue = new RandomPlayer(new Random(rnd.nextInt()));
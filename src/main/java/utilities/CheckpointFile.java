@@ -0,0 +1,124 @@
+package utilities;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A binary checkpoint of a long run (such as a tournament or NTBEA), so that it can be resumed after a crash.
+ * <p>
+ * The file starts with a header of the kind of run and a signature of its settings, and a checkpoint is only read
+ * back by a run with the same signature. The body is written by the caller with a DataOutput. A new checkpoint is
+ * written to a temporary file and then moved over the old one, so the file on disk is always a complete checkpoint.
+ */
+public class CheckpointFile {
+
+    public interface Writer {
+        void write(DataOutput out) throws IOException;
+    }
+
+    public interface Reader<T> {
+        T read(DataInput in) throws IOException;
+    }
+
+    static final int MAGIC = 0x54414743;  // "TAGC"
+    static final int VERSION = 1;
+
+    public final String file;
+    public final String kind;
+    public final String signature;
+
+    /**
+     * @param kind      - the kind of run, e.g. the class name
+     * @param signature - the settings of the run that must match for a checkpoint to be resumed
+     */
+    public CheckpointFile(String file, String kind, String signature) {
+        this.file = file;
+        this.kind = kind;
+        this.signature = signature;
+    }
+
+    public boolean exists() {
+        return new File(file).exists();
+    }
+
+    /**
+     * Writes a new checkpoint in place of the old one. An error is reported, but not thrown, as a failed checkpoint
+     * should not stop the run it is protecting.
+     */
+    public void write(Writer writer) {
+        Path target = Path.of(file);
+        Path temp = Path.of(file + ".tmp");
+        try {
+            if (target.getParent() != null)
+                Files.createDirectories(target.getParent());
+            try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(kind);
+                writeString(out, signature);
+                writer.write(out);
+                out.flush();
+                stream.getFD().sync();
+            }
+            try {
+                Files.move(temp, target, ATOMIC_MOVE, REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing checkpoint " + file + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the checkpoint, once the run it is protecting has completed. As for write(), an error is only reported.
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(Path.of(file));
+        } catch (IOException e) {
+            System.out.println("Error deleting checkpoint " + file + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the contents of the checkpoint, or null if there is none
+     * @throws IllegalArgumentException if the checkpoint is not a valid one for this kind of run and signature
+     */
+    public <T> T read(Reader<T> reader) {
+        if (!exists())
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(kind))
+                throw new IllegalArgumentException("Not a " + kind + " checkpoint: " + file);
+            if (!readString(in).equals(signature))
+                throw new IllegalArgumentException("Checkpoint " + file + " is for a " + kind + " with different " +
+                        "settings. Delete it (or use a different destDir) to start again.");
+            return reader.read(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read checkpoint " + file + " : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * As DataOutput.writeUTF(), but without the limit of 64k bytes.
+     */
+    public static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
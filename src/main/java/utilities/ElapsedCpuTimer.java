@@ -17,6 +17,11 @@ public class ElapsedCpuTimer {
     protected long oldTime;
     protected long maxTime;
     protected int nIters;
+    // the iteration at which enoughBudgetIterationAmortised() will next read the clock
+    protected int nextCheck;
+
+    // upper limit on the number of iterations between clock reads in enoughBudgetIterationAmortised()
+    public static final int MAX_CHECK_INTERVAL = 256;
 
     public ElapsedCpuTimer() {
         reset();
@@ -25,6 +30,7 @@ public class ElapsedCpuTimer {
     public void reset() {
         oldTime = getTime();
         nIters = 0;
+        nextCheck = 0;
     }
 
     public long elapsed() {
@@ -76,6 +82,39 @@ public class ElapsedCpuTimer {
         return remaining > 2 * average && remaining > break_ms;
     }
 
+    /**
+     * As enoughBudgetIteration(), but only reads the clock every few iterations. Reading the thread CPU time is
+     * relatively expensive, and can dominate the cost of an iteration in cheap games.
+     * After each read, checks are skipped for as many iterations as (on average) would use up a quarter of the
+     * remaining slack, up to MAX_CHECK_INTERVAL. The gap therefore shrinks as the end of the budget approaches.
+     * This relies on endIteration() being called once per iteration.
+     * @param break_ms - optional parameter to add a safety check for early stopping, can be 0.
+     * @return - true if enough budget is left for another iteration, false otherwise.
+     */
+    public boolean enoughBudgetIterationAmortised(int break_ms) {
+        return enoughBudgetIterationAmortised(break_ms, 2);
+    }
+
+    /**
+     * As enoughBudgetIterationAmortised(int), with the number of average iterations that must fit in the remaining
+     * time when the clock is read. With 0, only break_ms is checked, as for remainingTimeMillis() > break_ms.
+     * @param break_ms - optional parameter to add a safety check for early stopping, can be 0.
+     * @param iterationsMargin - how many iterations (of average length) must still fit in the remaining time
+     * @return - true if enough budget is left for another iteration, false otherwise.
+     */
+    public boolean enoughBudgetIterationAmortised(int break_ms, int iterationsMargin) {
+        if (nIters < nextCheck)
+            return true;
+        long elapsed = elapsed();
+        long average = nIters == 0 ? 0 : elapsed / nIters;
+        long remaining = maxTime - elapsed;
+        long margin = Math.max(iterationsMargin * average, break_ms * 1000000L);
+        boolean enough = remaining > margin;
+        long skip = enough && average > 0 ? Math.min(MAX_CHECK_INTERVAL, (remaining - margin) / (4 * average)) : 0;
+        nextCheck = nIters + (int) Math.max(1, skip);
+        return enough;
+    }
+
     /**
      * We finished an iteration, so increasing the iteration count.
      */
@@ -90,6 +129,7 @@ public class ElapsedCpuTimer {
         newCpuTimer.oldTime = this.oldTime;
         newCpuTimer.bean = this.bean;
         newCpuTimer.nIters = this.nIters;
+        newCpuTimer.nextCheck = this.nextCheck;
         return newCpuTimer;
     }
 
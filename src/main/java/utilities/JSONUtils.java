@@ -4,7 +4,6 @@ import core.interfaces.IHasName;
 import core.interfaces.IToJSON;
 import evaluation.optimisation.TunableParameters;
 import org.apache.commons.lang3.reflect.ConstructorUtils;
-import org.apache.hadoop.yarn.webapp.ToJSON;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -0,0 +1,203 @@
+package utilities;
+
+import java.util.*;
+
+/**
+ * A hash map with primitive long keys, using open addressing with linear probing, so that get(long) and
+ * put(long, V) do not box the key or allocate an entry object.
+ * <p>
+ * It can also be used as a Map (for example to iterate over it, or by code that does not know about long keys):
+ * the keys are then Longs, and any other key is treated as absent.
+ *
+ * @param <V> - the type of the values
+ */
+public class LongHashMap<V> extends AbstractMap<Object, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] keys;
+    private Object[] values;
+    private boolean[] used;
+    private int size;
+    private int modCount;
+
+    public LongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = (int) Zobrist.mix(key) & mask;
+        while (used[i] && keys[i] != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = slot(key);
+        return used[i] ? (V) values[i] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return used[slot(key)];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int i = slot(key);
+        if (used[i]) {
+            V previous = (V) values[i];
+            values[i] = value;
+            return previous;
+        }
+        if (size + 1 > keys.length * MAX_LOAD) {
+            resize(keys.length * 2);
+            i = slot(key);
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = slot(key);
+        if (!used[i])
+            return null;
+        V previous = (V) values[i];
+        deleteSlot(i);
+        return previous;
+    }
+
+    /**
+     * Removes the entry in slot i, and moves any later entries in the same probe sequence back to fill the gap
+     * (so that no 'deleted' markers are needed).
+     */
+    private void deleteSlot(int i) {
+        int mask = keys.length - 1;
+        used[i] = false;
+        values[i] = null;
+        size--;
+        modCount++;
+        int gap = i;
+        for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = (int) Zobrist.mix(keys[j]) & mask;
+            // the entry at j can move to the gap if its home slot is not between the gap and j (cyclically)
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                used[gap] = true;
+                used[j] = false;
+                values[j] = null;
+                gap = j;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int j = slot(oldKeys[i]);
+                used[j] = true;
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(used, false);
+        Arrays.fill(values, null);
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long l ? get(l.longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long l && containsKey(l.longValue());
+    }
+
+    @Override
+    public V put(Object key, V value) {
+        if (!(key instanceof Long l))
+            throw new IllegalArgumentException("LongHashMap keys must be Longs, not " + key);
+        return put(l.longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long l ? remove(l.longValue()) : null;
+    }
+
+    @Override
+    public Set<Entry<Object, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Object, V>> iterator() {
+                return new Iterator<Entry<Object, V>>() {
+                    int next = advance(0);
+                    final int expectedModCount = modCount;
+
+                    int advance(int from) {
+                        while (from < keys.length && !used[from])
+                            from++;
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<Object, V> next() {
+                        if (modCount != expectedModCount)
+                            throw new ConcurrentModificationException();
+                        if (next >= keys.length)
+                            throw new NoSuchElementException();
+                        int i = next;
+                        next = advance(next + 1);
+                        return new SimpleEntry<>(keys[i], (V) values[i]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -364,15 +364,34 @@ public abstract class Utils {
      * is the raw data
      */
     public static Pair<List<String>, List<List<String>>> loadDataWithHeader(String delimiter, String... files) {
+        return loadDataWithHeader(delimiter, 0, null, files);
+    }
+
+    /**
+     * As loadDataWithHeader(delimiter, files), but keeping at most maxRecords rows. If the files contain more than this
+     * then a uniform random sample is kept (reservoir sampling), and rows that are not kept are never held in memory.
+     *
+     * @param maxRecords - 0 or less to keep all rows
+     */
+    public static Pair<List<String>, List<List<String>>> loadDataWithHeader(String delimiter, int maxRecords, Random rnd, String... files) {
         List<List<String>> data = new ArrayList<>();
         List<String> header = new ArrayList<>();
+        long seen = 0;
         for (String file : files) {
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                 header = Arrays.asList(reader.readLine().split(Pattern.quote(delimiter)));
-                while (reader.ready()) {
-                    List<String> datum = Arrays.stream(reader.readLine().split(Pattern.quote(delimiter)))
-                            .toList();
-                    data.add(datum);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (maxRecords > 0 && seen >= maxRecords) {
+                        // the new row replaces a random existing one with probability maxRecords / (rows seen so far)
+                        long slot = (long) (rnd.nextDouble() * (seen + 1));
+                        seen++;
+                        if (slot < maxRecords)
+                            data.set((int) slot, Arrays.asList(line.split(Pattern.quote(delimiter))));
+                        continue;
+                    }
+                    seen++;
+                    data.add(Arrays.asList(line.split(Pattern.quote(delimiter))));
                 }
             } catch (IOException e) {
                 e.printStackTrace();
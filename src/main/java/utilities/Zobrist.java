@@ -0,0 +1,51 @@
+package utilities;
+
+import core.components.Component;
+
+/**
+ * Helpers for Zobrist-style hashing of game states. A hash is the XOR of one 64-bit key for each (position, value)
+ * pair in the state, so that when the value at one position changes the hash can be updated in O(1) by XOR-ing the
+ * old key out and the new key in.
+ * <p>
+ * Rather than a table of random numbers for every possible position and value (which would need to be sized in
+ * advance for each game), the keys are generated by a strong 64-bit mixing function (the SplitMix64 finaliser).
+ * This gives the same statistical properties, and the same key for the same (position, value) in every state.
+ */
+public final class Zobrist {
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param position - the 'square' in the state; each container or field should use its own distinct positions
+     * @param value    - what is at that position
+     * @return the key for this value at this position
+     */
+    public static long key(long position, long value) {
+        return mix(position * 0x9E3779B97F4A7C15L + mix(value ^ 0x632BE59BD9B4E019L));
+    }
+
+    /**
+     * The value used for a component in a container: components with the same name are treated as the same, so
+     * for example two identical cards in a hand can be swapped without changing the hash.
+     * Changes made to a component in place (properties, owner) are not part of the value.
+     *
+     * @param component - the component, or null for an empty position
+     * @return the value to use in key()
+     */
+    public static long value(Component component) {
+        if (component == null)
+            return 0;
+        String name = component.getComponentName();
+        return name == null ? component.getType().ordinal() : name.hashCode();
+    }
+
+    /**
+     * The SplitMix64 finaliser; a bijection on 64-bit values with good avalanche behaviour.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
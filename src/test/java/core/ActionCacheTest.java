@@ -0,0 +1,104 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.ActionCache;
+import games.GameType;
+import games.dominion.DominionConstants;
+import games.dominion.actions.BuyCard;
+import games.dominion.actions.EndPhase;
+import games.dominion.actions.GainCard;
+import games.dominion.cards.CardType;
+import org.junit.Before;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.List;
+
+import static games.dominion.DominionGameState.DominionGamePhase.Buy;
+import static org.junit.Assert.*;
+
+public class ActionCacheTest {
+
+    ActionCache cache;
+
+    @Before
+    public void setup() {
+        cache = new ActionCache();
+    }
+
+    @Test
+    public void internReturnsFirstInstance() {
+        GainCard first = new GainCard(CardType.GOLD, 1);
+        GainCard second = new GainCard(CardType.GOLD, 1);
+        assertSame(first, cache.intern(first));
+        assertSame(first, cache.intern(second));
+        assertNotSame(first, cache.intern(new GainCard(CardType.GOLD, 0)));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void subclassesAreNotSubstituted() {
+        GainCard gain = cache.intern(new GainCard(CardType.GOLD, 1));
+        BuyCard buy = new BuyCard(CardType.GOLD, 1);
+        assertEquals(gain, buy);  // GainCard.equals() only checks the fields
+        assertSame(buy, cache.intern(buy));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mutableActionsAreRejected() {
+        cache.intern(new TestAction());
+    }
+
+    @Test
+    public void indexedLookUp() {
+        EndPhase first = cache.get(EndPhase.class, 1, i -> new EndPhase(Buy));
+        EndPhase second = cache.get(EndPhase.class, 1, i -> new EndPhase(Buy));
+        assertSame(first, second);
+        // the indexed entries are also interned
+        assertSame(first, cache.intern(new EndPhase(Buy)));
+        cache.setEnabled(false);
+        assertNotSame(first, cache.get(EndPhase.class, 1, i -> new EndPhase(Buy)));
+    }
+
+    @Test
+    public void cacheIsSharedByCopiesOfState() {
+        Game game = GameType.Dominion.createGameInstance(2, 42);
+        game.reset(List.of(new RandomPlayer(), new RandomPlayer()));
+        AbstractGameState state = game.getGameState();
+        AbstractGameState copy = state.copy(1);
+        assertSame(state.getGameParameters().getActionCache(), copy.getGameParameters().getActionCache());
+        assertSame(BuyCard.of(state, CardType.PROVINCE, 1), BuyCard.of(copy, CardType.PROVINCE, 1));
+        assertEquals(new BuyCard(CardType.PROVINCE, 1), BuyCard.of(copy, CardType.PROVINCE, 1));
+        assertEquals(DominionConstants.DeckType.DISCARD, BuyCard.of(copy, CardType.COPPER, 0).destinationDeck);
+        assertEquals(0, BuyCard.of(copy, CardType.COPPER, 0).buyingPlayer);
+    }
+
+    static class TestAction extends AbstractAction {
+        @Override
+        public boolean execute(AbstractGameState gs) {
+            return true;
+        }
+
+        @Override
+        public AbstractAction copy() {
+            return new TestAction();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestAction;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+
+        @Override
+        public String getString(AbstractGameState gameState) {
+            return "Test";
+        }
+    }
+}
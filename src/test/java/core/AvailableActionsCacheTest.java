@@ -0,0 +1,105 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class AvailableActionsCacheTest {
+
+    private Game game(GameType gameType, boolean cache) {
+        Game game = gameType.createGameInstance(2, 42);
+        game.reset(List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2))));
+        game.getCoreParameters().setParameterValue("cache available actions", cache);
+        return game;
+    }
+
+    @Test
+    public void offByDefault() {
+        Game game = GameType.LoveLetter.createGameInstance(2, 42);
+        game.reset(List.of(new RandomPlayer(), new RandomPlayer()));
+        AbstractForwardModel fm = game.getForwardModel();
+        fm.computeAvailableActions(game.getGameState());
+        fm.computeAvailableActions(game.getGameState());
+        assertEquals(0, fm.getActionCacheHits());
+        assertEquals(0, fm.getActionCacheMisses());
+    }
+
+    @Test
+    public void secondCallIsCached() {
+        Game game = game(GameType.LoveLetter, true);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> first = fm.computeAvailableActions(state);
+        List<AbstractAction> second = fm.computeAvailableActions(state);
+        assertEquals(1, fm.getActionCacheMisses());
+        assertEquals(1, fm.getActionCacheHits());
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        second.clear();  // the caller can change the list
+        assertEquals(first, fm.computeAvailableActions(state));
+    }
+
+    @Test
+    public void exactCopiesKeepTheCache() {
+        Game game = game(GameType.LoveLetter, true);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        assertEquals(actions, fm.computeAvailableActions(state.copy()));
+        assertEquals(1, fm.getActionCacheHits());
+        // but not those from a player's perspective, as hidden information is redeterminised
+        fm.computeAvailableActions(state.copy(state.getCurrentPlayer()));
+        assertEquals(1, fm.getActionCacheHits());
+        assertEquals(2, fm.getActionCacheMisses());
+    }
+
+    @Test
+    public void nextClearsTheCache() {
+        Game game = game(GameType.LoveLetter, true);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        AbstractGameState copy = state.copy();
+        fm.next(state, actions.get(0).copy());
+        assertNull(state.availableActions);
+        fm.computeAvailableActions(state);
+        assertEquals(2, fm.getActionCacheMisses());
+        // the copy is unaffected
+        assertEquals(actions, fm.computeAvailableActions(copy));
+        assertEquals(1, fm.getActionCacheHits());
+    }
+
+    @Test
+    public void chessKeepsActionsComputedInNext() {
+        Game game = game(GameType.Chess, true);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        fm.next(state, actions.get(0).copy());
+        long misses = fm.getActionCacheMisses();
+        // the observation for the next player is also an exact copy in chess
+        List<AbstractAction> nextActions = fm.computeAvailableActions(state.copy(state.getCurrentPlayer()));
+        assertEquals(misses, fm.getActionCacheMisses());
+        assertEquals(1, fm.getActionCacheHits());
+        state.clearAvailableActions();
+        assertEquals(nextActions, fm.computeAvailableActions(state));
+    }
+
+    @Test
+    public void gamesAreUnchanged() {
+        for (GameType gameType : List.of(GameType.LoveLetter, GameType.Chess, GameType.Dominion, GameType.Poker)) {
+            Game withCache = game(gameType, true);
+            Game withoutCache = game(gameType, false);
+            withCache.run();
+            withoutCache.run();
+            assertEquals(gameType.name(), withoutCache.getGameState().getHistoryAsText(), withCache.getGameState().getHistoryAsText());
+            if (gameType == GameType.Chess)  // the others have hidden information, so the observations are not exact copies
+                assertTrue(withCache.getForwardModel().getActionCacheHits() > 0);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.Component;
+import evaluation.CopyBenchmark;
+import games.GameType;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CopyOnWriteGamesTest {
+
+    @Test
+    public void copyOnWriteDoesNotChangePlay() throws ReflectiveOperationException {
+        for (String name : CopyBenchmark.DEFAULT_GAMES.split("\\|")) {
+            GameType gameType = GameType.valueOf(name);
+            int nPlayers = Math.max(gameType.getMinPlayers(), Math.min(gameType.getMaxPlayers(), 3));
+            Game game = gameType.createGameInstance(nPlayers, 42);
+            AbstractForwardModel fm = game.getForwardModel();
+            // two copies of the same starting state, with the same component IDs and random number generators
+            AbstractGameState eager = exactCopy(game.getGameState());
+            AbstractGameState cow = exactCopy(game.getGameState());
+            cow.setCopyOnWrite(true);
+
+            // components created during play take their IDs from a global counter, so both start from the same value
+            Field nextID = Component.class.getDeclaredField("ID");
+            nextID.setAccessible(true);
+            int firstID = nextID.getInt(null);
+            List<String> expected = play(eager, fm);
+            nextID.setInt(null, firstID);
+            List<String> actual = play(cow, fm);
+
+            for (int decision = 0; decision < expected.size(); decision++)
+                assertEquals(name + " at decision " + decision, expected.get(decision), actual.get(decision));
+            assertEquals(name, expected.size(), actual.size());
+        }
+    }
+
+    private AbstractGameState exactCopy(AbstractGameState state) {
+        // the random number generators of the copy (including any the game keeps) are seeded from this
+        state.redeterminisationRnd.setSeed(42);
+        AbstractGameState copy = state.copy();
+        copy.redeterminisationRnd.setSeed(42);
+        return copy;
+    }
+
+    /**
+     * Plays the game on from the state, searching ahead from a copy of it before each decision, and records the
+     * actions available, the action chosen and the resulting state at each decision.
+     */
+    private List<String> play(AbstractGameState state, AbstractForwardModel fm) {
+        List<String> trace = new ArrayList<>();
+        Random rnd = new Random(42);
+        for (int decision = 0; decision < 256 && state.isNotTerminal(); decision++) {
+            // search copies the state (which with copy-on-write then shares its storage) and plays on from the copy
+            searchFrom(state, fm, decision);
+
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+            fm.next(state, action.copy());
+            trace.add(actions + " -> " + action + ": " + state.getGameStatus() + " " + state.hashCode());
+        }
+        return trace;
+    }
+
+    private void searchFrom(AbstractGameState state, AbstractForwardModel fm, int seed) {
+        AbstractGameState copy = state.copy();
+        Random rnd = new Random(seed);
+        for (int i = 0; i < 5 && copy.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(copy);
+            fm.next(copy, actions.get(rnd.nextInt(actions.size())));
+        }
+    }
+}
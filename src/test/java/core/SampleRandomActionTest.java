@@ -0,0 +1,141 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.DoNothing;
+import games.GameType;
+import games.catan.actions.build.BuildCity;
+import games.catan.actions.build.BuildRoad;
+import games.catan.actions.build.BuildSettlement;
+import games.catan.actions.trade.DefaultTrade;
+import games.catan.actions.trade.OfferPlayerTrade;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class SampleRandomActionTest {
+
+    private Game game(GameType gameType, int ticks) {
+        int nPlayers = Math.max(2, gameType.getMinPlayers());
+        Game game = gameType.createGameInstance(nPlayers, 42);
+        List<AbstractPlayer> players = new ArrayList<>();
+        for (int p = 0; p < nPlayers; p++)
+            players.add(new RandomPlayer(new Random(p + 1)));
+        game.reset(players);
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(3);
+        for (int i = 0; i < ticks; i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(game.getGameState());
+            fm.next(game.getGameState(), actions.get(rnd.nextInt(actions.size())));
+        }
+        return game;
+    }
+
+    private void checkUniform(GameType gameType, int ticks) {
+        checkUniform(game(gameType, ticks));
+    }
+
+    /**
+     * Catan plays out differently depending on the component IDs that other tests have already used, so rather than
+     * play a fixed number of ticks we play on to the first state with the actions wanted.
+     */
+    private void checkCatanUniform(Predicate<List<AbstractAction>> wanted) {
+        Game game = game(GameType.Catan, 0);
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(3);
+        List<AbstractAction> actions = fm.computeAvailableActions(game.getGameState());
+        while (!wanted.test(actions)) {
+            fm.next(game.getGameState(), actions.get(rnd.nextInt(actions.size())));
+            assertTrue(game.getGameState().isNotTerminal());
+            actions = fm.computeAvailableActions(game.getGameState());
+        }
+        checkUniform(game);
+    }
+
+    private void checkUniform(Game game) {
+        GameType gameType = game.getGameType();
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        assertTrue(actions.size() > 1);
+        Map<AbstractAction, Integer> counts = new HashMap<>();
+        Random rnd = new Random(4);
+        int samples = 1000 * actions.size();
+        for (int i = 0; i < samples; i++) {
+            AbstractAction action = fm.sampleRandomAction(state, rnd);
+            assertTrue(gameType + " " + action, actions.contains(action));
+            counts.merge(action, 1, Integer::sum);
+        }
+        // rejection sampling occasionally gives up and falls back to computing all the actions
+        assertEquals(samples, fm.getDirectSamples() + fm.getEnumeratedSamples());
+        assertTrue(fm.getDirectSamples() > 0.99 * samples);
+        assertEquals(actions.size(), counts.size());
+        for (int count : counts.values())
+            assertEquals(1000, count, 150);
+    }
+
+    @Test
+    public void ticTacToeSamplesUniformly() {
+        checkUniform(GameType.TicTacToe, 3);
+    }
+
+    @Test
+    public void dotsAndBoxesSamplesUniformly() {
+        checkUniform(GameType.DotsAndBoxes, 10);
+    }
+
+    @Test
+    public void catanSamplesRoadsUniformly() {
+        // only roads to build (enough of them that rejection sampling seldom gives up), or end the turn
+        checkCatanUniform(actions -> actions.stream().filter(a -> a instanceof BuildRoad).count() >= 6
+                && actions.stream().allMatch(a -> a instanceof BuildRoad || a instanceof DoNothing));
+    }
+
+    @Test
+    public void catanSamplesTradesAndBuildingsUniformly() {
+        checkCatanUniform(actions -> actions.stream().anyMatch(a -> a instanceof DefaultTrade)
+                && actions.stream().anyMatch(a -> a instanceof OfferPlayerTrade)
+                && actions.stream().anyMatch(a -> a instanceof BuildRoad || a instanceof BuildSettlement || a instanceof BuildCity));
+    }
+
+    @Test
+    public void otherGamesComputeAllActions() {
+        Game game = game(GameType.LoveLetter, 0);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        Random rnd = new Random(4);
+        for (int i = 0; i < 20; i++)
+            assertTrue(actions.contains(fm.sampleRandomAction(state, rnd)));
+        assertEquals(0, fm.getDirectSamples());
+        assertEquals(20, fm.getEnumeratedSamples());
+    }
+
+    @Test
+    public void noActionsAtEndOfGame() {
+        Game game = game(GameType.TicTacToe, 0);
+        game.run();
+        assertNull(game.getForwardModel().sampleRandomAction(game.getGameState(), new Random(4)));
+    }
+
+    @Test
+    public void mctsRolloutsSampleDirectly() {
+        Game game = game(GameType.DotsAndBoxes, 0);
+        AbstractForwardModel fm = game.getForwardModel();
+        MCTSParams params = new MCTSParams();
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 50);
+        params.setParameterValue("rolloutLength", 10);
+        MCTSPlayer player = new MCTSPlayer(params);
+        player.setForwardModel(fm);
+        AbstractAction action = player.getAction(game.getGameState(), fm.computeAvailableActions(game.getGameState()));
+        assertTrue(fm.computeAvailableActions(game.getGameState()).contains(action));
+        assertTrue(fm.getDirectSamples() > 0);
+    }
+}
@@ -0,0 +1,84 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import games.connect4.Connect4ForwardModel;
+import games.connect4.Connect4GameParameters;
+import games.connect4.Connect4GameState;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class UndoTest {
+
+    @Test
+    public void undoRestoresStateInSimpleGames() {
+        for (GameType gameType : List.of(GameType.TicTacToe, GameType.Connect4, GameType.DotsAndBoxes, GameType.PenteGrammai)) {
+            Game game = gameType.createGameInstance(2, 42);
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            Random rnd = new Random(42);
+            while (state.isNotTerminal()) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                assertTrue(gameType.name(), fm.supportsUndo(state));
+                // try every action in turn, and check that undo() puts back exactly what was there before
+                int hash = state.hashCode();
+                int tick = state.getGameTick();
+                int player = state.getCurrentPlayer();
+                int historySize = state.getHistory().size();
+                CoreConstants.GameResult[] results = state.getPlayerResults().clone();
+                for (AbstractAction action : actions) {
+                    fm.nextWithUndo(state, action.copy());
+                    fm.undo(state);
+                    assertEquals(gameType.name() + " " + action, hash, state.hashCode());
+                    assertEquals(tick, state.getGameTick());
+                    assertEquals(player, state.getCurrentPlayer());
+                    assertEquals(historySize, state.getHistory().size());
+                    assertArrayEquals(results, state.getPlayerResults());
+                    assertEquals(actions, fm.computeAvailableActions(state));
+                }
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+    }
+
+    @Test
+    public void nestedUndoUnwindsInOrder() {
+        Connect4ForwardModel fm = new Connect4ForwardModel();
+        Connect4GameState state = new Connect4GameState(new Connect4GameParameters(), 2);
+        fm.setup(state);
+        Deque<Integer> hashes = new ArrayDeque<>();
+        Random rnd = new Random(7);
+        while (state.isNotTerminal()) {
+            hashes.push(state.hashCode());
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.nextWithUndo(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        assertFalse(state.isNotTerminal());
+        while (!hashes.isEmpty()) {
+            fm.undo(state);
+            assertEquals(hashes.pop().intValue(), state.hashCode());
+            assertTrue(state.isNotTerminal());
+        }
+        assertEquals(0, state.getGameTick());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void undoWithoutNextFails() {
+        Connect4ForwardModel fm = new Connect4ForwardModel();
+        Connect4GameState state = new Connect4GameState(new Connect4GameParameters(), 2);
+        fm.setup(state);
+        fm.undo(state);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void nextWithUndoFailsWhereNotSupported() {
+        Game game = GameType.LoveLetter.createGameInstance(2, 42);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        assertFalse(fm.supportsUndo(state));
+        fm.nextWithUndo(state, fm.computeAvailableActions(state).get(0));
+    }
+}
@@ -0,0 +1,173 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import core.components.BoardNode;
+import core.components.Card;
+import core.components.Deck;
+import core.components.GridBoard;
+import evaluation.features.ZobristStateKey;
+import games.GameType;
+import games.dominion.DominionGameState;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
+import static org.junit.Assert.*;
+
+public class ZobristHashTest {
+
+    private final String[] names = {"Copper", "Silver", "Gold", "Estate", "Duchy"};
+
+    @Test
+    public void deckHashIsMaintained() {
+        Random rnd = new Random(11);
+        Deck<Card> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        for (int i = 0; i < 20000; i++) {
+            switch (rnd.nextInt(6)) {
+                case 0, 1 -> deck.add(new Card(names[rnd.nextInt(names.length)]));
+                case 2 -> deck.draw();
+                case 3 -> {
+                    if (deck.getSize() > 0) deck.remove(rnd.nextInt(deck.getSize()));
+                }
+                case 4 -> deck.addToBottom(new Card(names[rnd.nextInt(names.length)]));
+                default -> {
+                    if (rnd.nextInt(20) == 0) deck.shuffle(rnd);
+                    else deck = deck.copy();
+                }
+            }
+            long incremental = deck.getZobristHash();
+            deck.getComponents();  // marks the hash as out of date, so that it is computed again from scratch
+            assertEquals(incremental, deck.getZobristHash());
+        }
+    }
+
+    @Test
+    public void deckHashDependsOnContentAndOrder() {
+        Deck<Card> one = new Deck<>("One", HIDDEN_TO_ALL);
+        Deck<Card> two = new Deck<>("Two", HIDDEN_TO_ALL);
+        one.add(new Card("Gold"));
+        one.add(new Card("Copper"));
+        two.addToBottom(new Card("Copper"));
+        two.addToBottom(new Card("Gold"));
+        assertEquals(one.getZobristHash(), two.getZobristHash());
+        two.add(two.pickLast());
+        assertNotEquals(one.getZobristHash(), two.getZobristHash());
+        one.clear();
+        assertEquals(new Deck<>("Empty", HIDDEN_TO_ALL).getZobristHash(), one.getZobristHash());
+    }
+
+    @Test
+    public void gridBoardHashIsMaintained() {
+        Random rnd = new Random(5);
+        BoardNode[] values = {null, new BoardNode("x"), new BoardNode("o"), new BoardNode(".")};
+        GridBoard board = new GridBoard(7, 6, values[3]);
+        for (int i = 0; i < 5000; i++) {
+            board.setElement(rnd.nextInt(7), rnd.nextInt(6), values[rnd.nextInt(values.length)]);
+            if (rnd.nextInt(10) == 0)
+                board = board.copy();
+            long incremental = board.getZobristHash();
+            board.getGridValues();  // marks the hash as out of date
+            assertEquals(incremental, board.getZobristHash());
+        }
+    }
+
+    @Test
+    public void transpositionsHaveTheSameHash() {
+        // the same TicTacToe position reached by two different move orders
+        AbstractGameState first = playTicTacToe(new int[][]{{0, 0}, {1, 1}, {2, 2}, {0, 2}});
+        AbstractGameState second = playTicTacToe(new int[][]{{2, 2}, {0, 2}, {0, 0}, {1, 1}});
+        assertEquals(first.getZobristHash(), second.getZobristHash());
+        AbstractGameState third = playTicTacToe(new int[][]{{1, 1}, {0, 0}, {2, 2}, {0, 2}});
+        assertNotEquals(first.getZobristHash(), third.getZobristHash());
+        assertNotEquals(first.positionHashCode(), third.positionHashCode());
+    }
+
+    @Test
+    public void positionHashCodeIgnoresTheTick() {
+        AbstractGameState state = playTicTacToe(new int[][]{{0, 0}, {1, 1}});
+        AbstractGameState later = state.copy();
+        later.advanceGameTick();
+        assertNotEquals(state.hashCode(), later.hashCode());
+        assertEquals(state.positionHashCode(), later.positionHashCode());
+        assertEquals(state.getZobristHash(), later.getZobristHash());
+        assertEquals(2, state.getGameTick());
+        assertEquals(3, later.getGameTick());
+    }
+
+    @Test
+    public void positionHashCodeDefaultsToHashCode() {
+        // Dominion does not override _positionHash(), so the tick is included
+        AbstractGameState state = GameType.Dominion.createGameInstance(2, 3).getGameState();
+        AbstractGameState later = state.copy();
+        later.advanceGameTick();
+        assertEquals(state.hashCode(), state.positionHashCode());
+        assertNotEquals(state.positionHashCode(), later.positionHashCode());
+    }
+
+    @Test
+    public void defaultHashCoversStateOutsideComponents() {
+        // Dominion does not maintain its own hash, and keeps the actions and buys left in plain fields
+        DominionGameState state = (DominionGameState) GameType.Dominion.createGameInstance(2, 3).getGameState();
+        DominionGameState other = (DominionGameState) state.copy();
+        ZobristStateKey key = new ZobristStateKey();
+        assertEquals(key.getLongKey(state, 0), key.getLongKey(other, 0));
+        other.changeBuys(1);
+        assertNotEquals(key.getLongKey(state, 0), key.getLongKey(other, 0));
+        other.changeBuys(-1);
+        other.changeActions(1);
+        assertNotEquals(key.getLongKey(state, 0), key.getLongKey(other, 0));
+    }
+
+    @Test
+    public void positionHashCodeDoesNotChangeTheState() throws InterruptedException {
+        AbstractGameState state = playTicTacToe(new int[][]{{0, 0}, {1, 1}});
+        int hash = state.hashCode();
+        int position = state.positionHashCode();
+        Thread other = new Thread(() -> {
+            for (int i = 0; i < 10000; i++)
+                state.positionHashCode();
+        });
+        other.start();
+        for (int i = 0; i < 10000; i++)
+            assertEquals(hash, state.hashCode());
+        other.join();
+        assertEquals(position, state.positionHashCode());
+        assertEquals(2, state.getGameTick());
+    }
+
+    private AbstractGameState playTicTacToe(int[][] moves) {
+        Game game = GameType.TicTacToe.createGameInstance(2, 1);
+        AbstractGameState state = game.getGameState();
+        for (int[] move : moves) {
+            AbstractAction action = game.getForwardModel().computeAvailableActions(state).stream()
+                    .filter(a -> ((SetGridValueAction) a).getX() == move[0] && ((SetGridValueAction) a).getY() == move[1])
+                    .findFirst().orElseThrow();
+            game.getForwardModel().next(state, action);
+        }
+        return state;
+    }
+
+    @Test
+    public void stateHashesAreCopiedAndIndependent() {
+        for (GameType gameType : List.of(GameType.Connect4, GameType.DotsAndBoxes, GameType.Dominion)) {
+            Game game = gameType.createGameInstance(2, 42);
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            Random rnd = new Random(42);
+            for (int step = 0; step < 40 && state.isNotTerminal(); step++) {
+                long hash = state.getZobristHash();
+                AbstractGameState copy = state.copy();
+                assertEquals(gameType.name(), hash, copy.getZobristHash());
+                List<AbstractAction> actions = fm.computeAvailableActions(copy);
+                fm.next(copy, actions.get(rnd.nextInt(actions.size())));
+                assertNotEquals(gameType.name(), hash, copy.getZobristHash());
+                assertEquals(gameType.name(), hash, state.getZobristHash());
+                actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+    }
+}
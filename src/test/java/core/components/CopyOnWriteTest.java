@@ -0,0 +1,193 @@
+package core.components;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.CoreConstants;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.dominion.DominionConstants;
+import games.dominion.DominionGameState;
+import games.dominion.cards.DominionCard;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CopyOnWriteTest {
+
+    private Deck<Card> deck(int size) {
+        Deck<Card> deck = new Deck<>("Test", 0, CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        for (int i = 0; i < size; i++)
+            deck.add(new Card(i % 2 == 0 ? "Copper" : "Estate"));
+        deck.setCopyOnWrite(true);
+        return deck;
+    }
+
+    @Test
+    public void deckCopySharesUntilWritten() {
+        Deck<Card> original = deck(10);
+        Deck<Card> copy = original.copy();
+        assertTrue(copy.isCopyOnWrite());
+        assertTrue(original.isShared());
+        assertTrue(copy.isShared());
+        List<Card> inOriginal = new ArrayList<>();
+        original.forEachComponent(inOriginal::add);
+        List<Card> inCopy = new ArrayList<>();
+        copy.forEachComponent(inCopy::add);
+        for (int i = 0; i < inOriginal.size(); i++)
+            assertSame(inOriginal.get(i), inCopy.get(i));
+        assertEquals(original, copy);
+
+        // reads do not copy
+        assertEquals(10, copy.getSize());
+        assertTrue(copy.contains(inOriginal.get(0)));
+        assertTrue(copy.isShared());
+
+        // but handing out a component does, as it may then be changed
+        assertNotSame(inOriginal.get(3), copy.peek(3));
+        assertEquals(inOriginal.get(3).getComponentID(), copy.peek(3).getComponentID());
+        assertFalse(copy.isShared());
+        assertEquals(5, copy.stream().filter(c -> c.getComponentName().equals("Copper")).count());
+
+        Card drawn = copy.draw();
+        assertFalse(copy.isShared());
+        assertEquals(9, copy.getSize());
+        assertEquals(10, original.getSize());
+        assertNotSame(inOriginal.get(0), drawn);
+        assertEquals(inOriginal.get(0).getComponentID(), drawn.getComponentID());
+
+        // the original still thinks it is shared, so takes its own copy on its first change, and leaves the copy alone
+        assertTrue(original.isShared());
+        original.shuffle(new Random(1));
+        assertFalse(original.isShared());
+        assertEquals(9, copy.getSize());
+    }
+
+    @Test
+    public void deckClearAndGetComponentsDoNotChangeTheOriginal() {
+        Deck<Card> original = deck(6);
+        Deck<Card> copy = original.copy();
+        copy.clear();
+        assertEquals(0, copy.getSize());
+        assertEquals(6, original.getSize());
+        assertTrue(original.getComponents().stream().allMatch(c -> c.getOwnerId() == 0));
+
+        Deck<Card> second = original.copy();
+        second.getComponents().remove(0);
+        assertEquals(5, second.getSize());
+        assertEquals(6, original.getSize());
+    }
+
+    @Test
+    public void partialObservableDeckSharesVisibility() {
+        PartialObservableDeck<Card> original = new PartialObservableDeck<>("Test", 0, new boolean[]{true, false});
+        for (int i = 0; i < 4; i++)
+            original.add(new Card("Copper"));
+        original.setCopyOnWrite(true);
+        PartialObservableDeck<Card> copy = original.copy();
+        assertTrue(copy.isShared());
+        copy.setVisibilityOfComponent(2, 1, true);
+        assertTrue(copy.isComponentVisible(2, 1));
+        assertFalse(original.isComponentVisible(2, 1));
+        copy.pick(0);
+        assertEquals(3, copy.getSize());
+        assertEquals(4, original.getSize());
+        assertFalse(original.isComponentVisible(1, 1));
+    }
+
+    @Test
+    public void gridBoardCopySharesUntilWritten() {
+        GridBoard original = new GridBoard(3, 3);
+        for (int x = 0; x < 3; x++)
+            original.setElement(x, 0, new BoardNode(-1, "A"));
+        original.setCopyOnWrite(true);
+        GridBoard copy = original.copy();
+        assertTrue(copy.isShared());
+        List<BoardNode> inOriginal = new ArrayList<>();
+        original.forEachComponent(inOriginal::add);
+        List<BoardNode> inCopy = new ArrayList<>();
+        copy.forEachComponent(inCopy::add);
+        assertSame(inOriginal.get(1), inCopy.get(1));
+        // a node handed out may be changed, so the copy takes its own nodes first
+        assertNotSame(inOriginal.get(1), copy.getElement(1, 0));
+        assertFalse(copy.isShared());
+        copy.setElement(1, 1, new BoardNode(-1, "B"));
+        assertFalse(copy.isShared());
+        assertNull(original.getElement(1, 1));
+        assertEquals("B", copy.getElement(1, 1).getComponentName());
+        assertEquals(original.getElement(0, 0).getComponentID(), copy.getElement(0, 0).getComponentID());
+    }
+
+    @Test
+    public void areaCopySharesUntilWritten() {
+        Area original = new Area(-1, "Test");
+        Counter counter = new Counter(new int[]{1, 2, 3}, "C");
+        original.putComponent(counter);
+        original.setCopyOnWrite(true);
+        counter.setCopyOnWrite(true);
+        Area copy = original.copy();
+        assertTrue(copy.isShared());
+        copy.forEachComponent(c -> assertSame(counter, c));
+        // the component may be changed once it is handed out
+        Component fromCopy = copy.getComponent(counter.getComponentID());
+        assertNotSame(counter, fromCopy);
+        assertEquals(counter.getComponentID(), fromCopy.getComponentID());
+        copy.putComponent(new Counter("D"));
+        assertEquals(2, copy.size());
+        assertEquals(1, original.size());
+        original.forEachComponent(c -> assertSame(counter, c));
+
+        Counter counterCopy = counter.copy();
+        assertSame(counter.values, counterCopy.values);
+        counterCopy.getValues()[0] = 10;
+        assertEquals(1, counter.getValues()[0]);
+    }
+
+    @Test
+    public void clearingASharedDeckInvalidatesComponentLookups() {
+        Game game = GameType.Dominion.createGameInstance(2, 37);
+        DominionGameState state = (DominionGameState) game.getGameState();
+        state.setCopyOnWrite(true);
+        Deck<DominionCard> drawPile = state.getDeck(DominionConstants.DeckType.DRAW, 0);
+        DominionCard card = drawPile.peek();
+
+        DominionGameState copy = (DominionGameState) state.copy();
+        // this fills the lookup of the copy without unsharing its decks
+        Deck<?> copyDrawPile = (Deck<?>) copy.getComponentById(drawPile.getComponentID());
+        assertTrue(copyDrawPile.isShared());
+        copyDrawPile.clear();
+        assertNotSame(card, copy.getComponentById(card.getComponentID()));
+        assertSame(card, drawPile.peek());
+        assertEquals(5, drawPile.getSize());
+    }
+
+    @Test
+    public void copiesAreIndependentInFullGames() {
+        for (GameType gameType : List.of(GameType.LoveLetter, GameType.Dominion, GameType.Saboteur, GameType.Pandemic,
+                GameType.Catan, GameType.TerraformingMars, GameType.Root, GameType.Descent2e)) {
+            Game game = gameType.createGameInstance(gameType.getMinPlayers() == 1 ? 2 : gameType.getMinPlayers(), 37);
+            AbstractGameState state = game.getGameState();
+            AbstractForwardModel fm = game.getForwardModel();
+            state.setCopyOnWrite(true);
+            Random rnd = new Random(91);
+            int decisions = 0;
+            while (state.isNotTerminal() && decisions < 200) {
+                // a search-like copy and rollout from the current state must not change it
+                int before = state.hashCode();
+                AbstractGameState copy = state.copy();
+                for (int i = 0; i < 10 && copy.isNotTerminal(); i++) {
+                    List<AbstractAction> actions = fm.computeAvailableActions(copy);
+                    fm.next(copy, actions.get(rnd.nextInt(actions.size())));
+                }
+                assertEquals(gameType + " state changed by a rollout on its copy at decision " + decisions,
+                        before, state.hashCode());
+
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+                decisions++;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package core.components;
+
+import core.CoreConstants;
+import core.properties.*;
+import org.json.simple.JSONArray;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PropertyStorageTest {
+
+    private static PropertyIntArray intArray(String name, long... values) {
+        JSONArray array = new JSONArray();
+        for (long v : values) array.add(v);
+        return new PropertyIntArray(name, array);
+    }
+
+    @Test
+    public void getPropertyReturnsWhatWasSet() {
+        Token token = new Token("test");
+        token.setProperty(new PropertyInt("storageInt", 7));
+        token.setProperty(new PropertyBoolean("storageBool", true));
+        token.setProperty(new PropertyLong("storageLong", 1L << 40));
+        token.setProperty(new PropertyDouble("storageDouble", 2.5));
+        token.setProperty(new PropertyString("storageString", "hello"));
+
+        assertEquals(5, token.getNumProperties());
+        assertEquals(7, ((PropertyInt) token.getProperty("storageInt")).value);
+        assertTrue(((PropertyBoolean) token.getProperty("storageBool")).value);
+        assertEquals(1L << 40, ((PropertyLong) token.getProperty("storageLong")).value);
+        assertEquals(2.5, ((PropertyDouble) token.getProperty("storageDouble")).value, 0.0);
+        assertEquals("hello", ((PropertyString) token.getProperty("storageString")).value);
+        assertNull(token.getProperty("storageMissing"));
+        assertEquals(5, token.getProperties().size());
+    }
+
+    @Test
+    public void typedSlotsMatchGetProperty() {
+        PropertySchema schema = PropertySchema.of(CoreConstants.ComponentType.TOKEN);
+        int intSlot = schema.slot("storageTypedInt", PropertySchema.Kind.INT);
+        int boolSlot = schema.slot("storageTypedBool", PropertySchema.Kind.BOOLEAN);
+        assertEquals(intSlot, schema.slot("storageTypedInt", PropertySchema.Kind.INT));
+
+        Token token = new Token("test");
+        assertFalse(token.hasProperty(intSlot));
+        token.setIntProperty(intSlot, 3);
+        token.setBooleanProperty(boolSlot, true);
+        assertTrue(token.hasProperty(intSlot));
+        assertEquals(3, ((PropertyInt) token.getProperty("storageTypedInt")).value);
+        assertTrue(((PropertyBoolean) token.getProperty("storageTypedBool")).value);
+
+        token.setProperty(new PropertyInt("storageTypedInt", 9));
+        assertEquals(9, token.getIntProperty(intSlot));
+        assertThrows(IllegalArgumentException.class, () -> token.getLongProperty(intSlot));
+    }
+
+    @Test
+    public void replacingKindKeepsOneProperty() {
+        Token token = new Token("test");
+        token.setProperty(new PropertyInt("storageMixed", 1));
+        token.setProperty(new PropertyString("storageMixed", "one"));
+        assertEquals(1, token.getNumProperties());
+        assertEquals("one", ((PropertyString) token.getProperty("storageMixed")).value);
+        token.setProperty(new PropertyInt("storageMixed", 2));
+        assertEquals(1, token.getNumProperties());
+        assertEquals(2, ((PropertyInt) token.getProperty("storageMixed")).value);
+    }
+
+    @Test
+    public void copiesAreIndependent() {
+        Token original = new Token("test");
+        original.setProperty(new PropertyInt("storageCopyInt", 1));
+        original.setProperty(intArray("storageCopyArray", 1, 2, 3));
+        Property array = original.getProperty("storageCopyArray");
+
+        Token copy = original.copy();
+        // copying (or reading the copy) does not change the original's objects
+        assertNotSame(array, copy.getProperty("storageCopyArray"));
+        assertSame(array, original.getProperty("storageCopyArray"));
+        copy.setProperty(new PropertyInt("storageCopyInt", 2));
+        ((PropertyIntArray) copy.getProperty("storageCopyArray")).getValues()[0] = 10;
+
+        assertEquals(1, ((PropertyInt) original.getProperty("storageCopyInt")).value);
+        assertEquals(1, ((PropertyIntArray) original.getProperty("storageCopyArray")).getValues()[0]);
+        assertEquals(2, ((PropertyInt) copy.getProperty("storageCopyInt")).value);
+        assertEquals(10, ((PropertyIntArray) copy.getProperty("storageCopyArray")).getValues()[0]);
+
+        // and the other way round
+        ((PropertyIntArray) original.getProperty("storageCopyArray")).getValues()[1] = 20;
+        assertEquals(2, ((PropertyIntArray) copy.getProperty("storageCopyArray")).getValues()[1]);
+    }
+
+    @Test
+    public void constantAndImmutablePropertiesAreShared() {
+        PropertyIntArray neighbours = intArray("storageConstantArray", 4, 5);
+        Token original = new Token("test");
+        original.setProperty(neighbours);
+        original.setPropertyConstant(neighbours.getHashKey());
+        original.setProperty(new PropertyString("storageSharedString", "x"));
+        original.setProperty(intArray("storageOwnedArray", 1));
+
+        Token copy = original.copy();
+        assertSame(neighbours, copy.getProperty("storageConstantArray"));
+        assertSame(neighbours, copy.copy().getProperty("storageConstantArray"));
+        assertSame(original.getProperty("storageSharedString"), copy.getProperty("storageSharedString"));
+        assertNotSame(original.getProperty("storageOwnedArray"), copy.getProperty("storageOwnedArray"));
+
+        // this only applies to the component it was declared on (and its copies), not to others of the same type
+        Token other = new Token("other");
+        other.setProperty(intArray("storageConstantArray", 4, 5));
+        assertNotSame(other.getProperty("storageConstantArray"), other.copy().getProperty("storageConstantArray"));
+    }
+}
@@ -0,0 +1,140 @@
+package evaluation;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
+import evaluation.replay.GameRecord;
+import evaluation.replay.ReplayEngine;
+import evaluation.replay.ReplayRecorder;
+import games.GameType;
+import games.loveletter.LoveLetterParameters;
+import org.junit.*;
+import players.simple.RandomPlayer;
+import utilities.Pair;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ReplayTest {
+
+    // Records the history and final scores of every game it sees
+    static class FinalStateListener implements IGameListener {
+        Game game;
+        List<List<Pair<Integer, AbstractAction>>> histories = new ArrayList<>();
+        List<double[]> scores = new ArrayList<>();
+        Map<Long, String> resultsBySeed = new HashMap<>();
+        int actionsChosen;
+
+        @Override
+        public void onEvent(Event event) {
+            if (event.type == Event.GameEvent.ACTION_CHOSEN)
+                actionsChosen++;
+            if (event.type == Event.GameEvent.GAME_OVER) {
+                AbstractGameState state = event.state;
+                histories.add(state.getHistory());
+                double[] score = new double[state.getNPlayers()];
+                for (int p = 0; p < score.length; p++)
+                    score[p] = state.getGameScore(p);
+                scores.add(score);
+                resultsBySeed.put(state.getGameParameters().getRandomSeed(),
+                        state.getHistory().size() + " " + Arrays.toString(state.getPlayerResults()) + " " + Arrays.toString(score));
+            }
+        }
+
+        @Override
+        public void report() {
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    File replayFile;
+
+    @Before
+    public void setup() throws Exception {
+        replayFile = File.createTempFile("replays", ".bin");
+        replayFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        replayFile.delete();
+    }
+
+    private FinalStateListener recordGames(GameType gameType, int nPlayers, int nGames) {
+        ReplayRecorder recorder = new ReplayRecorder(replayFile.getPath());
+        FinalStateListener original = new FinalStateListener();
+        Game game = gameType.createGameInstance(nPlayers, 42);
+        game.addListener(recorder);
+        game.addListener(original);
+        Random rnd = new Random(7);
+        for (int i = 0; i < nGames; i++) {
+            List<AbstractPlayer> players = new ArrayList<>();
+            for (int p = 0; p < nPlayers; p++)
+                players.add(new RandomPlayer(new Random(rnd.nextLong())));
+            game.reset(players, rnd.nextLong());
+            game.run();
+        }
+        recorder.report();
+        assertEquals(nGames, recorder.getGamesRecorded());
+        assertEquals(0, recorder.getGamesSkipped());
+        return original;
+    }
+
+    @Test
+    public void replayReproducesLoveLetterGames() {
+        FinalStateListener original = recordGames(GameType.LoveLetter, 3, 10);
+        List<GameRecord> records = GameRecord.readAll(replayFile.getPath());
+        assertEquals(10, records.size());
+
+        FinalStateListener replayed = new FinalStateListener();
+        ReplayEngine engine = new ReplayEngine(null, List.of(replayed));
+        records.forEach(engine::replay);
+        assertEquals(original.actionsChosen, replayed.actionsChosen);
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(records.get(i).actions().length, original.histories.get(i).size());
+            assertEquals(original.histories.get(i), replayed.histories.get(i));
+            assertArrayEquals(original.scores.get(i), replayed.scores.get(i), 1e-9);
+        }
+    }
+
+    @Test
+    public void replayAcrossThreads() {
+        FinalStateListener original = recordGames(GameType.TicTacToe, 2, 20);
+        List<FinalStateListener> perThread = Collections.synchronizedList(new ArrayList<>());
+        int count = ReplayEngine.replayAll(replayFile.getPath(), null, 3, () -> {
+            FinalStateListener l = new FinalStateListener();
+            perThread.add(l);
+            return List.of(l);
+        });
+        assertEquals(20, count);
+        assertEquals(3, perThread.size());
+        assertEquals(original.actionsChosen, perThread.stream().mapToInt(l -> l.actionsChosen).sum());
+        // each thread has its own Game, so component IDs in the actions differ; compare the outcome of each game instead
+        Map<Long, String> replayedResults = new HashMap<>();
+        perThread.forEach(l -> replayedResults.putAll(l.resultsBySeed));
+        assertEquals(original.resultsBySeed, replayedResults);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void replayWithDifferentParametersFails() {
+        recordGames(GameType.LoveLetter, 2, 1);
+        LoveLetterParameters params = new LoveLetterParameters();
+        params.setParameterValue("nTokensWin2", 9);
+        ReplayEngine engine = new ReplayEngine(params, List.of());
+        engine.replay(GameRecord.readAll(replayFile.getPath()).get(0));
+    }
+}
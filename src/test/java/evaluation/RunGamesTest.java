@@ -136,6 +136,37 @@ public class RunGamesTest {
         assertEquals(66, tournament.getNGamesPlayed()[3], 15);
     }
 
+    @Test
+    public void adaptiveModeStopsOnceAgentsSeparated() {
+        agents = new ArrayList<>();
+        agents.add(new MCTSPlayer());
+        agents.add(new RandomPlayer());
+        config.put(RunArg.mode, "adaptive");
+        config.put(RunArg.matchups, 1000);
+        tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        tournament.run();
+
+        // MCTS is much stronger than random, so we should stop well before the budget
+        assertTrue(tournament.isPairSeparated(0, 1));
+        assertTrue(tournament.getTotalGamesRun() < 1000);
+        assertEquals(0, tournament.getTotalGamesRun() % 20);  // whole rounds of 10 games in each position
+        assertEquals(tournament.getTotalGamesRun(), tournament.getNGamesPlayed()[0]);
+        assertEquals(0, tournament.getWinnerIndex());
+    }
+
+    @Test
+    public void adaptiveModeRespectsBudget() {
+        config.put(RunArg.mode, "adaptive");
+        tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+        tournament.run();
+
+        // 24 permutations; 4 games each in the first round, and then the remaining 4 games
+        // unless all the random players happen to be separated after the first round
+        assertTrue(tournament.getTotalGamesRun() <= 100);
+        assertTrue(tournament.getTotalGamesRun() >= 96);
+        assertEquals(3 * tournament.getTotalGamesRun(), Arrays.stream(tournament.getNGamesPlayed()).sum());
+    }
+
     @Test
     public void playersCopiedCorrectly() {
         config.put(RunArg.mode, "random");
@@ -3,8 +3,6 @@ package evaluation;
 import core.AbstractPlayer;
 import evaluation.optimisation.ITPSearchSpace;
 import games.puertorico.PuertoRicoActionHeuristic001;
-import org.apache.hadoop.shaded.org.eclipse.jetty.util.ajax.JSON;
-import org.apache.spark.sql.catalyst.expressions.Abs$;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.junit.Before;
@@ -0,0 +1,131 @@
+package evaluation.optimisation;
+
+import core.AbstractPlayer;
+import core.Game;
+import games.GameType;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.heuristics.WinOnlyHeuristic;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.simple.RandomPlayer;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameEvaluatorTest {
+
+    NTBEAParameters params;
+    ITPSearchSpace<?> searchSpace;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        JSONObject json = new JSONObject();
+        JSONArray kValues = new JSONArray();
+        kValues.addAll(List.of(0.1, 1.0, 10.0));
+        JSONArray rolloutLengths = new JSONArray();
+        rolloutLengths.addAll(List.of(1L, 5L));
+        JSONArray rolloutClasses = new JSONArray();
+        rolloutClasses.addAll(List.of("A", "B"));
+        json.put("K", kValues);
+        json.put("rolloutLength", rolloutLengths);
+        json.put("rolloutClass", rolloutClasses);
+        json.put("budgetType", "BUDGET_ITERATIONS");
+        json.put("budget", 10L);
+        searchSpace = new ITPSearchSpace<>(new MCTSParams(), json);
+
+        params = new NTBEAParameters();
+        params.setParameterValue("budget", 0);
+        params.setParameterValue("seed", 42);
+        params.searchSpace = searchSpace;
+    }
+
+    // the search space dimensions are not in any particular order
+    private int[] settings(int k, int rolloutLength, int rolloutClass) {
+        int[] retValue = new int[searchSpace.nDims()];
+        List<String> names = searchSpace.getDimensions();
+        retValue[names.indexOf("K")] = k;
+        retValue[names.indexOf("rolloutLength")] = rolloutLength;
+        retValue[names.indexOf("rolloutClass")] = rolloutClass;
+        return retValue;
+    }
+
+    private GameEvaluator evaluator() {
+        return new GameEvaluator(GameType.TicTacToe, params, 2,
+                List.of(new RandomPlayer(), new RandomPlayer()), new WinOnlyHeuristic(), null, true);
+    }
+
+    @Test
+    public void tunedPlayerReconfiguredInPlace() {
+        GameEvaluator evaluator = evaluator();
+        evaluator.evaluate(settings(0, 0, 0));
+        AbstractPlayer pooled = evaluator.tunedPlayers.get(0);
+        Game game = evaluator.pooledGame;
+
+        int[] changed = settings(2, 1, 0);
+        evaluator.evaluate(changed);
+        assertSame(pooled, evaluator.tunedPlayers.get(0));
+        assertSame(game, evaluator.pooledGame);
+        MCTSParams expected = ((MCTSPlayer) searchSpace.instantiate(changed)).getParameters();
+        MCTSParams actual = (MCTSParams) pooled.getParameters();
+        assertEquals(10.0, actual.K, 0.0);
+        assertEquals(5, actual.rolloutLength);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void newPlayerIfValueCannotBeChangedInPlace() {
+        GameEvaluator evaluator = evaluator();
+        evaluator.evaluate(settings(0, 0, 0));
+        AbstractPlayer pooled = evaluator.tunedPlayers.get(0);
+        evaluator.evaluate(settings(0, 0, 1));
+        assertNotSame(pooled, evaluator.tunedPlayers.get(0));
+        assertEquals("B", ((MCTSParams) evaluator.tunedPlayers.get(0).getParameters()).rolloutClass);
+    }
+
+    @Test
+    public void opponentsAreReused() {
+        GameEvaluator evaluator = evaluator();
+        for (int i = 0; i < 20; i++)
+            evaluator.evaluate(settings(i % 3, i % 2, 0));
+        // only one opponent is needed in each game, and it is returned to the pool afterwards
+        int pooledOpponents = evaluator.opponentPool.values().stream().mapToInt(java.util.Deque::size).sum();
+        assertEquals(1, pooledOpponents);
+        assertTrue(evaluator.opponentsInUse.isEmpty());
+        assertEquals(20, evaluator.nEvals());
+    }
+
+    @Test
+    public void trialValuesDoNotDependOnReuse() {
+        MCTSParams opponentParams = new MCTSParams();
+        opponentParams.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        opponentParams.setParameterValue("budget", 20);
+        opponentParams.setParameterValue("randomSeed", 7);
+        MCTSPlayer opponent = new MCTSPlayer(opponentParams);
+        double[][] values = new double[2][30];
+        for (int run = 0; run < 2; run++) {
+            params.setParameterValue("reuseInstances", run == 0);
+            GameEvaluator evaluator = new GameEvaluator(GameType.TicTacToe, params, 2, List.of(opponent),
+                    new WinOnlyHeuristic(), null, false);
+            for (int i = 0; i < values[run].length; i++)
+                values[run][i] = evaluator.evaluate(settings(i % 3, i % 2, 0));
+        }
+        assertArrayEquals(values[1], values[0], 0.0);
+    }
+
+    @Test
+    public void noPoolingIfDisabled() {
+        params.setParameterValue("reuseInstances", false);
+        GameEvaluator evaluator = evaluator();
+        evaluator.evaluate(settings(0, 0, 0));
+        evaluator.evaluate(settings(1, 1, 0));
+        assertNull(evaluator.pooledGame);
+        assertTrue(evaluator.tunedPlayers.isEmpty());
+        assertTrue(evaluator.opponentPool.isEmpty());
+    }
+}
@@ -0,0 +1,149 @@
+package evaluation.optimisation;
+
+import evaluation.optimisation.ntbea.NTupleSystem;
+import evaluation.optimisation.ntbea.SearchSpace;
+import evaluation.optimisation.ntbea.SolutionEvaluator;
+import evaluation.optimisation.ntbea.functions.Branin;
+import evaluation.optimisation.ntbea.functions.FunctionSearchSpace;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Objects;
+
+import static org.junit.Assert.*;
+
+public class NTBEACheckpointTest {
+
+    File dir;
+    NTBEAParameters params;
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("ntbea").toFile();
+        params = new NTBEAParameters();
+        params.setParameterValue("iterations", 40);
+        params.setParameterValue("repeats", 3);
+        params.setParameterValue("evalGames", 5);
+        params.setParameterValue("matchups", 0);
+        params.setParameterValue("seed", 42);
+        params.searchSpace = new FunctionSearchSpace(5, new Branin());
+        params.destDir = dir.getPath();
+        params.logFile = "";
+        params.checkpointSeconds = 1;
+    }
+
+    @After
+    public void teardown() {
+        for (File file : Objects.requireNonNull(dir.listFiles()))
+            file.delete();
+        dir.delete();
+    }
+
+    static class CountingEvaluator implements SolutionEvaluator {
+        final SolutionEvaluator evaluator;
+        final int crashAfter;
+        int count;
+
+        CountingEvaluator(SolutionEvaluator evaluator, int crashAfter) {
+            this.evaluator = evaluator;
+            this.crashAfter = crashAfter;
+        }
+
+        @Override
+        public void reset() {
+            evaluator.reset();
+        }
+
+        @Override
+        public double evaluate(int[] solution) {
+            if (count++ == crashAfter)
+                throw new IllegalStateException("Crash");
+            return evaluator.evaluate(solution);
+        }
+
+        @Override
+        public SearchSpace searchSpace() {
+            return evaluator.searchSpace();
+        }
+
+        @Override
+        public int nEvals() {
+            return evaluator.nEvals();
+        }
+    }
+
+    private NTBEA ntbea(int crashAfter) {
+        NTBEA ntbea = new NTBEA(params, new Branin(), 5);
+        ntbea.evaluator = new CountingEvaluator(ntbea.evaluator, crashAfter);
+        ntbea.checkpointIntervalMs = 0;  // after every trial
+        return ntbea;
+    }
+
+    @Test
+    public void resumesFromTheTrialsInProgress() {
+        // each iteration is 40 trials, and then 5 evaluation games of the winner
+        NTBEA crashed = ntbea(45 + 20);
+        try {
+            crashed.run();
+            fail("Expected NTBEA to crash");
+        } catch (IllegalStateException e) {
+            // as expected
+        }
+        assertEquals(1, crashed.winnerSettings.size());
+        assertEquals(20, crashed.landscapeModel.numberOfSamples());
+
+        NTBEA resumed = ntbea(-1);
+        resumed.run();
+        // the rest of the second iteration, and all of the third
+        assertEquals(20 + 5 + 45, ((CountingEvaluator) resumed.evaluator).count);
+        assertEquals(3, resumed.winnerSettings.size());
+        assertArrayEquals(crashed.winnerSettings.get(0), resumed.winnerSettings.get(0));
+        assertEquals(40, resumed.landscapeModel.numberOfSamples());
+
+        // and once complete, the checkpoint is deleted, so running it again starts from the beginning
+        assertFalse(new File(dir, "NTBEA.checkpoint").exists());
+        NTBEA rerun = ntbea(-1);
+        rerun.run();
+        assertEquals(3 * 45, ((CountingEvaluator) rerun.evaluator).count);
+    }
+
+    @Test
+    public void checkpointForOtherSettingsIsNotUsed() {
+        try {
+            ntbea(45 + 20).run();
+            fail("Expected NTBEA to crash");
+        } catch (IllegalStateException e) {
+            // as expected
+        }
+        params.setParameterValue("iterations", 50);
+        try {
+            ntbea(-1).run();
+            fail("Expected the checkpoint to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("different settings"));
+        }
+    }
+
+    @Test
+    public void landscapeModelIsRestored() throws IOException {
+        NTupleSystem model = new NTupleSystem(params);
+        int[][] points = {{0, 1}, {2, 3}, {0, 3}, {4, 4}};
+        for (int i = 0; i < points.length; i++)
+            model.addPoint(points[i], i * 0.25);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        model.write(new DataOutputStream(bytes));
+
+        NTupleSystem restored = new NTupleSystem(params);
+        restored.addPoint(new int[]{1, 1}, 1.0);  // replaced by those read
+        restored.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(model.numberOfSamples(), restored.numberOfSamples());
+        assertArrayEquals(model.getBestSampled(), restored.getBestSampled());
+        for (int[] point : points) {
+            assertEquals(model.getMeanEstimate(point), restored.getMeanEstimate(point), 1e-12);
+            assertEquals(model.getUpperBound(point), restored.getUpperBound(point), 1e-12);
+        }
+    }
+}
@@ -62,6 +62,35 @@ public class TestRandomSeedsInTournaments {
         assertEquals(10, uniqueSeeds.size());
     }
 
+    @Test
+    public void testRandomSeedsInParallel() {
+        List<AbstractPlayer> players = List.of(new RandomPlayer(), new RandomPlayer(), new RandomPlayer());
+        String[] args = new String[] {
+                "mode=random", "matchups=40", "distinctRandomSeeds=0", "seed=35830953", "listener=\"\""
+        };
+        Map<RunArg, Object> config = RunArg.parseConfig(args, Collections.singletonList(RunArg.Usage.RunGames));
+        RoundRobinTournament sequential = new RoundRobinTournament(players, GameType.DotsAndBoxes, 2, null, config);
+        sequential.addListener(seedListener);
+        sequential.run();
+
+        // each thread has its own listener, and between them they should see the same games
+        List<SeedListener> listeners = Collections.synchronizedList(new ArrayList<>());
+        RoundRobinTournament parallel = new RoundRobinTournament(players, GameType.DotsAndBoxes, 2, null, config);
+        parallel.setParallel(4, () -> {
+            SeedListener listener = new SeedListener();
+            listeners.add(listener);
+            return List.of(listener);
+        });
+        parallel.run();
+        assertEquals(4, listeners.size());
+        List<Long> parallelSeeds = new ArrayList<>();
+        listeners.forEach(l -> parallelSeeds.addAll(l.seeds));
+        assertEquals(40, parallelSeeds.size());
+        assertEquals(new HashSet<>(seedListener.seeds), new HashSet<>(parallelSeeds));
+        for (int i = 0; i < players.size(); i++)
+            assertEquals(sequential.getNGamesPlayed()[i], parallel.getNGamesPlayed()[i]);
+    }
+
     @Test
     public void testRandomFixedSeeds() {
         List<AbstractPlayer> randomPlayer = Collections.singletonList(new RandomPlayer());
@@ -0,0 +1,170 @@
+package evaluation.tournaments;
+
+import core.AbstractPlayer;
+import evaluation.RunArg;
+import evaluation.tournamentSeeds.SeedListener;
+import games.GameType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.simple.FirstActionPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static players.PlayerConstants.BUDGET_ITERATIONS;
+
+public class TournamentCheckpointTest {
+
+    File dir;
+    String checkpointFile;
+    Map<RunArg, Object> config;
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("checkpoint").toFile();
+        checkpointFile = dir + File.separator + "Tournament.checkpoint";
+        config = RunArg.parseConfig(new String[]{}, Collections.singletonList(RunArg.Usage.RunGames));
+        config.put(RunArg.matchups, 60);
+        config.put(RunArg.destDir, dir.getPath());
+        config.put(RunArg.listener, new ArrayList<String>());
+    }
+
+    @After
+    public void teardown() {
+        for (File file : Objects.requireNonNull(dir.listFiles()))
+            file.delete();
+        dir.delete();
+    }
+
+    private List<AbstractPlayer> agents() {
+        // deterministic given their seeds, so that games that are played again have the same result
+        List<AbstractPlayer> agents = new ArrayList<>();
+        for (int seed = 1; seed <= 2; seed++) {
+            MCTSParams params = new MCTSParams();
+            params.setParameterValue("budgetType", BUDGET_ITERATIONS);
+            params.setParameterValue("budget", 10 * seed);
+            params.setParameterValue("rolloutLength", 10);
+            params.setParameterValue("randomSeed", seed);
+            agents.add(new MCTSPlayer(params, "MCTS" + seed));
+        }
+        agents.add(new FirstActionPlayer());
+        return agents;
+    }
+
+    // a null seed is not given, so the default is used
+    private RoundRobinTournament tournament(Long seed, SeedListener listener, int crashAfterMatchUps) {
+        config.put(RunArg.seed, seed == null ? RunArg.seed.defaultValue : seed);
+        RoundRobinTournament tournament = new RoundRobinTournament(agents(), GameType.TicTacToe, 2, null, config) {
+            int matchUps;
+
+            @Override
+            protected void evaluateMatchUp(List<Integer> agentIDsInThisGame, int nGames, List<Integer> seeds) {
+                if (matchUps++ == crashAfterMatchUps)
+                    throw new IllegalStateException("Crash");
+                super.evaluateMatchUp(agentIDsInThisGame, nGames, seeds);
+            }
+        };
+        tournament.addListener(listener);
+        return tournament;
+    }
+
+    private void checkResumedRunMatchesFullRun(String mode, int crashAfterMatchUps) {
+        config.put(RunArg.mode, mode);
+        SeedListener fullGames = new SeedListener();
+        RoundRobinTournament full = tournament(42L, fullGames, -1);
+        full.run();
+
+        SeedListener crashedGames = new SeedListener();
+        RoundRobinTournament crashed = tournament(42L, crashedGames, crashAfterMatchUps);
+        crashed.setCheckpoint(checkpointFile, 0);
+        try {
+            crashed.run();
+            fail("Expected the tournament to crash");
+        } catch (IllegalStateException e) {
+            // as expected
+        }
+        assertTrue(new File(checkpointFile).exists());
+
+        // with no seed given, it is taken from the checkpoint, and only the games not in it are played
+        SeedListener resumedGames = new SeedListener();
+        RoundRobinTournament resumed = tournament(null, resumedGames, -1);
+        resumed.setCheckpoint(checkpointFile, 0);
+        resumed.run();
+
+        assertFalse(crashedGames.seeds.isEmpty());
+        assertEquals(fullGames.seeds.subList(crashedGames.seeds.size(), fullGames.seeds.size()), resumedGames.seeds);
+        assertEquals(full.getTotalGamesRun(), resumed.getTotalGamesRun());
+        assertArrayEquals(full.getNGamesPlayed(), resumed.getNGamesPlayed());
+        for (int i = 0; i < full.getNumberOfAgents(); i++) {
+            assertEquals(full.getWinRate(i), resumed.getWinRate(i), 1e-9);
+            assertEquals(full.getOrdinalRank(i), resumed.getOrdinalRank(i), 1e-9);
+        }
+
+        // and once complete, the checkpoint is deleted, so running it again plays all the games
+        assertFalse(new File(checkpointFile).exists());
+        SeedListener rerunGames = new SeedListener();
+        RoundRobinTournament rerun = tournament(42L, rerunGames, -1);
+        rerun.setCheckpoint(checkpointFile, 0);
+        rerun.run();
+        assertEquals(fullGames.seeds, rerunGames.seeds);
+        assertFalse(new File(checkpointFile).exists());
+    }
+
+    @Test
+    public void randomModeResumes() {
+        checkResumedRunMatchesFullRun("random", 25);
+    }
+
+    @Test
+    public void exhaustiveModeResumes() {
+        checkResumedRunMatchesFullRun("exhaustive", 4);
+    }
+
+    @Test
+    public void adaptiveModeResumes() {
+        config.put(RunArg.adaptiveBatch, 4);
+        config.put(RunArg.adaptiveMinGames, 8);
+        checkResumedRunMatchesFullRun("adaptive", 9);
+    }
+
+    private void crashWithCheckpoint() {
+        config.put(RunArg.mode, "random");
+        RoundRobinTournament first = tournament(42L, new SeedListener(), 25);
+        first.setCheckpoint(checkpointFile, 0);
+        try {
+            first.run();
+            fail("Expected the tournament to crash");
+        } catch (IllegalStateException e) {
+            // as expected
+        }
+    }
+
+    private void checkCheckpointIsRejected(RoundRobinTournament other) {
+        other.setCheckpoint(checkpointFile, 0);
+        try {
+            other.run();
+            fail("Expected the checkpoint to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("different settings"));
+        }
+    }
+
+    @Test
+    public void checkpointForOtherSettingsIsNotUsed() {
+        crashWithCheckpoint();
+        config.put(RunArg.matchups, 30);
+        checkCheckpointIsRejected(tournament(42L, new SeedListener(), -1));
+    }
+
+    @Test
+    public void checkpointForAnotherGivenSeedIsNotUsed() {
+        crashWithCheckpoint();
+        checkCheckpointIsRejected(tournament(7L, new SeedListener(), -1));
+    }
+}
@@ -0,0 +1,214 @@
+package evaluation.tournaments;
+
+import evaluation.RunGames;
+import games.GameType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static evaluation.tournaments.TournamentCoordinator.*;
+import static org.junit.Assert.*;
+
+public class TournamentCoordinatorTest {
+
+    Path dir;
+    String[] args;
+    List<Thread> workerThreads = new ArrayList<>();
+
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("tournament");
+        Path players = Files.createDirectory(dir.resolve("players"));
+        for (int seed : new int[]{1, 2}) {
+            Files.writeString(players.resolve("mcts" + seed + ".json"), String.format("""
+                    {
+                        "class" : "players.mcts.MCTSParams",
+                        "budgetType" : "BUDGET_ITERATIONS",
+                        "budget" : %d,
+                        "rolloutLength" : 10,
+                        "randomSeed" : %d,
+                        "resetSeedEachGame" : true
+                    }""", 10 * seed, seed));
+        }
+        Files.writeString(players.resolve("first.json"), "{ \"class\" : \"players.simple.FirstActionPlayer\" }");
+        // no listeners, and anything else written goes to the temporary directory
+        args = new String[]{"game=TicTacToe", "nPlayers=2", "playerDirectory=" + players, "seed=42", "listener=",
+                "matchups=24", "destDir=" + dir.resolve("out")};
+    }
+
+    @After
+    public void teardown() throws IOException, InterruptedException {
+        for (Thread worker : workerThreads)
+            worker.join(10_000);
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private String runTournament(String mode, int workers, String... extraArgs) throws IOException {
+        String destDir = dir.resolve(mode + workers).toString();
+        List<String> allArgs = new ArrayList<>(List.of(args));
+        allArgs.removeIf(arg -> arg.startsWith("destDir=") || arg.startsWith("listener="));
+        allArgs.addAll(List.of("mode=" + mode, "destDir=" + destDir, "workers=" + workers));
+        allArgs.addAll(List.of(extraArgs));
+        if (allArgs.stream().noneMatch(arg -> arg.startsWith("listener=")))
+            allArgs.add("listener=");
+        RunGames.create(allArgs.toArray(new String[0])).run();
+        return Files.readString(Path.of(destDir, "TournamentResults.txt"));
+    }
+
+    /**
+     * @return the contents of each summary file written by the listeners, by its path under the mode directory
+     */
+    private Map<String, String> summaries(String mode, int workers) throws IOException {
+        Path modeDir = dir.resolve(mode + workers);
+        Map<String, String> retValue = new TreeMap<>();
+        try (Stream<Path> files = Files.walk(modeDir)) {
+            for (Path file : files.filter(f -> f.toString().contains("summaries") && Files.isRegularFile(f)).toList())
+                retValue.put(modeDir.relativize(file).toString(), Files.readString(file));
+        }
+        return retValue;
+    }
+
+    private void startWorker(TournamentCoordinator coordinator) {
+        Thread worker = new Thread(new TournamentWorker("localhost:" + coordinator.getPort()));
+        workerThreads.add(worker);
+        worker.start();
+    }
+
+    @Test
+    public void localWorkersGiveTheSameResultsAsOneProcess() throws IOException {
+        for (String mode : new String[]{"random", "exhaustive", "adaptive"}) {
+            String single = runTournament(mode, 0);
+            assertTrue(single.contains("games against"));
+            assertEquals(mode, single, runTournament(mode, 2));
+        }
+    }
+
+    @Test
+    public void listenerDataFromWorkersIsReportedAsInOneProcess() throws IOException {
+        String listener = "listener=metrics/MetricsGameListener.json";
+        runTournament("exhaustive", 0, listener);
+        runTournament("exhaustive", 2, listener, "gamesPerUnit=1");
+        Map<String, String> single = summaries("exhaustive", 0);
+        assertFalse(single.isEmpty());
+        assertEquals(single, summaries("exhaustive", 2));
+        try (Stream<Path> files = Files.list(dir.resolve("exhaustive2"))) {
+            assertTrue(files.noneMatch(f -> f.getFileName().toString().startsWith("worker-")));
+        }
+        // one row per game, with distinct game IDs
+        List<String> rows = Files.readAllLines(dir.resolve("exhaustive2").resolve("GAME_OVER.csv"));
+        assertEquals(24 + 1, rows.size());
+        int gameIDColumn = List.of(rows.get(0).split(",")).indexOf("GameID");
+        assertEquals(24, rows.stream().skip(1).map(row -> row.split(",")[gameIDColumn]).distinct().count());
+    }
+
+    @Test
+    public void matchUpsAreSplitIntoUnits() throws IOException {
+        // FirstActionPlayer and MCTS with resetSeedEachGame are the same in every game, however the games are shared out
+        for (String mode : new String[]{"exhaustive", "adaptive"})
+            assertEquals(mode, runTournament(mode, 0), runTournament(mode, 2, "gamesPerUnit=1"));
+    }
+
+    @Test
+    public void unitsFromLostWorkersAreRetried() throws InterruptedException {
+        try (TournamentCoordinator coordinator = new TournamentCoordinator(args)) {
+            CountDownLatch unitTaken = new CountDownLatch(1);
+            Thread lostWorker = new Thread(() -> {
+                // takes one unit, and then disconnects
+                try (Socket socket = new Socket("localhost", coordinator.getPort())) {
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    out.writeInt(MAGIC);
+                    out.flush();
+                    in.readInt();
+                    for (int i = in.readInt(); i > 0; i--)
+                        in.readUTF();
+                    assertEquals(UNIT, in.readByte());
+                    WorkUnit.read(in);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+                unitTaken.countDown();
+            });
+            lostWorker.start();
+
+            List<WorkUnit> units = new ArrayList<>();
+            for (int i = 0; i < 6; i++)
+                units.add(new WorkUnit(GameType.TicTacToe, 2, List.of(i % 3, (i + 1) % 3), List.of(i, i + 100)));
+            Thread batch = new Thread(() -> {
+                List<WorkResult> results = coordinator.run(units);
+                assertEquals(6, results.size());
+                for (WorkResult result : results) {
+                    assertEquals(2, result.outcomes().size());
+                    assertEquals(2, result.outcomes().get(0).nPlayers());
+                }
+            });
+            batch.start();
+            unitTaken.await();
+            startWorker(coordinator);
+            batch.join();
+            assertEquals(1, coordinator.getRetries());
+        }
+    }
+
+    @Test
+    public void unitsFromStuckWorkersAreRetried() throws InterruptedException {
+        try (TournamentCoordinator coordinator = new TournamentCoordinator(args)) {
+            coordinator.setGameTimeout(500);
+            CountDownLatch unitTaken = new CountDownLatch(1);
+            Thread stuckWorker = new Thread(() -> {
+                // takes one unit, and never replies; the coordinator then closes the connection
+                try (Socket socket = new Socket("localhost", coordinator.getPort())) {
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    out.writeInt(MAGIC);
+                    out.flush();
+                    in.readInt();
+                    for (int i = in.readInt(); i > 0; i--)
+                        in.readUTF();
+                    assertEquals(UNIT, in.readByte());
+                    WorkUnit.read(in);
+                    unitTaken.countDown();
+                    assertEquals(-1, in.read());
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            workerThreads.add(stuckWorker);
+            stuckWorker.start();
+
+            List<WorkUnit> units = List.of(new WorkUnit(GameType.TicTacToe, 2, List.of(0, 1), List.of(1, 2)));
+            Thread batch = new Thread(() -> assertEquals(1, coordinator.run(units).size()));
+            batch.start();
+            unitTaken.await();
+            startWorker(coordinator);
+            batch.join();
+            assertEquals(1, coordinator.getRetries());
+        }
+    }
+
+    @Test
+    public void unitsThatKeepFailingFailTheBatch() {
+        try (TournamentCoordinator coordinator = new TournamentCoordinator(args)) {
+            startWorker(coordinator);
+            // there is no agent 7
+            List<WorkUnit> units = List.of(new WorkUnit(GameType.TicTacToe, 2, List.of(0, 7), List.of(1)));
+            try {
+                coordinator.run(units);
+                fail("Expected the unit to fail");
+            } catch (AssertionError e) {
+                assertTrue(e.getMessage().contains("failed " + MAX_ATTEMPTS + " times"));
+            }
+            assertEquals(MAX_ATTEMPTS - 1, coordinator.getRetries());
+        }
+    }
+}
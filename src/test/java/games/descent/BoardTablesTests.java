@@ -0,0 +1,104 @@
+package games.descent;
+
+import core.actions.AbstractAction;
+import core.components.BoardNode;
+import core.components.GridBoard;
+import core.properties.PropertyInt;
+import games.descent2e.DescentForwardModel;
+import games.descent2e.DescentGameState;
+import games.descent2e.DescentHelper;
+import games.descent2e.DescentParameters;
+import games.descent2e.components.Figure;
+import games.descent2e.components.Monster;
+import org.junit.Before;
+import org.junit.Test;
+import utilities.LineOfSight;
+import utilities.Vector2D;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static core.CoreConstants.playersHash;
+import static org.junit.Assert.*;
+
+public class BoardTablesTests {
+
+    DescentGameState state;
+    DescentForwardModel fm = new DescentForwardModel();
+    Random rnd = new Random(31);
+
+    @Before
+    public void setup() {
+        state = new DescentGameState(new DescentParameters(), 2);
+        fm.setup(state);
+    }
+
+    private List<Figure> figuresOnBoard(DescentGameState dgs) {
+        List<Figure> figures = new ArrayList<>(dgs.getHeroes());
+        for (List<Monster> group : dgs.getMonsters())
+            figures.addAll(group);
+        figures.removeIf(f -> f.getPosition() == null);
+        return figures;
+    }
+
+    // Line of sight from first principles, walking the Bresenham line over the board nodes
+    private boolean referenceLineOfSight(GridBoard board, Vector2D startPoint, Vector2D endPoint) {
+        List<Vector2D> points = LineOfSight.bresenhamsLineAlgorithm(startPoint, endPoint);
+        int start = ((PropertyInt) board.getElement(startPoint.getX(), startPoint.getY()).getProperty(playersHash)).value;
+        int target = ((PropertyInt) board.getElement(endPoint.getX(), endPoint.getY()).getProperty(playersHash)).value;
+        for (int i = 1; i < points.size(); i++) {
+            BoardNode previous = board.getElement(points.get(i - 1).getX(), points.get(i - 1).getY());
+            BoardNode current = board.getElement(points.get(i).getX(), points.get(i).getY());
+            if (current == null || !previous.getNeighbours().containsKey(current))
+                return false;
+            int owner = ((PropertyInt) current.getProperty(playersHash)).value;
+            if (owner != -1 && i != points.size() - 1 && owner != target && owner != start)
+                return false;
+        }
+        return true;
+    }
+
+    @Test
+    public void lineOfSightMatchesBresenhamWalk() {
+        int visible = 0, checked = 0;
+        for (int step = 0; step < 100 && state.isNotTerminal(); step++) {
+            if (step % 20 == 0) {
+                GridBoard board = state.getMasterBoard();
+                for (Figure f : figuresOnBoard(state)) {
+                    for (int y = 0; y < board.getHeight(); y++) {
+                        for (int x = 0; x < board.getWidth(); x++) {
+                            if (board.getElement(x, y) == null) continue;
+                            Vector2D target = new Vector2D(x, y);
+                            boolean expected = referenceLineOfSight(board, f.getPosition(), target);
+                            assertEquals(f.getPosition() + " to " + target, expected, DescentHelper.hasLineOfSight(state, f.getPosition(), target));
+                            checked++;
+                            if (expected) visible++;
+                        }
+                    }
+                }
+            }
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        assertTrue(visible > 0 && visible < checked);
+    }
+
+    @Test
+    public void cachedMovementMatchesNewSearch() {
+        int moves = 0;
+        for (int step = 0; step < 200 && state.isNotTerminal(); step++) {
+            for (Figure f : figuresOnBoard(state)) {
+                List<AbstractAction> cached = DescentHelper.moveActions(state, f);
+                // the copy has no movement plans, so searches from scratch
+                DescentGameState copy = (DescentGameState) state.copy();
+                Figure copyFigure = (Figure) copy.getComponentById(f.getComponentID());
+                assertEquals(DescentHelper.moveActions(copy, copyFigure), cached);
+                moves += cached.size();
+            }
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        assertTrue(moves > 0);
+    }
+}
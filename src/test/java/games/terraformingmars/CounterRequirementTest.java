@@ -0,0 +1,86 @@
+package games.terraformingmars;
+
+import core.Game;
+import core.components.Counter;
+import games.GameType;
+import games.terraformingmars.rules.requirements.CounterRequirement;
+import org.junit.Before;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.EnumMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CounterRequirementTest {
+
+    TMGameState state;
+
+    @Before
+    public void setup() {
+        Game game = GameType.TerraformingMars.createGameInstance(2, 42);
+        game.reset(List.of(new RandomPlayer(), new RandomPlayer()));
+        state = (TMGameState) game.getGameState();
+    }
+
+    @Test
+    public void globalParameterThresholds() {
+        CounterRequirement minOxygen = new CounterRequirement("oxygen", 5, false);
+        CounterRequirement maxOxygen = new CounterRequirement("oxygen", 5, true);
+        assertFalse(minOxygen.testCondition(state));
+        assertTrue(maxOxygen.testCondition(state));
+        state.getGlobalParameters().get(TMTypes.GlobalParameter.Oxygen).setValue(6);
+        assertTrue(minOxygen.testCondition(state));
+        assertFalse(maxOxygen.testCondition(state));
+
+        // temperature thresholds are given in degrees, and converted to an index into the counter's values
+        CounterRequirement minTemperature = new CounterRequirement("temperature", -12, false);
+        Counter temperature = state.getGlobalParameters().get(TMTypes.GlobalParameter.Temperature);
+        assertFalse(minTemperature.testCondition(state));
+        int idx = 0;
+        while (temperature.getValues()[idx] != -12) idx++;
+        temperature.setValue(idx);
+        assertTrue(minTemperature.testCondition(state));
+        assertTrue(minTemperature.copy().testCondition((TMGameState) state.copy()));
+        temperature.setValue(idx - 1);
+        assertFalse(minTemperature.copy().testCondition(state));
+    }
+
+    @Test
+    public void resourceRequirementsAreForCurrentPlayer() {
+        state.getPlayerProduction()[0].get(TMTypes.Resource.Plant).setValue(3);
+        state.getPlayerProduction()[1].get(TMTypes.Resource.Plant).setValue(0);
+        CounterRequirement plantProduction = new CounterRequirement("Plantprod", 2, false);
+        CounterRequirement megaCredits = new CounterRequirement("MegaCredit", 10, false);
+        state.getPlayerResources()[0].get(TMTypes.Resource.MegaCredit).setValue(0);
+        state.getPlayerResources()[1].get(TMTypes.Resource.MegaCredit).setValue(20);
+
+        state.getTurnOrder().setTurnOwner(0);
+        assertTrue(plantProduction.testCondition(state));
+        assertFalse(megaCredits.testCondition(state));
+        state.getTurnOrder().setTurnOwner(1);
+        assertFalse(plantProduction.testCondition(state));
+        assertTrue(megaCredits.testCondition(state));
+        assertTrue(megaCredits.copy().testCondition((TMGameState) state.copy()));
+    }
+
+    @Test
+    public void copiesHaveTheirOwnCounters() {
+        TMGameState copy = (TMGameState) state.copy();
+        for (int p = 0; p < 2; p++) {
+            assertTrue(copy.getPlayerResources()[p] instanceof EnumMap);
+            assertEquals(state.getPlayerResources()[p], copy.getPlayerResources()[p]);
+            assertEquals(state.getPlayerResourceIncreaseGen()[p], copy.getPlayerResourceIncreaseGen()[p]);
+            assertEquals(state.getPlayerCardsPlayedTags()[p], copy.getPlayerCardsPlayedTags()[p]);
+        }
+        Counter heat = copy.getPlayerResources()[1].get(TMTypes.Resource.Heat);
+        heat.increment(5);
+        copy.getPlayerResourceIncreaseGen()[1].put(TMTypes.Resource.Heat, true);
+        copy.getGlobalParameters().get(TMTypes.GlobalParameter.OceanTiles).increment(1);
+        assertEquals(heat.getValue() - 5, state.getPlayerResources()[1].get(TMTypes.Resource.Heat).getValue());
+        assertFalse(state.getPlayerResourceIncreaseGen()[1].get(TMTypes.Resource.Heat));
+        assertNotEquals(state.getGlobalParameters().get(TMTypes.GlobalParameter.OceanTiles).getValue(),
+                copy.getGlobalParameters().get(TMTypes.GlobalParameter.OceanTiles).getValue());
+    }
+}
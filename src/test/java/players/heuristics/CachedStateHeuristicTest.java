@@ -0,0 +1,122 @@
+package players.heuristics;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.simple.RandomPlayer;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CachedStateHeuristicTest {
+
+    int calls;
+    IStateHeuristic counting = (state, player) -> {
+        calls++;
+        return state.getHeuristicScore(player);
+    };
+    AbstractGameState state;
+    AbstractForwardModel fm;
+
+    @Before
+    public void setup() {
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        game.reset(List.of(new RandomPlayer(), new RandomPlayer()));
+        state = game.getGameState();
+        fm = game.getForwardModel();
+    }
+
+    @Test
+    public void repeatedStatesAreEvaluatedOnce() {
+        CachedStateHeuristic cache = new CachedStateHeuristic(counting, 1.0);
+        double value = cache.evaluateState(state, 0);
+        assertEquals(value, cache.evaluateState(state.copy(), 0), 0.0);
+        cache.evaluateState(state, 1);
+        assertEquals(2, calls);
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(1.0 / 3.0, cache.hitRate(), 1e-9);
+
+        AbstractGameState next = state.copy();
+        fm.next(next, fm.computeAvailableActions(next).get(0));
+        cache.evaluateState(next, 0);
+        assertEquals(3, calls);
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        CachedStateHeuristic cache = new CachedStateHeuristic(counting, 0.01);
+        assertTrue(cache.capacity() * CachedStateHeuristic.BYTES_PER_SLOT <= 0.01 * 1024 * 1024);
+        assertTrue(cache.capacity() >= CachedStateHeuristic.BUCKET_SIZE);
+        // play many random games, so that entries have to be evicted
+        Random rnd = new Random(1);
+        for (int g = 0; g < 50; g++) {
+            AbstractGameState s = state.copy();
+            while (s.isNotTerminal()) {
+                List<AbstractAction> actions = fm.computeAvailableActions(s);
+                fm.next(s, actions.get(rnd.nextInt(actions.size())));
+                cache.evaluateState(s, 0);
+            }
+        }
+        assertTrue(cache.evictions() > 0);
+        assertEquals(calls, cache.misses());
+    }
+
+    @Test
+    public void noCollisionsWithFullZobristHash() {
+        CachedStateHeuristic cache = new CachedStateHeuristic(counting, 1.0);
+        cache.setCheckCollisions(true);
+        Random rnd = new Random(2);
+        for (int g = 0; g < 50; g++) {
+            AbstractGameState s = state.copy();
+            while (s.isNotTerminal()) {
+                List<AbstractAction> actions = fm.computeAvailableActions(s);
+                fm.next(s, actions.get(rnd.nextInt(actions.size())));
+                cache.evaluateState(s, s.getCurrentPlayer());
+            }
+        }
+        assertTrue(cache.hits() > 0);
+        assertEquals(0, cache.collisions());
+    }
+
+    @Test
+    public void playerParametersCreateOneCache() {
+        MCTSParams params = new MCTSParams();
+        assertSame(counting, params.cached(counting));
+        params.setParameterValue("heuristicCacheMB", 1.0);
+        IStateHeuristic cached = params.cached(counting);
+        assertTrue(cached instanceof CachedStateHeuristic);
+        assertSame(cached, params.cached(counting));
+        assertSame(cached, params.getHeuristicCache());
+        // a change of parameters starts a new cache
+        params.setParameterValue("budget", 100);
+        assertNotSame(cached, params.cached(counting));
+    }
+
+    @Test
+    public void mctsUsesCache() {
+        MCTSParams params = new MCTSParams();
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 200);
+        params.setParameterValue("rolloutLength", 0);
+        params.setParameterValue("heuristicCacheMB", 1.0);
+        params.setParameterValue("heuristic", counting);
+        MCTSPlayer player = new MCTSPlayer(params);
+        player.setForwardModel(fm);
+        player.getAction(state, fm.computeAvailableActions(state));
+        CachedStateHeuristic cache = player.getParameters().getHeuristicCache();
+        assertNotNull(cache);
+        assertTrue(cache.hits() > 0);
+        assertEquals(calls, cache.misses());
+    }
+}
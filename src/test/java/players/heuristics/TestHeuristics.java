@@ -16,8 +16,11 @@ import games.loveletter.features.LLStateFeaturesReduced;
 import org.junit.Before;
 import org.junit.Test;
 
+import core.AbstractGameState;
+
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class TestHeuristics {
@@ -97,6 +100,30 @@ public class TestHeuristics {
         assertEquals(1.0, logisticStateHeuristic.evaluateState(domState, 1), 0.01);
     }
 
+    @Test
+    public void testBatchStateEvaluationMatchesSingleEvaluation() {
+        double[] coefficients = new double[dominionFeaturedReduced.names().length + 1];
+        for (int i = 0; i < coefficients.length; i++)
+            coefficients[i] = 0.1 * (i - 3);
+        LogisticStateHeuristic heuristic = new LogisticStateHeuristic(dominionFeaturedReduced, coefficients, new WinOnlyHeuristic());
+        heuristic.interactions = new int[][]{{0, 1}, {1, 2, 3}};
+        heuristic.interactionCoefficients = new double[]{0.5, -0.25};
+
+        AbstractGameState secondState = domState.copy();
+        fm.next(secondState, new EndPhase(DominionGameState.DominionGamePhase.Play));
+        fm.next(secondState, new BuyCard(CardType.SILVER, 0));
+
+        List<AbstractGameState> states = List.of(domState, secondState);
+        double[][] batchValues = heuristic.evaluateStates(states);
+        assertEquals(2, batchValues.length);
+        for (int i = 0; i < states.size(); i++) {
+            double[] expected = new double[states.get(i).getNPlayers()];
+            for (int p = 0; p < expected.length; p++)
+                expected[p] = heuristic.evaluateState(states.get(i), p);
+            assertArrayEquals(expected, batchValues[i], 1e-9);
+        }
+    }
+
     @Test
     public void testActionHeuristicNonASF() {
         llState.getPlayerHandCards().get(0).clear();
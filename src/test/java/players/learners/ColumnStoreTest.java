@@ -0,0 +1,141 @@
+package players.learners;
+
+import core.interfaces.IStateFeatureVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ColumnStoreTest {
+
+    File first, second;
+    long oldThreshold = ColumnStore.MAPPED_THRESHOLD;
+
+    @Before
+    public void setup() throws IOException {
+        first = File.createTempFile("ColumnStoreTest", ".txt");
+        second = File.createTempFile("ColumnStoreTest", ".txt");
+        write(first, 0, 100);
+        write(second, 100, 100);
+    }
+
+    @After
+    public void cleanup() {
+        ColumnStore.MAPPED_THRESHOLD = oldThreshold;
+        first.delete();
+        second.delete();
+    }
+
+    private void write(File file, int start, int rows) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("Id\tName\tValue\tSquare\n");
+            for (int i = start; i < start + rows; i++)
+                writer.write(i + "\tRow" + i + "\t" + (i * 0.5) + "\t" + (i * i) + "\n");
+        }
+    }
+
+    @Test
+    public void loadsOnlyWantedColumns() {
+        try (ColumnStore store = ColumnStore.load("\t", List.of("Square", "Id", "Missing"), 0, new Random(0),
+                first.getPath(), second.getPath())) {
+            assertEquals(List.of("Id", "Name", "Value", "Square"), store.header());
+            assertEquals(List.of("Square", "Id"), store.names());
+            assertFalse(store.hasColumn("Value"));
+            assertEquals(-1, store.indexOf("Missing"));
+            assertEquals(200, store.rows());
+            assertFalse(store.isMapped());
+            for (int i = 0; i < 200; i++) {
+                assertEquals(i, store.get("Id", i), 0.0);
+                assertEquals(i * i, store.get(0, i), 0.0);
+            }
+            assertEquals(199.0, store.column("Id")[199], 0.0);
+        }
+    }
+
+    @Test
+    public void mappedStoreMatchesHeapStore() {
+        ColumnStore.MAPPED_THRESHOLD = 0;
+        try (ColumnStore store = ColumnStore.load("\t", List.of("Id", "Value"), 0, new Random(0),
+                first.getPath(), second.getPath())) {
+            assertTrue(store.isMapped());
+            assertEquals(200, store.rows());
+            for (int i = 0; i < 200; i++)
+                assertEquals(i * 0.5, store.get("Value", i), 0.0);
+        }
+    }
+
+    @Test
+    public void sampleIsDrawnFromAllFiles() {
+        try (ColumnStore store = ColumnStore.load("\t", List.of("Id", "Value"), 50, new Random(3),
+                first.getPath(), second.getPath())) {
+            assertEquals(50, store.rows());
+            boolean fromFirst = false, fromSecond = false;
+            for (int i = 0; i < store.rows(); i++) {
+                double id = store.get("Id", i);
+                assertEquals(id * 0.5, store.get("Value", i), 0.0);  // rows are kept intact
+                if (id < 100) fromFirst = true;
+                else fromSecond = true;
+            }
+            assertTrue(fromFirst);
+            assertTrue(fromSecond);
+        }
+    }
+
+    @Test
+    public void shortRowsAreSkipped() throws IOException {
+        try (FileWriter writer = new FileWriter(second, true)) {
+            writer.write("200\tRow200\n");
+        }
+        try (ColumnStore store = ColumnStore.load("\t", List.of("Id", "Square"), 0, new Random(0),
+                first.getPath(), second.getPath())) {
+            assertEquals(200, store.rows());
+        }
+    }
+
+    @Test
+    public void learnerReadsTheColumnsOfTheStore() throws IOException {
+        try (FileWriter writer = new FileWriter(first)) {
+            writer.write("Turn\tTotalTurns\tPlayerCount\tCurrentScore\tFinalScore\tValue\tSquare\n");
+            for (int i = 0; i < 10; i++)
+                writer.write(i + "\t10\t2\t0\t" + (i + 1) + "\t" + (i * 0.5) + "\t" + (i * i) + "\n");
+        }
+        IStateFeatureVector features = () -> new String[]{"Square", "Missing", "Value"};
+        AbstractLearner learner = new AbstractLearner(1.0, AbstractLearner.Target.SCORE, features) {
+            @Override
+            public Object learnFrom(String... files) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String name() {
+                return "Test";
+            }
+        };
+        learner.loadData(first.getPath());
+        try {
+            assertEquals(10, learner.rows());
+            double[][] columns = learner.designColumns();
+            assertEquals(4, columns.length);
+            double[] target = learner.targetColumn();
+            for (int i = 0; i < 10; i++) {
+                assertEquals(1.0, columns[0][i], 0.0);
+                // the features that are present come first, and the missing one is zero
+                assertArrayEquals(new double[]{i * i, i * 0.5, 0.0}, learner.features(i), 0.0);
+                assertEquals(i * i, columns[1][i], 0.0);
+                assertEquals(i * 0.5, columns[2][i], 0.0);
+                assertEquals(0.0, columns[3][i], 0.0);
+                assertEquals(i + 1, target[i], 0.0);
+            }
+        } finally {
+            learner.closeData();
+        }
+        assertNull(learner.data);
+    }
+}
@@ -0,0 +1,90 @@
+package players.learners;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GLMFeatureScorerTest {
+
+    static int n = 400;
+    Random rnd = new Random(17);
+    double[][] x = new double[n][4];  // bias and three features
+    double[][] linearTarget = new double[n][1];
+    double[][] binaryTarget = new double[n][1];
+    double[] interaction = new double[n];
+
+    @Before
+    public void setup() {
+        for (int i = 0; i < n; i++) {
+            x[i][0] = 1.0;
+            x[i][1] = rnd.nextGaussian();
+            x[i][2] = rnd.nextInt(5);
+            x[i][3] = rnd.nextDouble();
+            interaction[i] = x[i][1] * x[i][2];
+            double signal = 0.5 + x[i][1] - 0.3 * x[i][2] + 0.4 * interaction[i];
+            linearTarget[i][0] = signal + rnd.nextGaussian() * 0.5;
+            binaryTarget[i][0] = rnd.nextDouble() < 1.0 / (1.0 + Math.exp(-signal)) ? 1.0 : 0.0;
+        }
+    }
+
+    private double[][] withColumn(double[][] data, double[] column) {
+        double[][] retValue = new double[data.length][];
+        for (int i = 0; i < data.length; i++) {
+            retValue[i] = java.util.Arrays.copyOf(data[i], data[i].length + 1);
+            retValue[i][data[i].length] = column[i];
+        }
+        return retValue;
+    }
+
+    private double[][] withoutColumn(double[][] data, int column) {
+        double[][] retValue = new double[data.length][data[0].length - 1];
+        for (int i = 0; i < data.length; i++)
+            for (int j = 0, k = 0; j < data[i].length; j++)
+                if (j != column) retValue[i][k++] = data[i][j];
+        return retValue;
+    }
+
+    @Test
+    public void olsAdditionAndRemovalAreExact() {
+        GLMFeatureScorer scorer = new GLMFeatureScorer(x, linearTarget, false, 0.01);
+        double withInteraction = new GLMFeatureScorer(withColumn(x, interaction), linearTarget, false, 0.01).negLogLikelihood();
+        assertEquals(withInteraction, scorer.scoreAddition(interaction), 1e-6);
+        assertTrue(withInteraction < scorer.negLogLikelihood() - 10);
+
+        double withoutFirst = new GLMFeatureScorer(withoutColumn(x, 1), linearTarget, false, 0.01).negLogLikelihood();
+        assertEquals(withoutFirst, scorer.scoreRemoval(0), 1e-6);
+        assertTrue(withoutFirst > scorer.negLogLikelihood());
+    }
+
+    @Test
+    public void olsGeneralChangeIsExact() {
+        GLMFeatureScorer scorer = new GLMFeatureScorer(x, linearTarget, false, 0.0);
+        double[][] changed = withColumn(withoutColumn(x, 3), interaction);
+        double expected = new GLMFeatureScorer(changed, linearTarget, false, 0.0).negLogLikelihood();
+        assertEquals(expected, scorer.scoreChange(new int[]{2}, new double[][]{interaction}), 1e-6);
+    }
+
+    @Test
+    public void logisticStepsMatchRefit() {
+        GLMFeatureScorer scorer = new GLMFeatureScorer(x, binaryTarget, true, 0.01);
+        double withInteraction = new GLMFeatureScorer(withColumn(x, interaction), binaryTarget, true, 0.01).negLogLikelihood();
+        double estimate = scorer.scoreAddition(interaction);
+        assertTrue(estimate <= scorer.negLogLikelihood());
+        assertEquals(withInteraction, estimate, 1e-4);
+
+        double withoutFirst = new GLMFeatureScorer(withoutColumn(x, 1), binaryTarget, true, 0.01).negLogLikelihood();
+        assertEquals(withoutFirst, scorer.scoreRemoval(0), 1e-4);
+        assertEquals(withoutFirst, scorer.scoreChange(new int[]{0}, new double[0][]), 1e-3);
+    }
+
+    @Test
+    public void duplicateColumnGivesNoImprovement() {
+        GLMFeatureScorer scorer = new GLMFeatureScorer(x, linearTarget, false, 0.0);
+        double[] copy = new double[n];
+        for (int i = 0; i < n; i++) copy[i] = x[i][2];
+        assertEquals(scorer.negLogLikelihood(), scorer.scoreAddition(copy), 1e-6);
+    }
+}
@@ -0,0 +1,94 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DeterminisationPoolTests {
+
+    MCTSParams params;
+    AbstractGameState state;
+    AbstractForwardModel fm;
+
+    @Before
+    public void setUp() {
+        params = new MCTSParams();
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 100);
+        params.setParameterValue("information", MCTSEnums.Information.Information_Set);
+        Game game = GameType.Dominion.createGameInstance(2, 404);
+        game.reset(List.of(new MCTSPlayer(), new MCTSPlayer()));
+        state = game.getGameState();
+        fm = game.getForwardModel();
+        // move on to the first decision with a choice (the first action phase has nothing to play)
+        while (fm.computeAvailableActions(state).size() < 2)
+            fm.next(state, fm.computeAvailableActions(state).get(0));
+    }
+
+    private MCTSPlayer search() {
+        MCTSPlayer player = new MCTSPlayer(params);
+        player.setForwardModel(fm);
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        player.getAction(state, actions);
+        return player;
+    }
+
+    @Test
+    public void everyIterationRedeterminisesWithoutPool() {
+        MCTSPlayer player = search();
+        assertEquals(100, player.root.getVisits());
+        assertEquals(100, player.root.determinisations);
+    }
+
+    @Test
+    public void poolIsSampledOnce() {
+        params.setParameterValue("determinisationPool", 8);
+        MCTSPlayer player = search();
+        assertEquals(100, player.root.getVisits());
+        assertEquals(8, player.root.determinisations);
+        assertNull(player.root.determinisationPool);  // discarded at the end of the search
+    }
+
+    @Test
+    public void poolIsRefreshed() {
+        params.setParameterValue("determinisationPool", 8);
+        params.setParameterValue("determinisationRefresh", 10);
+        MCTSPlayer player = search();
+        assertEquals(100, player.root.getVisits());
+        assertEquals(8 + 10, player.root.determinisations);
+    }
+
+    @Test
+    public void backgroundPool() {
+        params.setParameterValue("determinisationPool", 8);
+        params.setParameterValue("determinisationBackground", true);
+        MCTSPlayer player = search();
+        assertEquals(100, player.root.getVisits());
+        // until the pool has some members the root is redeterminised directly
+        assertTrue(player.root.determinisations >= 1);
+        assertTrue(player.root.determinisations <= 8 + 100);
+    }
+
+    @Test
+    public void poolCyclesThroughDeterminisations() {
+        DeterminisationPool pool = new DeterminisationPool(state, 0, 3, 0, false);
+        assertEquals(3, pool.size());
+        AbstractGameState first = pool.nextState();
+        pool.nextState();
+        pool.nextState();
+        AbstractGameState fourth = pool.nextState();
+        assertNotSame(first, fourth);
+        assertEquals(first, fourth);  // copies of the same determinisation
+        assertEquals(3, pool.determinisations());
+        pool.close();
+    }
+}
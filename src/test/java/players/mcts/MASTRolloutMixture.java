@@ -53,8 +53,9 @@ public class MASTRolloutMixture {
         node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{1.0});
         node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{2.0});
 
-        assertEquals(new Pair<>(2, 3.0), node.MASTStatistics.get(0).get(new LMRAction("Left")));
-        assertNull(node.MASTStatistics.get(0).get(new LMRAction("Middle")));
+        assertEquals(2, node.MASTStatistics.visits(0, new LMRAction("Left")));
+        assertEquals(3.0, node.MASTStatistics.totalValue(0, new LMRAction("Left")), 1e-9);
+        assertEquals(0, node.MASTStatistics.visits(0, new LMRAction("Middle")));
 
         // Now check that the rollout policy uses the MAST statistics
         assertEquals(1.5, rolloutPlayer.valueOf(new LMRAction("Left"), game), 0.001);
@@ -87,8 +88,9 @@ public class MASTRolloutMixture {
         node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{1.0});
         node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{2.0});
 
-        assertEquals(new Pair<>(2, 3.0), node.MASTStatistics.get(0).get(new LMRAction("Left")));
-        assertNull(node.MASTStatistics.get(0).get(new LMRAction("Middle")));
+        assertEquals(2, node.MASTStatistics.visits(0, new LMRAction("Left")));
+        assertEquals(3.0, node.MASTStatistics.totalValue(0, new LMRAction("Left")), 1e-9);
+        assertEquals(0, node.MASTStatistics.visits(0, new LMRAction("Middle")));
 
         // Now check that the rollout policy uses the MAST statistics
         assertEquals(1.5, rolloutPlayer.valueOf(new LMRAction("Left"), game), 0.001);
@@ -127,8 +129,9 @@ public class MASTRolloutMixture {
         node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{1.0});
         node.updateMASTStatistics(actions, new ArrayList<>(), new double[]{2.0});
 
-        assertEquals(new Pair<>(2, 3.0), node.MASTStatistics.get(0).get(new LMRAction("Left")));
-        assertNull(node.MASTStatistics.get(0).get(new LMRAction("Middle")));
+        assertEquals(2, node.MASTStatistics.visits(0, new LMRAction("Left")));
+        assertEquals(3.0, node.MASTStatistics.totalValue(0, new LMRAction("Left")), 1e-9);
+        assertEquals(0, node.MASTStatistics.visits(0, new LMRAction("Middle")));
 
         // Now check that the rollout policy uses the MAST statistics
         assertEquals((1.5 + 47.0) / 2.0, rolloutPlayer.valueOf(new LMRAction("Left"), game), 0.001);
@@ -0,0 +1,122 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import org.junit.Before;
+import org.junit.Test;
+import utilities.Pair;
+import utilities.Utils;
+
+import static org.junit.Assert.*;
+
+public class MASTTableTest {
+
+    MASTTable table;
+
+    @Before
+    public void setup() {
+        table = new MASTTable(2);
+    }
+
+    @Test
+    public void updatesArePerPlayer() {
+        table.update(0, "A", 1.0);
+        table.update(0, "A", 2.0);
+        table.update(1, "A", -1.0);
+        assertEquals(2, table.visits(0, "A"));
+        assertEquals(3.0, table.totalValue(0, "A"), 1e-9);
+        assertEquals(1.5, table.mean(0, "A", 0.0), 1e-9);
+        assertEquals(1, table.visits(1, "A"));
+        assertEquals(0, table.visits(0, "B"));
+        assertEquals(0.7, table.mean(0, "B", 0.7), 1e-9);
+        assertEquals(1, table.size(0));
+    }
+
+    @Test
+    public void actionsAreCopiedWhenAdded() {
+        AbstractAction action = new LMRAction("Left");
+        table.update(0, action, 1.0);
+        assertEquals(1, table.visits(0, new LMRAction("Left")));
+        assertEquals(0, table.visits(0, new LMRAction("Right")));
+    }
+
+    @Test
+    public void tableGrows() {
+        for (int i = 0; i < 1000; i++)
+            table.update(1, i, i);
+        assertEquals(1000, table.size(1));
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i, table.totalValue(1, i), 1e-9);
+        assertEquals(0, table.size(0));
+    }
+
+    @Test
+    public void decayMatchesEagerDecay() {
+        double[] gammas = {0.5, 0.9, 0.75, 0.9, 0.99};
+        for (int i = 0; i < 20; i++)
+            table.update(0, i, i * 0.5);
+        Pair<Integer, Double>[] expected = new Pair[20];
+        for (int i = 0; i < 20; i++)
+            expected[i] = new Pair<>(table.visits(0, i), table.totalValue(0, i));
+        for (int g = 0; g < gammas.length; g++) {
+            table.decay(gammas[g]);
+            for (int i = 0; i < 20; i++) {
+                expected[i] = Utils.decay(expected[i], gammas[g]);
+                // some entries are brought up to date after each decay, others only at the end
+                if (i % 3 == 0 || g == gammas.length - 1) {
+                    assertEquals((int) expected[i].a, table.visits(0, i));
+                    assertEquals(expected[i].b, table.totalValue(0, i), 1e-9);
+                }
+            }
+            // and an update after the decay adds to the decayed statistics
+            table.update(0, 19, 1.0);
+            expected[19] = new Pair<>(expected[19].a + 1, expected[19].b + 1.0);
+        }
+        assertEquals((int) expected[19].a, table.visits(0, 19));
+    }
+
+    @Test
+    public void compactionDropsDecayedKeys() {
+        // each decision adds a new key, and the old ones decay away; the table should not keep all of them
+        for (int decision = 0; decision < 1000; decision++) {
+            table.decay(0.5);
+            table.update(0, decision, 1.0);
+            table.update(0, decision, 1.0);
+            table.update(0, "Common", 1.0);
+        }
+        assertTrue(table.size(0) < 20);
+        assertEquals(2, table.visits(0, 999));
+        assertEquals(1, table.visits(0, 998));
+        assertEquals(0, table.visits(0, 997));
+        assertEquals(1, table.visits(0, "Common"));
+    }
+
+    @Test
+    public void compactionKeepsValues() {
+        for (int i = 0; i < 50; i++)
+            for (int n = 0; n <= i; n++)
+                table.update(1, i, 2.0);
+        table.decay(0.9);
+        table.decay(0.8);
+        table.compact();
+        for (int i = 0; i < 50; i++) {
+            Pair<Integer, Double> expected = Utils.decay(Utils.decay(new Pair<>(i + 1, 2.0 * (i + 1)), 0.9), 0.8);
+            assertEquals((int) expected.a, table.visits(1, i));
+            assertEquals(expected.b, table.totalValue(1, i), 1e-9);
+        }
+        assertEquals(48, table.size(1));  // only the first two keys have decayed to zero
+        table.update(1, 0, 1.0);
+        assertEquals(1, table.visits(1, 0));
+    }
+
+    @Test
+    public void decayOutsideRangeDoesNothing() {
+        table.update(0, "A", 4.0);
+        table.update(0, "A", 4.0);
+        table.decay(1.0);
+        table.decay(-0.5);
+        assertEquals(2, table.visits(0, "A"));
+        table.decay(0.0);
+        assertEquals(0, table.visits(0, "A"));
+        assertEquals(0.0, table.totalValue(0, "A"), 1e-9);
+    }
+}
@@ -4,6 +4,7 @@ import core.AbstractPlayer;
 import core.Game;
 import evaluation.features.StateKeyFromFeatureVector;
 import evaluation.features.TurnAndPlayerOnly;
+import evaluation.features.ZobristStateKey;
 import games.GameType;
 import games.dotsboxes.*;
 import games.loveletter.LoveLetterParameters;
@@ -13,6 +14,7 @@ import org.junit.Before;
 import org.junit.Test;
 import players.PlayerConstants;
 import players.simple.RandomPlayer;
+import utilities.LongHashMap;
 
 import java.util.*;
 import java.util.function.Predicate;
@@ -136,6 +138,33 @@ public class MCGSTests {
     }
 
 
+    @Test
+    public void ZobristKeyDotsAndBoxes() {
+        // the Zobrist key is exact, so there should be no collisions; and it uses the primitive long map
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.MCGSStateKey = new ZobristStateKey();
+        params.MCGSCheckCollisions = true;
+        params.budget = 500;
+        Game game = createDotsAndBoxes(params);
+        int checks = 0;
+        do {
+            int p = game.getGameState().getCurrentPlayer();
+            game.oneAction();
+            if (p == 0) {
+                MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
+                if (root == null) continue;
+                assertTrue(root.getTranspositionMap() instanceof LongHashMap);
+                TreeStatistics stats = new TreeStatistics(root);
+                assertEquals(0, stats.mcgsKeyCollisions);
+                checks += stats.mcgsKeyChecks;
+                assertTrue(params.budget + 1 >= stats.totalNodes);
+                assertEquals(0, root.nonMatchingNodes(actionVisitsAddUp).size());
+            }
+        } while (game.getGameState().isNotTerminal());
+        // and transpositions were found
+        assertTrue(checks > 0);
+    }
+
     @Test
     public void OneIterationHasDepthOneForMCTS() {
         params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
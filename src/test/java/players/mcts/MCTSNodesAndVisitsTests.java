@@ -7,13 +7,18 @@ import games.dominion.DominionFGParameters;
 import games.dominion.DominionForwardModel;
 import games.dominion.DominionGameState;
 import games.dominion.DominionParameters;
+import games.dominion.metrics.DomStateFeaturesReduced;
 import org.junit.*;
 import players.PlayerConstants;
+import players.SearchProfiler;
+import players.heuristics.LogisticStateHeuristic;
+import players.heuristics.WinOnlyHeuristic;
 import players.simple.RandomPlayer;
 
 import java.util.*;
 
 import static org.junit.Assert.*;
+import static players.SearchProfiler.Phase.*;
 
 public class MCTSNodesAndVisitsTests {
 
@@ -94,6 +99,53 @@ public class MCTSNodesAndVisitsTests {
         runGame(game, 4, expectedNodes, errorMargin);
     }
 
+    @Test
+    public void batchedLeafEvaluation() {
+        // virtual losses must all be removed once the batch is backed up, so visit counts are unchanged
+        DomStateFeaturesReduced features = new DomStateFeaturesReduced();
+        double[] coefficients = new double[features.names().length + 1];
+        Arrays.fill(coefficients, 0.1);
+        params.heuristic = new LogisticStateHeuristic(features, coefficients, new WinOnlyHeuristic());
+        params.leafBatchSize = 8;
+        params.rolloutLength = 0;
+        Game game = createGame(params);
+        int[] expectedNodes = {200, 200, 200, 200};
+        int[] errorMargin = {10, 10, 10, 10};
+        runGame(game, 4, expectedNodes, errorMargin);
+    }
+
+    @Test
+    public void phaseProfiling() {
+        params.profileSampleRate = 1;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        SearchProfiler profiler = mctsPlayer.getProfiler();
+        // one selection, rollout and evaluation per iteration, and every call is timed
+        assertEquals(200, profiler.calls(Selection));
+        assertEquals(200, profiler.calls(Rollout));
+        assertEquals(200, profiler.calls(Heuristic));
+        assertEquals(200, profiler.samples(Selection));
+        assertEquals(200, Arrays.stream(profiler.histogram(Rollout)).sum());
+        assertTrue(profiler.meanNanos(Selection) > 0.0);
+        // Information_Set redeterminises (copies) the state at the start of every iteration
+        assertTrue(profiler.calls(Copy) >= 200);
+        assertTrue(profiler.calls(Expansion) > 0 && profiler.calls(Expansion) <= 200);
+        assertEquals(mctsPlayer.getRoot(0).fmCallsCount, profiler.calls(Next));
+
+        // with a lower sample rate everything is still counted, but only one in ten calls is timed
+        params.profileSampleRate = 10;
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        assertEquals(200, profiler.calls(Selection));
+        assertEquals(20, profiler.samples(Selection));
+        assertEquals((profiler.calls(Next) + 9) / 10, profiler.samples(Next));
+
+        params.profileSampleRate = 0;
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        assertFalse(profiler.isEnabled());
+        assertEquals(0, profiler.calls(Selection));
+    }
+
     @Test
     public void reducedDepth3MaxN() {
         params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
@@ -0,0 +1,106 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NodeBudgetTests {
+
+    MCTSParams params;
+    AbstractGameState state;
+    AbstractForwardModel fm;
+
+    @Before
+    public void setUp() {
+        params = new MCTSParams();
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 1000);
+        params.setParameterValue("rolloutLength", 10);
+        params.setParameterValue("randomSeed", 42);
+        Game game = GameType.Dominion.createGameInstance(2, 404);
+        game.reset(List.of(new MCTSPlayer(), new MCTSPlayer()));
+        state = game.getGameState();
+        fm = game.getForwardModel();
+        // move on to the first decision with a choice (the first action phase has nothing to play)
+        while (fm.computeAvailableActions(state).size() < 2)
+            fm.next(state, fm.computeAvailableActions(state).get(0));
+    }
+
+    private MCTSPlayer search() {
+        MCTSPlayer player = new MCTSPlayer(params);
+        player.setForwardModel(fm);
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        player.getAction(state, actions);
+        return player;
+    }
+
+    @Test
+    public void treeIsUnlimitedByDefault() {
+        MCTSPlayer player = search();
+        TreeStatistics stats = new TreeStatistics(player.root);
+        assertEquals(1000, player.root.getVisits());
+        assertEquals(stats.totalNodes, stats.peakNodes);
+        assertEquals(stats.totalNodes, player.root.treeSize);
+        assertEquals(0, stats.prunedNodes);
+        assertEquals(0, stats.pruneEvents);
+    }
+
+    @Test
+    public void treeIsPrunedToNodeBudget() {
+        params.setParameterValue("maxTreeNodes", 200);
+        MCTSPlayer player = search();
+        TreeStatistics stats = new TreeStatistics(player.root);
+        assertEquals(1000, player.root.getVisits());
+        assertTrue(stats.totalNodes <= 200);
+        assertEquals(stats.totalNodes, player.root.treeSize);
+        assertEquals(201, stats.peakNodes);
+        assertTrue(stats.pruneEvents > 1);
+        // each iteration adds one node, and the tree is pruned back to 150 each time it exceeds 200
+        assertEquals(1001 - stats.totalNodes, stats.prunedNodes);
+        // the statistics of the actions at the root are unaffected
+        assertEquals(1000, Arrays.stream(player.root.actionVisits()).sum());
+    }
+
+    @Test
+    public void budgetFromMemoryLimit() {
+        params.setParameterValue("maxTreeMB", 2.0);
+        params.setParameterValue("treeNodeKB", 10.0);
+        assertEquals(204, params.nodeBudget());
+        params.setParameterValue("maxTreeNodes", 100);
+        assertEquals(100, params.nodeBudget());
+        MCTSPlayer player = search();
+        assertTrue(new TreeStatistics(player.root).totalNodes <= 100);
+    }
+
+    @Test
+    public void reusedTreeIsCountedAndPruned() {
+        // with a SelfOnly tree, the subtree after our action is reused whatever the opponent does
+        params.setParameterValue("reuseTree", true);
+        params.setParameterValue("opponentTreePolicy", MCTSEnums.OpponentTreePolicy.SelfOnly);
+        MCTSPlayer player = new MCTSPlayer(params);
+        player.setForwardModel(fm);
+        int me = state.getCurrentPlayer();
+        fm.next(state, player.getAction(state, fm.computeAvailableActions(state)));
+        while (state.getCurrentPlayer() != me || fm.computeAvailableActions(state).size() < 2)
+            fm.next(state, fm.computeAvailableActions(state).get(0));
+
+        player.getParameters().setParameterValue("maxTreeNodes", 100);
+        player.getAction(state, fm.computeAvailableActions(state));
+        assertTrue(player.root.inheritedVisits > 0);
+        TreeStatistics stats = new TreeStatistics(player.root);
+        assertEquals(stats.totalNodes, player.root.treeSize);
+        assertTrue(stats.totalNodes <= 100);
+        assertTrue(stats.peakNodes > player.root.inheritedVisits);
+        assertTrue(stats.prunedNodes > 0);
+    }
+}
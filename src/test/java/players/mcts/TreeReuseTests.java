@@ -13,7 +13,6 @@ import games.dominion.cards.CardType;
 import games.tictactoe.TicTacToeForwardModel;
 import org.junit.Before;
 import org.junit.Test;
-import org.netlib.lapack.Dgetrf;
 import players.PlayerConstants;
 import players.simple.RandomPlayer;
 
@@ -124,6 +123,41 @@ public class TreeReuseTests {
         runGame();
     }
 
+    @Test
+    public void ponderedTreeIsGrafted() {
+        paramsOne.ponder = true;
+        paramsTwo.budget = 2000;  // to give the background thread some time
+        initialiseTicTacToe();
+        int totalPonderedVisits = 0;
+        do {
+            int currentPlayer = state.getCurrentPlayer();
+            boolean oneAction = fm.computeAvailableActions(state).size() == 1;
+            game.oneAction();
+            if (currentPlayer == 0 && !oneAction) {
+                SingleTreeNode root = playerOne.getRoot();
+                assertNull(root.parent);
+                assertEquals(0, root.decisionPlayer);
+                // the pondered visits are part of those reused, and the search then adds its budget
+                assertTrue(playerOne.ponderReusedVisits <= root.inheritedVisits);
+                assertEquals(paramsOne.budget + root.inheritedVisits, root.getVisits());
+                totalPonderedVisits += playerOne.ponderReusedVisits;
+            }
+        } while (state.isNotTerminal());
+        assertTrue(totalPonderedVisits > 0);
+        playerOne.finalizePlayer(state);
+        assertNull(playerOne.ponderThread);
+    }
+
+    @Test
+    public void noPonderingInCompetitionMode() {
+        paramsOne.ponder = true;
+        initialiseTicTacToe();
+        state.getCoreGameParameters().competitionMode = true;
+        game.oneAction();
+        assertNull(playerOne.ponderThread);
+        assertNull(playerOne.ponderRoot);
+    }
+
     @Test
     public void treeReusedWithSelfOnly() {
         paramsOne.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.SelfOnly;
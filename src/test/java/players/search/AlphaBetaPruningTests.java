@@ -9,6 +9,9 @@ import org.junit.Test;
 import players.PlayerConstants;
 import players.search.MaxNSearchPlayer.SearchResult;
 
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 public class AlphaBetaPruningTests {
@@ -144,6 +147,41 @@ public class AlphaBetaPruningTests {
     }
 
 
+    @Test
+    public void connect4Undo() {
+        // making and unmaking moves on one state must give exactly the same search values as copying it
+        Connect4GameState gameState = new Connect4GameState(new Connect4GameParameters(), 2);
+        forwardModel.setup(gameState);
+
+        MaxNSearchPlayer[] players = new MaxNSearchPlayer[2];
+        for (int i = 0; i < 2; i++) {
+            MaxNSearchParameters params = new MaxNSearchParameters();
+            params.useUndo = i == 1;
+            params.alphaBetaPruning = false;
+            params.budget = Integer.MAX_VALUE;
+            params.budgetType = PlayerConstants.BUDGET_TIME;
+            params.paranoid = true;
+            params.searchDepth = 3;
+            players[i] = new MaxNSearchPlayer(params);
+            players[i].setForwardModel(forwardModel);
+        }
+
+        Random rnd = new Random(3);
+        do {
+            int hash = gameState.hashCode();
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(gameState);
+            players[0].getAction(gameState, actions);
+            players[1].getAction(gameState, forwardModel.computeAvailableActions(gameState));
+            // the search must leave the state as it found it
+            assertEquals(hash, gameState.hashCode());
+            assertArrayEquals(players[0].getRootResult().value(), players[1].getRootResult().value(), 0.000001);
+            for (AbstractAction action : actions)
+                assertArrayEquals(players[0].getRootResult().allActionValues().get(action),
+                        players[1].getRootResult().allActionValues().get(action), 0.000001);
+            forwardModel.next(gameState, actions.get(rnd.nextInt(actions.size())));
+        } while (gameState.isNotTerminal());
+    }
+
     // should be called so that the expected faster agent is player2
     private void runGame(Connect4GameState gameState, MaxNSearchPlayer player1, MaxNSearchPlayer player2,
                          boolean checkIdenticalMoves, boolean checkPlayerOneSlower) {
@@ -0,0 +1,54 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LongHashMapTest {
+
+    @Test
+    public void behavesLikeHashMapUnderRandomOperations() {
+        Random rnd = new Random(23);
+        LongHashMap<Integer> map = new LongHashMap<>();
+        Map<Long, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            // a small key range so that there are plenty of updates, removals and probe chains
+            long key = rnd.nextInt(2000) * 0x100000001L;
+            switch (rnd.nextInt(3)) {
+                case 0 -> assertEquals(reference.put(key, i), map.put(key, Integer.valueOf(i)));
+                case 1 -> assertEquals(reference.remove(key), map.remove(key));
+                default -> assertEquals(reference.get(key), map.get(key));
+            }
+            assertEquals(reference.size(), map.size());
+        }
+        for (Map.Entry<Long, Integer> entry : reference.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey().longValue()));
+            assertEquals(entry.getValue(), map.get(entry.getKey().longValue()));
+        }
+        assertEquals(new HashMap<Object, Integer>(reference), new HashMap<>(map));
+    }
+
+    @Test
+    public void mapInterfaceUsesBoxedKeys() {
+        LongHashMap<String> map = new LongHashMap<>(4);
+        map.put(Long.valueOf(-7), "a");
+        map.put(Long.MIN_VALUE, "b");
+        map.put(0L, "c");
+        assertEquals("a", map.get(-7L));
+        assertEquals("b", map.get((Object) Long.MIN_VALUE));
+        assertEquals("c", map.get(0L));
+        assertNull(map.get("not a long"));
+        assertFalse(map.containsKey((Object) 7));
+        assertEquals(Set.of(-7L, Long.MIN_VALUE, 0L), new HashSet<>(map.keySet()));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonLongKeysAreRejected() {
+        new LongHashMap<String>().put("key", "value");
+    }
+}